@@ -25,6 +25,7 @@ import org.eclipse.tracecompass.statesystem.core.StateSystemBuilderUtils;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateValueTypeException;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.aspect.TmfCpuAspect;
+import org.eclipse.tracecompass.tmf.core.event.aspect.TmfEventAspectBinding;
 import org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.statesystem.ITmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
@@ -51,6 +52,7 @@ public class KernelContextSwitchStateProvider extends AbstractTmfStateProvider {
     private int fCpuAttributeQuark = STARTING_QUARK;
     private @Nullable ITmfStateSystemBuilder fStateSystemBuilder;
     private IKernelAnalysisEventLayout fLayout;
+    private final TmfEventAspectBinding fCpuAspect;
 
     /**
      * Default constructor
@@ -63,6 +65,7 @@ public class KernelContextSwitchStateProvider extends AbstractTmfStateProvider {
     public KernelContextSwitchStateProvider(ITmfTrace trace, IKernelAnalysisEventLayout layout) {
         super(trace, ID);
         fLayout = layout;
+        fCpuAspect = TmfTraceUtils.bindEventAspectOfClass(trace, TmfCpuAspect.class);
     }
 
     @Override
@@ -92,7 +95,7 @@ public class KernelContextSwitchStateProvider extends AbstractTmfStateProvider {
             fCpuAttributeQuark = stateSystemBuilder.getQuarkAbsoluteAndAdd(Attributes.CPUS);
         }
         if (event.getName().equals(fLayout.eventSchedSwitch())) {
-            Object cpuObj = TmfTraceUtils.resolveEventAspectOfClassForEvent(event.getTrace(), TmfCpuAspect.class, event);
+            Object cpuObj = fCpuAspect.resolve(event);
             if (cpuObj == null) {
                 /* We couldn't find any CPU information, ignore this event */
                 return;
@@ -28,6 +28,7 @@ import org.eclipse.tracecompass.statesystem.core.StateSystemBuilderUtils;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
 import org.eclipse.tracecompass.tmf.core.event.aspect.TmfCpuAspect;
+import org.eclipse.tracecompass.tmf.core.event.aspect.TmfEventAspectBinding;
 import org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
@@ -56,11 +57,13 @@ import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 public class KernelCpuUsageStateProvider extends AbstractTmfStateProvider {
 
     private static final int VERSION = 2;
+    private static final int UNKNOWN_CPU = -1;
 
     /* For each CPU, maps the last time a thread was scheduled in */
     private final Map<Integer, Long> fLastStartTimes = new HashMap<>();
     private final long fTraceStart;
     private final IKernelAnalysisEventLayout fLayout;
+    private final TmfEventAspectBinding fCpuAspect;
 
     /**
      * Constructor
@@ -74,6 +77,7 @@ public class KernelCpuUsageStateProvider extends AbstractTmfStateProvider {
         super(trace, "Kernel CPU usage"); //$NON-NLS-1$
         fTraceStart = trace.getStartTime().getValue();
         fLayout = layout;
+        fCpuAspect = TmfTraceUtils.bindEventAspectOfClass(trace, TmfCpuAspect.class);
     }
 
     // ------------------------------------------------------------------------
@@ -98,8 +102,8 @@ public class KernelCpuUsageStateProvider extends AbstractTmfStateProvider {
         final String eventName = event.getName();
 
         if (eventName.equals(fLayout.eventSchedSwitch())) {
-            Integer cpu = TmfTraceUtils.resolveIntEventAspectOfClassForEvent(event.getTrace(), TmfCpuAspect.class, event);
-            if (cpu == null) {
+            int cpu = fCpuAspect.resolveInt(event, UNKNOWN_CPU);
+            if (cpu == UNKNOWN_CPU) {
                 /* We couldn't find any CPU information, ignore this event */
                 return;
             }
@@ -115,7 +119,7 @@ public class KernelCpuUsageStateProvider extends AbstractTmfStateProvider {
 
             final ITmfStateSystemBuilder ss = checkNotNull(getStateSystemBuilder());
 
-            Integer currentCPUNode = ss.getQuarkRelativeAndAdd(getNodeCPUs(ss), cpu.toString());
+            Integer currentCPUNode = ss.getQuarkRelativeAndAdd(getNodeCPUs(ss), String.valueOf(cpu));
 
             /*
              * This quark contains the value of the cumulative time spent on
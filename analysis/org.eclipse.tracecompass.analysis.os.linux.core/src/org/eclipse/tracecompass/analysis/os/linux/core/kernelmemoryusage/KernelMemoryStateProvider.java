@@ -23,8 +23,11 @@ import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.statesystem.ITmfStateProvider;
+import org.eclipse.tracecompass.tmf.core.statesystem.TmfEventHandlerTable;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
+import com.google.common.collect.ImmutableMap;
+
 /**
  * Creates a state system and computes the total memory usage for all threads
  * and for each selected thread from a kernel trace. It examines the page
@@ -58,6 +61,9 @@ public class KernelMemoryStateProvider extends AbstractTmfStateProvider {
 
     private IKernelAnalysisEventLayout fLayout;
 
+    /* The memory increment of the page allocation and deallocation events */
+    private final TmfEventHandlerTable<Long> fIncrements;
+
     /**
      * Constructor
      *
@@ -69,6 +75,9 @@ public class KernelMemoryStateProvider extends AbstractTmfStateProvider {
     public KernelMemoryStateProvider(@NonNull ITmfTrace trace, IKernelAnalysisEventLayout layout) {
         super(trace, "Kernel:Memory"); //$NON-NLS-1$
         fLayout = layout;
+        fIncrements = new TmfEventHandlerTable<>(ImmutableMap.of(
+                layout.eventKmemPageAlloc(), (long) PAGE_SIZE,
+                layout.eventKmemPageFree(), (long) -PAGE_SIZE));
     }
 
     @Override
@@ -81,18 +90,18 @@ public class KernelMemoryStateProvider extends AbstractTmfStateProvider {
         return new KernelMemoryStateProvider(getTrace(), fLayout);
     }
 
+    @Override
+    protected TmfEventHandlerTable<Long> getEventHandlerTable() {
+        return fIncrements;
+    }
+
     @Override
     protected void eventHandle(@NonNull ITmfEvent event) {
-        String name = event.getName();
-
-        long inc;
-        if (name.equals(fLayout.eventKmemPageAlloc())) {
-            inc = PAGE_SIZE;
-        } else if (name.equals(fLayout.eventKmemPageFree())) {
-            inc = -PAGE_SIZE;
-        } else {
+        Long increment = fIncrements.getHandler(event);
+        if (increment == null) {
             return;
         }
+        long inc = increment;
 
         try {
             String fieldOrder = fLayout.fieldOrder();
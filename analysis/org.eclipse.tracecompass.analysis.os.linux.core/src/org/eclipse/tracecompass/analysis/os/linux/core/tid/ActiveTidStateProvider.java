@@ -22,6 +22,7 @@ import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateValueTypeException;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.aspect.TmfCpuAspect;
+import org.eclipse.tracecompass.tmf.core.event.aspect.TmfEventAspectBinding;
 import org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.statesystem.ITmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
@@ -49,17 +50,20 @@ class ActiveTidStateProvider extends AbstractTmfStateProvider {
 
     private static final @NonNull String PROVIDER_ID = "activeTidAnalysis.provider"; //$NON-NLS-1$
     private static final int VERSION = 0;
+    private static final int UNKNOWN_CPU = -1;
 
     private final Map<Integer, Integer> fCpuNumToQuark = new TreeMap<>();
     private final @NonNull String fSchedSwitch;
     private final @NonNull String fNextTid;
     private final @NonNull IKernelAnalysisEventLayout fLayout;
+    private final @NonNull TmfEventAspectBinding fCpuAspect;
 
     public ActiveTidStateProvider(@NonNull ITmfTrace trace, @NonNull IKernelAnalysisEventLayout layout) {
         super(trace, PROVIDER_ID);
         fSchedSwitch = layout.eventSchedSwitch();
         fNextTid = layout.fieldNextTid();
         fLayout = layout;
+        fCpuAspect = TmfTraceUtils.bindEventAspectOfClass(trace, TmfCpuAspect.class);
     }
 
     @Override
@@ -81,8 +85,8 @@ class ActiveTidStateProvider extends AbstractTmfStateProvider {
         if (ssb == null) {
             return;
         }
-        Integer cpu = TmfTraceUtils.resolveIntEventAspectOfClassForEvent(event.getTrace(), TmfCpuAspect.class, event);
-        if (cpu == null) {
+        int cpu = fCpuAspect.resolveInt(event, UNKNOWN_CPU);
+        if (cpu == UNKNOWN_CPU) {
             return;
         }
         Integer cpuQuark = fCpuNumToQuark.computeIfAbsent(cpu, cpuNum -> ssb.getQuarkAbsoluteAndAdd(NonNullUtils.nullToEmptyString(cpuNum)));
@@ -36,6 +36,7 @@ import org.eclipse.tracecompass.statesystem.core.exceptions.TimeRangeException;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
 import org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider;
+import org.eclipse.tracecompass.tmf.core.statesystem.TmfEventHandlerTable;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
 import com.google.common.collect.ImmutableMap;
@@ -80,7 +81,7 @@ public class InputOutputStateProvider extends AbstractTmfStateProvider {
     private static final int VERSION = 4;
 
     private final Map<Integer, DiskWriteModel> fDisks = new HashMap<>();
-    private final Map<String, KernelEventHandler> fEventNames;
+    private final TmfEventHandlerTable<KernelEventHandler> fEventHandlers;
     private final IKernelAnalysisEventLayout fLayout;
 
     private final KernelEventHandler fSysEntryHandler;
@@ -97,9 +98,9 @@ public class InputOutputStateProvider extends AbstractTmfStateProvider {
     public InputOutputStateProvider(ITmfTrace trace, IKernelAnalysisEventLayout layout) {
         super(trace, "Input Output Analysis");//$NON-NLS-1$
         fLayout = layout;
-        fEventNames = buildEventNames(layout);
         fSysEntryHandler = new SysEntryHandler(layout);
         fSysExitHandler = new SysExitHandler(layout);
+        fEventHandlers = new TmfEventHandlerTable<>(buildEventNames(layout), this::getSyscallHandler);
     }
 
     private Map<String, KernelEventHandler> buildEventNames(IKernelAnalysisEventLayout layout) {
@@ -129,6 +130,11 @@ public class InputOutputStateProvider extends AbstractTmfStateProvider {
         return new InputOutputStateProvider(this.getTrace(), this.fLayout);
     }
 
+    @Override
+    protected TmfEventHandlerTable<KernelEventHandler> getEventHandlerTable() {
+        return fEventHandlers;
+    }
+
     @Override
     protected void eventHandle(@Nullable ITmfEvent event) {
 
@@ -136,22 +142,13 @@ public class InputOutputStateProvider extends AbstractTmfStateProvider {
             return;
         }
 
-        final String eventName = event.getName();
-
         try {
             final ITmfStateSystemBuilder ss = NonNullUtils.checkNotNull(getStateSystemBuilder());
             /*
              * Feed event to the history system if it's known to cause a state
              * transition.
              */
-            KernelEventHandler handler = fEventNames.get(eventName);
-            if (handler == null) {
-                if (isSyscallExit(eventName)) {
-                    handler = fSysExitHandler;
-                } else if (isSyscallEntry(eventName)) {
-                    handler = fSysEntryHandler;
-                }
-            }
+            KernelEventHandler handler = fEventHandlers.getHandler(event);
             if (handler != null) {
                 handler.handleEvent(ss, event);
             }
@@ -172,6 +169,15 @@ public class InputOutputStateProvider extends AbstractTmfStateProvider {
         return fDisks.computeIfAbsent(deviceId, diskId -> new DiskWriteModel(diskId, checkNotNull(getStateSystemBuilder())));
     }
 
+    private @Nullable KernelEventHandler getSyscallHandler(String eventName) {
+        if (isSyscallExit(eventName)) {
+            return fSysExitHandler;
+        } else if (isSyscallEntry(eventName)) {
+            return fSysEntryHandler;
+        }
+        return null;
+    }
+
     private boolean isSyscallEntry(String eventName) {
         return (eventName.startsWith(fLayout.eventSyscallEntryPrefix())
                 || eventName.startsWith(fLayout.eventCompatSyscallEntryPrefix()));
@@ -45,6 +45,7 @@ import org.eclipse.tracecompass.statesystem.core.exceptions.StateValueTypeExcept
 import org.eclipse.tracecompass.statesystem.core.exceptions.TimeRangeException;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider;
+import org.eclipse.tracecompass.tmf.core.statesystem.TmfEventHandlerTable;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
 import com.google.common.collect.ImmutableMap;
@@ -93,7 +94,7 @@ public class KernelStateProvider extends AbstractTmfStateProvider {
     // Fields
     // ------------------------------------------------------------------------
 
-    private final Map<String, KernelEventHandler> fEventNames;
+    private final TmfEventHandlerTable<KernelEventHandler> fEventHandlers;
     private final IKernelAnalysisEventLayout fLayout;
 
     private final KernelEventHandler fSysEntryHandler;
@@ -115,10 +116,10 @@ public class KernelStateProvider extends AbstractTmfStateProvider {
     public KernelStateProvider(ITmfTrace trace, IKernelAnalysisEventLayout layout) {
         super(trace, "Kernel"); //$NON-NLS-1$
         fLayout = layout;
-        fEventNames = buildEventNames(layout);
 
         fSysEntryHandler = new SysEntryHandler(fLayout);
         fSysExitHandler = new SysExitHandler(fLayout);
+        fEventHandlers = new TmfEventHandlerTable<>(buildEventNames(layout), this::getSyscallHandler);
     }
 
     // ------------------------------------------------------------------------
@@ -175,28 +176,24 @@ public class KernelStateProvider extends AbstractTmfStateProvider {
         return new KernelStateProvider(this.getTrace(), fLayout);
     }
 
+    @Override
+    protected TmfEventHandlerTable<KernelEventHandler> getEventHandlerTable() {
+        return fEventHandlers;
+    }
+
     @Override
     protected void eventHandle(@Nullable ITmfEvent event) {
         if (event == null) {
             return;
         }
 
-        final String eventName = event.getName();
-
         try {
             final ITmfStateSystemBuilder ss = NonNullUtils.checkNotNull(getStateSystemBuilder());
             /*
              * Feed event to the history system if it's known to cause a state
              * transition.
              */
-            KernelEventHandler handler = fEventNames.get(eventName);
-            if (handler == null) {
-                if (isSyscallExit(eventName)) {
-                    handler = fSysExitHandler;
-                } else if (isSyscallEntry(eventName)) {
-                    handler = fSysEntryHandler;
-                }
-            }
+            KernelEventHandler handler = fEventHandlers.getHandler(event);
             if (handler != null) {
                 handler.handleEvent(ss, event);
             }
@@ -225,6 +222,15 @@ public class KernelStateProvider extends AbstractTmfStateProvider {
         }
     }
 
+    private @Nullable KernelEventHandler getSyscallHandler(String eventName) {
+        if (isSyscallExit(eventName)) {
+            return fSysExitHandler;
+        } else if (isSyscallEntry(eventName)) {
+            return fSysEntryHandler;
+        }
+        return null;
+    }
+
     private boolean isSyscallEntry(String eventName) {
         return (eventName.startsWith(fLayout.eventSyscallEntryPrefix())
                 || eventName.startsWith(fLayout.eventCompatSyscallEntryPrefix()));
@@ -20,6 +20,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.HashSet;
@@ -328,6 +329,81 @@ public class BufferedBlockingQueueTest {
         assertEquals(testString, sb.toString());
     }
 
+    /**
+     * Test taking the elements a chunk at a time with
+     * {@link BufferedBlockingQueue#drainTo}.
+     */
+    @Test
+    public void testDrainTo() {
+        String string = testString.substring(0, 222);
+        for (char elem : string.toCharArray()) {
+            charQueue.put(elem);
+        }
+        charQueue.flushInputBuffer();
+
+        List<Character> elements = new ArrayList<>();
+        assertEquals(0, charQueue.drainTo(elements, 0));
+        /* At most the rest of the current chunk is taken */
+        assertEquals(10, charQueue.drainTo(elements, 10));
+        assertEquals(5, charQueue.drainTo(elements, 100));
+        assertEquals(15, charQueue.drainTo(elements, 100));
+        assertEquals(222 - 30, charQueue.size());
+        while (!charQueue.isEmpty()) {
+            int count = charQueue.drainTo(elements, 100);
+            assertTrue(count > 0 && count <= 15);
+        }
+        assertEquals(string, elements.stream().map(String::valueOf).collect(Collectors.joining()));
+    }
+
+    /**
+     * Test handing the elements from one thread to another a chunk at a time
+     *
+     * @throws InterruptedException
+     *             The test was interrupted
+     */
+    @Test
+    public void testDrainToMultiThread() throws InterruptedException {
+        /* A character not found in the test string */
+        final Character lastElement = '%';
+
+        final StringBuilder sb = new StringBuilder();
+
+        Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                List<Character> elements = new ArrayList<>();
+                while (true) {
+                    elements.clear();
+                    charQueue.drainTo(elements, 15);
+                    for (Character c : elements) {
+                        if (c.equals(lastElement)) {
+                            return;
+                        }
+                        sb.append(c);
+                    }
+                }
+            }
+        };
+        consumer.start();
+
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                for (char c : testString.toCharArray()) {
+                    charQueue.put(c);
+                }
+                charQueue.put(lastElement);
+                charQueue.flushInputBuffer();
+            }
+        };
+        producer.start();
+
+        producer.join();
+        consumer.join();
+
+        assertEquals(testString, sb.toString());
+    }
+
     /**
      * Test the contents returned by {@link BufferedBlockingQueue#iterator()}.
      *
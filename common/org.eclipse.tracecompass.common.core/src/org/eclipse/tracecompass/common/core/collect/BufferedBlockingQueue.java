@@ -17,6 +17,7 @@ package org.eclipse.tracecompass.common.core.collect;
 
 import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 
+import java.util.Collection;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -38,8 +39,9 @@ import org.eclipse.tracecompass.internal.common.core.Activator;
  * into the output buffer, rather than individual elements.
  * <p>
  * The API provides usual put() and take() methods which work on single
- * elements. This class abstracts the concept of chunking, as well as the
- * required locking, from the users.
+ * elements, and a drainTo() method to take the elements of a chunk at once.
+ * This class abstracts the concept of chunking, as well as the required
+ * locking, from the users.
  * <p>
  * The main use case is for when different threads are doing insertion and
  * removal operations. The added buffering reduces the contention between those
@@ -178,21 +180,7 @@ public class BufferedBlockingQueue<T> implements Iterable<T> {
     public T take() {
         fOutputLock.lock();
         try {
-            if (fOutputBuffer.isEmpty()) {
-                /*
-                 * Our read buffer is empty, remove it from the queue and peek
-                 * the next buffer in the queue. The loop will block if the
-                 * inner queue is empty, releasing the lock while it waits.
-                 */
-                Deque<T> value = fInnerQueue.remove();
-                if (!value.isEmpty()) {
-                    Activator.instance().logError("Queue chunk not empty " + value); //$NON-NLS-1$
-                }
-                while (fInnerQueue.isEmpty()) {
-                    fInnerQueueNotEmpty.await();
-                }
-                fOutputBuffer = checkNotNull(fInnerQueue.peek());
-            }
+            waitForOutputBuffer();
             /* Our implementation guarantees this output buffer is not empty. */
             T element = checkNotNull(fOutputBuffer.remove());
             fSize.decrementAndGet();
@@ -207,6 +195,50 @@ public class BufferedBlockingQueue<T> implements Iterable<T> {
         }
     }
 
+    /**
+     * Retrieve and remove the elements at the head of the queue, up to a given
+     * number, and add them to a collection. This takes all the elements with a
+     * single locking of the queue, as long as they are in the same chunk.
+     * <p>
+     * If the output buffer is empty, this call will block until an element is
+     * inserted and fills the input buffer, or until the not-empty input buffer
+     * is otherwise manually flushed. Once at least one element is available,
+     * this does not wait for more elements.
+     *
+     * @param collection
+     *            The collection to add the elements to
+     * @param maxElements
+     *            The maximum number of elements to retrieve
+     * @return The number of elements added to the collection
+     * @since 5.3
+     */
+    public int drainTo(Collection<? super T> collection, int maxElements) {
+        if (maxElements <= 0) {
+            return 0;
+        }
+        fOutputLock.lock();
+        try {
+            waitForOutputBuffer();
+            /* The output buffer is not empty and only modified with the lock */
+            int count = 0;
+            T element = fOutputBuffer.poll();
+            while (element != null) {
+                collection.add(element);
+                count++;
+                element = (count < maxElements) ? fOutputBuffer.poll() : null;
+            }
+            fSize.addAndGet(-count);
+            return count;
+        } catch (InterruptedException e) {
+            Activator.instance().logError(BUFFERED_QUEUE_INTERRUPTED, e);
+            Thread.currentThread().interrupt();
+            // won't happen
+            throw new IllegalStateException(e);
+        } finally {
+            fOutputLock.unlock();
+        }
+    }
+
     /**
      * Retrieve, but do not remove, the head element of this queue.
      * <p>
@@ -220,21 +252,7 @@ public class BufferedBlockingQueue<T> implements Iterable<T> {
     public T blockingPeek() {
         fOutputLock.lock();
         try {
-            if (fOutputBuffer.isEmpty()) {
-                /*
-                 * Our read buffer is empty, remove it from the queue and peek
-                 * the next buffer in the queue. The loop will block if the
-                 * inner queue is empty, releasing the lock while it waits.
-                 */
-                Deque<T> value = fInnerQueue.remove();
-                if (!value.isEmpty()) {
-                    Activator.instance().logError("Queue chunk not empty " + value); //$NON-NLS-1$
-                }
-                while (fInnerQueue.isEmpty()) {
-                    fInnerQueueNotEmpty.await();
-                }
-                fOutputBuffer = checkNotNull(fInnerQueue.peek());
-            }
+            waitForOutputBuffer();
             /* Our implementation guarantees this output buffer is not empty. */
             return checkNotNull(fOutputBuffer.peek());
         } catch (InterruptedException e) {
@@ -247,6 +265,28 @@ public class BufferedBlockingQueue<T> implements Iterable<T> {
         }
     }
 
+    /**
+     * Make sure the output buffer is not empty, blocking until an element is
+     * available. Must be called with the output lock held.
+     */
+    private void waitForOutputBuffer() throws InterruptedException {
+        if (fOutputBuffer.isEmpty()) {
+            /*
+             * Our read buffer is empty, remove it from the queue and peek the
+             * next buffer in the queue. The loop will block if the inner queue
+             * is empty, releasing the lock while it waits.
+             */
+            Deque<T> value = fInnerQueue.remove();
+            if (!value.isEmpty()) {
+                Activator.instance().logError("Queue chunk not empty " + value); //$NON-NLS-1$
+            }
+            while (fInnerQueue.isEmpty()) {
+                fInnerQueueNotEmpty.await();
+            }
+            fOutputBuffer = checkNotNull(fInnerQueue.peek());
+        }
+    }
+
     /**
      * Returns true if the queue size is 0.
      *
@@ -18,6 +18,8 @@ import static org.junit.Assert.assertNotNull;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.tracecompass.ctf.core.CTFException;
@@ -30,10 +32,12 @@ import org.eclipse.tracecompass.ctf.core.event.types.StringDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDefinition;
 import org.eclipse.tracecompass.ctf.core.tests.shared.CtfTestTraceUtils;
+import org.eclipse.tracecompass.ctf.core.trace.CTFEventHeaders;
 import org.eclipse.tracecompass.ctf.core.trace.CTFResponse;
 import org.eclipse.tracecompass.ctf.core.trace.CTFStreamInput;
 import org.eclipse.tracecompass.ctf.core.trace.CTFStreamInputReader;
 import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
+import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
 import org.eclipse.tracecompass.ctf.core.trace.ICTFStream;
 import org.eclipse.tracecompass.internal.ctf.core.event.EventDeclaration;
 import org.eclipse.tracecompass.internal.ctf.core.event.EventDefinition;
@@ -231,4 +235,82 @@ public class CTFStreamInputReaderTest {
             fixture.setCurrentEvent(eventDefinition);
         }
     }
+
+    /**
+     * Test reading events again from their position, after the reader moved
+     * on, like a slim TMF event decoding its fields on demand.
+     *
+     * @throws CTFException
+     *             error
+     */
+    @Test
+    public void testReadEventAt() throws CTFException {
+        List<IEventDefinition> events = new ArrayList<>();
+        List<ICTFPacketDescriptor> packets = new ArrayList<>();
+        List<Long> positions = new ArrayList<>();
+        while (events.size() < 1000 && fixture.readNextEvent().equals(CTFResponse.OK)) {
+            IEventDefinition currentEvent = fixture.getCurrentEvent();
+            assertNotNull(currentEvent);
+            long position = fixture.getCurrentEventPosition();
+            if (position >= 0) {
+                events.add(currentEvent);
+                packets.add(fixture.getCurrentPacketReader().getCurrentPacket());
+                positions.add(position);
+            }
+        }
+        assertEquals(1000, events.size());
+        CTFStreamInput streamInput = fixture.getStreamInput();
+        for (int i = events.size() - 1; i >= 0; i--) {
+            IEventDefinition expected = events.get(i);
+            IEventDefinition actual = streamInput.readEventAt(packets.get(i), positions.get(i), expected.getTimestamp());
+            assertEquals(expected.getDeclaration().getName(), actual.getDeclaration().getName());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            assertEquals(String.valueOf(expected.getFields()), String.valueOf(actual.getFields()));
+        }
+    }
+
+    /**
+     * Test reading all the event headers of packets in bulk, they must match
+     * the events read one by one.
+     *
+     * @throws CTFException
+     *             error
+     */
+    @Test
+    public void testReadEventHeaders() throws CTFException {
+        List<ICTFPacketDescriptor> packets = new ArrayList<>();
+        List<List<IEventDefinition>> packetEvents = new ArrayList<>();
+        int nbEvents = 0;
+        while (nbEvents < 1000 && fixture.readNextEvent().equals(CTFResponse.OK)) {
+            IEventDefinition currentEvent = fixture.getCurrentEvent();
+            assertNotNull(currentEvent);
+            if (fixture.getCurrentEventPosition() < 0) {
+                continue;
+            }
+            ICTFPacketDescriptor packet = fixture.getCurrentPacketReader().getCurrentPacket();
+            if (packets.isEmpty() || packets.get(packets.size() - 1) != packet) {
+                packets.add(packet);
+                packetEvents.add(new ArrayList<>());
+            }
+            packetEvents.get(packetEvents.size() - 1).add(currentEvent);
+            nbEvents++;
+        }
+        assertEquals(1000, nbEvents);
+        CTFStreamInput streamInput = fixture.getStreamInput();
+        CTFTrace trace = streamInput.getStream().getTrace();
+        for (int i = 0; i < packets.size(); i++) {
+            CTFEventHeaders headers = streamInput.readEventHeaders(packets.get(i));
+            List<IEventDefinition> events = packetEvents.get(i);
+            if (i < packets.size() - 1) {
+                assertEquals(events.size(), headers.size());
+            }
+            long[] nanos = headers.getTimestampsNanos(trace);
+            for (int j = 0; j < events.size(); j++) {
+                IEventDefinition event = events.get(j);
+                assertEquals(event.getDeclaration().getId().intValue(), headers.getId(j));
+                assertEquals(event.getTimestamp(), headers.getTimestamp(j));
+                assertEquals(trace.timestampCyclesToNanos(event.getTimestamp()), nanos[j]);
+            }
+        }
+    }
 }
@@ -18,7 +18,10 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
+
 import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.CTFStrings;
 import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
 import org.eclipse.tracecompass.ctf.core.tests.shared.CtfTestTraceUtils;
 import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
@@ -300,6 +303,88 @@ public class CTFTraceReaderTest {
         assertTrue(result);
     }
 
+    /**
+     * Test that the event filter only lets the requested events and the lost
+     * events through, and that none of the requested events are missed.
+     *
+     * @throws CTFException
+     *             error
+     */
+    @Test
+    public void testEventFilter() throws CTFException {
+        final String eventName = "sched_switch";
+        long expected = 0;
+        fixture.seek(0);
+        IEventDefinition event = fixture.getCurrentEventDef();
+        while (event != null) {
+            if (eventName.equals(event.getDeclaration().getName())) {
+                expected++;
+            }
+            fixture.advance();
+            event = fixture.getCurrentEventDef();
+        }
+        assertTrue(expected > 0);
+
+        fixture.setEventFilter(Collections.singleton(eventName));
+        fixture.seek(0);
+        long count = 0;
+        event = fixture.getCurrentEventDef();
+        while (event != null) {
+            String name = event.getDeclaration().getName();
+            if (eventName.equals(name)) {
+                count++;
+            } else {
+                assertEquals(CTFStrings.LOST_EVENT_NAME, name);
+            }
+            fixture.advance();
+            event = fixture.getCurrentEventDef();
+        }
+        assertEquals(expected, count);
+    }
+
+    /**
+     * Test that reading with a time range still returns every event of the
+     * range, in order.
+     *
+     * @throws CTFException
+     *             error
+     */
+    @Test
+    public void testTimeRange() throws CTFException {
+        for (int i = 0; i < 10000; i++) {
+            fixture.advance();
+        }
+        long start = fixture.getCurrentEventDef().getTimestamp();
+        for (int i = 0; i < 10000; i++) {
+            fixture.advance();
+        }
+        long end = fixture.getCurrentEventDef().getTimestamp();
+        long expected = 0;
+        fixture.seek(start);
+        IEventDefinition event = fixture.getCurrentEventDef();
+        while (event != null && event.getTimestamp() <= end) {
+            expected++;
+            fixture.advance();
+            event = fixture.getCurrentEventDef();
+        }
+
+        fixture.setTimeRange(start, end);
+        fixture.seek(start);
+        long count = 0;
+        long last = Long.MIN_VALUE;
+        event = fixture.getCurrentEventDef();
+        while (event != null) {
+            assertTrue(event.getTimestamp() >= last);
+            last = event.getTimestamp();
+            if (last <= end) {
+                count++;
+            }
+            fixture.advance();
+            event = fixture.getCurrentEventDef();
+        }
+        assertEquals(expected, count);
+    }
+
     /**
      * @return
      */
@@ -14,11 +14,19 @@
 package org.eclipse.tracecompass.ctf.core.tests.trace;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.IOException;
 import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -34,7 +42,9 @@ import org.eclipse.tracecompass.ctf.core.trace.ICTFStream;
 import org.eclipse.tracecompass.ctf.core.trace.Metadata;
 import org.eclipse.tracecompass.testtraces.ctf.CtfTestTrace;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.google.common.collect.Iterables;
 
@@ -225,6 +235,22 @@ public class MetadataTest {
             + "};";
 
 
+    private static final String mdThirdStart = "    event {\n" +
+            "        name = third;\n" +
+            "        id = 2;\n";
+
+    private static final String mdThirdEnd = "        stream_id = 0;\n" +
+            "        fields := struct {\n" +
+            "            integer { size = 32; align = 8; signed = 1; encoding = none; base = 10; } value; /* }; */\n" +
+            "        };\n" +
+            "    };";
+
+    /**
+     * Temporary folder for the traces with growing metadata
+     */
+    @Rule
+    public TemporaryFolder fTempFolder = new TemporaryFolder();
+
     private Metadata fixture;
 
     /**
@@ -276,6 +302,59 @@ public class MetadataTest {
         assertEquals("bozo_the_clown", eventDeclarations.get(1).getName());
     }
 
+    /**
+     * Test that parsing the same metadata text a second time, which reuses the
+     * cached tree, gives the same declarations in a distinct trace.
+     *
+     * @throws CTFException
+     *             won't happen
+     */
+    @Test
+    public void testParseCachedText() throws CTFException {
+        CTFTrace first = testSingleFragment();
+        CTFTrace second = testSingleFragment();
+        assertFalse(first == second);
+        assertEquals(first.getUUID(), second.getUUID());
+        assertEquals(first.getEnvironment(), second.getEnvironment());
+        IEventDeclaration firstEvent = Iterables.getOnlyElement(first.getEventDeclarations(0L));
+        IEventDeclaration secondEvent = Iterables.getOnlyElement(second.getEventDeclarations(0L));
+        assertNotNull(firstEvent);
+        assertNotNull(secondEvent);
+        assertEquals(firstEvent.getName(), secondEvent.getName());
+        assertEquals(firstEvent.getFields().getFieldsList(), secondEvent.getFields().getFieldsList());
+    }
+
+    /**
+     * Test parsing metadata appended to the metadata file of an opened trace,
+     * including an incomplete declaration.
+     *
+     * @throws CTFException
+     *             won't happen
+     * @throws IOException
+     *             if the trace cannot be written
+     */
+    @Test
+    public void testParseAppendedMetadata() throws CTFException, IOException {
+        File traceDir = fTempFolder.newFolder();
+        Path metadataFile = traceDir.toPath().resolve("metadata");
+        Files.write(metadataFile, ("/* CTF 1.8 */\n" + mdStart + "\n").getBytes(Charset.defaultCharset()));
+        CTFTrace trace = new CTFTrace(traceDir);
+        assertEquals(1, trace.getEventDeclarations(0L).size());
+        assertFalse(trace.parseAppendedMetadata());
+
+        Files.write(metadataFile, (mdSecond + "\n" + mdThirdStart).getBytes(Charset.defaultCharset()), StandardOpenOption.APPEND);
+        assertTrue(trace.parseAppendedMetadata());
+        assertEquals(2, trace.getEventDeclarations(0L).size());
+        assertFalse(trace.parseAppendedMetadata());
+
+        Files.write(metadataFile, mdThirdEnd.getBytes(Charset.defaultCharset()), StandardOpenOption.APPEND);
+        assertTrue(trace.parseAppendedMetadata());
+        final List<IEventDeclaration> eventDeclarations = new ArrayList<>(trace.getEventDeclarations(0L));
+        assertEquals(3, eventDeclarations.size());
+        assertEquals("third", eventDeclarations.get(2).getName());
+        assertFalse(trace.parseAppendedMetadata());
+    }
+
     /**
      * Run the ByteOrder getDetectedByteOrder() method test.
      *
@@ -95,6 +95,20 @@ public interface IEventDeclaration {
      */
     ICTFStream getStream();
 
+    /**
+     * Gets the index of this event declaration among the event declarations of
+     * its trace. Unlike the ID, which is unique only within a stream, the index
+     * is unique in the trace and the indexes of a trace are dense, so they can
+     * be used as array indexes.
+     *
+     * @return The index of this event declaration, or -1 if it is not part of
+     *         a trace
+     * @since 5.1
+     */
+    default int getTypeIndex() {
+        return -1;
+    }
+
     /**
      * What is the log level of this event?
      *
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.trace;
+
+import java.util.Arrays;
+
+/**
+ * The ids and timestamps of all the events of a packet, read without decoding
+ * the event payloads. This is what indexing, histograms and event type
+ * filtering need, and it is stored in flat arrays so that it can be processed
+ * in tight loops.
+ *
+ * Lost events are not part of the packet data, so they are not included.
+ *
+ * @since 5.1
+ */
+public final class CTFEventHeaders {
+
+    private final int[] fIds;
+    private final long[] fTimestamps;
+    private final int fSize;
+
+    /**
+     * Constructor, the arrays are not copied
+     *
+     * @param ids
+     *            the event ids, at least <code>size</code> long
+     * @param timestamps
+     *            the full event timestamps in cycles, at least
+     *            <code>size</code> long
+     * @param size
+     *            the number of events
+     */
+    public CTFEventHeaders(int[] ids, long[] timestamps, int size) {
+        if (size < 0 || size > ids.length || size > timestamps.length) {
+            throw new IllegalArgumentException("Invalid size " + size); //$NON-NLS-1$
+        }
+        fIds = ids;
+        fTimestamps = timestamps;
+        fSize = size;
+    }
+
+    /**
+     * Get the number of events
+     *
+     * @return the number of events
+     */
+    public int size() {
+        return fSize;
+    }
+
+    /**
+     * Get the id of an event
+     *
+     * @param index
+     *            the index of the event in the packet
+     * @return the event id
+     */
+    public int getId(int index) {
+        checkIndex(index);
+        return fIds[index];
+    }
+
+    /**
+     * Get the timestamp of an event
+     *
+     * @param index
+     *            the index of the event in the packet
+     * @return the full timestamp, in cycles
+     */
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return fTimestamps[index];
+    }
+
+    /**
+     * Get the ids of all the events
+     *
+     * @return a copy of the event ids
+     */
+    public int[] getIds() {
+        return Arrays.copyOf(fIds, fSize);
+    }
+
+    /**
+     * Get the timestamps of all the events
+     *
+     * @return a copy of the full timestamps, in cycles
+     */
+    public long[] getTimestamps() {
+        return Arrays.copyOf(fTimestamps, fSize);
+    }
+
+    /**
+     * Get the timestamps of all the events converted to nanoseconds with the
+     * clock of a trace, see {@link CTFTrace#timestampCyclesToNanos(long[], int)}
+     *
+     * @param trace
+     *            the trace of the packet
+     * @return the timestamps, in nanoseconds
+     */
+    public long[] getTimestampsNanos(CTFTrace trace) {
+        long[] nanos = getTimestamps();
+        trace.timestampCyclesToNanos(nanos, nanos.length);
+        return nanos;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= fSize) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + fSize); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+}
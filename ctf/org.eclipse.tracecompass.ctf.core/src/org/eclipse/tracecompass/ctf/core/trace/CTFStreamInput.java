@@ -21,12 +21,14 @@ import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.StandardOpenOption;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
 import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
 import org.eclipse.tracecompass.ctf.core.event.scope.IDefinitionScope;
 import org.eclipse.tracecompass.ctf.core.event.scope.ILexicalScope;
@@ -39,6 +41,7 @@ import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDefinition;
 import org.eclipse.tracecompass.internal.ctf.core.CtfCoreLoggerUtil;
 import org.eclipse.tracecompass.internal.ctf.core.SafeMappedByteBuffer;
+import org.eclipse.tracecompass.internal.ctf.core.trace.CTFPacketReader;
 import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputPacketIndex;
 import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputPacketIndexEntry;
 import org.eclipse.tracecompass.internal.ctf.core.utils.JsonMetadataStrings;
@@ -410,6 +413,72 @@ public class CTFStreamInput implements IDefinitionScope {
         return fFile;
     }
 
+    /**
+     * Get the descriptors of the packets of this stream input that were
+     * indexed so far. All the packets are indexed once the stream input was
+     * read to its end.
+     *
+     * @return the packet descriptors, in file order
+     * @since 5.1
+     */
+    public List<ICTFPacketDescriptor> getIndexedPackets() {
+        return fIndex.getElements();
+    }
+
+    /**
+     * Read again a single event of this stream input, for instance to decode
+     * the fields of an event that was read before without keeping its
+     * definition in memory.
+     *
+     * @param packet
+     *            the descriptor of the packet containing the event
+     * @param position
+     *            the position of the event in the packet, in bits, see
+     *            {@link CTFStreamInputReader#getCurrentEventPosition()}
+     * @param timestamp
+     *            the timestamp of the event, in cycles
+     * @return the event definition
+     * @throws CTFException
+     *             if the event cannot be read
+     * @since 5.1
+     */
+    public IEventDefinition readEventAt(ICTFPacketDescriptor packet, long position, long timestamp) throws CTFException {
+        try (FileChannel fc = FileChannel.open(fFile.toPath(), StandardOpenOption.READ)) {
+            return createPacketReader(fc, packet).readEventAt(position, timestamp);
+        } catch (IOException e) {
+            throw new CTFIOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read the ids and timestamps of all the events of a packet in one pass,
+     * without decoding the event payloads when their size is fixed. This is
+     * much cheaper than reading the events when only their types and times
+     * are needed.
+     *
+     * @param packet
+     *            the descriptor of the packet to read
+     * @return the event ids and timestamps, in cycles
+     * @throws CTFException
+     *             if the packet cannot be read
+     * @since 5.1
+     */
+    public CTFEventHeaders readEventHeaders(ICTFPacketDescriptor packet) throws CTFException {
+        try (FileChannel fc = FileChannel.open(fFile.toPath(), StandardOpenOption.READ)) {
+            return createPacketReader(fc, packet).readEventHeaders();
+        } catch (IOException e) {
+            throw new CTFIOException(e.getMessage(), e);
+        }
+    }
+
+    private CTFPacketReader createPacketReader(FileChannel fc, ICTFPacketDescriptor packet) throws CTFException, IOException {
+        BitBuffer bitBuffer = new BitBuffer(getByteBufferAt(fc, packet.getOffsetBytes(), (packet.getContentSizeBits() + Byte.SIZE - 1) / Byte.SIZE));
+        bitBuffer.position(packet.getPayloadStartBits());
+        ICTFStream stream = getStream();
+        CTFTrace trace = stream.getTrace();
+        return new CTFPacketReader(bitBuffer, packet, stream.getEventDeclarations(), stream.getEventHeaderDeclaration(), stream.getEventContextDecl(), trace.getPacketHeaderDef(), trace);
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
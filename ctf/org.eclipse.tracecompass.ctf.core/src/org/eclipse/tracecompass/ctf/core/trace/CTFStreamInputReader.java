@@ -20,6 +20,8 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -32,6 +34,7 @@ import org.eclipse.tracecompass.ctf.core.event.types.IDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
 import org.eclipse.tracecompass.internal.ctf.core.CtfCoreLoggerUtil;
 import org.eclipse.tracecompass.internal.ctf.core.SafeMappedByteBuffer;
+import org.eclipse.tracecompass.internal.ctf.core.event.LostEventDeclaration;
 import org.eclipse.tracecompass.internal.ctf.core.trace.CTFPacketReader;
 import org.eclipse.tracecompass.internal.ctf.core.trace.NullPacketReader;
 
@@ -83,6 +86,21 @@ public class CTFStreamInputReader implements AutoCloseable {
      */
     private boolean fLive = false;
 
+    /**
+     * Ids of the events to read, null to read them all
+     */
+    private @Nullable BitSet fEventFilter = null;
+
+    /**
+     * Packets ending before this time (in cycles) are not read
+     */
+    private long fRangeStart = Long.MIN_VALUE;
+
+    /**
+     * Packets starting after this time (in cycles) are not read
+     */
+    private long fRangeEnd = Long.MAX_VALUE;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -141,7 +159,9 @@ public class CTFStreamInputReader implements AutoCloseable {
             bitBuffer.position(packet.getPayloadStartBits());
             IDeclaration eventHeaderDeclaration = getStreamInput().getStream().getEventHeaderDeclaration();
             CTFTrace trace = getStreamInput().getStream().getTrace();
-            ctfPacketReader = new CTFPacketReader(bitBuffer, packet, getEventDeclarations(), eventHeaderDeclaration, getStreamEventContextDecl(), trace.getPacketHeaderDef(), trace);
+            CTFPacketReader packetReader = new CTFPacketReader(bitBuffer, packet, getEventDeclarations(), eventHeaderDeclaration, getStreamEventContextDecl(), trace.getPacketHeaderDef(), trace);
+            packetReader.setEventFilter(fEventFilter);
+            ctfPacketReader = packetReader;
         }
         return ctfPacketReader;
     }
@@ -235,10 +255,13 @@ public class CTFStreamInputReader implements AutoCloseable {
         return fStreamInput.getFilename();
     }
 
-    /*
-     * for internal use only
+    /**
+     * Gets the stream input being read
+     *
+     * @return The stream input
+     * @since 5.1
      */
-    CTFStreamInput getStreamInput() {
+    public CTFStreamInput getStreamInput() {
         return fStreamInput;
     }
 
@@ -271,6 +294,68 @@ public class CTFStreamInputReader implements AutoCloseable {
         return fLive;
     }
 
+    /**
+     * Only read the events with the given names. Events of other types are
+     * skipped, without decoding their payload when its size is fixed. Lost
+     * events are always read. The filter applies to the packets read after
+     * this call, so it should be followed by a seek.
+     *
+     * @param eventNames
+     *            the names of the events to read, or null to read all events
+     * @since 5.1
+     */
+    public void setEventFilter(@Nullable Collection<String> eventNames) {
+        if (eventNames == null) {
+            fEventFilter = null;
+            return;
+        }
+        BitSet eventIds = new BitSet();
+        List<@Nullable IEventDeclaration> declarations = getEventDeclarations();
+        for (int i = 0; i < declarations.size(); i++) {
+            IEventDeclaration declaration = declarations.get(i);
+            if (declaration != null && eventNames.contains(declaration.getName())) {
+                eventIds.set(i);
+            }
+        }
+        fEventFilter = eventIds;
+    }
+
+    /**
+     * Restrict reading to the packets that overlap a time range. The packet
+     * index is used to skip the packets that end before the start time, and
+     * the stream is considered finished at the first packet that begins after
+     * the end time. Events outside the range but in an overlapping packet are
+     * still read. Like the event filter, this should be followed by a seek.
+     *
+     * @param start
+     *            the start of the range in cycles
+     * @param end
+     *            the end of the range in cycles
+     * @since 5.1
+     */
+    public void setTimeRange(long start, long end) {
+        fRangeStart = start;
+        fRangeEnd = end;
+    }
+
+    /**
+     * Get the position of the current event in its packet, in bits. With the
+     * current packet, it can be used to read the event again with
+     * {@link CTFStreamInput#readEventAt(ICTFPacketDescriptor, long, long)}.
+     *
+     * @return the position of the current event, or -1 if the current event
+     *         is not read from the packet data, like lost events
+     * @since 5.1
+     */
+    public long getCurrentEventPosition() {
+        IEventDefinition currentEvent = fCurrentEvent;
+        IPacketReader packetReader = fPacketReader;
+        if (currentEvent == null || !(packetReader instanceof CTFPacketReader) || currentEvent.getDeclaration() instanceof LostEventDeclaration) {
+            return -1;
+        }
+        return ((CTFPacketReader) packetReader).getLocation();
+    }
+
     /**
      * Get the event context of the stream
      *
@@ -293,6 +378,7 @@ public class CTFStreamInputReader implements AutoCloseable {
     public CTFResponse readNextEvent() throws CTFException {
 
         try {
+            skipFilteredEvents();
             /*
              * Change packet if needed
              */
@@ -305,6 +391,7 @@ public class CTFStreamInputReader implements AutoCloseable {
                     break;
                 }
                 goToNextPacket();
+                skipFilteredEvents();
             }
 
             /*
@@ -321,6 +408,13 @@ public class CTFStreamInputReader implements AutoCloseable {
         }
     }
 
+    private void skipFilteredEvents() throws CTFException {
+        IPacketReader packetReader = fPacketReader;
+        if (fEventFilter != null && packetReader instanceof CTFPacketReader) {
+            ((CTFPacketReader) packetReader).skipFilteredEvents();
+        }
+    }
+
     /**
      * Change the current packet of the packet reader to the next one.
      *
@@ -328,19 +422,27 @@ public class CTFStreamInputReader implements AutoCloseable {
      *             if an error occurs
      */
     private void goToNextPacket() throws CTFException {
-        fPacketIndex++;
-        // did we already index the packet?
-        while (getPacketSize() < (fPacketIndex + 1)) {
-            // go to the next packet if there is one, index it at the same time
-            if (fStreamInput.addPacketHeaderIndex()) {
-                fPacketIndex = getPacketSize() - 1;
-            } else {
-                fPacketReader = NullPacketReader.INSTANCE;
-                return;
-            }
+        ICTFPacketDescriptor packet;
+        do {
+            fPacketIndex++;
+            // did we already index the packet?
+            while (getPacketSize() < (fPacketIndex + 1)) {
+                // go to the next packet if there is one, index it at the same time
+                if (fStreamInput.addPacketHeaderIndex()) {
+                    fPacketIndex = getPacketSize() - 1;
+                } else {
+                    fPacketReader = NullPacketReader.INSTANCE;
+                    return;
+                }
 
+            }
+            packet = getPacket();
+            /* Skip the packets that end before the time range, without mapping them */
+        } while (packet != null && !fLive && packet.getTimestampEnd() < fRangeStart);
+        if (packet != null && !fLive && packet.getTimestampBegin() > fRangeEnd) {
+            fPacketReader = NullPacketReader.INSTANCE;
+            return;
         }
-        ICTFPacketDescriptor packet = getPacket();
         fPacketReader = getCurrentPacketReader(packet);
     }
 
@@ -118,11 +118,11 @@ public class CTFStreamOutputWriter {
                     initialLost = (long) entry.getAttributes().getOrDefault(CTFStrings.EVENTS_DISCARDED, 0L);
                 }
                 if (startTime <= packetStart && endTime >= packetEnd) {
-                    // MUCH faster
-                    fStreamPacketOutputWriter.writePacket(entry, fc, initialLost);
+                    // MUCH faster, the events are not decoded
+                    fStreamPacketOutputWriter.writePacket(entry, source, fc, initialLost);
                     count++;
                 } else if (startTime <= packetEnd && endTime >= packetStart) {
-                    fStreamPacketOutputWriter.writePacket(entry, startTime, endTime, initialLost, fc);
+                    fStreamPacketOutputWriter.writePacket(entry, startTime, endTime, initialLost, source, fc);
                     count++;
                 } else if (entry.getTimestampBegin() > endTime) {
                     break;
@@ -101,35 +101,28 @@ public class CTFStreamPacketOutputWriter {
      * @since 3.0
      */
     public void writePacket(ICTFPacketDescriptor entry, FileChannel output, long initialLost) throws IOException, CTFException {
-        long startOffsetBits = entry.getPayloadStartBits();
-        long endOffsetBits = entry.getContentSizeBits();
-        StructDefinition context = null;
         File file = fStreamInput.getFile();
         try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ);) {
-            ByteBuffer bb = SafeMappedByteBuffer.map(fc, FileChannel.MapMode.READ_ONLY, entry.getOffsetBytes(), (long) Math.ceil(entry.getContentSizeBits() / (double) Byte.SIZE));
-            BitBuffer bbInput = new BitBuffer(bb);
-            bbInput.position(entry.getPayloadStartBits());
-            ICTFStream stream = fStreamInput.getStream();
-            CTFTrace trace = stream.getTrace();
-            CTFPacketReader currentPacketReader = new CTFPacketReader(
-                    bbInput,
-                    entry,
-                    stream.getEventDeclarations(),
-                    stream.getEventHeaderDeclaration(),
-                    stream.getEventContextDecl(),
-                    trace.getPacketHeaderDef(),
-                    trace);
-            if (entry instanceof StreamInputPacketIndexEntry) {
-                context = ((StreamInputPacketIndexEntry) entry).getStreamPacketContextDef();
-            }
-            if (context == null) {
-                return;
-            }
-            ICompositeDefinition tracePacketHeader = currentPacketReader.getTracePacketHeader();
-            writeCustomPacket(entry, fc, output, startOffsetBits, endOffsetBits, context, tracePacketHeader, entry.getTimestampBegin(), initialLost);
+            writePacket(entry, fc, output, initialLost);
         }
     }
 
+    /**
+     * Writes a whole stream packet read from an already opened source. The
+     * events are not decoded, only the packet context is rewritten.
+     */
+    void writePacket(ICTFPacketDescriptor entry, FileChannel source, FileChannel output, long initialLost) throws IOException, CTFException {
+        StructDefinition context = null;
+        if (entry instanceof StreamInputPacketIndexEntry) {
+            context = ((StreamInputPacketIndexEntry) entry).getStreamPacketContextDef();
+        }
+        if (context == null) {
+            return;
+        }
+        ICompositeDefinition tracePacketHeader = fStreamInput.getStream().getTrace().getPacketHeaderDef();
+        writeCustomPacket(entry, source, output, entry.getPayloadStartBits(), entry.getContentSizeBits(), context, tracePacketHeader, entry.getTimestampBegin(), initialLost);
+    }
+
     /**
      * Make a packet and write it to the fileChannel
      *
@@ -150,84 +143,112 @@ public class CTFStreamPacketOutputWriter {
      * @since 3.0
      */
     public void writePacket(ICTFPacketDescriptor entry, long startTime, long endTime, long initialLost, FileChannel output) throws IOException, CTFException {
+        File file = fStreamInput.getFile();
+        try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ);) {
+            writePacket(entry, startTime, endTime, initialLost, fc, output);
+        }
+    }
+
+    /**
+     * Writes the part of a stream packet that is in a time range, read from
+     * an already opened source. The events are decoded to find the bounds of
+     * the range.
+     */
+    void writePacket(ICTFPacketDescriptor entry, long startTime, long endTime, long initialLost, FileChannel fc, FileChannel output) throws IOException, CTFException {
         if (entry.getTimestampBegin() > endTime || entry.getTimestampEnd() < startTime || startTime > endTime) {
             throw new IllegalStateException();
         }
         long startOffsetBits = entry.getPayloadStartBits();
         long endOffsetBits = entry.getContentSizeBits();
         StructDefinition context = null;
-        File file = fStreamInput.getFile();
-        try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ);) {
-            ByteBuffer bb = SafeMappedByteBuffer.map(fc, FileChannel.MapMode.READ_ONLY, entry.getOffsetBytes(), bitsToBytes(entry.getContentSizeBits()));
-            BitBuffer bbInput = new BitBuffer(bb);
-            bbInput.position(entry.getPayloadStartBits());
-            ICTFStream stream = fStreamInput.getStream();
-            CTFTrace trace = stream.getTrace();
-            CTFPacketReader currentPacketReader = new CTFPacketReader(
-                    bbInput,
-                    entry,
-                    stream.getEventDeclarations(),
-                    stream.getEventHeaderDeclaration(),
-                    stream.getEventContextDecl(),
-                    trace.getPacketHeaderDef(),
-                    trace);
-            long lastLargeTimestamp = entry.getTimestampBegin();
-            if (entry instanceof StreamInputPacketIndexEntry) {
-                context = ((StreamInputPacketIndexEntry) entry).getStreamPacketContextDef();
-            }
-            if (context == null) {
-                return;
-            }
-            boolean startIsSet = false;
-            while (currentPacketReader.hasMoreEvents()) {
+        ByteBuffer bb = SafeMappedByteBuffer.map(fc, FileChannel.MapMode.READ_ONLY, entry.getOffsetBytes(), bitsToBytes(entry.getContentSizeBits()));
+        BitBuffer bbInput = new BitBuffer(bb);
+        bbInput.position(entry.getPayloadStartBits());
+        ICTFStream stream = fStreamInput.getStream();
+        CTFTrace trace = stream.getTrace();
+        CTFPacketReader currentPacketReader = new CTFPacketReader(
+                bbInput,
+                entry,
+                stream.getEventDeclarations(),
+                stream.getEventHeaderDeclaration(),
+                stream.getEventContextDecl(),
+                trace.getPacketHeaderDef(),
+                trace);
+        long lastLargeTimestamp = entry.getTimestampBegin();
+        if (entry instanceof StreamInputPacketIndexEntry) {
+            context = ((StreamInputPacketIndexEntry) entry).getStreamPacketContextDef();
+        }
+        if (context == null) {
+            return;
+        }
+        boolean startIsSet = false;
+        while (currentPacketReader.hasMoreEvents()) {
 
-                IEventDefinition event = currentPacketReader.readNextEvent();
-                long timestampInCycles = event.getTimestamp();
-                if (!startIsSet) {
-                    /*
-                     * handle "P" and "I" framed timestamps. overwrite the
-                     * timestamp if there is one before the trim
-                     */
-                    ICompositeDefinition eventHeader = event.getEventHeader();
-                    Definition def = null;
-                    if (eventHeader != null) {
-                        def = eventHeader.getDefinition(CTFStrings.TIMESTAMP);
-                    }
-                    if (def == null && eventHeader instanceof StructDefinition) {
-                        StructDefinition structDefinition = (StructDefinition) eventHeader;
-                        def = structDefinition.lookupDefinition(CTFStrings.TIMESTAMP);
-                    }
-                    Definition definition = context.getDefinition(CTFStrings.TIMESTAMP_BEGIN);
-                    if (definition != null && def != null && def.size() == definition.size()) {
-                        lastLargeTimestamp = timestampInCycles;
-                    }
+            IEventDefinition event = currentPacketReader.readNextEvent();
+            long timestampInCycles = event.getTimestamp();
+            if (!startIsSet) {
+                /*
+                 * handle "P" and "I" framed timestamps. overwrite the
+                 * timestamp if there is one before the trim
+                 */
+                ICompositeDefinition eventHeader = event.getEventHeader();
+                Definition def = null;
+                if (eventHeader != null) {
+                    def = eventHeader.getDefinition(CTFStrings.TIMESTAMP);
                 }
-                if (timestampInCycles >= startTime && !startIsSet) {
-                    startOffsetBits = currentPacketReader.getLocation();
-                    startIsSet = true;
+                if (def == null && eventHeader instanceof StructDefinition) {
+                    StructDefinition structDefinition = (StructDefinition) eventHeader;
+                    def = structDefinition.lookupDefinition(CTFStrings.TIMESTAMP);
                 }
-                if (timestampInCycles > endTime + 1) {
-                    endOffsetBits = currentPacketReader.getLocation();
-                    break;
+                Definition definition = context.getDefinition(CTFStrings.TIMESTAMP_BEGIN);
+                if (definition != null && def != null && def.size() == definition.size()) {
+                    lastLargeTimestamp = timestampInCycles;
                 }
             }
-            if (startOffsetBits >= endOffsetBits) {
-                return;
+            if (timestampInCycles >= startTime && !startIsSet) {
+                startOffsetBits = currentPacketReader.getLocation();
+                startIsSet = true;
+            }
+            if (timestampInCycles > endTime + 1) {
+                endOffsetBits = currentPacketReader.getLocation();
+                break;
             }
-            ICompositeDefinition tracePacketHeader = currentPacketReader.getTracePacketHeader();
-            writeCustomPacket(entry, fc, output, startOffsetBits, endOffsetBits, context, tracePacketHeader, lastLargeTimestamp, initialLost);
         }
+        if (startOffsetBits >= endOffsetBits) {
+            return;
+        }
+        ICompositeDefinition tracePacketHeader = currentPacketReader.getTracePacketHeader();
+        writeCustomPacket(entry, fc, output, startOffsetBits, endOffsetBits, context, tracePacketHeader, lastLargeTimestamp, initialLost);
     }
 
     private static void writeCustomPacket(ICTFPacketDescriptor entry, FileChannel source, FileChannel output, long startOffsetBits, long endOffsetBits, StructDefinition packetContext, ICompositeDefinition tracePacketHeader, long startTime,
             long initialLost)
             throws IOException, CTFException {
-        ByteBuffer inBuffer = SafeMappedByteBuffer.map(source, MapMode.READ_ONLY, entry.getOffsetBytes(), bitsToBytes(entry.getContentSizeBits()));
         int headerSizeBits = (int) (tracePacketHeader == null ? 0 : tracePacketHeader.size());
-        int packetSizeBits = (int) (headerSizeBits + packetContext.size() + endOffsetBits - startOffsetBits);
+        long prefixSizeBits = headerSizeBits + packetContext.size();
+        int packetSizeBits = (int) (prefixSizeBits + endOffsetBits - startOffsetBits);
         int alignmentSize = Byte.SIZE;
         int lastBitsOfBody = (int) (endOffsetBits % alignmentSize);
         int contentSizeBits = (lastBitsOfBody != 0) ? (packetSizeBits - alignmentSize + lastBitsOfBody) : packetSizeBits;
+        if (prefixSizeBits % Byte.SIZE == 0 && startOffsetBits % Byte.SIZE == 0) {
+            /*
+             * Only the packet header and context are rewritten, the events are
+             * copied from file to file without going through the heap.
+             */
+            ByteBuffer header = ByteBuffer.allocate((int) bitsToBytes(headerSizeBits));
+            readFully(source, header, entry.getOffsetBytes());
+            int prefixSize = (int) bitsToBytes(prefixSizeBits);
+            /* Some slack for the bit buffer, only the prefix is written */
+            ByteBuffer prefix = ByteBuffer.allocate(prefixSize + Long.BYTES);
+            prefix.put(header.array());
+            writeContext(startTime, packetContext, contentSizeBits, (int) bitsToBytes(packetSizeBits) * Byte.SIZE, initialLost, prefix);
+            prefix.clear();
+            prefix.limit(prefixSize);
+            writeFully(output, prefix);
+            transferFully(source, entry.getOffsetBytes() + startOffsetBits / Byte.SIZE, bitsToBytes(endOffsetBits - startOffsetBits), output);
+            return;
+        }
+        ByteBuffer inBuffer = SafeMappedByteBuffer.map(source, MapMode.READ_ONLY, entry.getOffsetBytes(), bitsToBytes(entry.getContentSizeBits()));
         byte[] toWrite = new byte[(int) bitsToBytes(packetSizeBits)];
         ByteBuffer buffer = ByteBuffer.wrap(toWrite);
         byte[] header = new byte[(int) bitsToBytes(headerSizeBits)];
@@ -242,6 +263,34 @@ public class CTFStreamPacketOutputWriter {
         output.write(ByteBuffer.wrap(toWrite));
     }
 
+    private static void readFully(FileChannel source, ByteBuffer buffer, long position) throws IOException {
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            int read = source.read(buffer, pos);
+            if (read < 0) {
+                throw new IOException("Unexpected end of stream file"); //$NON-NLS-1$
+            }
+            pos += read;
+        }
+    }
+
+    private static void writeFully(FileChannel output, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+    }
+
+    private static void transferFully(FileChannel source, long position, long count, FileChannel output) throws IOException {
+        long done = 0;
+        while (done < count) {
+            long transferred = source.transferTo(position + done, count - done, output);
+            if (transferred <= 0) {
+                throw new IOException("Unexpected end of stream file"); //$NON-NLS-1$
+            }
+            done += transferred;
+        }
+    }
+
     private static long bitsToBytes(long bits) {
         return (long) Math.ceil(bits / (double) Byte.SIZE);
     }
@@ -35,6 +35,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
@@ -135,6 +136,12 @@ public class CTFTrace implements IDefinitionScope {
      */
     private final Map<Long, ICTFStream> fStreams = new HashMap<>();
 
+    /**
+     * Number of event type indexes given to the event declarations of the
+     * trace
+     */
+    private final AtomicInteger fNbEventTypeIndexes = new AtomicInteger();
+
     /**
      * Collection of environment variables set by the tracer
      */
@@ -170,6 +177,11 @@ public class CTFTrace implements IDefinitionScope {
 
     private boolean fUUIDMismatchWarning = false;
 
+    /**
+     * The metadata of a trace read from a directory, null for streamed traces
+     */
+    private @Nullable Metadata fMetadata = null;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -214,6 +226,7 @@ public class CTFTrace implements IDefinitionScope {
         } else {
             metadata.parseFile();
         }
+        fMetadata = metadata;
         init(path);
     }
 
@@ -450,6 +463,19 @@ public class CTFTrace implements IDefinitionScope {
         return fStreams.values();
     }
 
+    /**
+     * Get a new event type index for an event declaration of this trace. The
+     * indexes are given in order starting at 0, so that the indexes of the
+     * event declarations of a trace are dense.
+     *
+     * @return The new index
+     * @see IEventDeclaration#getTypeIndex()
+     * @since 5.1
+     */
+    public int newEventTypeIndex() {
+        return fNbEventTypeIndexes.getAndIncrement();
+    }
+
     /**
      * Method getPath gets the path of the trace directory
      *
@@ -744,6 +770,24 @@ public class CTFTrace implements IDefinitionScope {
         openStreamInput(streamFile);
     }
 
+    /**
+     * Parse the metadata that was appended to the metadata file of the trace
+     * since it was opened or since the last call. The new declarations are
+     * added to the trace.
+     *
+     * @return true if new metadata was parsed
+     * @throws CTFException
+     *             the new metadata could not be parsed
+     * @since 5.1
+     */
+    public boolean parseAppendedMetadata() throws CTFException {
+        Metadata metadata = fMetadata;
+        if (metadata == null) {
+            return false;
+        }
+        return metadata.parseAppendedMetadata();
+    }
+
     /**
      * Registers a new stream to the trace.
      *
@@ -933,6 +977,34 @@ public class CTFTrace implements IDefinitionScope {
         return retVal;
     }
 
+    /**
+     * Converts clock cycle counts to nanoseconds in place, giving the same
+     * result as {@link #timestampCyclesToNanos(long)} on each element. The
+     * clock is looked up once and the loops have no branches, so the JIT can
+     * vectorize them.
+     *
+     * @param timestamps
+     *            clock cycles relative to clock offset, replaced by the times
+     *            in nanoseconds relative to POSIX.1 Epoch
+     * @param length
+     *            the number of timestamps to convert, from the start of the
+     *            array
+     * @since 5.1
+     */
+    public void timestampCyclesToNanos(long[] timestamps, int length) {
+        final long offset = getOffset();
+        if (clockNeedsScale()) {
+            final double scale = getTimeScale();
+            for (int i = 0; i < length; i++) {
+                timestamps[i] = (long) ((timestamps[i] + offset) * scale);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                timestamps[i] += offset;
+            }
+        }
+    }
+
     /**
      * Gets the time for a specified clock cycle count
      *
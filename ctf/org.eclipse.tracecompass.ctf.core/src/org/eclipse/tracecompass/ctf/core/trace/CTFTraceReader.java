@@ -19,6 +19,7 @@ import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -84,6 +85,17 @@ public class CTFTraceReader implements AutoCloseable {
      */
     private boolean fClosed = false;
 
+    /**
+     * Names of the events to read, null to read them all
+     */
+    private Collection<String> fEventFilter = null;
+
+    /**
+     * Time range of the packets to read, in cycles
+     */
+    private long fRangeStart = Long.MIN_VALUE;
+    private long fRangeEnd = Long.MAX_VALUE;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -254,6 +266,8 @@ public class CTFTraceReader implements AutoCloseable {
                 try (CTFStreamInputReader streamInputReader = new CTFStreamInputReader(requireNonNull(streamInput))) {
                     if (!fStreamInputReaders.contains(streamInputReader)) {
                         CTFStreamInputReader streamInputReaderToAdd = new CTFStreamInputReader(requireNonNull(streamInput));
+                        streamInputReaderToAdd.setEventFilter(fEventFilter);
+                        streamInputReaderToAdd.setTimeRange(fRangeStart, fRangeEnd);
                         streamInputReaderToAdd.readNextEvent();
                         fStreamInputReaders.add(streamInputReaderToAdd);
                         readers.add(streamInputReaderToAdd);
@@ -271,6 +285,44 @@ public class CTFTraceReader implements AutoCloseable {
         System.arraycopy(temp, 0, fEventCountPerTraceFile, 0, temp.length);
     }
 
+    /**
+     * Only read the events with the given names. Events of other types are
+     * skipped in the packets, without decoding their payload when its size is
+     * fixed. Lost events are always read. This takes effect at the next
+     * {@link #seek(long)}.
+     *
+     * @param eventNames
+     *            the names of the events to read, or null to read all events
+     * @since 5.1
+     */
+    public void setEventFilter(Collection<String> eventNames) {
+        fEventFilter = eventNames == null ? null : new HashSet<>(eventNames);
+        for (CTFStreamInputReader sir : fStreamInputReaders) {
+            sir.setEventFilter(fEventFilter);
+        }
+    }
+
+    /**
+     * Only read the packets that overlap a time range. Packets that end before
+     * the range are skipped using the packet index, and a stream is finished
+     * at its first packet starting after the range. Events close to the range
+     * bounds may still be returned. This takes effect at the next
+     * {@link #seek(long)}.
+     *
+     * @param start
+     *            the start of the range, in cycles
+     * @param end
+     *            the end of the range, in cycles
+     * @since 5.1
+     */
+    public void setTimeRange(long start, long end) {
+        fRangeStart = start;
+        fRangeEnd = end;
+        for (CTFStreamInputReader sir : fStreamInputReaders) {
+            sir.setTimeRange(start, end);
+        }
+    }
+
     /**
      * Gets an iterable of the stream input readers, useful for foreaches
      *
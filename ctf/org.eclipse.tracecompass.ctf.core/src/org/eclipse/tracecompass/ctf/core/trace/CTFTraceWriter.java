@@ -18,7 +18,13 @@ import static java.util.Objects.requireNonNull;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
@@ -67,6 +73,8 @@ public class CTFTraceWriter {
      *
      * startTime <= packet.getTimestampBegin() <= endTime
      *
+     * The stream files of the output trace are written concurrently.
+     *
      * @param startTime
      *            start time of packets to be included in output trace
      * @param endTime
@@ -100,14 +108,49 @@ public class CTFTraceWriter {
                 throw new CTFIOException("Error copying metadata: " + e.toString(), e); //$NON-NLS-1$
             }
 
-            // Copy packets
+            // Copy packets, each stream file is written by its own task
+            List<CTFStreamOutputWriter> writers = new ArrayList<>();
             for (ICTFStream stream : trace.getStreams()) {
                 Set<CTFStreamInput> inputs = stream.getStreamInputs();
                 for (CTFStreamInput s : inputs) {
-                    CTFStreamOutputWriter streamOutputwriter = new CTFStreamOutputWriter(requireNonNull(s), out);
-                    streamOutputwriter.copyPackets(adjustedStart, adjustedEnd);
+                    writers.add(new CTFStreamOutputWriter(requireNonNull(s), out));
                 }
             }
+            copyPackets(writers, adjustedStart, adjustedEnd);
+        }
+    }
+
+    private static void copyPackets(List<CTFStreamOutputWriter> writers, long adjustedStart, long adjustedEnd) throws CTFException {
+        if (writers.size() <= 1) {
+            for (CTFStreamOutputWriter writer : writers) {
+                writer.copyPackets(adjustedStart, adjustedEnd);
+            }
+            return;
+        }
+        int nbThreads = Math.min(writers.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (CTFStreamOutputWriter writer : writers) {
+                futures.add(executor.submit(() -> {
+                    writer.copyPackets(adjustedStart, adjustedEnd);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CTFException) {
+                throw (CTFException) cause;
+            }
+            throw new CTFIOException("Error copying packets: " + cause, e); //$NON-NLS-1$
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CTFIOException("Copying packets was interrupted", e); //$NON-NLS-1$
+        } finally {
+            executor.shutdownNow();
         }
     }
 }
@@ -65,6 +65,7 @@ import org.eclipse.tracecompass.internal.ctf.core.event.metadata.JsonFieldClassA
 import org.eclipse.tracecompass.internal.ctf.core.event.metadata.JsonPreambleMetadataNode;
 import org.eclipse.tracecompass.internal.ctf.core.event.metadata.JsonTraceMetadataNode;
 import org.eclipse.tracecompass.internal.ctf.core.event.metadata.MetadataStrings;
+import org.eclipse.tracecompass.internal.ctf.core.event.metadata.MetadataTreeCache;
 import org.eclipse.tracecompass.internal.ctf.core.event.metadata.ParseException;
 import org.eclipse.tracecompass.internal.ctf.core.event.metadata.tsdl.trace.TraceDeclarationParser;
 import org.eclipse.tracecompass.internal.ctf.core.event.types.ICTFMetadataNode;
@@ -124,6 +125,11 @@ public class Metadata {
 
     private IOStructGen fTreeParser;
 
+    /**
+     * Number of bytes of the metadata file that were parsed so far.
+     */
+    private long fParsedSize = 0;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -167,6 +173,20 @@ public class Metadata {
         return fTrace;
     }
 
+    /**
+     * Set the directory where the parsed TSDL metadata is cached, so that
+     * reopening a trace, or opening a trace with the same metadata, does not
+     * parse the text again. The parsed metadata is cached in memory only when
+     * no directory is set.
+     *
+     * @param directory
+     *            the cache directory, or null to not persist the cache
+     * @since 5.1
+     */
+    public static void setCacheDirectory(@Nullable File directory) {
+        MetadataTreeCache.setCacheDirectory(directory);
+    }
+
     // ------------------------------------------------------------------------
     // Operations
     // ------------------------------------------------------------------------
@@ -180,20 +200,27 @@ public class Metadata {
     public void parseFile() throws CTFException {
 
         /*
-         * Reader. It will contain a StringReader if we are using packet-based
-         * metadata and it will contain a FileReader if we have text-based
-         * metadata.
+         * The whole metadata text is read first, from the packets if we are
+         * using packet-based metadata or from the file itself if we have
+         * text-based metadata.
          */
 
         File metadataFile = new File(getMetadataPath());
         ByteOrder byteOrder = CTFTrace.startsWithMagicNumber(metadataFile, Utils.TSDL_MAGIC);
         fDetectedByteOrder = byteOrder;
         try (FileInputStream fis = new FileInputStream(metadataFile);
-                FileChannel metadataFileChannel = fis.getChannel();
-                /* Check if metadata is packet-based, if not it is text based */
-                Reader metadataTextInput = (byteOrder != null ? readBinaryMetaData(metadataFileChannel) : new FileReader(metadataFile));) {
+                FileChannel metadataFileChannel = fis.getChannel();) {
+            /* Check if metadata is packet-based, if not it is text based */
+            String metadataText;
+            if (byteOrder != null) {
+                metadataText = readBinaryMetaData(metadataFileChannel, 0);
+            } else {
+                metadataText = IOUtils.toString(fis, Charset.defaultCharset());
+            }
+            long parsedSize = metadataFileChannel.position();
 
-            readMetaDataText(metadataTextInput);
+            readMetaDataText(metadataText);
+            fParsedSize = parsedSize;
 
         } catch (FileNotFoundException e) {
             throw new CTFException("Cannot find metadata file!", e); //$NON-NLS-1$
@@ -308,23 +335,51 @@ public class Metadata {
         }
     }
 
-    private Reader readBinaryMetaData(FileChannel metadataFileChannel) throws CTFException {
+    private String readBinaryMetaData(FileChannel metadataFileChannel, long start) throws CTFException {
         /* Create StringBuffer to receive metadata text */
         StringBuffer metadataText = new StringBuffer();
 
         /*
          * Read metadata packet one by one, appending the text to the
-         * StringBuffer
+         * StringBuffer. Only complete packets are read, a packet that is still
+         * being written will be read on the next call.
          */
-        MetadataPacketHeader packetHeader = readMetadataPacket(
-                metadataFileChannel, metadataText);
-        while (packetHeader != null) {
-            packetHeader = readMetadataPacket(metadataFileChannel,
-                    metadataText);
+        try {
+            metadataFileChannel.position(start);
+            while (isPacketComplete(metadataFileChannel)) {
+                readMetadataPacket(metadataFileChannel, metadataText);
+            }
+        } catch (IOException e) {
+            throw new CTFException("Error reading the metadata header.", e); //$NON-NLS-1$
         }
 
-        /* Wrap the metadata string with a StringReader */
-        return new StringReader(metadataText.toString());
+        return metadataText.toString();
+    }
+
+    private boolean isPacketComplete(FileChannel metadataFileChannel) throws IOException {
+        long position = metadataFileChannel.position();
+        long size = metadataFileChannel.size();
+        if (position >= size) {
+            return false;
+        }
+        if (fParsedSize == 0) {
+            /* First read, readMetadataPacket reports truncated packets */
+            return true;
+        }
+        if (size - position < METADATA_PACKET_HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer headerByteBuffer = ByteBuffer.allocate(METADATA_PACKET_HEADER_SIZE);
+        metadataFileChannel.read(headerByteBuffer, position);
+        headerByteBuffer.flip();
+        headerByteBuffer.order(fDetectedByteOrder);
+        try {
+            MetadataPacketHeader header = new MetadataPacketHeader(headerByteBuffer);
+            return position + header.getPacketSize() / BITS_PER_BYTE <= size;
+        } catch (CTFException e) {
+            /* Let readMetadataPacket report the invalid header */
+            return true;
+        }
     }
 
     /**
@@ -382,9 +437,8 @@ public class Metadata {
      *             parsing a TSDL file
      */
     public void parseText(String data) throws CTFException {
-        Reader metadataTextInput = new StringReader(data);
         try {
-            readMetaDataText(metadataTextInput);
+            readMetaDataText(data);
         } catch (IOException | ParseException e) {
             throw new CTFException(e);
         } catch (RecognitionException | RewriteCardinalityException e) {
@@ -393,8 +447,17 @@ public class Metadata {
 
     }
 
-    private void readMetaDataText(Reader metadataTextInput) throws IOException, RecognitionException, ParseException {
-        ICTFMetadataNode tree = createAST(metadataTextInput);
+    private void readMetaDataText(String metadataText) throws IOException, RecognitionException, ParseException {
+        /*
+         * Traces often share the same metadata, and reopening a trace parses
+         * it again, so reuse the tree of an identical metadata text.
+         */
+        String key = MetadataTreeCache.getKey(metadataText);
+        ICTFMetadataNode tree = MetadataTreeCache.get(key);
+        if (tree == null) {
+            tree = createAST(new StringReader(metadataText));
+            MetadataTreeCache.put(key, tree);
+        }
         fTreeParser = new IOStructGen(tree, requireNonNull(fTrace));
         /* Generate IO structures (declarations) */
         fTreeParser.generate();
@@ -426,6 +489,103 @@ public class Metadata {
         }
     }
 
+    /**
+     * Parse the metadata that was appended to the metadata file since it was
+     * last parsed, for instance by a tracer in a live session. Only the new
+     * data is read, and it is added to the already parsed metadata like a
+     * fragment. Incomplete data at the end of the file is left for the next
+     * call.
+     *
+     * @return true if new metadata was parsed
+     * @throws CTFException
+     *             if the new metadata cannot be read or parsed
+     * @since 5.1
+     */
+    public boolean parseAppendedMetadata() throws CTFException {
+        if (fTreeParser == null || fTrace.isCTF2()) {
+            return false;
+        }
+        File metadataFile = new File(getMetadataPath());
+        if (metadataFile.length() <= fParsedSize) {
+            return false;
+        }
+        try (FileInputStream fis = new FileInputStream(metadataFile);
+                FileChannel metadataFileChannel = fis.getChannel();) {
+            String fragment;
+            long parsedSize;
+            if (fDetectedByteOrder != null) {
+                fragment = readBinaryMetaData(metadataFileChannel, fParsedSize);
+                parsedSize = metadataFileChannel.position();
+            } else {
+                metadataFileChannel.position(fParsedSize);
+                String text = IOUtils.toString(fis, Charset.defaultCharset());
+                fragment = text.substring(0, findEndOfLastDeclaration(text));
+                parsedSize = fParsedSize + fragment.getBytes(Charset.defaultCharset()).length;
+            }
+            if (fragment.isBlank()) {
+                fParsedSize = parsedSize;
+                return false;
+            }
+            readMetaDataTextFragment(new StringReader(fragment));
+            fParsedSize = parsedSize;
+            return true;
+        } catch (IOException | ParseException e) {
+            throw new CTFException(e);
+        } catch (RecognitionException | RewriteCardinalityException e) {
+            throw new CtfAntlrException(e);
+        }
+    }
+
+    /**
+     * Find the end of the last complete top level declaration of a TSDL text,
+     * that is the last ';' outside of any block, string or comment.
+     */
+    private static int findEndOfLastDeclaration(String text) {
+        int end = 0;
+        int depth = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '/' && i + 1 < length && text.charAt(i + 1) == '*') {
+                int close = text.indexOf("*/", i + 2); //$NON-NLS-1$
+                if (close < 0) {
+                    break;
+                }
+                i = close + 2;
+                continue;
+            }
+            if (c == '/' && i + 1 < length && text.charAt(i + 1) == '/') {
+                int close = text.indexOf('\n', i);
+                if (close < 0) {
+                    break;
+                }
+                i = close + 1;
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                int close = i + 1;
+                while (close < length && text.charAt(close) != c) {
+                    close += (text.charAt(close) == '\\') ? 2 : 1;
+                }
+                if (close >= length) {
+                    break;
+                }
+                i = close + 1;
+                continue;
+            }
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if (c == ';' && depth == 0) {
+                end = i + 1;
+            }
+            i++;
+        }
+        return end;
+    }
+
     private void readMetaDataTextFragment(Reader metadataTextInput) throws IOException, RecognitionException, ParseException {
         ICTFMetadataNode tree = createAST(metadataTextInput);
         fTreeParser.setTree(tree);
@@ -40,6 +40,7 @@ import org.eclipse.tracecompass.ctf.core.trace.CTFIOException;
 import org.eclipse.tracecompass.ctf.core.trace.CTFStreamInputReader;
 import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
 import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.FixedSizeDeclarationSkipper;
 import org.eclipse.tracecompass.internal.ctf.core.event.types.composite.EventHeaderDefinition;
 import org.eclipse.tracecompass.internal.ctf.core.trace.CTFStream;
 import org.eclipse.tracecompass.internal.ctf.core.utils.JsonMetadataStrings;
@@ -90,6 +91,15 @@ public class EventDeclaration implements IEventDeclaration {
 
     private int fId = (int) UNSET_EVENT_ID;
 
+    /** Index of this event type in its trace, lazily given by the trace */
+    private volatile int fTypeIndex = -1;
+
+    /**
+     * Whether the stream event context, context and fields of this event can
+     * be skipped without decoding them, lazily computed
+     */
+    private @Nullable Boolean fSkippable = null;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -154,6 +164,49 @@ public class EventDeclaration implements IEventDeclaration {
                 packetDescriptor);
     }
 
+    /**
+     * Check if the data following the event header of this event can be
+     * skipped without being decoded, see {@link #skipDefinition}.
+     *
+     * @param streamEventContextDecl
+     *            the stream event context declaration
+     * @return true if the event can be skipped
+     */
+    public boolean isSkippable(@Nullable StructDeclaration streamEventContextDecl) {
+        Boolean skippable = fSkippable;
+        if (skippable == null) {
+            skippable = FixedSizeDeclarationSkipper.isSkippable(streamEventContextDecl)
+                    && FixedSizeDeclarationSkipper.isSkippable(fContext)
+                    && FixedSizeDeclarationSkipper.isSkippable(fFields);
+            fSkippable = skippable;
+        }
+        return skippable;
+    }
+
+    /**
+     * Skip an event without creating its definition. Only the event header was
+     * read, so the event must be {@link #isSkippable(StructDeclaration)
+     * skippable} and its header must hold the timestamp.
+     *
+     * @param streamEventContextDecl
+     *            the stream event context declaration
+     * @param eventHeaderDef
+     *            the event header definition, already read
+     * @param input
+     *            the bitbuffer input source, positioned after the header
+     * @param prevTimestamp
+     *            the timestamp of the previous event
+     * @return the timestamp of the skipped event
+     * @throws CTFException
+     *             if the event goes past the end of the buffer
+     */
+    public long skipDefinition(@Nullable StructDeclaration streamEventContextDecl, EventHeaderDefinition eventHeaderDef, @NonNull BitBuffer input, long prevTimestamp) throws CTFException {
+        FixedSizeDeclarationSkipper.skip(streamEventContextDecl, input);
+        FixedSizeDeclarationSkipper.skip(fContext, input);
+        FixedSizeDeclarationSkipper.skip(fFields, input);
+        return calculateTimestamp(eventHeaderDef.getTimestamp(), eventHeaderDef.getTimestampLength(), prevTimestamp);
+    }
+
     private static long calculateTimestamp(@Nullable ICompositeDefinition eventHeaderDef, long prevTimestamp, StructDefinition eventPayload, StructDefinition eventContext, String timestampVariable) throws CTFIOException {
         long timestamp = 0;
         Definition def = null;
@@ -252,6 +305,7 @@ public class EventDeclaration implements IEventDeclaration {
      */
     public void setContext(StructDeclaration context) {
         fContext = context;
+        fSkippable = null;
     }
 
     /**
@@ -262,6 +316,7 @@ public class EventDeclaration implements IEventDeclaration {
      */
     public void setFields(StructDeclaration fields) {
         fFields = fields;
+        fSkippable = null;
     }
 
     @Override
@@ -316,6 +371,25 @@ public class EventDeclaration implements IEventDeclaration {
         return fStream;
     }
 
+    @Override
+    public int getTypeIndex() {
+        int index = fTypeIndex;
+        if (index >= 0) {
+            return index;
+        }
+        CTFStream stream = fStream;
+        CTFTrace trace = (stream == null) ? null : stream.getTrace();
+        if (trace == null) {
+            return -1;
+        }
+        synchronized (this) {
+            if (fTypeIndex < 0) {
+                fTypeIndex = trace.newEventTypeIndex();
+            }
+            return fTypeIndex;
+        }
+    }
+
     /**
      * Is the name of the event declaration set
      *
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.event.metadata;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.ctf.core.CtfCoreLoggerUtil;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.ICTFMetadataNode;
+
+/**
+ * Cache of parsed TSDL metadata trees, keyed by the hash of the metadata
+ * text. Lexing and parsing the TSDL with ANTLR is the most expensive part of
+ * opening a trace with a large metadata, and many traces share the exact same
+ * metadata (every channel of an LTTng UST session for instance).
+ *
+ * The trees are kept in a compact binary form, in memory up to a fixed budget
+ * and optionally in a cache directory so that they survive a restart. Every
+ * lookup returns a new tree, so the callers are free to modify it.
+ */
+public final class MetadataTreeCache {
+
+    private static final int MAGIC = 0x54534454; // "TSDT"
+    private static final int VERSION = 1;
+    private static final int NO_VALUE = -1;
+    private static final String FILE_SUFFIX = ".tsdl.bin"; //$NON-NLS-1$
+    private static final String HASH_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+    private static final long MAX_MEMORY_SIZE = 32L * 1024 * 1024;
+
+    private static final Map<String, byte[]> MEMORY_CACHE = new LinkedHashMap<>(16, 0.75f, true);
+    private static long fMemorySize = 0;
+    private static @Nullable File fCacheDirectory = null;
+
+    private MetadataTreeCache() {
+    }
+
+    /**
+     * Set the directory where the serialized trees are persisted.
+     *
+     * @param directory
+     *            the cache directory, or null to only cache in memory
+     */
+    public static synchronized void setCacheDirectory(@Nullable File directory) {
+        fCacheDirectory = directory;
+    }
+
+    /**
+     * Compute the key of a metadata text
+     *
+     * @param metadataText
+     *            the TSDL text
+     * @return the key, the hexadecimal hash of the text
+     */
+    public static String getKey(String metadataText) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            byte[] hash = digest.digest(metadataText.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+                sb.append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            /* Every JRE has SHA-256 */
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get a copy of a cached tree
+     *
+     * @param key
+     *            the key of the metadata text, see {@link #getKey(String)}
+     * @return a new tree, or null if it is not in the cache
+     */
+    public static @Nullable ICTFMetadataNode get(String key) {
+        byte[] data = getFromMemory(key);
+        File file = getCacheFile(key);
+        if (data == null && file != null && file.isFile()) {
+            try {
+                data = Files.readAllBytes(file.toPath());
+            } catch (IOException e) {
+                CtfCoreLoggerUtil.logWarning("Cannot read metadata cache file " + file + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+                return null;
+            }
+            putInMemory(key, data);
+        }
+        if (data == null) {
+            return null;
+        }
+        try {
+            return read(new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            /* Corrupted or from another version, drop it */
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Store a tree in the cache
+     *
+     * @param key
+     *            the key of the metadata text, see {@link #getKey(String)}
+     * @param tree
+     *            the tree parsed from the metadata text
+     */
+    public static void put(String key, ICTFMetadataNode tree) {
+        byte[] data;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            write(tree, bytes);
+            data = bytes.toByteArray();
+        } catch (IOException e) {
+            /* Cannot happen with a byte array output stream */
+            return;
+        }
+        putInMemory(key, data);
+        File file = getCacheFile(key);
+        if (file == null || file.isFile()) {
+            return;
+        }
+        try {
+            Path dir = Files.createDirectories(file.toPath().getParent());
+            Path tmp = Files.createTempFile(dir, key, null);
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                os.write(data);
+            }
+            Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            CtfCoreLoggerUtil.logWarning("Cannot write metadata cache file " + file + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    /**
+     * Clear the memory cache. The persisted files are kept.
+     */
+    public static synchronized void clear() {
+        MEMORY_CACHE.clear();
+        fMemorySize = 0;
+    }
+
+    // ------------------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------------------
+
+    private static synchronized byte @Nullable [] getFromMemory(String key) {
+        return MEMORY_CACHE.get(key);
+    }
+
+    private static synchronized void putInMemory(String key, byte[] data) {
+        if (data.length > MAX_MEMORY_SIZE) {
+            return;
+        }
+        byte[] previous = MEMORY_CACHE.put(key, data);
+        if (previous != null) {
+            fMemorySize -= previous.length;
+        }
+        fMemorySize += data.length;
+        Iterator<Entry<String, byte[]>> iterator = MEMORY_CACHE.entrySet().iterator();
+        while (fMemorySize > MAX_MEMORY_SIZE && iterator.hasNext()) {
+            fMemorySize -= iterator.next().getValue().length;
+            iterator.remove();
+        }
+    }
+
+    private static synchronized void remove(String key) {
+        byte[] previous = MEMORY_CACHE.remove(key);
+        if (previous != null) {
+            fMemorySize -= previous.length;
+        }
+        File file = getCacheFile(key);
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                // Will be overwritten on the next put
+            }
+        }
+    }
+
+    private static synchronized @Nullable File getCacheFile(String key) {
+        File dir = fCacheDirectory;
+        return dir == null ? null : new File(dir, key + FILE_SUFFIX);
+    }
+
+    /**
+     * The tree is written as a string table followed by the nodes in
+     * pre-order, each node being its type index, its value index and its
+     * number of children.
+     */
+    private static void write(ICTFMetadataNode tree, OutputStream output) throws IOException {
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        collectStrings(tree, strings, table);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(table.size());
+            for (String string : table) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            writeNode(tree, strings, out);
+        }
+    }
+
+    private static void collectStrings(ICTFMetadataNode node, Map<String, Integer> strings, List<String> table) {
+        addString(node.getType(), strings, table);
+        String text = node.getText();
+        if (text != null) {
+            addString(text, strings, table);
+        }
+        for (ICTFMetadataNode child : node.getChildren()) {
+            collectStrings(child, strings, table);
+        }
+    }
+
+    private static void addString(String string, Map<String, Integer> strings, List<String> table) {
+        if (!strings.containsKey(string)) {
+            strings.put(string, table.size());
+            table.add(string);
+        }
+    }
+
+    private static void writeNode(ICTFMetadataNode node, Map<String, Integer> strings, DataOutputStream out) throws IOException {
+        String text = node.getText();
+        out.writeInt(strings.get(node.getType()));
+        out.writeInt(text == null ? NO_VALUE : strings.get(text));
+        List<ICTFMetadataNode> children = node.getChildren();
+        out.writeInt(children.size());
+        for (ICTFMetadataNode child : children) {
+            writeNode(child, strings, out);
+        }
+    }
+
+    private static ICTFMetadataNode read(InputStream input) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(input))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a metadata tree cache"); //$NON-NLS-1$
+            }
+            int nbStrings = in.readInt();
+            String[] table = new String[nbStrings];
+            for (int i = 0; i < nbStrings; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                table[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return readNode(null, table, in);
+        } catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static ICTFMetadataNode readNode(@Nullable ICTFMetadataNode parent, String[] table, DataInputStream in) throws IOException {
+        String type = table[in.readInt()];
+        int valueIndex = in.readInt();
+        ICTFMetadataNode node = new CTFAntlrMetadataNode(parent, type, valueIndex == NO_VALUE ? null : table[valueIndex]);
+        int nbChildren = in.readInt();
+        for (int i = 0; i < nbChildren; i++) {
+            readNode(node, table, in);
+        }
+        return node;
+    }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.event.types;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
+import org.eclipse.tracecompass.ctf.core.event.types.EnumDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.IDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
+
+/**
+ * Moves a {@link BitBuffer} past the data of a declaration without creating
+ * any definition. This is only possible for declarations whose size does not
+ * depend on the data itself: fixed length integers and enums, and structs and
+ * arrays made of them. Alignment is still honored, so the position after a
+ * skip is the same as after a full read.
+ */
+public final class FixedSizeDeclarationSkipper {
+
+    private FixedSizeDeclarationSkipper() {}
+
+    /**
+     * Check if a declaration can be skipped without being decoded
+     *
+     * @param dec
+     *            the declaration, can be null if the scope is not declared
+     * @return true if {@link #skip(IDeclaration, BitBuffer)} can be used
+     */
+    public static boolean isSkippable(@Nullable IDeclaration dec) {
+        if (dec == null) {
+            return true;
+        }
+        if (dec instanceof IntegerDeclaration) {
+            return !((IntegerDeclaration) dec).isVarint();
+        }
+        if (dec instanceof EnumDeclaration) {
+            return isSkippable(((EnumDeclaration) dec).getContainerType());
+        }
+        if (dec instanceof ArrayDeclaration) {
+            return isSkippable(((ArrayDeclaration) dec).getElementType());
+        }
+        if (dec instanceof StructDeclaration) {
+            StructDeclaration sDec = (StructDeclaration) dec;
+            for (String field : sDec.getFieldsList()) {
+                if (!isSkippable(sDec.getField(field))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Skip the data of a declaration. The declaration must be
+     * {@link #isSkippable(IDeclaration) skippable}.
+     *
+     * @param dec
+     *            the declaration to skip, nothing is done if it is null
+     * @param input
+     *            the bit buffer to advance
+     * @throws CTFException
+     *             if the data goes past the end of the buffer
+     */
+    public static void skip(@Nullable IDeclaration dec, BitBuffer input) throws CTFException {
+        if (dec == null) {
+            return;
+        }
+        align(dec, input);
+        if (dec instanceof IntegerDeclaration) {
+            input.position(input.position() + ((IntegerDeclaration) dec).getLength());
+        } else if (dec instanceof EnumDeclaration) {
+            skip(((EnumDeclaration) dec).getContainerType(), input);
+        } else if (dec instanceof ArrayDeclaration) {
+            ArrayDeclaration array = (ArrayDeclaration) dec;
+            IDeclaration elemType = array.getElementType();
+            for (int i = 0; i < array.getLength(); i++) {
+                skip(elemType, input);
+            }
+        } else if (dec instanceof StructDeclaration) {
+            StructDeclaration sDec = (StructDeclaration) dec;
+            for (String field : sDec.getFieldsList()) {
+                skip(sDec.getField(field), input);
+            }
+        } else {
+            throw new CTFException("Declaration cannot be skipped: " + dec); //$NON-NLS-1$
+        }
+    }
+
+    private static void align(IDeclaration dec, BitBuffer input) throws CTFException {
+        long mask = dec.getAlignment() - 1;
+        long pos = input.position();
+        if (mask <= 0 || (pos & mask) == 0) {
+            return;
+        }
+        input.position((pos + mask) & ~mask);
+    }
+}
@@ -14,6 +14,8 @@
 
 package org.eclipse.tracecompass.internal.ctf.core.trace;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -34,6 +36,7 @@ import org.eclipse.tracecompass.ctf.core.event.types.SimpleDatatypeDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.VariantDefinition;
+import org.eclipse.tracecompass.ctf.core.trace.CTFEventHeaders;
 import org.eclipse.tracecompass.ctf.core.trace.CTFIOException;
 import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
 import org.eclipse.tracecompass.ctf.core.trace.IPacketReader;
@@ -80,6 +83,16 @@ public final class CTFPacketReader implements IPacketReader, IDefinitionScope {
 
     private long fPosition;
 
+    private @Nullable BitSet fEventFilter;
+
+    /**
+     * Start position of an event whose header was read by
+     * {@link #skipFilteredEvents()} but not yet returned, -1 if none
+     */
+    private long fPendingPosition = -1;
+
+    private int fPendingEventId;
+
     /**
      * Constructor
      *
@@ -121,22 +134,177 @@ public final class CTFPacketReader implements IPacketReader, IDefinitionScope {
 
     @Override
     public boolean hasMoreEvents() {
-        return fHasLost || (fInput.position() < fPacketContext.getContentSizeBits());
+        return fHasLost || fPendingPosition >= 0 || (fInput.position() < fPacketContext.getContentSizeBits());
+    }
+
+    /**
+     * Set the event ids to read. Events of other types are skipped by
+     * {@link #skipFilteredEvents()}, without decoding their payload when it
+     * has a fixed size.
+     *
+     * @param eventIds
+     *            the ids of the events to read, or null to read all events
+     */
+    public void setEventFilter(@Nullable BitSet eventIds) {
+        fEventFilter = eventIds;
+    }
+
+    /**
+     * Skip the events that do not pass the event filter, up to the next
+     * wanted event or the end of the packet. Does nothing if there is no
+     * filter.
+     *
+     * @throws CTFException
+     *             If there was a problem reading the trace
+     */
+    public void skipFilteredEvents() throws CTFException {
+        BitSet filter = fEventFilter;
+        if (filter == null || fPendingPosition >= 0) {
+            return;
+        }
+        while (fInput.position() < fPacketContext.getContentSizeBits()) {
+            final long posStart = fInput.position();
+            int eventID = readEventHeader(posStart);
+            if (filter.get(eventID)) {
+                /* Keep the header, the event will be read by readNextEvent */
+                fPendingPosition = posStart;
+                fPendingEventId = eventID;
+                return;
+            }
+            skipEvent(posStart, eventID);
+        }
+        fEventHeader = null;
     }
 
     @Override
     public EventDefinition readNextEvent() throws CTFException {
-        int eventID = (int) IEventDeclaration.UNSET_EVENT_ID;
-        final long posStart = fInput.position();
+        final long posStart;
+        final int eventID;
+        if (fPendingPosition >= 0) {
+            /* The header was already read while skipping filtered events */
+            posStart = fPendingPosition;
+            eventID = fPendingEventId;
+            fPendingPosition = -1;
+        } else {
+            posStart = fInput.position();
+            /*
+             * Return the Lost Event after all other events in this packet. We
+             * need to check if the bytebuffer is at the beginning too.
+             */
+            if (fHasLost && (posStart >= fPacketContext.getContentSizeBits())) {
+                fHasLost = false;
+                return createLostEvent(fPacketContext);
+            }
+            eventID = readEventHeader(posStart);
+        }
+        /* Get the right event definition using the event id. */
+        EventDeclaration declaration = getDeclaration(eventID);
+        EventDefinition eventDef = declaration.createDefinition(fStreamContext, fPacketContext, fTracePacketHeader, fEventHeader, fInput, fLastTimestamp);
+        fLastTimestamp = eventDef.getTimestamp();
         /*
-         * Return the Lost Event after all other events in this packet. We need
-         * to check if the bytebuffer is at the beginning too.
+         * Set the event timestamp using the timestamp calculated by
+         * updateTimestamp.
          */
-        if (fHasLost && (posStart >= fPacketContext.getContentSizeBits())) {
-            fHasLost = false;
-            return createLostEvent(fPacketContext);
+
+        if (posStart == fInput.position()) {
+            throw new CTFIOException("Empty event not allowed, event: " + eventDef.getDeclaration().getName()); //$NON-NLS-1$
         }
+        fPosition = posStart;
+        return eventDef;
+    }
 
+    /**
+     * Read again the event at a given position of the packet, to decode an
+     * event that was read before. Lost events are never returned.
+     *
+     * @param position
+     *            the position of the event, as given by {@link #getLocation()}
+     *            after it was read
+     * @param timestamp
+     *            the timestamp of the event, needed to rebuild the timestamp
+     *            from a compact event header
+     * @return the event definition
+     * @throws CTFException
+     *             if the event cannot be read
+     */
+    public EventDefinition readEventAt(long position, long timestamp) throws CTFException {
+        fInput.position(position);
+        fHasLost = false;
+        fPendingPosition = -1;
+        /*
+         * The low bits of a compact timestamp are the same as the ones of the
+         * full timestamp, so the full timestamp is rebuilt as is.
+         */
+        fLastTimestamp = timestamp;
+        return readNextEvent();
+    }
+
+    /**
+     * Read the ids and timestamps of all the remaining events of the packet.
+     * The payloads are skipped without being decoded when their size is
+     * fixed. The reader is at the end of the packet afterwards, lost events
+     * are not reported.
+     *
+     * @return the event ids and timestamps
+     * @throws CTFException
+     *             if the packet cannot be read
+     */
+    public CTFEventHeaders readEventHeaders() throws CTFException {
+        fHasLost = false;
+        if (fPendingPosition >= 0) {
+            fInput.position(fPendingPosition);
+            fPendingPosition = -1;
+        }
+        final long contentSize = fPacketContext.getContentSizeBits();
+        int[] ids = new int[16];
+        long[] timestamps = new long[16];
+        int size = 0;
+        while (fInput.position() < contentSize) {
+            final long posStart = fInput.position();
+            int eventID = readEventHeader(posStart);
+            skipEvent(posStart, eventID);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+            }
+            ids[size] = eventID;
+            timestamps[size] = fLastTimestamp;
+            size++;
+            fPosition = posStart;
+        }
+        fEventHeader = null;
+        return new CTFEventHeaders(ids, timestamps, size);
+    }
+
+    /**
+     * Move past the data of an event whose header was just read, without
+     * decoding it when its size is fixed, and update the last timestamp.
+     */
+    private void skipEvent(long posStart, int eventID) throws CTFException {
+        EventDeclaration declaration = getDeclaration(eventID);
+        ICompositeDefinition eventHeader = fEventHeader;
+        if (eventHeader instanceof EventHeaderDefinition && declaration.isSkippable(fStreamContext)) {
+            fLastTimestamp = declaration.skipDefinition(fStreamContext, (EventHeaderDefinition) eventHeader, fInput, fLastTimestamp);
+        } else {
+            fLastTimestamp = declaration.createDefinition(fStreamContext, fPacketContext, fTracePacketHeader, eventHeader, fInput, fLastTimestamp).getTimestamp();
+        }
+        if (posStart == fInput.position()) {
+            throw new CTFIOException("Empty event not allowed, event: " + declaration.getName()); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Read the stream event header at the current position and update
+     * fEventHeader.
+     *
+     * @param posStart
+     *            the position of the event, for error reporting
+     * @return the event id
+     * @throws CTFException
+     *             if the header cannot be read or the id is invalid
+     */
+    private int readEventHeader(long posStart) throws CTFException {
+        int eventID = (int) IEventDeclaration.UNSET_EVENT_ID;
         fEventHeader = null;
         /* Read the stream event header. */
         final IDeclaration streamEventHeaderDecl = fStreamEventHeaderDecl;
@@ -187,24 +355,15 @@ public final class CTFPacketReader implements IPacketReader, IDefinitionScope {
         if (eventID < 0 || eventID >= fDeclarations.size()) {
             throw new CTFIOException("Invalid event id : " + eventID + " File position : " + posStart / 8 + '/' + fPacketContext.getContentSizeBits() / 8); //$NON-NLS-1$ //$NON-NLS-2$
         }
-        /* Get the right event definition using the event id. */
+        return eventID;
+    }
+
+    private EventDeclaration getDeclaration(int eventID) throws CTFIOException {
         IEventDeclaration eventDeclaration = fDeclarations.get(eventID);
         if (!(eventDeclaration instanceof EventDeclaration)) {
             throw new CTFIOException("Invalid event id : " + eventID); //$NON-NLS-1$
         }
-        EventDeclaration declaration = (EventDeclaration) eventDeclaration;
-        EventDefinition eventDef = declaration.createDefinition(fStreamContext, fPacketContext, fTracePacketHeader, fEventHeader, fInput, fLastTimestamp);
-        fLastTimestamp = eventDef.getTimestamp();
-        /*
-         * Set the event timestamp using the timestamp calculated by
-         * updateTimestamp.
-         */
-
-        if (posStart == fInput.position()) {
-            throw new CTFIOException("Empty event not allowed, event: " + eventDef.getDeclaration().getName()); //$NON-NLS-1$
-        }
-        fPosition = posStart;
-        return eventDef;
+        return (EventDeclaration) eventDeclaration;
     }
 
     private EventDefinition createLostEvent(final ICTFPacketDescriptor currentPacket) {
@@ -159,6 +159,15 @@ public class StreamInputPacketIndex {
         return fEntries.get(fEntries.size() - 1);
     }
 
+    /**
+     * Returns a copy of the elements of this data structure, in order
+     *
+     * @return the elements
+     */
+    public synchronized List<ICTFPacketDescriptor> getElements() {
+        return new ArrayList<>(fEntries);
+    }
+
     /**
      * Returns the element at the specified position in this data structure.
      *
@@ -16,6 +16,7 @@
 
 package org.eclipse.tracecompass.tmf.ctf.core.tests.trace;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -24,6 +25,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
@@ -32,13 +34,21 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.testtraces.ctf.CtfTestTrace;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventType;
+import org.eclipse.tracecompass.tmf.core.event.ITmfLostEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
 import org.eclipse.tracecompass.tmf.core.signal.TmfEndSynchSignal;
 import org.eclipse.tracecompass.tmf.core.signal.TmfSignal;
 import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfEventTypeCollectionHelper;
+import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfTraceIndexer;
+import org.eclipse.tracecompass.tmf.core.trace.indexer.checkpoint.ITmfCheckpoint;
+import org.eclipse.tracecompass.tmf.core.trace.indexer.checkpoint.ITmfCheckpointIndex;
+import org.eclipse.tracecompass.tmf.core.trace.indexer.checkpoint.TmfCheckpointIndexer;
+import org.eclipse.tracecompass.tmf.core.trace.location.ITmfLocation;
 import org.eclipse.tracecompass.tmf.ctf.core.context.CtfLocation;
 import org.eclipse.tracecompass.tmf.ctf.core.context.CtfLocationInfo;
 import org.eclipse.tracecompass.tmf.ctf.core.event.CtfTmfEvent;
@@ -258,6 +268,132 @@ public class CtfTmfTraceTest {
         assertEquals(695319L, result);
     }
 
+    /**
+     * Test that the segments returned by getSegmentLocations() contain all the
+     * events of the trace, once.
+     */
+    @Test
+    public void testReadSegments() {
+        List<ITmfLocation> locations = fixture.getSegmentLocations(4);
+        assertFalse(locations.isEmpty());
+        assertTrue(locations.size() <= 4);
+        long nbEvents = 0;
+        for (int i = 0; i < locations.size(); i++) {
+            long[] count = { 0 };
+            ITmfLocation end = i + 1 < locations.size() ? locations.get(i + 1) : null;
+            fixture.readSegment(locations.get(i), end, (location, event) -> {
+                count[0]++;
+                return true;
+            });
+            assertTrue(count[0] > 0);
+            nbEvents += count[0];
+        }
+        assertEquals(fixture.getNbEvents(), nbEvents);
+    }
+
+    /**
+     * Test that the timestamps scanned from the packet headers are the
+     * timestamps of the events read one by one, except the lost events
+     *
+     * @throws TmfTraceException
+     *             if the trace cannot be read
+     */
+    @Test
+    public void testScanTimestamps() throws TmfTraceException {
+        long[] expected = new long[(int) fixture.getNbEvents()];
+        int nbExpected = 0;
+        ITmfContext context = fixture.seekEvent(0);
+        CtfTmfEvent event = fixture.getNext(context);
+        while (event != null) {
+            if (!(event instanceof ITmfLostEvent)) {
+                expected[nbExpected++] = event.getTimestamp().toNanos();
+            }
+            event = fixture.getNext(context);
+        }
+        context.dispose();
+
+        long[] actual = new long[expected.length];
+        int[] nbActual = { 0 };
+        fixture.scanTimestamps((timestamps, length) -> {
+            System.arraycopy(timestamps, 0, actual, nbActual[0], length);
+            nbActual[0] += length;
+        });
+        assertEquals(nbExpected, nbActual[0]);
+        Arrays.sort(expected, 0, nbExpected);
+        Arrays.sort(actual, 0, nbActual[0]);
+        assertArrayEquals(Arrays.copyOf(expected, nbExpected), Arrays.copyOf(actual, nbActual[0]));
+    }
+
+    /**
+     * Test that the index built by reading the segments of the trace in
+     * parallel has the same checkpoints as the index built sequentially
+     *
+     * @throws TmfTraceException
+     *             if the trace cannot be opened
+     */
+    @Test
+    public void testParallelIndex() throws TmfTraceException {
+        IndexedTrace parallel = new IndexedTrace(true);
+        IndexedTrace sequential = new IndexedTrace(false);
+        try {
+            parallel.initTrace(null, fixture.getPath(), CtfTmfEvent.class);
+            sequential.initTrace(null, fixture.getPath(), CtfTmfEvent.class);
+            parallel.indexTrace(true);
+            sequential.indexTrace(true);
+
+            ITmfCheckpointIndex expected = sequential.getIndex();
+            ITmfCheckpointIndex actual = parallel.getIndex();
+            assertEquals(sequential.getNbEvents(), parallel.getNbEvents());
+            assertEquals(sequential.getTimeRange(), parallel.getTimeRange());
+            assertEquals(expected.size(), actual.size());
+            for (long i = 0; i < expected.size(); i++) {
+                ITmfCheckpoint checkpoint = expected.get(i);
+                assertEquals(checkpoint, actual.get(i));
+                assertEquals(checkpoint.getCheckpointRank(), actual.get(i).getCheckpointRank());
+            }
+        } finally {
+            parallel.dispose();
+            sequential.dispose();
+        }
+    }
+
+    /**
+     * A trace indexed with small checkpoint intervals, in parallel or not
+     */
+    private static class IndexedTrace extends CtfTmfTrace {
+
+        private final boolean fParallel;
+
+        public IndexedTrace(boolean parallel) {
+            fParallel = parallel;
+        }
+
+        @Override
+        protected ITmfTraceIndexer createIndexer(int interval) {
+            return new TestIndexer(this);
+        }
+
+        @Override
+        public boolean isParallelIndexable() {
+            return fParallel;
+        }
+
+        public ITmfCheckpointIndex getIndex() {
+            return ((TestIndexer) getIndexer()).getIndex();
+        }
+    }
+
+    private static class TestIndexer extends TmfCheckpointIndexer {
+
+        public TestIndexer(ITmfTrace trace) {
+            super(trace, 100);
+        }
+
+        public ITmfCheckpointIndex getIndex() {
+            return getTraceIndex();
+        }
+    }
+
     /**
      * Run the CtfTmfEvent getNext(ITmfContext) method test.
      */
@@ -17,6 +17,7 @@ package org.eclipse.tracecompass.internal.tmf.ctf.core;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.tracecompass.ctf.core.trace.Metadata;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -35,6 +36,11 @@ public class Activator extends Plugin {
      */
     public static final String PLUGIN_ID = "org.eclipse.tracecompass.tmf.ctf.core"; //$NON-NLS-1$
 
+    /**
+     * Name of the directory of the parsed metadata cache, in the state location
+     */
+    private static final String METADATA_CACHE_DIRECTORY = "metadata"; //$NON-NLS-1$
+
     /**
      * The shared instance
      */
@@ -72,10 +78,12 @@ public class Activator extends Plugin {
     public void start(BundleContext context) throws Exception {
         super.start(context);
         plugin = this;
+        Metadata.setCacheDirectory(getStateLocation().append(METADATA_CACHE_DIRECTORY).toFile());
     }
 
     @Override
     public void stop(BundleContext context) throws Exception {
+        Metadata.setCacheDirectory(null);
         plugin = null;
         super.stop(context);
     }
@@ -15,9 +15,8 @@
 
 package org.eclipse.tracecompass.internal.tmf.ctf.core.trace.iterator;
 
-import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
-
 import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.ctf.core.CTFException;
@@ -31,6 +30,7 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.location.ITmfLocation;
 import org.eclipse.tracecompass.tmf.ctf.core.context.CtfLocation;
 import org.eclipse.tracecompass.tmf.ctf.core.context.CtfLocationInfo;
+import org.eclipse.tracecompass.tmf.ctf.core.context.CtfTmfContext;
 import org.eclipse.tracecompass.tmf.ctf.core.event.CtfTmfEvent;
 import org.eclipse.tracecompass.tmf.ctf.core.trace.CtfTmfTrace;
 
@@ -56,6 +56,10 @@ public class CtfIterator extends CTFTraceReader
     private CtfLocation fPreviousLocation;
     private CtfTmfEvent fPreviousEvent;
 
+    private Set<String> fEventTypes = null;
+    private long fRangeStart = Long.MIN_VALUE;
+    private long fRangeEnd = Long.MAX_VALUE;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -151,7 +155,7 @@ public class CtfIterator extends CTFTraceReader
         if (top != null) {
             if (!fCurLocation.equals(fPreviousLocation)) {
                 fPreviousLocation = fCurLocation;
-                fPreviousEvent = fTrace.getEventFactory().createEvent(fTrace, checkNotNull(top.getCurrentEvent()), top.getFilename());
+                fPreviousEvent = fTrace.getEventFactory().createEvent(fTrace, top);
             }
             return fPreviousEvent;
         }
@@ -239,6 +243,29 @@ public class CtfIterator extends CTFTraceReader
         return ret;
     }
 
+    /**
+     * Apply the event types and time range of a context to this iterator. If
+     * they differ from the current ones, the location is invalidated so that
+     * the next seek repositions the stream readers.
+     *
+     * @param context
+     *            the context using this iterator
+     */
+    public synchronized void applyReadFilter(CtfTmfContext context) {
+        Set<String> eventTypes = context.getEventTypes();
+        if (Objects.equals(fEventTypes, eventTypes) && fRangeStart == context.getRangeStart() && fRangeEnd == context.getRangeEnd()) {
+            return;
+        }
+        fEventTypes = eventTypes;
+        fRangeStart = context.getRangeStart();
+        fRangeEnd = context.getRangeEnd();
+        setEventFilter(eventTypes);
+        setTimeRange(fRangeStart, fRangeEnd);
+        fCurLocation = NULL_LOCATION;
+        fPreviousLocation = null;
+        fPreviousEvent = null;
+    }
+
     // ------------------------------------------------------------------------
     // CTFTraceReader
     // ------------------------------------------------------------------------
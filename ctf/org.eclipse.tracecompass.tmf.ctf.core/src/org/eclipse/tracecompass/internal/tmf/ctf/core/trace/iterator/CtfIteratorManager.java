@@ -18,10 +18,10 @@ import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 
 import java.security.SecureRandom;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -69,7 +69,7 @@ public class CtfIteratorManager {
      *            The trace whose iterators this manager will manage
      */
     public CtfIteratorManager(CtfTmfTrace trace) {
-        fMap = new HashMap<>();
+        fMap = new ConcurrentHashMap<>();
         fRandomAccess = new ArrayList<>();
         fRnd = new SecureRandom();
         fTrace = trace;
@@ -117,6 +117,7 @@ public class CtfIteratorManager {
                      */
                     iter = replaceRandomElement(context);
                 }
+                iter.applyReadFilter(context);
                 if (context.getLocation() != null) {
                     final CtfLocationInfo location = (CtfLocationInfo) context.getLocation().getLocationInfo();
                     iter.seek(location);
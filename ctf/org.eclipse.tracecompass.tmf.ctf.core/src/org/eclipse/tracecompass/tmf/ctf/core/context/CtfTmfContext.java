@@ -15,6 +15,8 @@
 
 package org.eclipse.tracecompass.tmf.ctf.core.context;
 
+import java.util.Set;
+
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.tmf.ctf.core.trace.iterator.CtfIterator;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
@@ -39,6 +41,10 @@ public class CtfTmfContext implements ITmfContext {
 
     private final CtfTmfTrace fTrace;
 
+    private @Nullable Set<String> fEventTypes = null;
+    private long fRangeStart = Long.MIN_VALUE;
+    private long fRangeEnd = Long.MAX_VALUE;
+
     // -------------------------------------------
     // Constructor
     // -------------------------------------------
@@ -118,6 +124,67 @@ public class CtfTmfContext implements ITmfContext {
         return fTrace;
     }
 
+    /**
+     * Restrict what is read through this context. Only the events of the
+     * given types are read, and only the packets overlapping the time range.
+     * Since other events are skipped, the rank of this context becomes
+     * unknown when event types are given. The context is then seeked back to
+     * its current location.
+     *
+     * @param eventTypes
+     *            the names of the event types to read, or null for all
+     * @param startCycles
+     *            the start of the time range, in cycles
+     * @param endCycles
+     *            the end of the time range, in cycles
+     * @since 5.1
+     */
+    public synchronized void setReadFilter(@Nullable Set<String> eventTypes, long startCycles, long endCycles) {
+        fEventTypes = eventTypes;
+        fRangeStart = startCycles;
+        fRangeEnd = endCycles;
+        if (eventTypes != null) {
+            fCurRank = UNKNOWN_RANK;
+        }
+        CtfIterator iterator = getIterator();
+        if (iterator == null || fCurLocation == null || CtfLocation.INVALID_LOCATION.equals(fCurLocation.getLocationInfo())) {
+            return;
+        }
+        iterator.applyReadFilter(this);
+        iterator.seek(fCurLocation.getLocationInfo());
+        fCurLocation = iterator.getLocation();
+    }
+
+    /**
+     * Gets the names of the event types read by this context
+     *
+     * @return the event type names, or null if all events are read
+     * @since 5.1
+     */
+    public @Nullable Set<String> getEventTypes() {
+        return fEventTypes;
+    }
+
+    /**
+     * Gets the start of the time range read by this context
+     *
+     * @return the start time, in cycles
+     * @since 5.1
+     */
+    public long getRangeStart() {
+        return fRangeStart;
+    }
+
+    /**
+     * Gets the end of the time range read by this context
+     *
+     * @return the end time, in cycles
+     * @since 5.1
+     */
+    public long getRangeEnd() {
+        return fRangeEnd;
+    }
+
     /**
      * Gets the current event. Wrapper to help CtfTmfTrace
      *
@@ -17,6 +17,7 @@ package org.eclipse.tracecompass.tmf.ctf.core.event;
 
 import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -27,10 +28,14 @@ import java.util.Set;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
 import org.eclipse.tracecompass.ctf.core.event.IEventDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.ICompositeDefinition;
+import org.eclipse.tracecompass.ctf.core.trace.CTFStreamInput;
+import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
 import org.eclipse.tracecompass.ctf.core.trace.ICTFStream;
+import org.eclipse.tracecompass.internal.tmf.ctf.core.Activator;
 import org.eclipse.tracecompass.tmf.core.event.ITmfCustomAttributes;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventType;
@@ -71,7 +76,23 @@ public class CtfTmfEvent extends TmfEvent
     // ------------------------------------------------------------------------
 
     private final @Nullable IEventDeclaration fEventDeclaration;
-    private final IEventDefinition fEvent;
+
+    /**
+     * The event definition, kept until the event knows where it can be read
+     * again
+     */
+    private volatile @Nullable IEventDefinition fEvent;
+
+    /**
+     * The event definition once the event knows where it can be read again,
+     * it can then be garbage collected
+     */
+    private volatile @Nullable SoftReference<IEventDefinition> fEventRef;
+
+    /* Where to read the event again */
+    private @Nullable CTFStreamInput fStreamInput;
+    private @Nullable ICTFPacketDescriptor fPacket;
+    private long fPosition = -1;
 
     // ------------------------------------------------------------------------
     // Attributes
@@ -80,19 +101,22 @@ public class CtfTmfEvent extends TmfEvent
     /* Fields that are introduced by and part of this event's definition. */
     private final int fSourceCpu;
     private final String fChannel;
+    private final long fUnscaledTime;
 
     /**
      * Field to override {@link TmfEvent#getName()}, to bypass the type-getting
      */
     private final String fEventName;
 
-    /** Lazy-loaded field containing the event's payload */
-    private transient @Nullable ITmfEventField fContent;
+    /**
+     * Lazy-loaded field containing the event's payload, it can be garbage
+     * collected as it can be parsed again
+     */
+    private transient volatile @Nullable SoftReference<ITmfEventField> fContent;
 
     /** Lazy-loaded field for the type, overriding TmfEvent's field */
-    private transient @Nullable CtfTmfEventType fEventType;
+    private transient volatile @Nullable CtfTmfEventType fEventType;
 
-    private final @Nullable ICTFStream fStream;
     private final Map<String, Object> fPacketAttributes;
 
     // ------------------------------------------------------------------------
@@ -148,7 +172,7 @@ public class CtfTmfEvent extends TmfEvent
         fEventName = checkNotNull(declaration.getName());
         fEvent = eventDefinition;
         fChannel = channel;
-        fStream = fEvent.getDeclaration().getStream();
+        fUnscaledTime = eventDefinition.getTimestamp();
         fPacketAttributes = eventDefinition.getPacketAttributes();
     }
 
@@ -174,7 +198,7 @@ public class CtfTmfEvent extends TmfEvent
         fEventDeclaration = null;
         fEvent = NullEventDefinition.INSTANCE;
         fChannel = ""; //$NON-NLS-1$
-        fStream = null;
+        fUnscaledTime = NullEventDefinition.INSTANCE.getTimestamp();
         fPacketAttributes = Collections.emptyMap();
     }
 
@@ -192,10 +216,64 @@ public class CtfTmfEvent extends TmfEvent
         fEventDeclaration = null;
         fEvent = NullEventDefinition.INSTANCE;
         fChannel = ""; //$NON-NLS-1$
-        fStream = null;
+        fUnscaledTime = NullEventDefinition.INSTANCE.getTimestamp();
         fPacketAttributes = Collections.emptyMap();
     }
 
+    /**
+     * Set where this event can be read again, so that its definition does not
+     * need to be kept in memory. Only called by the factory, before the event
+     * is published.
+     *
+     * @param streamInput
+     *            The stream input of the event
+     * @param packet
+     *            The packet of the event
+     * @param position
+     *            The position of the event in the packet, in bits
+     */
+    void setSource(CTFStreamInput streamInput, ICTFPacketDescriptor packet, long position) {
+        fStreamInput = streamInput;
+        fPacket = packet;
+        fPosition = position;
+        IEventDefinition event = fEvent;
+        if (event != null) {
+            fEventRef = new SoftReference<>(event);
+            fEvent = null;
+        }
+    }
+
+    /**
+     * Get the event definition, reading it again from the trace if it was
+     * garbage collected.
+     */
+    private IEventDefinition getEventDefinition() {
+        IEventDefinition event = fEvent;
+        if (event != null) {
+            return event;
+        }
+        SoftReference<IEventDefinition> ref = fEventRef;
+        event = (ref == null) ? null : ref.get();
+        if (event == null) {
+            event = readEventDefinition();
+            fEventRef = new SoftReference<>(event);
+        }
+        return event;
+    }
+
+    private IEventDefinition readEventDefinition() {
+        CTFStreamInput streamInput = fStreamInput;
+        ICTFPacketDescriptor packet = fPacket;
+        if (streamInput != null && packet != null) {
+            try {
+                return streamInput.readEventAt(packet, fPosition, fUnscaledTime);
+            } catch (CTFException e) {
+                Activator.getDefault().logError("Error reading event " + fEventName + " in " + streamInput.getFilename(), e); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+        return NullEventDefinition.INSTANCE;
+    }
+
     // ------------------------------------------------------------------------
     // Getters/Setters/Predicates
     // ------------------------------------------------------------------------
@@ -226,7 +304,8 @@ public class CtfTmfEvent extends TmfEvent
      * @since 2.0
      */
     public long getStreamId() {
-        ICTFStream stream = fStream;
+        IEventDeclaration declaration = fEventDeclaration;
+        ICTFStream stream = (declaration == null) ? null : declaration.getStream();
         if (stream == null) {
             return -1;
         }
@@ -241,7 +320,7 @@ public class CtfTmfEvent extends TmfEvent
      * @since 3.0
      */
     public long getUnscaledTime() {
-        return fEvent.getTimestamp();
+        return fUnscaledTime;
     }
 
     // ------------------------------------------------------------------------
@@ -258,16 +337,24 @@ public class CtfTmfEvent extends TmfEvent
     }
 
     @Override
-    public synchronized ITmfEventType getType() {
+    public ITmfEventType getType() {
         CtfTmfEventType type = fEventType;
         if (type == null) {
-            type = new CtfTmfEventType(fEventName, getContent());
-
             /*
-             * Register the event type in the owning trace, but only if there is
-             * one
+             * Share the type declared by the trace, so that the type does not
+             * keep this event's content
              */
-            getTrace().registerEventType(type);
+            CtfTmfTrace trace = getTrace();
+            type = trace.getContainedEventType(fEventName);
+            if (type == null) {
+                type = new CtfTmfEventType(fEventName, getContent());
+
+                /*
+                 * Register the event type in the owning trace, but only if
+                 * there is one
+                 */
+                trace.registerEventType(type);
+            }
             fEventType = type;
         }
         return type;
@@ -279,12 +366,23 @@ public class CtfTmfEvent extends TmfEvent
     }
 
     @Override
-    public synchronized ITmfEventField getContent() {
-        ITmfEventField content = fContent;
+    public int getTypeIndex() {
+        IEventDeclaration declaration = fEventDeclaration;
+        return (declaration == null) ? -1 : declaration.getTypeIndex();
+    }
+
+    @Override
+    public ITmfEventField getContent() {
+        /*
+         * Not synchronized, two threads may parse the fields at the same time
+         * but they get equal contents.
+         */
+        SoftReference<ITmfEventField> ref = fContent;
+        ITmfEventField content = (ref == null) ? null : ref.get();
         if (content == null) {
             content = new TmfEventField(
-                    ITmfEventField.ROOT_FIELD_ID, null, parseFields(fEvent));
-            fContent = content;
+                    ITmfEventField.ROOT_FIELD_ID, null, parseFields(getEventDefinition()));
+            fContent = new SoftReference<>(content);
         }
         return content;
     }
@@ -407,7 +505,7 @@ public class CtfTmfEvent extends TmfEvent
      * @since 4.2
      */
     public @Nullable ICompositeDefinition getPacketContext() {
-        return fEvent.getPacketContext();
+        return getEventDefinition().getPacketContext();
     }
 
     /**
@@ -417,7 +515,7 @@ public class CtfTmfEvent extends TmfEvent
      * @since 4.3
      */
     public @Nullable ICompositeDefinition getPacketHeader() {
-        return fEvent.getPacketHeader();
+        return getEventDefinition().getPacketHeader();
     }
 
     /**
@@ -427,7 +525,7 @@ public class CtfTmfEvent extends TmfEvent
      * @since 4.2
      */
     public @Nullable ICompositeDefinition getStreamContext() {
-        return fEvent.getStreamContext();
+        return getEventDefinition().getStreamContext();
     }
 
     /**
@@ -437,7 +535,7 @@ public class CtfTmfEvent extends TmfEvent
      * @since 4.2
      */
     public @Nullable ICompositeDefinition getEventContext() {
-        return fEvent.getEventContext();
+        return getEventDefinition().getEventContext();
     }
     // ------------------------------------------------------------------------
     // Object
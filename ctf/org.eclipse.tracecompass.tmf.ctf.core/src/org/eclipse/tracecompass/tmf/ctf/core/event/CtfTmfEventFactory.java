@@ -14,6 +14,8 @@
 
 package org.eclipse.tracecompass.tmf.ctf.core.event;
 
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.ctf.core.CTFStrings;
@@ -21,6 +23,8 @@ import org.eclipse.tracecompass.ctf.core.event.IEventDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.IDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.IntegerDefinition;
+import org.eclipse.tracecompass.ctf.core.trace.CTFStreamInputReader;
+import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
 import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
@@ -104,6 +108,30 @@ public class CtfTmfEventFactory {
                 eventDef);
     }
 
+    /**
+     * Factory method to instantiate a new CTF event from the current event of
+     * a stream input reader. The event knows where it was read, so it does
+     * not have to keep the definition of its fields in memory: it can be read
+     * again from the trace when needed.
+     *
+     * @param trace
+     *            The trace to which the new event will belong
+     * @param reader
+     *            The stream input reader, positioned on the event
+     * @return The newly-built CtfTmfEvent
+     * @since 5.1
+     */
+    public CtfTmfEvent createEvent(CtfTmfTrace trace, CTFStreamInputReader reader) {
+        IEventDefinition eventDef = checkNotNull(reader.getCurrentEvent());
+        CtfTmfEvent event = createEvent(trace, eventDef, reader.getFilename());
+        long position = reader.getCurrentEventPosition();
+        ICTFPacketDescriptor packet = reader.getCurrentPacketReader().getCurrentPacket();
+        if (position >= 0 && packet != null && !(event instanceof CtfTmfLostEvent)) {
+            event.setSource(reader.getStreamInput(), packet, position);
+        }
+        return event;
+    }
+
     /**
      * Create a new CTF lost event.
      *
@@ -50,4 +50,23 @@ public class CtfCpuAspect extends TmfCpuAspect {
         }
         return cpu;
     }
+
+    @Override
+    public int resolveInt(ITmfEvent event, int defaultValue) {
+        if (!(event instanceof CtfTmfEvent)) {
+            return defaultValue;
+        }
+        int cpu = ((CtfTmfEvent) event).getCPU();
+        if (cpu == IEventDefinition.UNKNOWN_CPU) {
+            Integer value = resolve(event);
+            return value == null ? defaultValue : value;
+        }
+        return cpu;
+    }
+
+    @Override
+    public long resolveLong(ITmfEvent event, long defaultValue) {
+        int cpu = resolveInt(event, IEventDefinition.UNKNOWN_CPU);
+        return cpu == IEventDefinition.UNKNOWN_CPU ? defaultValue : cpu;
+    }
 }
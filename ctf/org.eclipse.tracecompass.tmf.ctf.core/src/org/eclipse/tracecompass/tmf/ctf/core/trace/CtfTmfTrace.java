@@ -31,6 +31,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiPredicate;
+import java.util.function.ObjIntConsumer;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -45,10 +47,12 @@ import org.eclipse.tracecompass.ctf.core.event.CTFCallsite;
 import org.eclipse.tracecompass.ctf.core.event.CTFClock;
 import org.eclipse.tracecompass.ctf.core.event.IEventDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
+import org.eclipse.tracecompass.ctf.core.trace.CTFEventHeaders;
 import org.eclipse.tracecompass.ctf.core.trace.CTFStreamInput;
 import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
 import org.eclipse.tracecompass.ctf.core.trace.CTFTraceReader;
 import org.eclipse.tracecompass.ctf.core.trace.CTFTraceWriter;
+import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
 import org.eclipse.tracecompass.ctf.core.trace.ICTFStream;
 import org.eclipse.tracecompass.ctf.core.trace.Metadata;
 import org.eclipse.tracecompass.internal.tmf.ctf.core.Activator;
@@ -65,15 +69,20 @@ import org.eclipse.tracecompass.tmf.core.event.aspect.ITmfEventAspect;
 import org.eclipse.tracecompass.tmf.core.event.aspect.TmfBaseAspects;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
 import org.eclipse.tracecompass.tmf.core.project.model.ITmfPropertiesProvider;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.synchronization.ITmfTimestampTransform;
+import org.eclipse.tracecompass.tmf.core.synchronization.TimestampTransformFactory;
 import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.trace.ICyclesConverter;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTimestampScannable;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTraceKnownSize;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTraceWithPreDefinedEvents;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TraceValidationStatus;
+import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfParallelIndexable;
 import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfPersistentlyIndexable;
 import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfTraceIndexer;
 import org.eclipse.tracecompass.tmf.core.trace.indexer.TmfBTreeTraceIndexer;
@@ -102,8 +111,9 @@ import com.google.common.collect.ImmutableSet;
  * @author Matthew khouzam
  */
 public class CtfTmfTrace extends TmfTrace
-        implements ITmfPropertiesProvider, ITmfPersistentlyIndexable,
-        ITmfTraceWithPreDefinedEvents, ITmfTraceKnownSize, ICyclesConverter, ITmfTrimmableTrace {
+        implements ITmfPropertiesProvider, ITmfPersistentlyIndexable, ITmfParallelIndexable,
+        ITmfTraceWithPreDefinedEvents, ITmfTraceKnownSize, ICyclesConverter, ITmfTrimmableTrace,
+        ITmfTimestampScannable {
 
     // -------------------------------------------
     // Constants
@@ -427,6 +437,127 @@ public class CtfTmfTrace extends TmfTrace
         return context;
     }
 
+    /**
+     * Split the trace in segments of the same duration. Each segment starts
+     * at its first event, so that no event is in two segments.
+     */
+    @Override
+    public List<ITmfLocation> getSegmentLocations(int nbSegments) {
+        List<ITmfLocation> locations = new ArrayList<>();
+        ITmfTimestamp endTime = readEnd();
+        if (fTrace == null || endTime == null || getStartTime().equals(TmfTimestamp.BIG_BANG)) {
+            return locations;
+        }
+        final long start = getStartTime().getValue();
+        final long diff = endTime.getValue() - start;
+        CtfLocationInfo previous = new CtfLocationInfo(0L, 0L);
+        locations.add(new CtfLocation(previous));
+        for (int i = 1; i < nbSegments; i++) {
+            CtfTmfContext context = new CtfTmfContext(this);
+            try {
+                context.seek(start + Math.round(diff * ((double) i / nbSegments)));
+                CtfLocation location = (CtfLocation) context.getLocation();
+                CtfLocationInfo info = location.getLocationInfo();
+                if (!CtfLocation.INVALID_LOCATION.equals(info) && info.compareTo(previous) > 0) {
+                    locations.add(location);
+                    previous = info;
+                }
+            } finally {
+                context.dispose();
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Read a segment with its own context, without locking the trace. The
+     * contexts have their own iterator, so segments can be read at the same
+     * time.
+     */
+    @Override
+    public void readSegment(ITmfLocation start, @Nullable ITmfLocation end, BiPredicate<ITmfLocation, ITmfEvent> visitor) {
+        CtfLocationInfo endInfo = (end instanceof CtfLocation) ? ((CtfLocation) end).getLocationInfo() : null;
+        CtfTmfContext context = new CtfTmfContext(this);
+        try {
+            context.setLocation(start);
+            while (true) {
+                CtfLocation location = (CtfLocation) context.getLocation();
+                if (location == null || CtfLocation.INVALID_LOCATION.equals(location.getLocationInfo()) ||
+                        (endInfo != null && location.getLocationInfo().compareTo(endInfo) >= 0)) {
+                    return;
+                }
+                CtfTmfEvent event = context.getCurrentEvent();
+                if (event == null || !visitor.test(location, event)) {
+                    return;
+                }
+                context.advance();
+            }
+        } finally {
+            context.dispose();
+        }
+    }
+
+    /**
+     * Scan the event headers of each packet of the trace, without decoding the
+     * payloads of fixed size, and convert their timestamps to nanoseconds and
+     * transform them in bulk.
+     *
+     * @since 5.1
+     */
+    @Override
+    public void scanTimestamps(ObjIntConsumer<long[]> consumer) throws TmfTraceException {
+        CTFTrace trace = fTrace;
+        if (trace == null) {
+            return;
+        }
+        ITmfTimestampTransform transform = getTimestampTransform();
+        try {
+            for (ICTFStream stream : trace.getStreams()) {
+                for (CTFStreamInput streamInput : stream.getStreamInputs()) {
+                    for (ICTFPacketDescriptor packet : streamInput.getIndexedPackets()) {
+                        CTFEventHeaders headers = streamInput.readEventHeaders(packet);
+                        long[] timestamps = headers.getTimestampsNanos(trace);
+                        transform.transform(timestamps, timestamps, timestamps.length);
+                        consumer.accept(timestamps, timestamps.length);
+                    }
+                }
+            }
+        } catch (CTFException e) {
+            throw new TmfTraceException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Arm the request like {@link TmfTrace#armRequest}, then pass its event
+     * types and time range down to the CTF reader, so that the packets outside
+     * the range and the events of other types are skipped without being
+     * decoded. The time range is only used when timestamps are not
+     * transformed, since the reader works in the trace's own clock.
+     */
+    @Override
+    public synchronized ITmfContext armRequest(final ITmfEventRequest request) {
+        ITmfContext context = super.armRequest(request);
+        if (!(context instanceof CtfTmfContext)) {
+            return context;
+        }
+        Set<String> eventTypes = request.getEventTypes();
+        long start = Long.MIN_VALUE;
+        long end = Long.MAX_VALUE;
+        TmfTimeRange range = request.getRange();
+        if (getTimestampTransform().equals(TimestampTransformFactory.getDefaultTransform())) {
+            if (!range.getStartTime().equals(TmfTimestamp.BIG_BANG)) {
+                start = timestampNanoToCycles(range.getStartTime().toNanos());
+            }
+            if (!range.getEndTime().equals(TmfTimestamp.BIG_CRUNCH)) {
+                end = timestampNanoToCycles(range.getEndTime().toNanos());
+            }
+        }
+        if (eventTypes != null || start != Long.MIN_VALUE || end != Long.MAX_VALUE) {
+            ((CtfTmfContext) context).setReadFilter(eventTypes, start, end);
+        }
+        return context;
+    }
+
     /**
      * Method readNextEvent.
      *
@@ -632,6 +763,18 @@ public class CtfTmfTrace extends TmfTrace
         return ImmutableSet.copyOf(fContainedEventTypes.values());
     }
 
+    /**
+     * Get a declared event type of this trace.
+     *
+     * @param eventName
+     *            The name of the event type
+     * @return The event type, or null if no type of that name is registered
+     * @since 5.1
+     */
+    public @Nullable CtfTmfEventType getContainedEventType(String eventName) {
+        return fContainedEventTypes.get(eventName);
+    }
+
     /**
      * Register an event type to this trace.
      *
@@ -750,6 +893,27 @@ public class CtfTmfTrace extends TmfTrace
         return TmfTimestamp.fromNanos(getTimestampTransform().transform(ts));
     }
 
+    @Override
+    public void setTimestampTransform(ITmfTimestampTransform tt) {
+        super.setTimestampTransform(tt);
+        /* An empty trace has no time range */
+        if (!getStartTime().equals(TmfTimestamp.BIG_BANG)) {
+            prepareTimestampTransform(getTimestampTransform());
+        }
+    }
+
+    /**
+     * Prepare the timestamp transform for the time range of the trace, so the
+     * timestamps of the events are transformed without locking nor BigDecimal
+     * arithmetic.
+     */
+    private void prepareTimestampTransform(ITmfTimestampTransform tt) {
+        CTFTrace trace = fTrace;
+        if (trace != null) {
+            tt.prepare(trace.getCurrentStartTime(), trace.getCurrentEndTime());
+        }
+    }
+
     private static int fCheckpointSize = -1;
 
     @Override
@@ -930,6 +1094,7 @@ public class CtfTmfTrace extends TmfTrace
                 /* Handle the case where the trace is empty */
                 this.setStartTime(TmfTimestamp.BIG_BANG);
             } else {
+                prepareTimestampTransform(getTimestampTransform());
                 final ITmfTimestamp curTime = event.getTimestamp();
                 this.setStartTime(curTime);
                 long endTime = createTimestamp(fTrace.getCurrentEndTime()).getValue();
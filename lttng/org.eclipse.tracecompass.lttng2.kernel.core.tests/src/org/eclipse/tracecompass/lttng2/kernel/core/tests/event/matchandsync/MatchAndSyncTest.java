@@ -20,15 +20,21 @@ import static org.junit.Assert.fail;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.internal.lttng2.kernel.core.event.matching.TcpEventMatching;
 import org.eclipse.tracecompass.internal.lttng2.kernel.core.event.matching.TcpLttngEventMatching;
 import org.eclipse.tracecompass.testtraces.ctf.CtfTestTrace;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.matching.IMatchProcessingUnit;
+import org.eclipse.tracecompass.tmf.core.event.matching.TmfEventDependency;
 import org.eclipse.tracecompass.tmf.core.event.matching.TmfEventMatching;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.ctf.core.tests.shared.CtfTmfTestTraceUtils;
 import org.eclipse.tracecompass.tmf.ctf.core.trace.CtfTmfTrace;
@@ -76,4 +82,82 @@ public class MatchAndSyncTest {
         }
     }
 
+    /**
+     * Match processing unit that keeps the matches in the order they are
+     * found
+     */
+    private static class MatchRecorder implements IMatchProcessingUnit {
+
+        private final List<String> fMatches = new ArrayList<>();
+
+        @Override
+        public void init(Collection<ITmfTrace> fTraces) {
+            fMatches.clear();
+        }
+
+        @Override
+        public void addMatch(TmfEventDependency match) {
+            fMatches.add(match.getSource().getTrace().getName() + '@' + match.getSource().getTimestamp().toNanos() + " -> " +
+                    match.getDestination().getTrace().getName() + '@' + match.getDestination().getTimestamp().toNanos());
+        }
+
+        @Override
+        public void matchingEnded() {
+            // Nothing to do
+        }
+
+        @Override
+        public int countMatches() {
+            return fMatches.size();
+        }
+    }
+
+    /**
+     * Test that matching the traces read in parallel finds the same matches,
+     * in the same order, as matching their events one at a time in
+     * chronological order
+     */
+    @Test
+    public void testParallelMatching() {
+        CtfTmfTrace trace1 = CtfTmfTestTraceUtils.getTrace(CtfTestTrace.SYNC_SRC);
+        CtfTmfTrace trace2 = CtfTmfTestTraceUtils.getTrace(CtfTestTrace.SYNC_DEST);
+
+        List<@NonNull ITmfTrace> tracearr = new LinkedList<>();
+        tracearr.add(trace1);
+        tracearr.add(trace2);
+
+        TmfEventMatching.registerMatchObject(new TcpEventMatching());
+        TmfEventMatching.registerMatchObject(new TcpLttngEventMatching());
+
+        try {
+            MatchRecorder parallel = new MatchRecorder();
+            assertTrue(new TmfEventMatching(tracearr, parallel).matchEvents());
+
+            MatchRecorder sequential = new MatchRecorder();
+            TmfEventMatching matching = new TmfEventMatching(tracearr, sequential);
+            matching.initMatching();
+            ITmfContext context1 = trace1.seekEvent(0L);
+            ITmfContext context2 = trace2.seekEvent(0L);
+            ITmfEvent event1 = trace1.getNext(context1);
+            ITmfEvent event2 = trace2.getNext(context2);
+            while (event1 != null || event2 != null) {
+                if (event2 == null || (event1 != null && event1.getTimestamp().compareTo(event2.getTimestamp()) <= 0)) {
+                    matching.matchEvent(event1, trace1, new NullProgressMonitor());
+                    event1 = trace1.getNext(context1);
+                } else {
+                    matching.matchEvent(event2, trace2, new NullProgressMonitor());
+                    event2 = trace2.getNext(context2);
+                }
+            }
+            context1.dispose();
+            context2.dispose();
+
+            assertEquals(46, sequential.countMatches());
+            assertEquals(sequential.fMatches, parallel.fMatches);
+        } finally {
+            trace1.dispose();
+            trace2.dispose();
+        }
+    }
+
 }
@@ -33,14 +33,18 @@ public class CriticalPathParameterProvider extends TmfAbstractAnalysisParamProvi
 
     private static final String NAME = "Critical Path Lttng kernel parameter provider"; //$NON-NLS-1$
 
-    private HostThread fCurrentHostThread = null;
+    private volatile HostThread fCurrentHostThread = null;
 
     /**
      * Constructor
      */
     public CriticalPathParameterProvider() {
         super();
-        TmfSignalManager.register(this);
+        /*
+         * A new thread resets and reschedules the critical path, so the signals
+         * are received in a delivery lane rather than in the UI thread
+         */
+        TmfSignalManager.registerAsync(this);
     }
 
     @Override
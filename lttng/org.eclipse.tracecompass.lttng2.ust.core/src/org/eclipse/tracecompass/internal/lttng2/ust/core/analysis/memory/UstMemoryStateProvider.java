@@ -34,6 +34,7 @@ import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
 import org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.statesystem.ITmfStateProvider;
+import org.eclipse.tracecompass.tmf.core.statesystem.TmfEventHandlerTable;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 
@@ -73,7 +74,7 @@ public class UstMemoryStateProvider extends AbstractTmfStateProvider {
     private final Map<Long, MemoryAllocation> fMemory = new HashMap<>();
 
     private final @NonNull ILttngUstEventLayout fLayout;
-    private final @NonNull Map<String, Integer> fEventNames;
+    private final @NonNull TmfEventHandlerTable<Integer> fEventNames;
     private final @Nullable UstMemoryAnalysisModule fAnalysis;
 
     /**
@@ -144,7 +145,7 @@ public class UstMemoryStateProvider extends AbstractTmfStateProvider {
         } else {
             fLayout = ((LttngUstTrace) trace).getEventLayout();
         }
-        fEventNames = buildEventNames(fLayout);
+        fEventNames = new TmfEventHandlerTable<>(buildEventNames(fLayout));
         fAnalysis = baseAnalysis;
     }
 
@@ -159,10 +160,14 @@ public class UstMemoryStateProvider extends AbstractTmfStateProvider {
         return builder.build();
     }
 
+    @Override
+    protected TmfEventHandlerTable<Integer> getEventHandlerTable() {
+        return fEventNames;
+    }
+
     @Override
     protected void eventHandle(ITmfEvent event) {
-        String name = event.getName();
-        Integer index = fEventNames.get(name);
+        Integer index = fEventNames.getHandler(event);
         int intIndex = (index == null ? -1 : index.intValue());
 
         switch (intIndex) {
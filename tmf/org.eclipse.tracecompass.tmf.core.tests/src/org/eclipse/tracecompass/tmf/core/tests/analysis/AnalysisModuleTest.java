@@ -33,6 +33,7 @@ import org.eclipse.osgi.util.NLS;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.analysis.Messages;
 import org.eclipse.tracecompass.tmf.core.analysis.TmfAbstractAnalysisModule;
+import org.eclipse.tracecompass.tmf.core.analysis.TmfAnalysisManager;
 import org.eclipse.tracecompass.tmf.core.config.ITmfConfiguration;
 import org.eclipse.tracecompass.tmf.core.config.TmfConfiguration;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
@@ -49,6 +50,7 @@ import org.junit.Test;
 import org.junit.rules.TestRule;
 import org.junit.rules.Timeout;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 /**
@@ -460,6 +462,94 @@ public class AnalysisModuleTest {
 
     }
 
+    /**
+     * Test {@link TmfAnalysisManager#scheduleAnalyses}, where B depends on A,
+     * and C depends on A and B, and A takes longer than the others
+     */
+    @Test
+    public void testScheduleAnalyses() {
+
+        ITmfTrace trace = TmfTestTrace.A_TEST_10K.getTrace();
+
+        /* Prepare module A with no dependency */
+        TestAnalysis moduleA = new TestAnalysis() {
+
+            @Override
+            protected boolean executeAnalysis(IProgressMonitor monitor) throws TmfAnalysisException {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+                return super.executeAnalysis(monitor);
+            }
+
+        };
+        moduleA.setName(MODULE_GENERIC_NAME);
+        moduleA.setId(MODULE_GENERIC_ID);
+        moduleA.addParameter(TestAnalysis.PARAM_TEST);
+        moduleA.setParameter(TestAnalysis.PARAM_TEST, 1);
+
+        /* Prepare module B depending on A */
+        String suffix = " B";
+        TestAnalysis moduleB = new TestAnalysis() {
+
+            @Override
+            protected Iterable<IAnalysisModule> getDependentAnalyses() {
+                return ImmutableSet.of(moduleA);
+            }
+
+        };
+        moduleB.setName(MODULE_GENERIC_NAME + suffix);
+        moduleB.setId(MODULE_GENERIC_ID + suffix);
+        moduleB.addParameter(TestAnalysis.PARAM_TEST);
+        moduleB.setParameter(TestAnalysis.PARAM_TEST, 2);
+
+        /* Prepare module C depending on A and B */
+        suffix = " C";
+        TestAnalysis moduleC = new TestAnalysis() {
+
+            @Override
+            protected Iterable<IAnalysisModule> getDependentAnalyses() {
+                return ImmutableSet.of(moduleA, moduleB);
+            }
+
+        };
+        moduleC.setName(MODULE_GENERIC_NAME + suffix);
+        moduleC.setId(MODULE_GENERIC_ID + suffix);
+        moduleC.addParameter(TestAnalysis.PARAM_TEST);
+        moduleC.setParameter(TestAnalysis.PARAM_TEST, 3);
+
+        try {
+            assertTrue(moduleA.setTrace(trace));
+            assertTrue(moduleB.setTrace(trace));
+            assertTrue(moduleC.setTrace(trace));
+        } catch (TmfAnalysisException e) {
+            fail(e.getMessage());
+        }
+
+        IStatus status = TmfAnalysisManager.scheduleAnalyses(ImmutableList.of(moduleC, moduleB));
+        assertTrue(status.isOK());
+
+        /* C completes only once its dependencies are completed */
+        assertTrue(moduleC.waitForCompletion());
+        assertEquals(1, moduleA.getAnalysisOutput());
+        assertEquals(2, moduleB.getAnalysisOutput());
+        assertEquals(3, moduleC.getAnalysisOutput());
+        assertTrue(moduleA.waitForCompletion());
+        assertTrue(moduleB.waitForCompletion());
+
+        /* Check the dependency level of the analyses */
+        assertEquals(0, moduleA.getDependencyLevel());
+        assertEquals(1, moduleB.getDependencyLevel());
+        assertEquals(3, moduleC.getDependencyLevel());
+
+        moduleA.dispose();
+        moduleB.dispose();
+        moduleC.dispose();
+        trace.dispose();
+    }
+
     /**
      * Test that the failure of the dependent analysis is propagated to the
      * parent analysis by the {@link TmfAbstractAnalysisModule}
@@ -409,4 +409,42 @@ public class TmfEventMatchingTest {
 
     }
 
+    /**
+     * Test that the unmatched events older than the window are removed, so
+     * that lost packets do not accumulate
+     */
+    @Test
+    public void testUnmatchedWindow() {
+        Collection<@NonNull ITmfTrace> traces = fTraces;
+        assertNotNull(traces);
+        TmfEventMatchingStub matching = new TmfEventMatchingStub(traces);
+        matching.initMatching();
+        matching.setUnmatchedWindow(10L);
+
+        TmfTraceStub t1 = fT1;
+        assertNotNull(t1);
+        TmfTraceStub t2 = fT2;
+        assertNotNull(t2);
+
+        // Unmatched events of t1, the first ones are lost
+        matching.matchEvent(new MatchEventStub(t1, TmfTimestamp.fromNanos(1L), 1, Direction.CAUSE), t1, PROGRESS_MONITOR);
+        matching.matchEvent(new MatchEventStub(t1, TmfTimestamp.fromNanos(2L), 2, Direction.EFFECT), t1, PROGRESS_MONITOR);
+        matching.matchEvent(new MatchEventStub(t1, TmfTimestamp.fromNanos(8L), 3, Direction.CAUSE), t1, PROGRESS_MONITOR);
+        assertEquals(2, matching.getUnmatchedOut().row(t1).size());
+        assertEquals(1, matching.getUnmatchedIn().row(t1).size());
+
+        // Events of another trace do not expire the events of t1
+        matching.matchEvent(new MatchEventStub(t2, TmfTimestamp.fromNanos(30L), 4, Direction.EFFECT), t2, PROGRESS_MONITOR);
+        assertEquals(2, matching.getUnmatchedOut().row(t1).size());
+        assertEquals(1, matching.getUnmatchedIn().row(t1).size());
+
+        // Events of t1 more than 10 ns older than its current event are removed
+        matching.matchEvent(new MatchEventStub(t1, TmfTimestamp.fromNanos(15L), 5, Direction.CAUSE), t1, PROGRESS_MONITOR);
+        assertEquals(2, matching.getUnmatchedOut().row(t1).size());
+        assertEquals(0, matching.getUnmatchedIn().row(t1).size());
+
+        // The event still in the window can be matched
+        matching.matchEvent(new MatchEventStub(t2, TmfTimestamp.fromNanos(31L), 3, Direction.EFFECT), t2, PROGRESS_MONITOR);
+        assertEquals(1, matching.getUnmatchedOut().row(t1).size());
+    }
 }
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.filter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.tracecompass.internal.tmf.core.filter.TmfEventFieldIndex;
+import org.eclipse.tracecompass.internal.tmf.core.filter.TmfRankBitmap;
+import org.junit.Test;
+
+/**
+ * Test suite for the search methods of the {@link TmfEventFieldIndex} class.
+ */
+@SuppressWarnings("javadoc")
+public class TmfEventFieldIndexTest {
+
+    private static TmfRankBitmap createBitmap(long... ranks) {
+        TmfRankBitmap bitmap = new TmfRankBitmap();
+        for (long rank : ranks) {
+            bitmap.add(rank);
+        }
+        return bitmap;
+    }
+
+    @Test
+    public void testNextRank() {
+        List<TmfRankBitmap> ranks = Arrays.asList(createBitmap(3, 10, 200000), createBitmap(5, 7, 100000));
+        assertEquals(3, TmfEventFieldIndex.nextRank(ranks, 0));
+        assertEquals(3, TmfEventFieldIndex.nextRank(ranks, 3));
+        assertEquals(5, TmfEventFieldIndex.nextRank(ranks, 4));
+        assertEquals(10, TmfEventFieldIndex.nextRank(ranks, 8));
+        assertEquals(100000, TmfEventFieldIndex.nextRank(ranks, 11));
+        assertEquals(200000, TmfEventFieldIndex.nextRank(ranks, 100001));
+        assertEquals(-1, TmfEventFieldIndex.nextRank(ranks, 200001));
+        assertEquals(-1, TmfEventFieldIndex.nextRank(Collections.emptyList(), 0));
+    }
+
+    @Test
+    public void testPreviousRank() {
+        List<TmfRankBitmap> ranks = Arrays.asList(createBitmap(3, 10, 200000), createBitmap(5, 7, 100000));
+        assertEquals(-1, TmfEventFieldIndex.previousRank(ranks, 2));
+        assertEquals(3, TmfEventFieldIndex.previousRank(ranks, 3));
+        assertEquals(3, TmfEventFieldIndex.previousRank(ranks, 4));
+        assertEquals(7, TmfEventFieldIndex.previousRank(ranks, 9));
+        assertEquals(100000, TmfEventFieldIndex.previousRank(ranks, 199999));
+        assertEquals(200000, TmfEventFieldIndex.previousRank(ranks, Long.MAX_VALUE - 1));
+        assertEquals(-1, TmfEventFieldIndex.previousRank(Collections.emptyList(), 10));
+    }
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.filter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.internal.tmf.core.filter.TmfFilterCompiler;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventType;
+import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.TmfEventField;
+import org.eclipse.tracecompass.tmf.core.event.TmfEventType;
+import org.eclipse.tracecompass.tmf.core.event.aspect.TmfBaseAspects;
+import org.eclipse.tracecompass.tmf.core.event.aspect.TmfContentFieldAspect;
+import org.eclipse.tracecompass.tmf.core.filter.model.ITmfFilterTreeNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterAndNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterAspectNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterCompareNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterContainsNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterEqualsNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterMatchesNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterOrNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterRootNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterTraceTypeNode;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.tests.stubs.trace.TmfTraceStub;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link TmfFilterCompiler} class. The compiled filters
+ * must match the same events as the filters.
+ */
+@SuppressWarnings("javadoc")
+public class TmfFilterCompilerTest {
+
+    private static final @NonNull ITmfTrace TRACE = new TmfTraceStub();
+    private static final @NonNull String FIELD = "field";
+    private static final String[] TYPES = { "sched_switch", "sched_wakeup", "irq_handler_entry" };
+    private static final String[] VALUES = { "value 1", "Value 2", "other", "12", "a.b" };
+
+    private static final List<ITmfEvent> EVENTS = new ArrayList<>();
+
+    static {
+        int rank = 0;
+        for (String typeName : TYPES) {
+            ITmfEventType type = new TmfEventType(typeName, TmfEventField.makeRoot(new String[] { FIELD }));
+            for (String value : VALUES) {
+                ITmfEventField[] fields = new ITmfEventField[] { new TmfEventField(FIELD, value, null) };
+                ITmfEventField content = new TmfEventField(ITmfEventField.ROOT_FIELD_ID, null, fields);
+                EVENTS.add(new TmfEvent(TRACE, rank, TmfTimestamp.fromNanos(rank), type, content));
+                rank++;
+            }
+        }
+    }
+
+    @AfterClass
+    public static void disposeTrace() {
+        TRACE.dispose();
+    }
+
+    private static void assertSameMatches(ITmfFilterTreeNode filter) {
+        Predicate<ITmfEvent> predicate = TmfFilterCompiler.compile(filter);
+        for (ITmfEvent event : EVENTS) {
+            assertEquals(filter.toString() + " on " + event, filter.matches(event), predicate.test(event));
+        }
+    }
+
+    private static <T extends TmfFilterAspectNode> T onField(T node) {
+        node.setEventAspect(new TmfContentFieldAspect(FIELD, FIELD));
+        return node;
+    }
+
+    private static <T extends TmfFilterAspectNode> T onType(T node) {
+        node.setEventAspect(TmfBaseAspects.getEventTypeAspect());
+        return node;
+    }
+
+    @Test
+    public void testMatches() {
+        for (String regex : new String[] { "value", "^value", "\\d$", "a.b", "(", "" }) {
+            for (boolean not : new boolean[] { false, true }) {
+                TmfFilterMatchesNode node = onField(new TmfFilterMatchesNode(null));
+                node.setRegex(regex);
+                node.setNot(not);
+                assertSameMatches(node);
+                TmfFilterMatchesNode typeNode = onType(new TmfFilterMatchesNode(null));
+                typeNode.setRegex(regex);
+                typeNode.setNot(not);
+                assertSameMatches(typeNode);
+            }
+        }
+        assertSameMatches(new TmfFilterMatchesNode(null));
+    }
+
+    @Test
+    public void testEqualsAndContains() {
+        for (boolean ignoreCase : new boolean[] { false, true }) {
+            TmfFilterEqualsNode equalsNode = onField(new TmfFilterEqualsNode(null));
+            equalsNode.setValue("value 2");
+            equalsNode.setIgnoreCase(ignoreCase);
+            assertSameMatches(equalsNode);
+            TmfFilterContainsNode containsNode = onType(new TmfFilterContainsNode(null));
+            containsNode.setValue("SCHED");
+            containsNode.setIgnoreCase(ignoreCase);
+            assertSameMatches(containsNode);
+        }
+    }
+
+    @Test
+    public void testTree() {
+        TmfFilterRootNode root = new TmfFilterRootNode();
+        assertSameMatches(root);
+
+        TmfFilterOrNode or = new TmfFilterOrNode(root);
+        TmfFilterMatchesNode value = onField(new TmfFilterMatchesNode(or));
+        value.setRegex("^[vV]alue");
+        TmfFilterCompareNode compare = onField(new TmfFilterCompareNode(or));
+        compare.setType(TmfFilterCompareNode.Type.NUM);
+        compare.setValue("10");
+        compare.setResult(1);
+        TmfFilterEqualsNode type = onType(new TmfFilterEqualsNode(root));
+        type.setValue("sched_wakeup");
+        assertSameMatches(root);
+
+        type.setNot(true);
+        or.setNot(true);
+        assertSameMatches(root);
+
+        TmfFilterAndNode and = new TmfFilterAndNode(null);
+        assertSameMatches(and);
+        and.setNot(true);
+        assertSameMatches(and);
+        and.addChild(root);
+        assertSameMatches(and);
+
+        TmfFilterNode named = new TmfFilterNode(null);
+        assertSameMatches(named);
+        named.addChild(and);
+        assertSameMatches(named);
+    }
+
+    @Test
+    public void testTraceType() {
+        TmfFilterTraceTypeNode node = new TmfFilterTraceTypeNode(null);
+        node.setTraceClass(TmfTraceStub.class);
+        assertSameMatches(node);
+        node.setTraceTypeId("other.trace.type");
+        assertSameMatches(node);
+        node.setNot(true);
+        assertSameMatches(node);
+        node.setTraceTypeId(null);
+        TmfFilterMatchesNode value = onField(new TmfFilterMatchesNode(node));
+        value.setRegex("other");
+        assertSameMatches(node);
+    }
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.filter.TmfFilterResultCache;
+import org.eclipse.tracecompass.internal.tmf.core.filter.TmfRankBitmap;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.aspect.ITmfEventAspect;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterMatchesNode;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.signal.TmfSignalManager;
+import org.eclipse.tracecompass.tmf.core.tests.shared.TmfTestTrace;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+import org.eclipse.tracecompass.tmf.tests.stubs.trace.TmfTraceStub;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link TmfFilterResultCache} class
+ */
+@SuppressWarnings("javadoc")
+public class TmfFilterResultCacheTest {
+
+    private static final TmfTestTrace TEST_TRACE = TmfTestTrace.A_TEST_10K;
+
+    private TmfTraceStub fTrace;
+    private final CountDownLatch fRelease = new CountDownLatch(1);
+
+    /**
+     * The rank of the events, blocking until the test releases it
+     */
+    private final ITmfEventAspect<String> fRankAspect = new ITmfEventAspect<String>() {
+        @Override
+        public String getName() {
+            return "Rank";
+        }
+
+        @Override
+        public String getHelpText() {
+            return "";
+        }
+
+        @Override
+        public @Nullable String resolve(ITmfEvent event) {
+            try {
+                fRelease.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return String.valueOf(event.getRank());
+        }
+    };
+
+    @Before
+    public void setUp() {
+        try {
+            fTrace = new TmfTraceStub(TEST_TRACE.getFullPath(), ITmfTrace.DEFAULT_TRACE_CACHE_SIZE, false, null);
+            TmfSignalManager.deregister(fTrace);
+            fTrace.indexTrace(true);
+        } catch (TmfTraceException e) {
+            e.printStackTrace();
+            fail("Error setting up test trace");
+        }
+        TmfTraceManager.deleteSupplementaryFiles(fTrace);
+    }
+
+    @After
+    public void tearDown() {
+        fRelease.countDown();
+        TmfTraceManager.deleteSupplementaryFiles(fTrace);
+        fTrace.dispose();
+    }
+
+    private TmfFilterMatchesNode createFilter(String regex) {
+        TmfFilterMatchesNode filter = new TmfFilterMatchesNode(null);
+        filter.setEventAspect(fRankAspect);
+        filter.setRegex(regex);
+        return filter;
+    }
+
+    /**
+     * Test that the ranks are computed once, then found in the cache
+     */
+    @Test
+    public void testCacheHit() throws InterruptedException {
+        Object owner = new Object();
+        TmfFilterMatchesNode filter = createFilter(".");
+        assertNull(TmfFilterResultCache.getMatchingRanks(fTrace, filter, owner));
+        ITmfEventRequest request = TmfFilterResultCache.getRequest(fTrace, filter);
+        assertNotNull(request);
+        fRelease.countDown();
+        request.waitForCompletion();
+
+        TmfRankBitmap ranks = TmfFilterResultCache.getMatchingRanks(fTrace, filter, owner);
+        assertNotNull(ranks);
+        assertEquals(fTrace.getNbEvents(), ranks.getCardinality());
+        /* An equal filter of another owner gets the same result */
+        assertSame(ranks, TmfFilterResultCache.getMatchingRanks(fTrace, createFilter("."), new Object()));
+        assertSame(request, TmfFilterResultCache.getRequest(fTrace, filter));
+    }
+
+    /**
+     * Test that changing the filter of an owner cancels the computation of
+     * its previous filter, unless another owner uses it
+     */
+    @Test
+    public void testFilterChange() throws InterruptedException {
+        Object owner = new Object();
+        Object otherOwner = new Object();
+        TmfFilterMatchesNode filter1 = createFilter("1");
+        TmfFilterMatchesNode filter2 = createFilter("2");
+        TmfFilterMatchesNode filter3 = createFilter("3");
+
+        assertNull(TmfFilterResultCache.getMatchingRanks(fTrace, filter1, owner));
+        ITmfEventRequest request1 = TmfFilterResultCache.getRequest(fTrace, filter1);
+        assertNotNull(request1);
+        assertNull(TmfFilterResultCache.getMatchingRanks(fTrace, filter2, owner));
+        assertNull(TmfFilterResultCache.getMatchingRanks(fTrace, filter2, otherOwner));
+        ITmfEventRequest request2 = TmfFilterResultCache.getRequest(fTrace, filter2);
+        assertNotNull(request2);
+
+        /* The first filter is superseded */
+        request1.waitForCompletion();
+        assertTrue(request1.isCancelled());
+        assertNull(TmfFilterResultCache.getRequest(fTrace, filter1));
+
+        /* The second filter is still used by the other owner */
+        assertNull(TmfFilterResultCache.getMatchingRanks(fTrace, filter3, owner));
+        ITmfEventRequest request3 = TmfFilterResultCache.getRequest(fTrace, filter3);
+        assertNotNull(request3);
+        fRelease.countDown();
+        request2.waitForCompletion();
+        assertTrue(request2.isCompleted() && !request2.isCancelled());
+        assertNotNull(TmfFilterResultCache.getMatchingRanks(fTrace, filter2, otherOwner));
+        request3.waitForCompletion();
+    }
+}
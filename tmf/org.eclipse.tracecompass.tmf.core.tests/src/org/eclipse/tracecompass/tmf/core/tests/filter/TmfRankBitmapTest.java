@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.tracecompass.internal.tmf.core.filter.TmfRankBitmap;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link TmfRankBitmap} class.
+ */
+@SuppressWarnings("javadoc")
+public class TmfRankBitmapTest {
+
+    /*
+     * Every 7th rank of the first chunk (sparse), every rank but one in ten of
+     * the second (dense), nothing in the third and a few ranks after.
+     */
+    private static List<Long> createRanks() {
+        List<Long> ranks = new ArrayList<>();
+        for (long rank = 0; rank < 65536; rank += 7) {
+            ranks.add(rank);
+        }
+        for (long rank = 65536; rank < 2 * 65536; rank++) {
+            if (rank % 10 != 0) {
+                ranks.add(rank);
+            }
+        }
+        ranks.add(3L * 65536 + 5);
+        ranks.add(3L * 65536 + 6);
+        ranks.add(10L * 65536);
+        return ranks;
+    }
+
+    private static TmfRankBitmap createBitmap(List<Long> ranks) {
+        TmfRankBitmap bitmap = new TmfRankBitmap();
+        for (long rank : ranks) {
+            bitmap.add(rank);
+        }
+        return bitmap;
+    }
+
+    private static void checkBitmap(List<Long> ranks, TmfRankBitmap bitmap) {
+        assertEquals(ranks.size(), bitmap.getCardinality());
+        for (int i = 0; i < ranks.size(); i++) {
+            long rank = ranks.get(i);
+            assertEquals(rank, bitmap.select(i));
+            assertEquals(i, bitmap.rank(rank));
+            assertTrue(bitmap.contains(rank));
+        }
+        assertEquals(-1, bitmap.select(ranks.size()));
+        assertEquals(-1, bitmap.select(-1));
+        assertFalse(bitmap.contains(1));
+        assertFalse(bitmap.contains(65540));
+        assertFalse(bitmap.contains(2L * 65536 + 5));
+        assertFalse(bitmap.contains(11L * 65536));
+        assertEquals(1, bitmap.rank(1));
+        assertEquals(ranks.size() - 3, bitmap.rank(2L * 65536 + 100));
+        assertEquals(ranks.size(), bitmap.rank(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testRankAndSelect() {
+        List<Long> ranks = createRanks();
+        checkBitmap(ranks, createBitmap(ranks));
+    }
+
+    @Test
+    public void testEmpty() {
+        TmfRankBitmap bitmap = new TmfRankBitmap();
+        assertEquals(0, bitmap.getCardinality());
+        assertEquals(-1, bitmap.select(0));
+        assertEquals(0, bitmap.rank(100));
+        assertFalse(bitmap.contains(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddOutOfOrder() {
+        TmfRankBitmap bitmap = new TmfRankBitmap();
+        bitmap.add(10);
+        bitmap.add(5);
+    }
+
+    @Test
+    public void testUnion() {
+        List<Long> ranks = createRanks();
+        List<Long> even = new ArrayList<>();
+        List<Long> odd = new ArrayList<>();
+        for (long rank : ranks) {
+            (rank % 2 == 0 ? even : odd).add(rank);
+        }
+        checkBitmap(ranks, TmfRankBitmap.union(Arrays.asList(createBitmap(even), createBitmap(odd))));
+        assertEquals(0, TmfRankBitmap.union(Collections.emptyList()).getCardinality());
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        List<Long> ranks = createRanks();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            createBitmap(ranks).writeTo(out);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            checkBitmap(ranks, TmfRankBitmap.readFrom(in));
+        }
+    }
+
+    @Test
+    public void testSparseSerialization() throws IOException {
+        List<Long> ranks = Arrays.asList(5L, 1000L * 65536 + 1, 1_000_000L * 65536 + 2);
+        TmfRankBitmap bitmap = createBitmap(ranks);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            bitmap.writeTo(out);
+        }
+        /* Only the three non-empty chunks are written */
+        assertTrue(bytes.size() < 32);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            TmfRankBitmap read = TmfRankBitmap.readFrom(in);
+            assertEquals(ranks.size(), read.getCardinality());
+            for (int i = 0; i < ranks.size(); i++) {
+                assertEquals((long) ranks.get(i), read.select(i));
+                assertEquals(i, read.rank(ranks.get(i)));
+            }
+            assertEquals(1, read.rank(500L * 65536));
+            assertFalse(read.contains(1000L * 65536));
+        }
+    }
+}
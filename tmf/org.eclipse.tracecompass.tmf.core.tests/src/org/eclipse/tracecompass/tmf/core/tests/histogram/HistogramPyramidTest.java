@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.histogram;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.eclipse.tracecompass.internal.tmf.core.histogram.HistogramPyramid;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link HistogramPyramid} class.
+ */
+@SuppressWarnings("javadoc")
+public class HistogramPyramidTest {
+
+    /* One event every 10 ns from 1000 to 10990, and a second one at 10990 */
+    private static HistogramPyramid createPyramid(int maxBuckets) {
+        HistogramPyramid pyramid = new HistogramPyramid(maxBuckets);
+        for (long ts = 1000; ts < 11000; ts += 10) {
+            pyramid.add(ts);
+        }
+        pyramid.add(10990);
+        pyramid.complete();
+        return pyramid;
+    }
+
+    private static void checkPyramid(HistogramPyramid pyramid) {
+        assertEquals(1, pyramid.getBucketDuration());
+        assertEquals(0, pyramid.getCount(999));
+        assertEquals(1, pyramid.getCount(1000));
+        assertEquals(1, pyramid.getCount(1009));
+        assertEquals(2, pyramid.getCount(1010));
+        assertEquals(500, pyramid.getCount(5995));
+        assertEquals(999, pyramid.getCount(10989));
+        assertEquals(1001, pyramid.getCount(10990));
+        assertEquals(1001, pyramid.getCount(Long.MAX_VALUE));
+        assertEquals(Arrays.asList(0L, 100L, 899L, 2L, 0L), pyramid.histogramQuery(new long[] { 999, 1999, 10989, 10990, 20000 }));
+        /* The first range is only the first time */
+        assertEquals(Arrays.asList(1L, 99L, 2L), pyramid.histogramQuery(new long[] { 1000, 1999, 2010 }));
+        assertEquals(Arrays.asList(0L, 99L), pyramid.histogramQuery(new long[] { 1005, 1999 }));
+    }
+
+    @Test
+    public void testCount() {
+        checkPyramid(createPyramid(1 << 14));
+    }
+
+    @Test
+    public void testMergedBuckets() {
+        /* The buckets are 1024 ns long, the counts are interpolated inside */
+        HistogramPyramid pyramid = createPyramid(16);
+        assertEquals(1024, pyramid.getBucketDuration());
+        assertFalse(pyramid.isPrecise(1024));
+        assertTrue(pyramid.isPrecise(8 * 1024));
+        assertEquals(0, pyramid.getCount(999));
+        assertEquals(103, pyramid.getCount(1000 + 1023));
+        assertEquals(205, pyramid.getCount(1000 + 2047));
+        assertEquals(500, pyramid.getCount(5995), 2);
+        assertEquals(1001, pyramid.getCount(10990));
+    }
+
+    @Test
+    public void testEmpty() {
+        HistogramPyramid pyramid = new HistogramPyramid();
+        pyramid.complete();
+        assertEquals(0, pyramid.getCount(0));
+        assertEquals(Arrays.asList(0L, 0L), pyramid.histogramQuery(new long[] { 0, 100 }));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddCompleted() {
+        createPyramid(16).add(20000);
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            createPyramid(1 << 14).writeTo(out);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            checkPyramid(HistogramPyramid.readFrom(in));
+        }
+    }
+}
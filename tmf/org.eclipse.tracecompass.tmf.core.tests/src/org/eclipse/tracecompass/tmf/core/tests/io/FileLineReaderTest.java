@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.tracecompass.tmf.core.io.FileLineReader;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for class {@link FileLineReader}
+ */
+public class FileLineReaderTest {
+
+    /* Lines longer than the buffer, with '\r', multi-byte characters and no final '\n' */
+    private static final List<String> LINES = Arrays.asList(
+            "first line",
+            "",
+            "ligne accentuée, éèà",
+            "a line longer than the buffer of the reader",
+            "日本語のテキスト",
+            "windows line",
+            "last line");
+    private static final String CONTENT = "first line\n\nligne accentuée, éèà\n" +
+            "a line longer than the buffer of the reader\n日本語のテキスト\nwindows line\r\nlast line";
+    private static File testFile;
+
+    /**
+     * Setup
+     *
+     * @throws IOException
+     *             if an exception occurs
+     */
+    @BeforeClass
+    public static void beforeClass() throws IOException {
+        testFile = File.createTempFile("test", ".txt");
+        Files.write(testFile.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cleanup
+     */
+    @AfterClass
+    public static void afterClass() {
+        testFile.delete();
+    }
+
+    private static long getOffset(int lineIndex) {
+        int offset = 0;
+        for (int i = 0; i < lineIndex; i++) {
+            offset = CONTENT.indexOf('\n', offset) + 1;
+        }
+        return CONTENT.substring(0, offset).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Test reading all the lines, with different buffer sizes
+     *
+     * @throws IOException
+     *             if an exception occurs
+     */
+    @Test
+    public void testReadLine() throws IOException {
+        for (int bufferSize : new int[] { 16, 17, 1024 }) {
+            try (FileLineReader reader = new FileLineReader(testFile.getPath(), bufferSize)) {
+                for (int i = 0; i < LINES.size(); i++) {
+                    assertEquals(getOffset(i), reader.getFilePointer());
+                    CharSequence line = reader.readLine();
+                    assertNotNull(line);
+                    assertEquals(LINES.get(i), line.toString());
+                }
+                assertEquals(reader.length(), reader.getFilePointer());
+                assertNull(reader.readLine());
+                assertEquals(-1, reader.read());
+            }
+        }
+    }
+
+    /**
+     * Test seeking forward and backward
+     *
+     * @throws IOException
+     *             if an exception occurs
+     */
+    @Test
+    public void testSeek() throws IOException {
+        try (FileLineReader reader = new FileLineReader(testFile.getPath(), 16)) {
+            for (int i : new int[] { 4, 0, 6, 2, 5, 3, 1 }) {
+                reader.seek(getOffset(i));
+                CharSequence line = reader.readLine();
+                assertNotNull(line);
+                assertEquals(LINES.get(i), line.toString());
+            }
+            reader.seek(getOffset(1) - 1);
+            assertEquals('\n', reader.read());
+        }
+    }
+
+    /**
+     * Test that a detached line is not overwritten by the next lines
+     *
+     * @throws IOException
+     *             if an exception occurs
+     */
+    @Test
+    public void testDetachLine() throws IOException {
+        try (FileLineReader reader = new FileLineReader(testFile.getPath(), 16)) {
+            reader.readLine();
+            CharSequence detached = reader.detachLine();
+            CharSequence next = reader.readLine();
+            assertNotNull(next);
+            assertEquals(LINES.get(0), detached.toString());
+            assertEquals(LINES.get(1), next.toString());
+            assertEquals(LINES.get(0).length(), detached.length());
+            assertEquals('f', detached.charAt(0));
+            assertEquals("line", detached.subSequence(6, 10).toString());
+        }
+    }
+}
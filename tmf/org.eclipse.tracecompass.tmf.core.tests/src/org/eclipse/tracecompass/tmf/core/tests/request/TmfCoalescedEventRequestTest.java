@@ -20,6 +20,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
 import java.util.IllformedLocaleException;
 import java.util.Vector;
 
@@ -37,6 +38,7 @@ import org.eclipse.tracecompass.tmf.core.tests.shared.TmfTestTrace;
 import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.tests.stubs.request.TmfEventRequestStub;
 import org.eclipse.tracecompass.tmf.tests.stubs.trace.TmfTraceStub;
 import org.junit.Before;
@@ -569,4 +571,173 @@ public class TmfCoalescedEventRequestTest {
         fTrace = null;
     }
 
+    @Test
+    public void testJoinBackgroundRequest() throws InterruptedException {
+
+        fTrace = setupTrace(TEST_TRACE.getFullPath());
+
+        final int nbEvents = 300;
+        final int nbJoined = 200;
+        TmfCoalescedEventRequest request = new TmfCoalescedEventRequest(ITmfEvent.class, range1, 0, nbEvents, ExecutionType.BACKGROUND, 0);
+
+        Vector<ITmfEvent> events1 = new Vector<>();
+        TmfEventRequest subRequest1 = new TmfEventRequest(ITmfEvent.class, range1, 0, nbEvents, ExecutionType.BACKGROUND) {
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                events1.add(event);
+            }
+        };
+        subRequest1.setProviderFilter(fTrace);
+        request.addRequest(subRequest1);
+        request.start();
+
+        ITmfContext context = fTrace.seekEvent(0);
+        for (int i = 0; i < 100; i++) {
+            request.handleData(fTrace.getNext(context));
+        }
+
+        // A foreground request or one reading past this request can't join
+        TmfEventRequest foreground = new TmfEventRequestStub(ITmfEvent.class, range1, nbJoined, 0, ExecutionType.FOREGROUND, 0);
+        assertFalse(request.join(foreground, fTrace));
+        TmfEventRequest tooLong = new TmfEventRequestStub(ITmfEvent.class, range1, 2 * nbEvents, 0, ExecutionType.BACKGROUND, 0);
+        assertFalse(request.join(tooLong, fTrace));
+
+        Vector<ITmfEvent> events2 = new Vector<>();
+        TmfEventRequest subRequest2 = new TmfEventRequest(ITmfEvent.class, range1, 0, nbJoined, ExecutionType.BACKGROUND) {
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                events2.add(event);
+            }
+        };
+        subRequest2.setProviderFilter(fTrace);
+        assertTrue(request.join(subRequest2, fTrace));
+
+        for (int i = 100; i < nbEvents; i++) {
+            request.handleData(fTrace.getNext(context));
+        }
+        context.dispose();
+        request.done();
+
+        try {
+            subRequest1.waitForCompletion();
+            subRequest2.waitForCompletion();
+
+            assertTrue("Request1: isCompleted", subRequest1.isCompleted());
+            assertFalse("Request1: isCancelled", subRequest1.isCancelled());
+            assertEquals("Request1: nbEvents", nbEvents, events1.size());
+            assertTrue("Request2: isCompleted", subRequest2.isCompleted());
+            assertFalse("Request2: isCancelled", subRequest2.isCancelled());
+            assertEquals("Request2: nbEvents", nbJoined, events2.size());
+
+            for (int i = 0; i < nbEvents; i++) {
+                assertEquals("Distinct events", i + 1, events1.get(i).getTimestamp().getValue());
+            }
+            for (int i = 0; i < nbJoined; i++) {
+                assertEquals("Distinct events", i + 1, events2.get(i).getTimestamp().getValue());
+            }
+            assertFalse(request.join(new TmfEventRequestStub(ITmfEvent.class, range1, 1, 0, ExecutionType.BACKGROUND, 0), fTrace));
+        } finally {
+            fTrace.dispose();
+            fTrace = null;
+        }
+    }
+
+
+    @Test
+    public void testJoinEventTypes() {
+
+        fTrace = setupTrace(TEST_TRACE.getFullPath());
+
+        TmfCoalescedEventRequest request = new TmfCoalescedEventRequest(ITmfEvent.class, range1, 0, 300, ExecutionType.BACKGROUND, 0);
+        TmfEventRequest subRequest1 = new TmfEventRequestStub(ITmfEvent.class, range1, 300, 0, ExecutionType.BACKGROUND, 0);
+        subRequest1.setEventTypes(Collections.singleton("Type-0"));
+        request.addRequest(subRequest1);
+        request.start();
+
+        try {
+            // The reading skips the events of the other types
+            TmfEventRequest allTypes = new TmfEventRequestStub(ITmfEvent.class, range1, 100, 0, ExecutionType.BACKGROUND, 0);
+            assertFalse(request.join(allTypes, fTrace));
+            TmfEventRequest otherType = new TmfEventRequestStub(ITmfEvent.class, range1, 100, 0, ExecutionType.BACKGROUND, 0);
+            otherType.setEventTypes(Collections.singleton("Type-1"));
+            assertFalse(request.join(otherType, fTrace));
+
+            TmfEventRequest sameType = new TmfEventRequestStub(ITmfEvent.class, range1, 100, 0, ExecutionType.BACKGROUND, 0);
+            sameType.setEventTypes(Collections.singleton("Type-0"));
+            assertTrue(request.join(sameType, fTrace));
+        } finally {
+            request.cancel();
+            fTrace.dispose();
+            fTrace = null;
+        }
+    }
+
+    @Test
+    public void testJoinEarlierStart() throws InterruptedException {
+
+        fTrace = setupTrace(TEST_TRACE.getFullPath());
+
+        final int nbEvents = 600;
+        final int nbJoined = 400;
+        final int passStart = 100;
+
+        // The running request starts at the 101st event, by time
+        ITmfContext context = fTrace.seekEvent(passStart);
+        ITmfEvent firstEvent = fTrace.getNext(context);
+        assertNotNull(firstEvent);
+        context.dispose();
+        TmfTimeRange passRange = new TmfTimeRange(firstEvent.getTimestamp(), TmfTimestamp.BIG_CRUNCH);
+        TmfCoalescedEventRequest request = new TmfCoalescedEventRequest(ITmfEvent.class, passRange, 0, nbEvents, ExecutionType.BACKGROUND, 0);
+        TmfEventRequest subRequest1 = new TmfEventRequestStub(ITmfEvent.class, passRange, nbEvents, 0, ExecutionType.BACKGROUND, 0);
+        subRequest1.setProviderFilter(fTrace);
+        request.addRequest(subRequest1);
+        request.start();
+
+        context = fTrace.seekEvent(passStart);
+        for (int i = 0; i < 50; i++) {
+            request.handleData(fTrace.getNext(context));
+        }
+
+        /*
+         * The joined request needs the 100 events before the running one. It
+         * reads them first, then switches to the events read by the running
+         * request if it reaches them.
+         */
+        Vector<ITmfEvent> events2 = new Vector<>();
+        TmfEventRequest subRequest2 = new TmfEventRequest(ITmfEvent.class, range1, 0, nbJoined, ExecutionType.BACKGROUND) {
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                events2.add(event);
+            }
+        };
+        subRequest2.setProviderFilter(fTrace);
+        assertTrue(request.join(subRequest2, fTrace));
+
+        for (int i = 50; i < nbEvents; i++) {
+            request.handleData(fTrace.getNext(context));
+        }
+        context.dispose();
+        request.done();
+
+        try {
+            subRequest1.waitForCompletion();
+            subRequest2.waitForCompletion();
+
+            assertTrue("Request1: isCompleted", subRequest1.isCompleted());
+            assertEquals("Request1: nbEvents", nbEvents, subRequest1.getNbRead());
+            assertTrue("Request2: isCompleted", subRequest2.isCompleted());
+            assertFalse("Request2: isCancelled", subRequest2.isCancelled());
+            assertEquals("Request2: nbEvents", nbJoined, events2.size());
+            for (int i = 0; i < nbJoined; i++) {
+                assertEquals("Distinct events", i + 1, events2.get(i).getTimestamp().getValue());
+            }
+        } finally {
+            fTrace.dispose();
+            fTrace = null;
+        }
+    }
+
 }
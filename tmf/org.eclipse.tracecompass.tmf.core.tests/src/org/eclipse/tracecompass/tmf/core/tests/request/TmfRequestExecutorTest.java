@@ -0,0 +1,333 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.tracecompass.internal.tmf.core.component.TmfEventThread;
+import org.eclipse.tracecompass.internal.tmf.core.request.TmfRequestExecutor;
+import org.eclipse.tracecompass.internal.tmf.core.request.TmfRequestScheduler;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest.ExecutionType;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.signal.TmfSignalManager;
+import org.eclipse.tracecompass.tmf.core.tests.shared.TmfTestTrace;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.tests.stubs.trace.TmfTraceStub;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+
+/**
+ * Test the scheduling of the requests by the {@link TmfRequestExecutor} on the
+ * workers of the {@link TmfRequestScheduler}
+ */
+@SuppressWarnings("javadoc")
+public class TmfRequestExecutorTest {
+
+    /**
+     * A deadlock of the requests makes the test time out
+     */
+    @Rule
+    public TestRule globalTimeout = new Timeout(2, TimeUnit.MINUTES);
+
+    private static final TmfTestTrace TEST_TRACE = TmfTestTrace.A_TEST_10K;
+
+    private static TmfTraceStub fTrace = null;
+
+    private final List<TmfRequestExecutor> fExecutors = new ArrayList<>();
+
+    @BeforeClass
+    public static void setUpClass() {
+        try {
+            fTrace = new TmfTraceStub(TEST_TRACE.getFullPath(), ITmfTrace.DEFAULT_TRACE_CACHE_SIZE, false, null);
+            TmfSignalManager.deregister(fTrace);
+            fTrace.indexTrace(true);
+        } catch (final TmfTraceException e) {
+            e.printStackTrace();
+            fail("Error setting up test trace");
+        }
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (fTrace != null) {
+            fTrace.dispose();
+            fTrace = null;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        fExecutors.clear();
+    }
+
+    @After
+    public void tearDown() {
+        for (TmfRequestExecutor executor : fExecutors) {
+            executor.stop();
+        }
+    }
+
+    private TmfRequestExecutor createExecutor() {
+        TmfRequestExecutor executor = new TmfRequestExecutor();
+        executor.init();
+        fExecutors.add(executor);
+        return executor;
+    }
+
+    private static void execute(TmfRequestExecutor executor, TmfEventRequest request) {
+        executor.execute(new TmfEventThread(fTrace, request));
+    }
+
+    /**
+     * A request that takes about 1 ms per event, and that can run some code
+     * at its first event
+     */
+    private static class SlowRequest extends TmfEventRequest {
+
+        private final CountDownLatch fStarted = new CountDownLatch(1);
+        private Runnable fOnFirstEvent = () -> {
+            // Nothing by default
+        };
+
+        public SlowRequest(int nbRequested, ExecutionType type) {
+            super(ITmfEvent.class, 0, nbRequested, type);
+        }
+
+        public void setOnFirstEvent(Runnable onFirstEvent) {
+            fOnFirstEvent = onFirstEvent;
+        }
+
+        public void waitForStart() throws InterruptedException {
+            fStarted.await();
+        }
+
+        @Override
+        public void handleData(ITmfEvent event) {
+            super.handleData(event);
+            if (getNbRead() == 1) {
+                fOnFirstEvent.run();
+                fStarted.countDown();
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Test that a background request yields to a foreground request sent
+     * after it
+     */
+    @Test
+    public void testForegroundFirst() throws InterruptedException {
+        TmfRequestExecutor executor = createExecutor();
+        SlowRequest background = new SlowRequest(1000, ExecutionType.BACKGROUND);
+        execute(executor, background);
+        background.waitForStart();
+
+        SlowRequest foreground = new SlowRequest(20, ExecutionType.FOREGROUND);
+        execute(executor, foreground);
+        foreground.waitForCompletion();
+        assertFalse(background.isCompleted());
+
+        background.waitForCompletion();
+        assertEquals(20, foreground.getNbRead());
+        assertEquals(1000, background.getNbRead());
+    }
+
+    /**
+     * Test that foreground requests take turns after each time slice
+     */
+    @Test
+    public void testTimeSlicing() throws InterruptedException {
+        TmfRequestExecutor executor = createExecutor();
+        SlowRequest request1 = new SlowRequest(500, ExecutionType.FOREGROUND);
+        SlowRequest request2 = new SlowRequest(500, ExecutionType.FOREGROUND);
+        AtomicBoolean interleaved = new AtomicBoolean();
+        request2.setOnFirstEvent(() -> interleaved.set(!request1.isCompleted()));
+        execute(executor, request1);
+        execute(executor, request2);
+
+        request1.waitForCompletion();
+        request2.waitForCompletion();
+        assertTrue(interleaved.get());
+        assertEquals(500, request1.getNbRead());
+        assertEquals(500, request2.getNbRead());
+    }
+
+    /**
+     * Test that a background request still runs while a long foreground
+     * request is running
+     */
+    @Test
+    public void testBackgroundNotStarved() throws InterruptedException {
+        TmfRequestExecutor executor = createExecutor();
+        SlowRequest foreground = new SlowRequest(1000, ExecutionType.FOREGROUND);
+        SlowRequest background = new SlowRequest(10, ExecutionType.BACKGROUND);
+        AtomicBoolean interleaved = new AtomicBoolean();
+        background.setOnFirstEvent(() -> interleaved.set(!foreground.isCompleted()));
+        execute(executor, foreground);
+        execute(executor, background);
+
+        foreground.waitForCompletion();
+        background.waitForCompletion();
+        assertTrue(interleaved.get());
+        assertEquals(1000, foreground.getNbRead());
+        assertEquals(10, background.getNbRead());
+    }
+
+    /**
+     * Test the cancellation of a queued request and of a running one
+     */
+    @Test
+    public void testCancel() throws InterruptedException {
+        TmfRequestExecutor executor = createExecutor();
+        SlowRequest request1 = new SlowRequest(2000, ExecutionType.FOREGROUND);
+        SlowRequest request2 = new SlowRequest(2000, ExecutionType.FOREGROUND);
+        SlowRequest request3 = new SlowRequest(2000, ExecutionType.BACKGROUND);
+        execute(executor, request1);
+        request1.waitForStart();
+        execute(executor, request2);
+        execute(executor, request3);
+
+        request2.cancel();
+        request2.waitForCompletion();
+        assertTrue(request2.isCancelled());
+
+        executor.stop();
+        request1.waitForCompletion();
+        request3.waitForCompletion();
+        assertTrue(request1.isCancelled());
+        assertTrue(request1.getNbRead() < 2000);
+        assertTrue(request3.isCancelled());
+        assertEquals(0, request2.getNbRead());
+        assertEquals(0, request3.getNbRead());
+        assertTrue(executor.isShutdown());
+    }
+
+    /**
+     * Test that a request blocked in its handler is reported as stalled, and
+     * that the next request of the same executor does not start before it
+     * continues
+     */
+    @Test
+    public void testStalledRequest() throws InterruptedException {
+        TmfRequestExecutor executor = createExecutor();
+        SlowRequest blocked = new SlowRequest(20, ExecutionType.FOREGROUND);
+        SlowRequest next = new SlowRequest(20, ExecutionType.FOREGROUND);
+        AtomicBoolean inHandler = new AtomicBoolean();
+        CountDownLatch entered = new CountDownLatch(1);
+        AtomicBoolean overlapped = new AtomicBoolean();
+        next.setOnFirstEvent(() -> overlapped.set(inHandler.get()));
+        blocked.setOnFirstEvent(() -> {
+            inHandler.set(true);
+            entered.countDown();
+            try {
+                Thread.sleep(5 * 100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inHandler.set(false);
+        });
+        long nbStalled = TmfRequestScheduler.getInstance().getNbStalledSlices();
+        execute(executor, blocked);
+        entered.await();
+        execute(executor, next);
+
+        blocked.waitForCompletion();
+        next.waitForCompletion();
+        assertFalse(overlapped.get());
+        assertTrue(TmfRequestScheduler.getInstance().getNbStalledSlices() > nbStalled);
+        assertEquals(20, blocked.getNbRead());
+        assertEquals(20, next.getNbRead());
+    }
+
+    /**
+     * Test that a request yielding its slice with a delay lets the other
+     * requests of its executor run, and resumes after the delay
+     */
+    @Test
+    public void testYieldSlice() throws InterruptedException {
+        TmfRequestExecutor executor = createExecutor();
+        SlowRequest yielding = new SlowRequest(20, ExecutionType.FOREGROUND);
+        SlowRequest other = new SlowRequest(20, ExecutionType.FOREGROUND);
+        AtomicBoolean yielded = new AtomicBoolean();
+        yielding.setOnFirstEvent(() -> yielded.set(TmfEventThread.yieldCurrentSlice(200, TimeUnit.MILLISECONDS)));
+        execute(executor, yielding);
+        yielding.waitForStart();
+        execute(executor, other);
+
+        other.waitForCompletion();
+        assertTrue(yielded.get());
+        assertFalse(yielding.isCompleted());
+        yielding.waitForCompletion();
+        assertEquals(20, yielding.getNbRead());
+        assertEquals(20, other.getNbRead());
+    }
+
+    /**
+     * Test that requests still run when all the workers are blocked by
+     * requests waiting for them
+     */
+    @Test
+    public void testBlockedWorkers() throws InterruptedException {
+        int nbWorkers = TmfRequestScheduler.getInstance().getNbWorkers();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean released = new AtomicBoolean(true);
+        List<SlowRequest> blocked = new ArrayList<>();
+        for (int i = 0; i < nbWorkers; i++) {
+            SlowRequest request = new SlowRequest(20, ExecutionType.FOREGROUND);
+            request.setOnFirstEvent(() -> {
+                try {
+                    if (!release.await(1, TimeUnit.MINUTES)) {
+                        released.set(false);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            execute(createExecutor(), request);
+            blocked.add(request);
+        }
+
+        SlowRequest releasing = new SlowRequest(20, ExecutionType.FOREGROUND);
+        releasing.setOnFirstEvent(release::countDown);
+        execute(createExecutor(), releasing);
+
+        releasing.waitForCompletion();
+        for (SlowRequest request : blocked) {
+            request.waitForCompletion();
+            assertEquals(20, request.getNbRead());
+        }
+        assertTrue(released.get());
+        assertEquals(20, releasing.getNbRead());
+    }
+}
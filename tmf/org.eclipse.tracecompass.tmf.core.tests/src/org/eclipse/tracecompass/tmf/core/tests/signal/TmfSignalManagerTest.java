@@ -15,12 +15,15 @@
 package org.eclipse.tracecompass.tmf.core.tests.signal;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.tmf.core.component.TmfComponent;
@@ -396,6 +399,36 @@ public class TmfSignalManagerTest {
         }
     }
 
+    /**
+     * Test registerAsync(): the listener receives the signals in order in its
+     * delivery lane, without blocking the broadcaster, and skips the signals
+     * superseded before it could handle them.
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testRegisterAsync() throws InterruptedException {
+        CountDownLatch received = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TestLaneSignalHandler laneHandler = new TestLaneSignalHandler(received, release);
+        try {
+            signalSender.sendSignal(new TestCoalescedSignal(signalSender, 0));
+            // The listener is now blocked handling the first signal
+            assertTrue(received.await(10, TimeUnit.SECONDS));
+            for (int i = 1; i <= 10; i++) {
+                signalSender.sendSignal(new TestCoalescedSignal(signalSender, i));
+            }
+            signalSender.sendSignal(new TestSignal4(signalSender));
+            release.countDown();
+
+            assertTrue(laneHandler.done.await(10, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(0, 10), laneHandler.receivedValues);
+        } finally {
+            laneHandler.dispose();
+        }
+    }
+
     // ------------------------------------------------------------------------
     // Helper classes
     // ------------------------------------------------------------------------
@@ -560,6 +593,51 @@ public class TmfSignalManagerTest {
         }
     }
 
+    /**
+     * Signal handler registered in a delivery lane.
+     */
+    public class TestLaneSignalHandler extends TmfComponent {
+        List<Integer> receivedValues = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        private final CountDownLatch received;
+        private final CountDownLatch release;
+
+        private TestLaneSignalHandler(CountDownLatch received, CountDownLatch release) {
+            super("TestLaneSignalHandler");
+            this.received = received;
+            this.release = release;
+            TmfSignalManager.registerAsync(this);
+        }
+
+        /**
+         * Receive a coalesced signal, blocking on the first one.
+         *
+         * @param signal
+         *            Signal received
+         * @throws InterruptedException
+         *             if the lane is interrupted
+         */
+        @TmfSignalHandler
+        public void receiveCoalesced(final TestCoalescedSignal signal) throws InterruptedException {
+            receivedValues.add(signal.value);
+            received.countDown();
+            if (signal.value == 0) {
+                release.await();
+            }
+        }
+
+        /**
+         * Receive a signal of type TestSignal4.
+         *
+         * @param signal
+         *            Signal received
+         */
+        @TmfSignalHandler
+        public void receiveSignal4(final TestSignal4 signal) {
+            done.countDown();
+        }
+    }
+
     /**
      * Base signal handler for start and end sync signals.
      */
@@ -639,4 +717,21 @@ public class TmfSignalManagerTest {
             super(source);
         }
     }
+
+    /**
+     * Test Signal object superseding the older ones
+     */
+    private class TestCoalescedSignal extends TmfSignal {
+        private final int value;
+
+        public TestCoalescedSignal(Object source, int value) {
+            super(source);
+            this.value = value;
+        }
+
+        @Override
+        public Object getCoalescingKey() {
+            return TestCoalescedSignal.class;
+        }
+    }
 }
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.statesystem;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.TmfEventType;
+import org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.eclipse.tracecompass.tmf.tests.stubs.analysis.TestStateSystemProvider;
+import org.eclipse.tracecompass.tmf.tests.stubs.trace.TmfTraceStub;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the handing of the events from the thread reading the trace to the
+ * event handler thread of {@link AbstractTmfStateProvider}
+ */
+@SuppressWarnings("javadoc")
+public class StateProviderQueueTest {
+
+    private static final long START_TIME = 1000L;
+    private static final String ATTRIBUTE = "rank";
+
+    private TmfTraceStub fTrace;
+    private ITmfStateSystemBuilder fStateSystem;
+    private TestStateSystemProvider fProvider;
+    private final List<Long> fHandledRanks = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() {
+        fTrace = new TmfTraceStub();
+        IStateHistoryBackend backend = StateHistoryBackendFactory.createInMemoryBackend("test", START_TIME);
+        fStateSystem = StateSystemFactory.newStateSystem(backend);
+        TestStateSystemProvider.setEventHandler((ss, provider, event) -> {
+            if (event.getRank() % 10 == 0) {
+                /* Make the handler thread slower than the reader */
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            int quark = ss.getQuarkAbsoluteAndAdd(ATTRIBUTE);
+            ss.modifyAttribute(event.getTimestamp().toNanos(), event.getRank(), quark);
+            fHandledRanks.add(event.getRank());
+            return true;
+        });
+        /* Small chunks, so the queue holds several of them */
+        fProvider = new TestStateSystemProvider(fTrace, 4, 8);
+        fProvider.assignTargetStateSystem(fStateSystem);
+    }
+
+    @After
+    public void tearDown() {
+        fProvider.dispose();
+        TestStateSystemProvider.setEventHandler(null);
+        fStateSystem.dispose();
+        fTrace.dispose();
+    }
+
+    private void queueEvents(long firstRank, long nbEvents) {
+        for (long rank = firstRank; rank < firstRank + nbEvents; rank++) {
+            fProvider.processEvent(new TmfEvent(fTrace, rank, TmfTimestamp.fromNanos(START_TIME + rank), new TmfEventType("event", null), null));
+        }
+    }
+
+    private void checkHandled(long nbEvents) {
+        List<Long> expected = new ArrayList<>();
+        for (long rank = 0; rank < nbEvents; rank++) {
+            expected.add(rank);
+        }
+        assertEquals(expected, new ArrayList<>(fHandledRanks));
+        int quark = fStateSystem.getQuarkAbsolute(ATTRIBUTE);
+        assertEquals(nbEvents - 1, fStateSystem.queryOngoing(quark));
+    }
+
+    /**
+     * Test that all the events queued before
+     * {@link AbstractTmfStateProvider#waitForEmptyQueue()} are handled when it
+     * returns, including the ones of a chunk that is not full
+     */
+    @Test
+    public void testWaitForEmptyQueue() {
+        queueEvents(0, 501);
+        fProvider.waitForEmptyQueue();
+        checkHandled(501);
+
+        queueEvents(501, 3);
+        fProvider.waitForEmptyQueue();
+        checkHandled(504);
+
+        /* Nothing queued since the last call */
+        fProvider.waitForEmptyQueue();
+        checkHandled(504);
+    }
+}
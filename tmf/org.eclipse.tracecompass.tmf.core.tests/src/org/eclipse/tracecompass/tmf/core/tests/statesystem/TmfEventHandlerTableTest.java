@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.statesystem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.TmfEventType;
+import org.eclipse.tracecompass.tmf.core.statesystem.TmfEventHandlerTable;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.tests.stubs.trace.TmfTraceStub;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Test the {@link TmfEventHandlerTable} class
+ */
+@SuppressWarnings("javadoc")
+public class TmfEventHandlerTableTest {
+
+    private ITmfTrace fTrace1;
+    private ITmfTrace fTrace2;
+    private List<String> fFallbackNames;
+    private TmfEventHandlerTable<String> fTable;
+
+    @Before
+    public void setUp() {
+        fTrace1 = new TmfTraceStub();
+        fTrace2 = new TmfTraceStub();
+        fFallbackNames = new ArrayList<>();
+        fTable = new TmfEventHandlerTable<>(ImmutableMap.of("sched_switch", "switch", "sched_wakeup", "wakeup"), name -> {
+            fFallbackNames.add(name);
+            return name.startsWith("syscall_") ? "syscall" : null;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        fTrace1.dispose();
+        fTrace2.dispose();
+    }
+
+    private static ITmfEvent createEvent(ITmfTrace trace, String name, int typeIndex) {
+        return new TmfEvent(trace, 0, TmfTimestamp.fromNanos(0), new TmfEventType(name, null), null) {
+            @Override
+            public int getTypeIndex() {
+                return typeIndex;
+            }
+        };
+    }
+
+    private @Nullable String getHandler(ITmfTrace trace, String name, int typeIndex) {
+        return fTable.getHandler(createEvent(trace, name, typeIndex));
+    }
+
+    @Test
+    public void testByName() {
+        assertEquals("switch", getHandler(fTrace1, "sched_switch", -1));
+        assertEquals("syscall", getHandler(fTrace1, "syscall_entry_read", -1));
+        assertNull(getHandler(fTrace1, "lttng_statedump_end", -1));
+        /* Without type index, the names are looked up for each event */
+        assertEquals("syscall", getHandler(fTrace1, "syscall_entry_read", -1));
+        assertEquals(3, fFallbackNames.size());
+    }
+
+    @Test
+    public void testByTypeIndex() {
+        assertEquals("switch", getHandler(fTrace1, "sched_switch", 0));
+        assertEquals("syscall", getHandler(fTrace1, "syscall_entry_read", 5));
+        assertNull(getHandler(fTrace1, "lttng_statedump_end", 2));
+        assertEquals("wakeup", getHandler(fTrace1, "sched_wakeup", 1));
+        for (int i = 0; i < 10; i++) {
+            assertEquals("switch", getHandler(fTrace1, "sched_switch", 0));
+            assertEquals("syscall", getHandler(fTrace1, "syscall_entry_read", 5));
+            assertNull(getHandler(fTrace1, "lttng_statedump_end", 2));
+        }
+        /* The names that are not in the map are looked up once */
+        assertEquals(2, fFallbackNames.size());
+    }
+
+    @Test
+    public void testSeveralTraces() {
+        assertEquals("switch", getHandler(fTrace1, "sched_switch", 0));
+        assertNull(getHandler(fTrace2, "lttng_statedump_end", 0));
+        assertEquals("wakeup", getHandler(fTrace2, "sched_wakeup", 1));
+        assertNull(getHandler(fTrace1, "lttng_statedump_end", 1));
+        assertEquals("switch", getHandler(fTrace1, "sched_switch", 0));
+        assertEquals("wakeup", getHandler(fTrace2, "sched_wakeup", 1));
+        assertNull(getHandler(fTrace2, "lttng_statedump_end", 0));
+        assertNull(getHandler(fTrace1, "lttng_statedump_end", 1));
+        assertEquals(2, fFallbackNames.size());
+    }
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.statistics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.signal.TmfSignalManager;
+import org.eclipse.tracecompass.tmf.core.statistics.TmfPrefixSumStatistics;
+import org.eclipse.tracecompass.tmf.core.tests.shared.TmfTestTrace;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.tests.stubs.trace.TmfTraceStub;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link TmfPrefixSumStatistics} class.
+ */
+@SuppressWarnings("javadoc")
+public class TmfPrefixSumStatisticsTest {
+
+    /* The events of the test trace are 1 ms apart, from 1 ms to 10000 ms */
+    private static final long MS = 1000000L;
+
+    private static TmfTraceStub fTrace;
+    private static final List<ITmfEvent> fEvents = new ArrayList<>();
+
+    @BeforeClass
+    public static void setUp() throws TmfTraceException {
+        fTrace = new TmfTraceStub(TmfTestTrace.A_TEST_10K.getFullPath(), ITmfTrace.DEFAULT_TRACE_CACHE_SIZE, false, null);
+        TmfSignalManager.deregister(fTrace);
+        fTrace.indexTrace(true);
+        ITmfContext context = fTrace.seekEvent(0L);
+        ITmfEvent event = fTrace.getNext(context);
+        while (event != null) {
+            fEvents.add(event);
+            event = fTrace.getNext(context);
+        }
+        context.dispose();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        fTrace.dispose();
+        fEvents.clear();
+    }
+
+    private static TmfPrefixSumStatistics createStatistics(int maxBuckets) {
+        TmfPrefixSumStatistics statistics = new TmfPrefixSumStatistics(fTrace, maxBuckets);
+        for (ITmfEvent event : fEvents) {
+            statistics.addEvent(event);
+        }
+        return statistics;
+    }
+
+    private static Map<String, Long> countTypes(long start, long end) {
+        Map<String, Long> types = new HashMap<>();
+        for (ITmfEvent event : fEvents) {
+            types.putIfAbsent(event.getName(), 0L);
+            long ts = event.getTimestamp().toNanos();
+            if (ts >= start && ts <= end) {
+                types.merge(event.getName(), 1L, Long::sum);
+            }
+        }
+        return types;
+    }
+
+    private static long count(long start, long end) {
+        long count = 0;
+        for (long value : countTypes(start, end).values()) {
+            count += value;
+        }
+        return count;
+    }
+
+    private static void checkStatistics(TmfPrefixSumStatistics statistics) {
+        assertEquals(10000, statistics.getEventsTotal());
+        assertEquals(countTypes(Long.MIN_VALUE, Long.MAX_VALUE), statistics.getEventTypesTotal());
+
+        /* The whole trace, and beyond */
+        assertEquals(10000, statistics.getEventsInRange(MS, 10000 * MS));
+        assertEquals(10000, statistics.getEventsInRange(-100, Long.MAX_VALUE));
+        assertEquals(0, statistics.getEventsInRange(10001 * MS, 20000 * MS));
+        assertEquals(0, statistics.getEventsInRange(-100, MS - 1));
+        assertEquals(0, statistics.getEventsInRange(100 * MS, 0));
+
+        /* The counts are exact, wherever the bounds are */
+        long[][] ranges = { { MS, 4999 * MS }, { 5000 * MS, 9999 * MS }, { 1234 * MS + 1, 1234 * MS + 1 },
+                { 1234 * MS, 1234 * MS }, { 333 * MS - 1, 6666 * MS + 1 }, { 2048 * MS, 2049 * MS - 1 } };
+        for (long[] range : ranges) {
+            assertEquals(count(range[0], range[1]), statistics.getEventsInRange(range[0], range[1]));
+            assertEquals(countTypes(range[0], range[1]), statistics.getEventTypesInRange(range[0], range[1]));
+        }
+
+        /* Consecutive ranges add up to the total */
+        long[] times = { -1, 1000 * MS, 3333 * MS + 1, 3334 * MS, 6000 * MS, 9990 * MS, 20000 * MS };
+        List<Long> expected = new ArrayList<>();
+        expected.add(0L);
+        for (int i = 1; i < times.length; i++) {
+            expected.add(count(times[i - 1] + 1, times[i]));
+        }
+        assertEquals(expected, statistics.histogramQuery(times));
+        /* The first range is only the first time */
+        assertEquals(Arrays.asList(1L, 2499L), statistics.histogramQuery(new long[] { 5000 * MS, 7499 * MS }));
+        assertEquals(Collections.emptyList(), statistics.histogramQuery(new long[0]));
+    }
+
+    @Test
+    public void testQueries() {
+        checkStatistics(createStatistics(1 << 14));
+    }
+
+    @Test
+    public void testMergedBuckets() {
+        /* Most of the events counted are read from the trace */
+        checkStatistics(createStatistics(16));
+    }
+
+    @Test
+    public void testEmpty() {
+        TmfPrefixSumStatistics statistics = new TmfPrefixSumStatistics(fTrace);
+        assertEquals(0, statistics.getEventsTotal());
+        assertEquals(0, statistics.getEventsInRange(0, 100));
+        assertEquals(Collections.emptyMap(), statistics.getEventTypesInRange(0, 100));
+        assertEquals(Arrays.asList(0L, 0L), statistics.histogramQuery(new long[] { 0, 100 }));
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            createStatistics(1 << 14).writeTo(out);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            checkStatistics(TmfPrefixSumStatistics.readFrom(in, fTrace));
+        }
+    }
+}
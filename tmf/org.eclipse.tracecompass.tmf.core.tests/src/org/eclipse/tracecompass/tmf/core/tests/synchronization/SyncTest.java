@@ -16,6 +16,7 @@ package org.eclipse.tracecompass.tmf.core.tests.synchronization;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -28,6 +29,7 @@ import java.io.ObjectOutputStream;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
+import java.util.Map;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.internal.tmf.core.synchronization.SyncAlgorithmFullyIncremental;
@@ -47,6 +49,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableMap;
+
 /**
  * Tests for {@link SynchronizationAlgorithm} and its descendants
  *
@@ -299,4 +303,82 @@ public class SyncTest {
 
     }
 
+    /**
+     * Testing that a serialized fully incremental synchronization can be
+     * resumed with the events appended to the traces, giving the same result
+     * as a single run on the complete traces
+     */
+    @Test
+    public void testFullyIncrementalResume() {
+        SynchronizationAlgorithm fullAlgo = SynchronizationAlgorithmFactory.getFullyIncrementalAlgorithm();
+        fullAlgo.init(fTraces);
+        addSyncMatch(fullAlgo, t2, 1, t1, 1);
+        addSyncMatch(fullAlgo, t1, 1, t2, 3);
+        addSyncMatch(fullAlgo, t2, 2, t1, 3);
+        addSyncMatch(fullAlgo, t1, 3, t2, 5);
+        addSyncMatch(fullAlgo, t2, 4, t1, 5);
+        addSyncMatch(fullAlgo, t2, 4, t1, 6);
+        addSyncMatch(fullAlgo, t1, 6, t2, 7);
+        addSyncMatch(fullAlgo, t1, 4, t2, 8);
+
+        /*
+         * Synchronize with the traces up to 5s and save: the events sent at
+         * 4s by t1 and by t2 to t1 at 6s are not matched yet
+         */
+        SyncAlgorithmFullyIncremental syncAlgo = (SyncAlgorithmFullyIncremental) SynchronizationAlgorithmFactory.getFullyIncrementalAlgorithm();
+        syncAlgo.init(fTraces);
+        addSyncMatch(syncAlgo, t2, 1, t1, 1);
+        addSyncMatch(syncAlgo, t1, 1, t2, 3);
+        addSyncMatch(syncAlgo, t2, 2, t1, 3);
+        addSyncMatch(syncAlgo, t1, 3, t2, 5);
+        addSyncMatch(syncAlgo, t2, 4, t1, 5);
+        syncAlgo.matchingEnded();
+        syncAlgo.setProcessedTimes(t1, seconds(5), seconds(4));
+        syncAlgo.setProcessedTimes(t2, seconds(5), seconds(4));
+
+        SyncAlgorithmFullyIncremental deserialAlgo = null;
+        try {
+            File temp = File.createTempFile("serialSyncAlgo", ".tmp");
+            try (FileOutputStream fileOut = new FileOutputStream(temp);
+                    ObjectOutputStream out = new ObjectOutputStream(fileOut);) {
+                out.writeObject(syncAlgo);
+            }
+            try (FileInputStream fileIn = new FileInputStream(temp);
+                    ObjectInputStream in = new ObjectInputStream(fileIn);) {
+                deserialAlgo = (SyncAlgorithmFullyIncremental) in.readObject();
+            }
+            temp.delete();
+        } catch (IOException | ClassNotFoundException e) {
+            fail("Error serializing the synchronization algorithm " + e.getMessage());
+        }
+        assertNotNull(deserialAlgo);
+
+        /* The traces are read again from their oldest unmatched event */
+        assertNull(deserialAlgo.resume(Collections.singleton(t1)));
+        Collection<@NonNull ITmfTrace> traces = new LinkedList<>();
+        traces.add(t1);
+        traces.add(t2);
+        Map<ITmfTrace, Long> startTimes = deserialAlgo.resume(traces);
+        assertNotNull(startTimes);
+        assertEquals(ImmutableMap.of(t1, seconds(4), t2, seconds(4)), startTimes);
+        deserialAlgo.init(fTraces);
+        assertEquals(SyncQuality.ACCURATE, deserialAlgo.getSynchronizationQuality(t1, t2));
+
+        /*
+         * The matches found again from 4s, the match already processed is
+         * skipped
+         */
+        addSyncMatch(deserialAlgo, t2, 4, t1, 5);
+        addSyncMatch(deserialAlgo, t2, 4, t1, 6);
+        addSyncMatch(deserialAlgo, t1, 6, t2, 7);
+        addSyncMatch(deserialAlgo, t1, 4, t2, 8);
+
+        assertEquals(fullAlgo.toString(), deserialAlgo.toString());
+        assertEquals(fullAlgo.getStats(), deserialAlgo.getStats());
+        assertEquals(fullAlgo.getTimestampTransform(t2), deserialAlgo.getTimestampTransform(t2));
+    }
+
+    private static long seconds(long seconds) {
+        return TmfTimestamp.fromSeconds(seconds).toNanos();
+    }
 }
@@ -15,6 +15,7 @@
 
 package org.eclipse.tracecompass.tmf.core.tests.synchronization;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -220,6 +221,45 @@ public class TsTransformFastTest {
         }
     }
 
+    /**
+     * Test that the transform of arrays and the transform prepared for a range
+     * give the same values as the transform of single timestamps, in any
+     * order
+     */
+    @Test
+    public void testFastTransformPrepared() {
+        TmfTimestampTransformLinearFast fast = fTransformFactory.create(Math.PI, 54321.0);
+        TmfTimestampTransformLinearFast reference = fTransformFactory.create(Math.PI, 54321.0);
+        long deltaMax = fast.getDeltaMax();
+        long start = ts - (ts % deltaMax) - deltaMax / 2;
+        long end = start + 20 * deltaMax;
+        fast.prepare(start, end);
+
+        int samples = 1000;
+        long[] timestamps = new long[samples];
+        long[] expected = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            // Go back and forth between the intervals of the range
+            long time = (i % 2 == 0) ? start + i * (deltaMax / 50) : end - i * (deltaMax / 50);
+            timestamps[i] = time;
+            expected[i] = reference.transform(time);
+        }
+        fast.resetScaleStats();
+        long[] results = new long[samples];
+        fast.transform(timestamps, results, samples);
+        assertArrayEquals(expected, results);
+        assertEquals(0, fast.getCacheMisses());
+        assertEquals(samples, fast.getCacheHits());
+
+        // Timestamps out of the prepared range still use the interval cache
+        assertEquals(reference.transform(end + deltaMax), fast.transform(end + deltaMax));
+        assertEquals(1, fast.getCacheMisses());
+
+        // Transform in place
+        fast.transform(timestamps, timestamps, samples);
+        assertArrayEquals(expected, timestamps);
+    }
+
     /**
      * Check that the proper exception are raised for illegal slopes
      */
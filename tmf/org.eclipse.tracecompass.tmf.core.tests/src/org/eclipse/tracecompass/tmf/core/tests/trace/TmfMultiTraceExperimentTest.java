@@ -656,6 +656,32 @@ public class TmfMultiTraceExperimentTest {
         assertNull("Event", event);
     }
 
+    @Test
+    public void testGetNextWithReadAhead() {
+        ITmfContext context1 = fExperiment.seekEvent(BLOCK_SIZE / 2);
+        ITmfContext context2 = fExperiment.seekEvent(BLOCK_SIZE / 2);
+        assertTrue("Experiment context type", context2 instanceof TmfExperimentContext);
+        ((TmfExperimentContext) context2).startReadAhead(fExperiment.getChildren(), 16);
+
+        long nbRead = 0;
+        ITmfEvent event1 = fExperiment.getNext(context1);
+        while (event1 != null) {
+            ITmfEvent event2 = fExperiment.getNext(context2);
+            assertNotNull("Event", event2);
+            assertEquals("Event timestamp", event1.getTimestamp(), event2.getTimestamp());
+            assertEquals("Event trace", event1.getTrace(), event2.getTrace());
+            assertEquals("Context rank", context1.getRank(), context2.getRank());
+            assertEquals("Context location", context1.getLocation(), context2.getLocation());
+            nbRead++;
+            event1 = fExperiment.getNext(context1);
+        }
+        assertNull("Event", fExperiment.getNext(context2));
+        assertEquals("Events read", NB_EVENTS - BLOCK_SIZE / 2, nbRead);
+        validateContextRanks(context2);
+        context1.dispose();
+        context2.dispose();
+    }
+
     // ------------------------------------------------------------------------
     // processRequest
     // ------------------------------------------------------------------------
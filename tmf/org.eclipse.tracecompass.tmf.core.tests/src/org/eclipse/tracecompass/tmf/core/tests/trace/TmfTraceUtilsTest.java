@@ -15,6 +15,7 @@
 package org.eclipse.tracecompass.tmf.core.tests.trace;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -29,7 +30,9 @@ import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.dataprovider.DataType;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.aspect.ITmfEventAspect;
+import org.eclipse.tracecompass.tmf.core.event.aspect.TmfBaseAspects;
 import org.eclipse.tracecompass.tmf.core.event.aspect.TmfCpuAspect;
+import org.eclipse.tracecompass.tmf.core.event.aspect.TmfEventAspectBinding;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
 import org.eclipse.tracecompass.tmf.core.signal.TmfSignalManager;
 import org.eclipse.tracecompass.tmf.core.signal.TmfTraceOpenedSignal;
@@ -241,6 +244,41 @@ public class TmfTraceUtilsTest {
 
     }
 
+    /**
+     * Test the {@link TmfTraceUtils#bindEventAspectOfClass(ITmfTrace, Class)}
+     * and {@link TmfTraceUtils#bindAspectOfName(ITmfTrace, String)} methods.
+     */
+    @Test
+    public void testBindEventAspects() {
+        TmfTrace trace = fTrace;
+        assertNotNull(trace);
+
+        ITmfContext context = trace.seekEvent(0L);
+        ITmfEvent event = trace.getNext(context);
+        assertNotNull(event);
+
+        /* Make sure the CPU aspect returns the expected value */
+        TmfEventAspectBinding binding = TmfTraceUtils.bindEventAspectOfClass(trace, TmfCpuAspect.class);
+        assertFalse(binding.isEmpty());
+        assertEquals(1, binding.resolve(event));
+        assertEquals(1, binding.resolveInt(event, -1));
+        assertEquals(1L, binding.resolveLong(event, -1L));
+
+        binding = TmfTraceUtils.bindAspectOfName(trace, "cpu");
+        assertEquals(1, binding.resolve(event));
+        assertEquals(1, binding.resolveInt(event, -1));
+
+        /* The timestamp aspect does not resolve to an integer */
+        binding = TmfTraceUtils.bindAspectOfName(trace, TmfBaseAspects.getTimestampAspect().getName());
+        assertNotNull(binding.resolve(event));
+        assertEquals(-1, binding.resolveInt(event, -1));
+
+        binding = TmfTraceUtils.bindEventAspectOfClass(trace, CounterAspect.class);
+        assertTrue(binding.isEmpty());
+        assertNull(binding.resolve(event));
+        assertEquals(-1, binding.resolveInt(event, -1));
+    }
+
     /**
      * Test the {@link TmfTraceUtils#getEventAspects(ITmfTrace, Class)} method
      */
@@ -101,4 +101,35 @@ public class BTreeTest extends AbstractCheckpointCollectionTest {
             assertEquals(checkpoint, treeVisitor.getCheckpoint());
         }
     }
+
+    /**
+     * Test inserting checkpoints in order, which bulk loads the tree, then out
+     * of order. Make sure they can be found after re-opening the file
+     */
+    @Test
+    public void testInsertInOrderThenOutOfOrder() {
+        for (int i = 0; i < CHECKPOINTS_INSERT_NUM; i++) {
+            fBTree.insert(new TmfCheckpoint(TmfTimestamp.fromSeconds(2 * i), new TmfLongLocation(2L * i), i));
+        }
+        for (int i = 0; i < 100; i++) {
+            fBTree.insert(new TmfCheckpoint(TmfTimestamp.fromSeconds(6 * i + 1), new TmfLongLocation(6L * i + 1), 0));
+        }
+        assertEquals(CHECKPOINTS_INSERT_NUM + 100, fBTree.size());
+        fBTree.dispose();
+
+        fBTree = createCollection();
+        for (int i = 0; i < CHECKPOINTS_INSERT_NUM; i++) {
+            TmfCheckpoint checkpoint = new TmfCheckpoint(TmfTimestamp.fromSeconds(2 * i), new TmfLongLocation(2L * i), i);
+            BTreeCheckpointVisitor treeVisitor = new BTreeCheckpointVisitor(checkpoint);
+            fBTree.accept(treeVisitor);
+            assertEquals(checkpoint, treeVisitor.getCheckpoint());
+            assertEquals(i, treeVisitor.getCheckpointRank());
+        }
+        for (int i = 0; i < 100; i++) {
+            TmfCheckpoint checkpoint = new TmfCheckpoint(TmfTimestamp.fromSeconds(6 * i + 1), new TmfLongLocation(6L * i + 1), 0);
+            BTreeCheckpointVisitor treeVisitor = new BTreeCheckpointVisitor(checkpoint);
+            fBTree.accept(treeVisitor);
+            assertEquals(checkpoint, treeVisitor.getCheckpoint());
+        }
+    }
 }
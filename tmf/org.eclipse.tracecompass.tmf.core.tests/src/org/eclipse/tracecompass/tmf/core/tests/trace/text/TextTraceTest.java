@@ -25,6 +25,8 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 
 import org.eclipse.core.resources.IResource;
@@ -46,6 +48,7 @@ import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestampFormat;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.TraceValidationStatus;
+import org.eclipse.tracecompass.tmf.core.trace.location.ITmfLocation;
 import org.eclipse.tracecompass.tmf.core.trace.text.TextTraceEventContent;
 import org.eclipse.tracecompass.tmf.tests.stubs.trace.text.SyslogEvent;
 import org.eclipse.tracecompass.tmf.tests.stubs.trace.text.SyslogTrace;
@@ -188,6 +191,35 @@ public class TextTraceTest {
         assertEquals("getInitialRangeOffset", initRange, fTrace.getInitialRangeOffset());
     }
 
+    /**
+     * Test that the segments returned by getSegmentLocations() contain all the
+     * events of the trace, once and in order.
+     */
+    @Test
+    public void testReadSegments() {
+        List<String> expected = new ArrayList<>();
+        ITmfContext context = fTrace.seekEvent(0);
+        SyslogEvent event = fTrace.getNext(context);
+        while (event != null) {
+            expected.add(event.getContent().getValue().toString());
+            event = fTrace.getNext(context);
+        }
+        context.dispose();
+
+        List<ITmfLocation> locations = fTrace.getSegmentLocations(4);
+        assertFalse(locations.isEmpty());
+        assertTrue(locations.size() <= 4);
+        List<String> actual = new ArrayList<>();
+        for (int i = 0; i < locations.size(); i++) {
+            ITmfLocation end = i + 1 < locations.size() ? locations.get(i + 1) : null;
+            fTrace.readSegment(locations.get(i), end, (location, e) -> {
+                actual.add(((SyslogEvent) e).getContent().getValue().toString());
+                return true;
+            });
+        }
+        assertEquals(expected, actual);
+    }
+
     // ------------------------------------------------------------------------
     // Parsing
     // ------------------------------------------------------------------------
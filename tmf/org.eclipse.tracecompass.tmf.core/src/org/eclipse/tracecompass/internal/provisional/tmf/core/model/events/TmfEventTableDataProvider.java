@@ -36,6 +36,10 @@ import org.eclipse.tracecompass.internal.provisional.tmf.core.model.table.ITmfVi
 import org.eclipse.tracecompass.internal.provisional.tmf.core.model.table.TmfVirtualTableModel;
 import org.eclipse.tracecompass.internal.provisional.tmf.core.model.table.VirtualTableCell;
 import org.eclipse.tracecompass.internal.tmf.core.filter.TmfCollapseFilter;
+import org.eclipse.tracecompass.internal.tmf.core.filter.TmfEventFieldIndex;
+import org.eclipse.tracecompass.internal.tmf.core.filter.TmfFilterCompiler;
+import org.eclipse.tracecompass.internal.tmf.core.filter.TmfFilterResultCache;
+import org.eclipse.tracecompass.internal.tmf.core.filter.TmfRankBitmap;
 import org.eclipse.tracecompass.internal.tmf.core.model.AbstractTmfTableDataProvider;
 import org.eclipse.tracecompass.internal.tmf.core.model.filters.FetchParametersUtils;
 import org.eclipse.tracecompass.tmf.core.dataprovider.DataProviderParameterUtils;
@@ -97,7 +101,9 @@ public class TmfEventTableDataProvider extends AbstractTmfTableDataProvider impl
     private @Nullable ITmfFilter fFilter;
 
     /**
-     * Maps used for the optimization of filtered query.
+     * Maps used for the optimization of filtered query, when the ranks of the
+     * events matching the filter are not available from the
+     * {@link TmfFilterResultCache}.
      *
      * TODO: Since these map can take a lot of memory, one solution would be to
      * replace these maps by two lists and use binary search instead of TreeMap
@@ -222,13 +228,19 @@ public class TmfEventTableDataProvider extends AbstractTmfTableDataProvider impl
                 return new TmfModelResponse<>(null, ITmfResponse.Status.FAILED, CommonStatusMessage.INCORRECT_QUERY_PARAMETERS);
             }
             @Nullable WrappedEvent event = null;
-            Predicate<@NonNull ITmfEvent> predicate;
-            if (filter == null) {
-                predicate = searchFilter::matches;
-            } else {
-                predicate = e -> (filter.matches(e) && searchFilter.matches(e));
+            Predicate<@NonNull ITmfEvent> predicate = TmfFilterCompiler.compile(searchFilter);
+            if (filter != null) {
+                predicate = TmfFilterCompiler.compile(filter).and(predicate);
             }
-            if (direction == Direction.NEXT) {
+            List<TmfRankBitmap> indexedRanks = (filter == null) ? TmfEventFieldIndex.getMatchingRanks(getTrace(), searchFilter) : null;
+            if (indexedRanks != null) {
+                /* Find the rank in the field index, then read only that event */
+                long startRank = Math.abs(queryFilter.getIndex());
+                long matchingRank = (direction == Direction.NEXT) ? TmfEventFieldIndex.nextRank(indexedRanks, startRank) : TmfEventFieldIndex.previousRank(indexedRanks, startRank);
+                if (matchingRank >= 0) {
+                    event = getNextWrappedEventMatching(getTrace(), matchingRank, e -> true, monitor);
+                }
+            } else if (direction == Direction.NEXT) {
                 event = getNextWrappedEventMatching(getTrace(), Math.abs(queryFilter.getIndex()), predicate, monitor);
             } else if (direction == Direction.PREVIOUS) {
                 event = getPreviousWrappedEventMatching(getTrace(), Math.abs(queryFilter.getIndex()), predicate, monitor);
@@ -263,7 +275,20 @@ public class TmfEventTableDataProvider extends AbstractTmfTableDataProvider impl
          * in the calling methods.
          */
         TableEventRequest request;
-        if (filter != null) {
+        /*
+         * The collapse filter depends on the previous event, it cannot use the
+         * ranks matching the filter
+         */
+        TmfRankBitmap matchingRanks = (filter != null && collapseFilter == null) ? TmfFilterResultCache.getMatchingRanks(getTrace(), filter, this) : null;
+        if (matchingRanks != null) {
+            long startingRank = matchingRanks.select(queryFilter.getIndex());
+            if (startingRank < 0) {
+                TmfVirtualTableModel<EventTableLine> model = new TmfVirtualTableModel<>(columnsIds, Collections.emptyList(), queryFilter.getIndex(), matchingRanks.getCardinality());
+                return new TmfModelResponse<>(model, ITmfResponse.Status.COMPLETED, CommonStatusMessage.COMPLETED);
+            }
+            request = matchingRanksTableRequest(Math.abs(queryFilter.getCount()), queryFilter.getIndex(), startingRank, aspects, matchingRanks, searchFilter, monitor);
+            request.setEventCount(matchingRanks.getCardinality());
+        } else if (filter != null) {
             request = filteredTableRequest(Math.abs(queryFilter.getCount()), queryFilter.getIndex(), aspects, filter, searchFilter, collapseFilter, monitor);
         } else {
             request = tableRequest(Math.abs(queryFilter.getCount()), queryFilter.getIndex(), aspects, searchFilter, collapseFilter, monitor);
@@ -324,6 +349,10 @@ public class TmfEventTableDataProvider extends AbstractTmfTableDataProvider impl
         if (filter == null) {
             return new TmfModelResponse<>(Collections.singletonList(rank), ITmfResponse.Status.COMPLETED, CommonStatusMessage.COMPLETED);
         }
+        TmfRankBitmap matchingRanks = TmfFilterResultCache.getMatchingRanks(getTrace(), filter, this);
+        if (matchingRanks != null) {
+            return new TmfModelResponse<>(Collections.singletonList(matchingRanks.rank(rank)), ITmfResponse.Status.COMPLETED, CommonStatusMessage.COMPLETED);
+        }
         applyFilter(filter);
 
         Entry<Long, Long> nearestEntry = fRankToIndexMap.floorEntry(rank);
@@ -331,6 +360,7 @@ public class TmfEventTableDataProvider extends AbstractTmfTableDataProvider impl
         long startingRank = nearestEntry != null ? nearestEntry.getKey() : 0L;
 
         List<Long> foundIndex = new ArrayList<>();
+        Predicate<ITmfEvent> filterPredicate = TmfFilterCompiler.compile(filter);
         TmfEventRequest request = new TmfEventRequest(ITmfEvent.class, TmfTimeRange.ETERNITY, startingRank, ITmfEventRequest.ALL_DATA, ExecutionType.FOREGROUND) {
             private long currentIndex = startingIndex;
             private long fRank = startingRank;
@@ -349,7 +379,7 @@ public class TmfEventTableDataProvider extends AbstractTmfTableDataProvider impl
                     return;
                 }
 
-                if (filter.matches(event)) {
+                if (filterPredicate.test(event)) {
                     currentIndex++;
                 }
                 fRank++;
@@ -426,6 +456,7 @@ public class TmfEventTableDataProvider extends AbstractTmfTableDataProvider impl
         Entry<Long, Long> nearestEntry = fIndexToRankMap.floorEntry(queryIndex);
         long startingRank = nearestEntry != null ? nearestEntry.getValue() : 0L;
         Long startingIndex = nearestEntry != null ? nearestEntry.getKey() : 0L;
+        Predicate<ITmfEvent> filterPredicate = TmfFilterCompiler.compile(filter);
 
         return new TableEventRequest(startingRank) {
             private long currentIndex = startingIndex;
@@ -440,7 +471,7 @@ public class TmfEventTableDataProvider extends AbstractTmfTableDataProvider impl
                 }
 
                 List<EventTableLine> events = getEventLines();
-                if (filter.matches(event) && (collapseFilter == null || collapseFilter.matches(event))) {
+                if (filterPredicate.test(event) && (collapseFilter == null || collapseFilter.matches(event))) {
                     boolean matches = searchFilter != null && searchFilter.matches(event);
                     if (events.size() < queryCount && queryIndex <= currentIndex) {
                         events.add(buildEventTableLine(aspects, event, currentIndex, rank, matches));
@@ -486,6 +517,64 @@ public class TmfEventTableDataProvider extends AbstractTmfTableDataProvider impl
         };
     }
 
+    /**
+     * Create a table event request that fills a list of {@link EventTableLine}
+     * based on the query parameters and on the ranks of the events matching
+     * the filter. The request starts at the first requested event and stops
+     * once all the requested events are read.
+     *
+     * @param queryCount
+     *            number of requested events
+     * @param queryIndex
+     *            index of the first requested event in the filtered events
+     * @param startingRank
+     *            rank of the first requested event
+     * @param aspects
+     *            Aspects to resolve
+     * @param matchingRanks
+     *            Ranks of the events matching the filter
+     * @param searchFilter
+     *            Search filter used to tag event lines
+     * @param monitor
+     *            a progress monitor
+     * @return a {@link TableEventRequest} to fill a list of
+     *         {@link EventTableLine}
+     */
+    private TableEventRequest matchingRanksTableRequest(int queryCount,
+            long queryIndex,
+            long startingRank,
+            Map<Long, ITmfEventAspect<?>> aspects,
+            TmfRankBitmap matchingRanks,
+            @Nullable ITmfFilter searchFilter,
+            @Nullable IProgressMonitor monitor) {
+
+        return new TableEventRequest(startingRank) {
+            private long currentIndex = queryIndex;
+            private long rank = startingRank;
+
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                if (monitor != null && monitor.isCanceled()) {
+                    cancel();
+                    return;
+                }
+
+                List<EventTableLine> events = getEventLines();
+                if (events.size() < queryCount && matchingRanks.contains(rank)) {
+                    boolean matches = searchFilter != null && searchFilter.matches(event);
+                    events.add(buildEventTableLine(aspects, event, currentIndex, rank, matches));
+                    currentIndex++;
+                }
+                if (events.size() >= queryCount) {
+                    done();
+                    return;
+                }
+                rank++;
+            }
+        };
+    }
+
     /**
      * Create a table event request that fills a list of {@link EventTableLine}
      * based on the query parameters.
@@ -15,6 +15,9 @@
 package org.eclipse.tracecompass.internal.tmf.core;
 
 import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.core.runtime.preferences.DefaultScope;
+import org.eclipse.tracecompass.internal.tmf.core.filter.TmfEventFieldIndex;
+import org.eclipse.tracecompass.tmf.core.statistics.TmfStatisticsModule;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimePreferences;
 
 /**
@@ -26,6 +29,8 @@ public class TmfCorePreferenceInitializer extends AbstractPreferenceInitializer
     @Override
     public void initializeDefaultPreferences() {
         TmfTimePreferences.init();
+        TmfEventFieldIndex.init();
+        DefaultScope.INSTANCE.getNode(Activator.PLUGIN_ID).putBoolean(TmfStatisticsModule.PREFIX_SUMS_PREFERENCE, false);
     }
 
 }
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The factory of the threads of the thread pools of TMF core. The threads are
+ * daemon threads, so an idle pool does not prevent the application from
+ * exiting, and they are numbered after the name of their pool.
+ */
+public final class TmfDaemonThreadFactory implements ThreadFactory {
+
+    private final String fName;
+    private final AtomicInteger fCount = new AtomicInteger();
+
+    /**
+     * Constructor
+     *
+     * @param name
+     *            The name of the pool, the prefix of the thread names
+     */
+    public TmfDaemonThreadFactory(String name) {
+        fName = name;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, fName + '-' + fCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -17,7 +17,10 @@
 package org.eclipse.tracecompass.internal.tmf.core.component;
 
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import org.eclipse.tracecompass.internal.tmf.core.Activator;
 import org.eclipse.tracecompass.internal.tmf.core.TmfCoreTracer;
@@ -37,6 +40,9 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
  */
 public class TmfEventThread implements Runnable {
 
+    /** The request processed by the current thread, see runSlice() */
+    private static final ThreadLocal<TmfEventThread> CURRENT_SLICE = new ThreadLocal<>();
+
     // ------------------------------------------------------------------------
     // Attributes
     // ------------------------------------------------------------------------
@@ -71,6 +77,18 @@ public class TmfEventThread implements Runnable {
     /** The flag for suspending a thread */
     private volatile boolean fIsPaused = false;
 
+    /*
+     * The state kept between slices, see runSlice(). The slices may run on
+     * different threads, one after the other.
+     */
+    private volatile boolean fIsStarted = false;
+    private volatile ITmfContext fContext = null;
+    private volatile ITmfEvent fNextEvent = null;
+    private volatile int fNbRead = 0;
+
+    /* The delay before the next slice asked by the request, or -1 */
+    private volatile long fYieldDelay = -1;
+
     // ------------------------------------------------------------------------
     // Constructor
     // ------------------------------------------------------------------------
@@ -159,70 +177,156 @@ public class TmfEventThread implements Runnable {
 
     @Override
     public void run() {
+        try {
+            while (!runSlice(() -> fIsPaused)) {
+                long delay = takeYieldDelay();
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+                // Pause execution until resumed
+                while (fIsPaused) {
+                    CountDownLatch latch = fLatch;
+                    latch.await();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete(e);
+        }
+    }
 
-        TmfCoreTracer.traceRequest(fRequest.getRequestId(), "is being serviced by " + fProvider.getName()); //$NON-NLS-1$
-
-        if (fRequest.isCancelled()) {
-            isCompleted = true;
-            return;
+    /**
+     * Process the request until it completes or until it is asked to yield.
+     * The request can yield after each event, its state is kept so that the
+     * next call continues where this one stopped, possibly from another
+     * thread. Calls must not overlap.
+     *
+     * @param shouldYield
+     *            checked after each event, returns true if the request should
+     *            stop and let others run
+     * @return true if the request is completed, false if it yielded
+     */
+    public boolean runSlice(BooleanSupplier shouldYield) {
+        if (isCompleted) {
+            return true;
         }
+        TmfEventThread previous = CURRENT_SLICE.get();
+        CURRENT_SLICE.set(this);
+        try {
+            if (!fIsStarted) {
+                fIsStarted = true;
+                TmfCoreTracer.traceRequest(fRequest.getRequestId(), "is being serviced by " + fProvider.getName()); //$NON-NLS-1$
 
-        // Extract the generic information
-        fRequest.start();
-        int nbRequested = fRequest.getNbRequested();
-        int nbRead = 0;
+                if (fRequest.isCancelled()) {
+                    isCompleted = true;
+                    return true;
+                }
 
-        ITmfContext context = null;
-        try {
-            // Initialize the execution
-            context = fProvider.armRequest(fRequest);
-            if (context == null) {
-                isCompleted = true;
-                fRequest.cancel();
-                return;
-            }
+                // Extract the generic information
+                fRequest.start();
 
-            // Get the ordered events
-            ITmfEvent event = fProvider.getNext(context);
-            TmfCoreTracer.traceRequest(fRequest.getRequestId(), "read first event"); //$NON-NLS-1$
+                // Initialize the execution
+                fContext = fProvider.armRequest(fRequest);
+                if (fContext == null) {
+                    isCompleted = true;
+                    fRequest.cancel();
+                    return true;
+                }
+
+                // Get the ordered events
+                fNextEvent = fProvider.getNext(fContext);
+                TmfCoreTracer.traceRequest(fRequest.getRequestId(), "read first event"); //$NON-NLS-1$
+            }
 
-            while (event != null && !fProvider.isCompleted(fRequest, event, nbRead)) {
+            int nbRequested = fRequest.getNbRequested();
+            ITmfContext context = fContext;
+            ITmfEvent event = fNextEvent;
+            while (event != null && !fProvider.isCompleted(fRequest, event, fNbRead)) {
 
                 TmfCoreTracer.traceEvent(fProvider, fRequest, event);
                 if (fRequest.getDataType().isInstance(event)) {
                     fRequest.handleData(event);
                 }
 
-                // Pause execution if requested
-                while (fIsPaused) {
-                    CountDownLatch latch = fLatch;
-                    latch.await();
-                }
-
                 // To avoid an unnecessary read passed the last event requested
-                if (++nbRead < nbRequested) {
+                if (++fNbRead < nbRequested) {
                     event = fProvider.getNext(context);
                 }
-            }
 
-            isCompleted = true;
-
-            if (fRequest.isCancelled()) {
-                fRequest.cancel();
-            } else {
-                fRequest.done();
+                // Yield if requested, the event is handled on the next slice
+                if (fYieldDelay >= 0 || shouldYield.getAsBoolean()) {
+                    fNextEvent = event;
+                    return false;
+                }
             }
+            complete(null);
 
+        } catch (CancellationException e) {
+            // The provider was interrupted while reading
+            fRequest.cancel();
+            complete(null);
         } catch (Exception e) {
+            complete(e);
+        } finally {
+            CURRENT_SLICE.set(previous);
+        }
+        return true;
+    }
+
+    /**
+     * Ask the request processed by the current thread to yield after the
+     * current event, and not to resume before a delay. A request handler that
+     * has to wait, for instance for other requests to catch up, calls this
+     * instead of blocking, so that its worker can run the other requests.
+     *
+     * @param delay
+     *            the minimum delay before the next slice of the request
+     * @param unit
+     *            the unit of the delay
+     * @return true if the request will yield, false if the current thread is
+     *         not processing a request, in which case the caller has to wait
+     *         by itself
+     */
+    public static boolean yieldCurrentSlice(long delay, TimeUnit unit) {
+        TmfEventThread current = CURRENT_SLICE.get();
+        if (current == null) {
+            return false;
+        }
+        current.fYieldDelay = Math.max(0, unit.toNanos(delay));
+        return true;
+    }
+
+    /**
+     * Get and reset the delay the request asked for before its next slice,
+     * after a slice that yielded
+     *
+     * @return the delay in nanoseconds, or -1 if the request did not ask to
+     *         yield
+     */
+    public long takeYieldDelay() {
+        long delay = fYieldDelay;
+        fYieldDelay = -1;
+        return delay;
+    }
+
+    private void complete(Exception e) {
+        isCompleted = true;
+        if (e != null) {
             Activator.logError("Error in " + fProvider.getName() + " handling " + fRequest, e); //$NON-NLS-1$ //$NON-NLS-2$
-            isCompleted = true;
             fRequest.fail(e);
+        } else if (fRequest.isCancelled()) {
+            fRequest.cancel();
+        } else {
+            fRequest.done();
         }
 
         // Cleanup
+        ITmfContext context = fContext;
         if (context != null) {
             context.dispose();
         }
+        fContext = null;
+        fNextEvent = null;
     }
 
     // ------------------------------------------------------------------------
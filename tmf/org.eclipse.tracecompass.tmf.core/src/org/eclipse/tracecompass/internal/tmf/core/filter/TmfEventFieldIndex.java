@@ -0,0 +1,390 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.filter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.DefaultScope;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.IPreferencesService;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.Activator;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.aspect.ITmfEventAspect;
+import org.eclipse.tracecompass.tmf.core.event.aspect.MultiAspect;
+import org.eclipse.tracecompass.tmf.core.event.aspect.TmfBaseAspects;
+import org.eclipse.tracecompass.tmf.core.event.aspect.TmfCpuAspect;
+import org.eclipse.tracecompass.tmf.core.filter.ITmfFilter;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterAspectNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterRootNode;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest.ExecutionType;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+import org.osgi.service.prefs.BackingStoreException;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Inverted index of the values of some aspects of the events of a trace. For
+ * each indexed aspect and each of its values, the index keeps the ranks of the
+ * events with that value.
+ * <p>
+ * The index is disabled by default, as building it takes a full pass on the
+ * trace. It is enabled by the {@link #ENABLED_PREFERENCE} preference of TMF
+ * core. Then, the index is built by a background request the first time a
+ * search or a filter on an indexed aspect is done on the trace, and saved in
+ * the supplementary files of the trace. The indexed aspects are the ones named
+ * in the {@link #ASPECTS_PREFERENCE} preference, or by default the event type,
+ * the CPU and the TID aspects. Aspects with too many different values are
+ * dropped from the index, as their values are better found by reading the
+ * trace.
+ */
+public final class TmfEventFieldIndex {
+
+    /**
+     * The key of the preference enabling the index
+     */
+    public static final String ENABLED_PREFERENCE = "org.eclipse.tracecompass.tmf.core.prefs.fieldIndex.enabled"; //$NON-NLS-1$
+    /**
+     * The key of the preference of the names of the indexed aspects, separated
+     * by commas, or empty to index the default aspects
+     */
+    public static final String ASPECTS_PREFERENCE = "org.eclipse.tracecompass.tmf.core.prefs.fieldIndex.aspects"; //$NON-NLS-1$
+
+    private static final String FILE_NAME = "field_index.idx"; //$NON-NLS-1$
+    private static final int FILE_VERSION = 2;
+    private static final String TID_ASPECT_NAME = "TID"; //$NON-NLS-1$
+    /* Maximum number of different values of an indexed aspect */
+    private static final int MAX_VALUES = 1 << 16;
+
+    private static final char SEPARATOR = ',';
+
+    private static final Map<ITmfTrace, TmfEventFieldIndex> INDEXES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final List<String> fAspectNames;
+    private final long fNbEvents;
+    private volatile @Nullable Map<String, Map<String, TmfRankBitmap>> fPostings = null;
+    private volatile boolean fFailed = false;
+
+    private TmfEventFieldIndex(List<String> aspectNames, long nbEvents) {
+        fAspectNames = aspectNames;
+        fNbEvents = nbEvents;
+    }
+
+    /**
+     * Initialize the default preferences of the index
+     */
+    public static void init() {
+        IEclipsePreferences defaultPreferences = DefaultScope.INSTANCE.getNode(Activator.PLUGIN_ID);
+        defaultPreferences.putBoolean(ENABLED_PREFERENCE, false);
+        defaultPreferences.put(ASPECTS_PREFERENCE, ""); //$NON-NLS-1$
+    }
+
+    /**
+     * Enable or disable the index, and set the names of the aspects to index
+     * for the traces indexed from now on
+     *
+     * @param enabled
+     *            true to enable the index
+     * @param aspectNames
+     *            the names of the aspects, or null to index the default aspects
+     */
+    public static void setIndexedAspects(boolean enabled, @Nullable Collection<String> aspectNames) {
+        IEclipsePreferences preferences = InstanceScope.INSTANCE.getNode(Activator.PLUGIN_ID);
+        preferences.putBoolean(ENABLED_PREFERENCE, enabled);
+        preferences.put(ASPECTS_PREFERENCE, aspectNames == null ? "" : Joiner.on(SEPARATOR).join(aspectNames)); //$NON-NLS-1$
+        try {
+            preferences.flush();
+        } catch (BackingStoreException e) {
+            Activator.logError("Failed to save the field index preferences", e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Get the ranks of the events of a trace matching a filter, from the index
+     * of the trace. The filter must be a condition on the value of an indexed
+     * aspect. The index is built in the background if needed, and this returns
+     * null until it is available, or if the index is disabled.
+     *
+     * @param trace
+     *            the trace
+     * @param filter
+     *            the filter
+     * @return the sets of ranks of the values of the aspect matching the
+     *         filter, the events matching the filter being in any of them, or
+     *         null if the index cannot be used for this filter
+     */
+    public static @Nullable List<TmfRankBitmap> getMatchingRanks(ITmfTrace trace, ITmfFilter filter) {
+        ITmfFilter condition = filter;
+        if (condition instanceof TmfFilterRootNode && ((TmfFilterRootNode) condition).getChildrenCount() == 1) {
+            condition = ((TmfFilterRootNode) condition).getChild(0);
+        }
+        if (!(condition instanceof TmfFilterAspectNode) || ((TmfFilterAspectNode) condition).isNot() || trace.isIndexing()) {
+            return null;
+        }
+        IPreferencesService preferences = Platform.getPreferencesService();
+        if (preferences == null || !preferences.getBoolean(Activator.PLUGIN_ID, ENABLED_PREFERENCE, false, null)) {
+            return null;
+        }
+        ITmfEventAspect<?> aspect = ((TmfFilterAspectNode) condition).getEventAspect();
+        Predicate<Object> valueCondition = TmfFilterCompiler.compileCondition(condition);
+        if (aspect == null || valueCondition == null) {
+            return null;
+        }
+        Map<String, ITmfEventAspect<?>> aspects = getIndexedAspects(trace, preferences.getString(Activator.PLUGIN_ID, ASPECTS_PREFERENCE, "", null)); //$NON-NLS-1$
+        if (!aspects.containsKey(aspect.getName())) {
+            return null;
+        }
+        TmfEventFieldIndex index = getIndex(trace, aspects);
+        Map<String, Map<String, TmfRankBitmap>> postings = index.fPostings;
+        if (postings == null) {
+            return null;
+        }
+        Map<String, TmfRankBitmap> values = postings.get(aspect.getName());
+        if (values == null) {
+            /* Too many values */
+            return null;
+        }
+        List<TmfRankBitmap> ranks = new ArrayList<>();
+        for (Entry<String, TmfRankBitmap> entry : values.entrySet()) {
+            if (valueCondition.test(entry.getKey())) {
+                ranks.add(entry.getValue());
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * Get the first rank at or after a rank in sets of ranks
+     *
+     * @param ranks
+     *            the sets of ranks
+     * @param rank
+     *            the rank
+     * @return the first rank of any of the sets at or after the rank, or -1 if
+     *         there is none
+     */
+    public static long nextRank(List<TmfRankBitmap> ranks, long rank) {
+        long next = -1;
+        for (TmfRankBitmap bitmap : ranks) {
+            long candidate = bitmap.select(bitmap.rank(rank));
+            if (candidate >= 0 && (next < 0 || candidate < next)) {
+                next = candidate;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Get the last rank at or before a rank in sets of ranks
+     *
+     * @param ranks
+     *            the sets of ranks
+     * @param rank
+     *            the rank
+     * @return the last rank of any of the sets at or before the rank, or -1 if
+     *         there is none
+     */
+    public static long previousRank(List<TmfRankBitmap> ranks, long rank) {
+        long previous = -1;
+        for (TmfRankBitmap bitmap : ranks) {
+            long count = bitmap.rank(rank + 1);
+            if (count > 0) {
+                previous = Math.max(previous, bitmap.select(count - 1));
+            }
+        }
+        return previous;
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper methods
+    // ------------------------------------------------------------------------
+
+    private static Map<String, ITmfEventAspect<?>> getIndexedAspects(ITmfTrace trace, String aspectNames) {
+        List<String> names = aspectNames.trim().isEmpty() ? null : Splitter.on(SEPARATOR).trimResults().omitEmptyStrings().splitToList(aspectNames);
+        Map<String, ITmfEventAspect<?>> aspects = new LinkedHashMap<>();
+        for (ITmfEventAspect<?> aspect : trace.getEventAspects()) {
+            boolean indexed = (names != null) ? names.contains(aspect.getName()) : (aspect == TmfBaseAspects.getEventTypeAspect() || aspect instanceof TmfCpuAspect || TID_ASPECT_NAME.equals(aspect.getName()));
+            if (indexed) {
+                aspects.computeIfPresent(aspect.getName(), (key, existing) -> MultiAspect.createFrom(existing, aspect));
+                aspects.putIfAbsent(aspect.getName(), aspect);
+            }
+        }
+        return aspects;
+    }
+
+    private static TmfEventFieldIndex getIndex(ITmfTrace trace, Map<String, ITmfEventAspect<?>> aspects) {
+        List<String> aspectNames = ImmutableList.copyOf(aspects.keySet());
+        long nbEvents = trace.getNbEvents();
+        TmfEventFieldIndex index;
+        synchronized (INDEXES) {
+            index = INDEXES.get(trace);
+            if (index != null && !index.fFailed && index.fNbEvents == nbEvents && index.fAspectNames.equals(aspectNames)) {
+                return index;
+            }
+            index = new TmfEventFieldIndex(aspectNames, nbEvents);
+            INDEXES.put(trace, index);
+        }
+        index.start(trace, aspects);
+        return index;
+    }
+
+    private void start(ITmfTrace trace, Map<String, ITmfEventAspect<?>> aspects) {
+        File file = new File(TmfTraceManager.getSupplementaryFileDir(trace) + FILE_NAME);
+        Map<String, Map<String, TmfRankBitmap>> postings = read(file);
+        if (postings != null) {
+            fPostings = postings;
+            return;
+        }
+        List<ITmfEventAspect<?>> indexedAspects = new ArrayList<>();
+        List<Map<String, TmfRankBitmap>> indexedValues = new ArrayList<>();
+        Map<String, Map<String, TmfRankBitmap>> building = new HashMap<>();
+        for (ITmfEventAspect<?> aspect : aspects.values()) {
+            Map<String, TmfRankBitmap> values = new HashMap<>();
+            indexedAspects.add(aspect);
+            indexedValues.add(values);
+            building.put(aspect.getName(), values);
+        }
+        TmfEventRequest request = new TmfEventRequest(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND) {
+            private long fRank = 0;
+
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                for (int i = 0; i < indexedAspects.size(); i++) {
+                    ITmfEventAspect<?> aspect = indexedAspects.get(i);
+                    Object value = aspect.resolve(event);
+                    if (value == null) {
+                        continue;
+                    }
+                    Map<String, TmfRankBitmap> values = indexedValues.get(i);
+                    values.computeIfAbsent(value.toString(), v -> new TmfRankBitmap()).add(fRank);
+                    if (values.size() > MAX_VALUES) {
+                        building.remove(aspect.getName());
+                        indexedAspects.remove(i);
+                        indexedValues.remove(i);
+                        i--;
+                    }
+                }
+                fRank++;
+            }
+
+            @Override
+            public void handleSuccess() {
+                super.handleSuccess();
+                if (fRank != fNbEvents) {
+                    /* The trace changed while reading it */
+                    fFailed = true;
+                    return;
+                }
+                write(file, building);
+                fPostings = building;
+            }
+
+            @Override
+            public void handleFailure() {
+                super.handleFailure();
+                fFailed = true;
+            }
+
+            @Override
+            public void handleCancel() {
+                super.handleCancel();
+                fFailed = true;
+            }
+        };
+        trace.sendRequest(request);
+    }
+
+    private @Nullable Map<String, Map<String, TmfRankBitmap>> read(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_VERSION || in.readLong() != fNbEvents) {
+                return null;
+            }
+            int nbNames = in.readInt();
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < nbNames; i++) {
+                names.add(in.readUTF());
+            }
+            if (!names.equals(fAspectNames)) {
+                /* Indexed with other aspects */
+                return null;
+            }
+            Map<String, Map<String, TmfRankBitmap>> postings = new HashMap<>();
+            int nbAspects = in.readInt();
+            for (int i = 0; i < nbAspects; i++) {
+                String name = in.readUTF();
+                int nbValues = in.readInt();
+                Map<String, TmfRankBitmap> values = new HashMap<>();
+                for (int j = 0; j < nbValues; j++) {
+                    String value = in.readUTF();
+                    values.put(value, TmfRankBitmap.readFrom(in));
+                }
+                postings.put(name, values);
+            }
+            return postings;
+        } catch (IOException e) {
+            Activator.logWarning("Cannot read the field index " + file, e); //$NON-NLS-1$
+            return null;
+        }
+    }
+
+    private void write(File file, Map<String, Map<String, TmfRankBitmap>> postings) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(FILE_VERSION);
+            out.writeLong(fNbEvents);
+            out.writeInt(fAspectNames.size());
+            for (String name : fAspectNames) {
+                out.writeUTF(name);
+            }
+            out.writeInt(postings.size());
+            for (Entry<String, Map<String, TmfRankBitmap>> aspect : postings.entrySet()) {
+                out.writeUTF(aspect.getKey());
+                out.writeInt(aspect.getValue().size());
+                for (Entry<String, TmfRankBitmap> value : aspect.getValue().entrySet()) {
+                    out.writeUTF(value.getKey());
+                    value.getValue().writeTo(out);
+                }
+            }
+        } catch (IOException e) {
+            Activator.logWarning("Cannot save the field index " + file, e); //$NON-NLS-1$
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventType;
+import org.eclipse.tracecompass.tmf.core.event.aspect.ITmfEventAspect;
+import org.eclipse.tracecompass.tmf.core.event.aspect.TmfBaseAspects;
+import org.eclipse.tracecompass.tmf.core.filter.ITmfFilter;
+import org.eclipse.tracecompass.tmf.core.filter.model.ITmfFilterTreeNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterAndNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterAspectNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterContainsNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterEqualsNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterMatchesNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterOrNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterRootNode;
+import org.eclipse.tracecompass.tmf.core.filter.model.TmfFilterTraceTypeNode;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+
+/**
+ * Compiles a filter tree into a predicate on events, that gives the same
+ * result as the filter but does less work per event.
+ * <p>
+ * The children of the nodes are copied once instead of at every event, regular
+ * expressions without special characters become substring searches, the
+ * conditions on the event type are evaluated once per type name and before the
+ * other conditions, and the trace type conditions once per trace. The nodes
+ * that are not known are evaluated by the filter itself.
+ */
+@NonNullByDefault
+public final class TmfFilterCompiler {
+
+    /* Maximum number of results kept for the event type conditions */
+    private static final int MAX_CACHED_TYPES = 4096;
+    private static final String REGEX_SPECIAL_CHARACTERS = "\\[](){}.*+?^$|"; //$NON-NLS-1$
+
+    private TmfFilterCompiler() {
+        // Do nothing, private constructor
+    }
+
+    /**
+     * Compile a filter into a predicate
+     *
+     * @param filter
+     *            the filter
+     * @return a predicate matching the same events as the filter
+     */
+    public static Predicate<ITmfEvent> compile(ITmfFilter filter) {
+        return compileNode(filter).fPredicate;
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper methods
+    // ------------------------------------------------------------------------
+
+    private static CompiledFilter compileNode(ITmfFilter filter) {
+        if (filter instanceof TmfFilterRootNode) {
+            return and(compileChildren((ITmfFilterTreeNode) filter), false);
+        } else if (filter instanceof TmfFilterNode) {
+            return or(compileChildren((ITmfFilterTreeNode) filter), false);
+        } else if (filter instanceof TmfFilterAndNode) {
+            TmfFilterAndNode node = (TmfFilterAndNode) filter;
+            return node.hasChildren() ? and(compileChildren(node), node.isNot()) : constant(node.isNot());
+        } else if (filter instanceof TmfFilterOrNode) {
+            TmfFilterOrNode node = (TmfFilterOrNode) filter;
+            return node.hasChildren() ? or(compileChildren(node), node.isNot()) : constant(node.isNot());
+        } else if (filter instanceof TmfFilterTraceTypeNode) {
+            return traceType((TmfFilterTraceTypeNode) filter);
+        } else if (filter instanceof TmfFilterMatchesNode && ((TmfFilterMatchesNode) filter).getRegex() == null) {
+            return constant(((TmfFilterMatchesNode) filter).isNot());
+        }
+        Predicate<Object> condition = compileCondition(filter);
+        if (condition != null) {
+            return aspect((TmfFilterAspectNode) filter, condition);
+        }
+        /* Compare nodes already parse their value once, and unknown nodes */
+        return new CompiledFilter(filter::matches, false);
+    }
+
+    /**
+     * Compile the condition of a filter node on the value of its aspect,
+     * without its negation
+     *
+     * @param filter
+     *            the filter
+     * @return the condition on the non null values of the aspect, or null if
+     *         the filter is not a condition on the value of an aspect that can
+     *         be compiled
+     */
+    public static @Nullable Predicate<Object> compileCondition(ITmfFilter filter) {
+        if (filter instanceof TmfFilterMatchesNode) {
+            String regex = ((TmfFilterMatchesNode) filter).getRegex();
+            if (regex == null) {
+                return null;
+            }
+            if (isLiteral(regex)) {
+                return value -> value.toString().contains(regex);
+            }
+            try {
+                Pattern pattern = Pattern.compile(regex, Pattern.DOTALL);
+                return value -> pattern.matcher(value.toString()).find();
+            } catch (PatternSyntaxException e) {
+                return value -> false;
+            }
+        } else if (filter instanceof TmfFilterEqualsNode) {
+            TmfFilterEqualsNode node = (TmfFilterEqualsNode) filter;
+            String expected = node.getValue();
+            if (node.isIgnoreCase()) {
+                return value -> value.toString().equalsIgnoreCase(expected);
+            }
+            return value -> value.toString().equals(expected);
+        } else if (filter instanceof TmfFilterContainsNode) {
+            TmfFilterContainsNode node = (TmfFilterContainsNode) filter;
+            String expected = node.getValue();
+            if (expected != null) {
+                if (node.isIgnoreCase()) {
+                    String upperCase = expected.toUpperCase();
+                    return value -> value.toString().toUpperCase().contains(upperCase);
+                }
+                return value -> value.toString().contains(expected);
+            }
+        }
+        return null;
+    }
+
+    private static List<CompiledFilter> compileChildren(ITmfFilterTreeNode node) {
+        List<CompiledFilter> children = new ArrayList<>();
+        for (ITmfFilterTreeNode child : node.getChildren()) {
+            children.add(compileNode(child));
+        }
+        /* Evaluate the cheap conditions first, the result is the same */
+        children.sort((child1, child2) -> Boolean.compare(child2.fCheap, child1.fCheap));
+        return children;
+    }
+
+    private static CompiledFilter and(List<CompiledFilter> children, boolean not) {
+        if (children.size() == 1 && !not) {
+            return children.get(0);
+        }
+        Predicate<ITmfEvent>[] predicates = toArray(children);
+        return new CompiledFilter(event -> {
+            for (Predicate<ITmfEvent> predicate : predicates) {
+                if (!predicate.test(event)) {
+                    return not;
+                }
+            }
+            return !not;
+        }, isCheap(children));
+    }
+
+    private static CompiledFilter or(List<CompiledFilter> children, boolean not) {
+        if (children.size() == 1 && !not) {
+            return children.get(0);
+        }
+        Predicate<ITmfEvent>[] predicates = toArray(children);
+        return new CompiledFilter(event -> {
+            for (Predicate<ITmfEvent> predicate : predicates) {
+                if (predicate.test(event)) {
+                    return !not;
+                }
+            }
+            return not;
+        }, isCheap(children));
+    }
+
+    private static CompiledFilter constant(boolean result) {
+        return new CompiledFilter(event -> result, true);
+    }
+
+    private static CompiledFilter traceType(TmfFilterTraceTypeNode node) {
+        Class<? extends ITmfTrace> traceClass = node.getTraceClass();
+        String traceTypeId = node.getTraceTypeId();
+        boolean not = node.isNot();
+        Predicate<ITmfEvent> children = and(compileChildren(node), false).fPredicate;
+        Map<ITmfTrace, Boolean> traceMatches = new ConcurrentHashMap<>();
+        return new CompiledFilter(event -> {
+            ITmfTrace trace = event.getTrace();
+            boolean match = traceMatches.computeIfAbsent(trace,
+                    t -> t.getClass().equals(traceClass) && (traceTypeId == null || traceTypeId.equals(t.getTraceTypeId())));
+            return (match ^ not) && children.test(event);
+        }, false);
+    }
+
+    /**
+     * Compile a condition on the value of an aspect. The condition is only
+     * tested for a non null value.
+     */
+    private static CompiledFilter aspect(TmfFilterAspectNode node, Predicate<Object> condition) {
+        ITmfEventAspect<?> aspect = node.getEventAspect();
+        boolean not = node.isNot();
+        if (aspect == null) {
+            return constant(not);
+        }
+        if (aspect == TmfBaseAspects.getEventTypeAspect()) {
+            /* The same names are checked over and over */
+            Map<String, Boolean> typeMatches = new ConcurrentHashMap<>();
+            return new CompiledFilter(event -> {
+                ITmfEventType type = event.getType();
+                @Nullable String name = type == null ? null : type.getName();
+                if (name == null) {
+                    return not;
+                }
+                Boolean match = typeMatches.get(name);
+                if (match == null) {
+                    match = condition.test(name) ^ not;
+                    if (typeMatches.size() < MAX_CACHED_TYPES) {
+                        typeMatches.put(name, match);
+                    }
+                }
+                return match;
+            }, true);
+        }
+        return new CompiledFilter(event -> {
+            Object value = aspect.resolve(event);
+            return (value != null && condition.test(value)) ^ not;
+        }, false);
+    }
+
+    private static boolean isLiteral(String regex) {
+        for (int i = 0; i < regex.length(); i++) {
+            if (REGEX_SPECIAL_CHARACTERS.indexOf(regex.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCheap(List<CompiledFilter> children) {
+        return children.stream().allMatch(child -> child.fCheap);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<ITmfEvent>[] toArray(List<CompiledFilter> children) {
+        return children.stream().map(child -> child.fPredicate).toArray(Predicate[]::new);
+    }
+
+    /**
+     * A compiled filter, and whether it is cheap to evaluate
+     */
+    private static final class CompiledFilter {
+        private final Predicate<ITmfEvent> fPredicate;
+        private final boolean fCheap;
+
+        CompiledFilter(Predicate<ITmfEvent> predicate, boolean cheap) {
+            fPredicate = predicate;
+            fCheap = cheap;
+        }
+    }
+}
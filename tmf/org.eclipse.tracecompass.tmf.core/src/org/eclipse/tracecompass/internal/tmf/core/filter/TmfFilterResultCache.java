@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.filter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.Activator;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.filter.ITmfFilter;
+import org.eclipse.tracecompass.tmf.core.filter.model.ITmfFilterTreeNode;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest.ExecutionType;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Cache of the ranks of the events of a trace matching a filter, shared by all
+ * the users of the trace.
+ * <p>
+ * The ranks matching a filter are computed once, from the field index of the
+ * trace when it can be used, or else by a background request on the whole
+ * trace and saved in the supplementary files of the trace so they are not
+ * computed again when the trace is reopened. Filters are identified by their
+ * expression, so equal filters built by different clients share the same
+ * result.
+ * <p>
+ * Each client, or owner, has one current filter per trace. When an owner
+ * changes its filter, the computation of the previous one is cancelled if no
+ * other owner uses it. The most recently used results of a trace are kept in
+ * memory, and the most recently used result files in its supplementary files.
+ */
+public final class TmfFilterResultCache {
+
+    private static final String FILE_PREFIX = "filter-"; //$NON-NLS-1$
+    private static final String FILE_SUFFIX = ".ranks"; //$NON-NLS-1$
+    private static final int FILE_VERSION = 2;
+
+    /** The maximum number of results kept in memory for a trace */
+    private static final int MAX_RESULTS = 16;
+
+    /** The maximum number of result files kept for a trace */
+    private static final int MAX_FILES = 16;
+
+    private static final Map<ITmfTrace, TraceResults> RESULTS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private TmfFilterResultCache() {
+        // Do nothing, private constructor
+    }
+
+    /**
+     * Get the ranks of the events of a trace matching a filter. If they are
+     * not known yet, they are computed in the background and this returns null
+     * until they are.
+     *
+     * @param trace
+     *            the trace
+     * @param filter
+     *            the filter
+     * @param owner
+     *            the client applying the filter, whose previous filter on this
+     *            trace is superseded by this one
+     * @return the ranks of the matching events, or null if they are not
+     *         available yet or cannot be cached for this filter
+     */
+    public static @Nullable TmfRankBitmap getMatchingRanks(ITmfTrace trace, ITmfFilter filter, Object owner) {
+        if (!(filter instanceof ITmfFilterTreeNode) || trace.isIndexing()) {
+            /* The filter has no expression, or the trace is still growing */
+            return null;
+        }
+        String expression = ((ITmfFilterTreeNode) filter).toString(true);
+        long nbEvents = trace.getNbEvents();
+        FilterResult result;
+        boolean start = false;
+        synchronized (RESULTS) {
+            TraceResults results = RESULTS.computeIfAbsent(trace, t -> new TraceResults());
+            String previous = results.fOwners.put(owner, expression);
+            if (previous != null && !previous.equals(expression) && !results.fOwners.containsValue(previous)) {
+                FilterResult superseded = results.fResults.get(previous);
+                if (superseded != null && superseded.cancel()) {
+                    results.fResults.remove(previous);
+                }
+            }
+            result = results.fResults.get(expression);
+            if (result == null || result.isStale(nbEvents)) {
+                result = new FilterResult(expression, nbEvents);
+                results.fResults.put(expression, result);
+                start = true;
+            }
+        }
+        if (start) {
+            result.start(trace, filter);
+        }
+        return result.fRanks;
+    }
+
+    /**
+     * Get the request computing the ranks matching a filter, for testing
+     *
+     * @param trace
+     *            the trace
+     * @param filter
+     *            the filter
+     * @return the request, or null if the ranks are not computed by a
+     *         request
+     */
+    @VisibleForTesting
+    public static @Nullable ITmfEventRequest getRequest(ITmfTrace trace, ITmfFilterTreeNode filter) {
+        synchronized (RESULTS) {
+            TraceResults results = RESULTS.get(trace);
+            FilterResult result = results == null ? null : results.fResults.get(filter.toString(true));
+            return result == null ? null : result.fRequest;
+        }
+    }
+
+    /**
+     * The results of the filters of a trace, and the current filter of each
+     * owner. Guarded by {@link #RESULTS}.
+     */
+    private static final class TraceResults {
+        private final Map<String, FilterResult> fResults = new LinkedHashMap<String, FilterResult>(MAX_RESULTS, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FilterResult> eldest) {
+                if (size() > MAX_RESULTS) {
+                    eldest.getValue().cancel();
+                    return true;
+                }
+                return false;
+            }
+        };
+        private final Map<Object, String> fOwners = new WeakHashMap<>();
+    }
+
+    /**
+     * The ranks matching a filter, available once computed or read
+     */
+    private static final class FilterResult {
+        private final String fExpression;
+        private final long fNbEvents;
+        private volatile @Nullable TmfRankBitmap fRanks = null;
+        private volatile @Nullable ITmfEventRequest fRequest = null;
+        private volatile boolean fFailed = false;
+        private volatile boolean fCancelled = false;
+
+        FilterResult(String expression, long nbEvents) {
+            fExpression = expression;
+            fNbEvents = nbEvents;
+        }
+
+        boolean isStale(long nbEvents) {
+            return fFailed || nbEvents != fNbEvents;
+        }
+
+        /**
+         * Cancel the computation of the ranks, if they are not available yet
+         *
+         * @return true if the ranks will not be available
+         */
+        boolean cancel() {
+            if (fRanks != null) {
+                return false;
+            }
+            fCancelled = true;
+            ITmfEventRequest request = fRequest;
+            if (request != null && !request.isCompleted()) {
+                request.cancel();
+            }
+            return true;
+        }
+
+        void start(ITmfTrace trace, ITmfFilter filter) {
+            File file = getFile(trace, fExpression);
+            TmfRankBitmap ranks = read(file);
+            if (ranks != null) {
+                /* Mark the file as recently used */
+                file.setLastModified(System.currentTimeMillis());
+                fRanks = ranks;
+                return;
+            }
+            List<TmfRankBitmap> indexedRanks = TmfEventFieldIndex.getMatchingRanks(trace, filter);
+            if (indexedRanks != null) {
+                fRanks = TmfRankBitmap.union(indexedRanks);
+                return;
+            }
+            TmfRankBitmap matching = new TmfRankBitmap();
+            Predicate<ITmfEvent> predicate = TmfFilterCompiler.compile(filter);
+            TmfEventRequest request = new TmfEventRequest(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND) {
+                private long fRank = 0;
+
+                @Override
+                public void handleData(ITmfEvent event) {
+                    super.handleData(event);
+                    if (predicate.test(event)) {
+                        matching.add(fRank);
+                    }
+                    fRank++;
+                }
+
+                @Override
+                public void handleSuccess() {
+                    super.handleSuccess();
+                    if (fRank != fNbEvents) {
+                        /* The trace changed while reading it */
+                        fFailed = true;
+                        return;
+                    }
+                    write(file, matching);
+                    deleteOldFiles(trace);
+                    TmfTraceManager.refreshSupplementaryFiles(trace);
+                    fRanks = matching;
+                }
+
+                @Override
+                public void handleFailure() {
+                    super.handleFailure();
+                    fFailed = true;
+                }
+
+                @Override
+                public void handleCancel() {
+                    super.handleCancel();
+                    fFailed = true;
+                }
+            };
+            fRequest = request;
+            if (fCancelled) {
+                /* Superseded before it was sent */
+                request.cancel();
+                return;
+            }
+            trace.sendRequest(request);
+        }
+
+        private @Nullable TmfRankBitmap read(File file) {
+            if (!file.exists()) {
+                return null;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != FILE_VERSION || in.readLong() != fNbEvents || !fExpression.equals(in.readUTF())) {
+                    /* Out of date, or another filter with the same hash */
+                    return null;
+                }
+                return TmfRankBitmap.readFrom(in);
+            } catch (IOException e) {
+                Activator.logWarning("Cannot read the filter results " + file, e); //$NON-NLS-1$
+                return null;
+            }
+        }
+
+        private void write(File file, TmfRankBitmap ranks) {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                out.writeInt(FILE_VERSION);
+                out.writeLong(fNbEvents);
+                out.writeUTF(fExpression);
+                ranks.writeTo(out);
+            } catch (IOException e) {
+                Activator.logWarning("Cannot save the filter results " + file, e); //$NON-NLS-1$
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Delete the least recently used result files of a trace, beyond the
+     * maximum number of files
+     */
+    private static void deleteOldFiles(ITmfTrace trace) {
+        File[] files = new File(TmfTraceManager.getSupplementaryFileDir(trace)).listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (files == null || files.length <= MAX_FILES) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < files.length - MAX_FILES; i++) {
+            if (!files[i].delete()) {
+                Activator.logWarning("Cannot delete the filter results " + files[i]); //$NON-NLS-1$
+            }
+        }
+    }
+
+    private static File getFile(ITmfTrace trace, String expression) {
+        return new File(TmfTraceManager.getSupplementaryFileDir(trace) + FILE_PREFIX + Integer.toHexString(expression.hashCode()) + FILE_SUFFIX);
+    }
+}
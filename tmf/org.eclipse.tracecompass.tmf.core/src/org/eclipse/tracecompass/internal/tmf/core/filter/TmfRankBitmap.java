@@ -0,0 +1,432 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.filter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compressed set of event ranks, typically the ranks of the events matching a
+ * filter.
+ * <p>
+ * The ranks are split in chunks of 65536 consecutive ranks, and only the
+ * chunks that contain ranks are kept, sorted by their key (the high bits of
+ * their ranks). A chunk with few ranks is stored as a sorted array of the low
+ * bits of its ranks, and a dense chunk as a bitmap. The number of ranks before
+ * each chunk is kept, so that finding the number of ranks before a given rank
+ * and the n-th rank of the set only look at one chunk.
+ * <p>
+ * The serialized form only contains the non-empty chunks, with the difference
+ * between the keys of consecutive chunks, so a set whose ranks are far apart
+ * stays small.
+ * <p>
+ * Ranks must be added in increasing order. The set is not thread-safe while it
+ * is being built, but can be shared once it is complete.
+ */
+public final class TmfRankBitmap {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int LOW_MASK = CHUNK_SIZE - 1;
+    private static final int WORDS = CHUNK_SIZE / Long.SIZE;
+    /* Above this size, the bitmap of a chunk is smaller than its array */
+    private static final int MAX_ARRAY_SIZE = 4096;
+    private static final char[] NO_VALUES = new char[0];
+
+    /* The keys of the non-empty chunks, in increasing order */
+    private int[] fKeys = new int[0];
+    private Chunk[] fChunks = new Chunk[0];
+    /* The number of ranks before each chunk */
+    private long[] fCumulative = new long[0];
+    private int fNbChunks = 0;
+    private long fCardinality = 0;
+    private long fLast = -1;
+
+    /**
+     * Add a rank to the set
+     *
+     * @param rank
+     *            the rank, greater than the last rank added
+     */
+    public void add(long rank) {
+        if (rank <= fLast) {
+            throw new IllegalArgumentException("Ranks must be added in increasing order: " + rank + " after " + fLast); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        int key = (int) (rank >>> CHUNK_BITS);
+        Chunk chunk;
+        if (fNbChunks > 0 && fKeys[fNbChunks - 1] == key) {
+            chunk = fChunks[fNbChunks - 1];
+        } else {
+            chunk = new Chunk();
+            appendChunk(key, chunk);
+        }
+        chunk.add((int) (rank & LOW_MASK));
+        fCardinality++;
+        fLast = rank;
+    }
+
+    /**
+     * Get the number of ranks in the set
+     *
+     * @return the number of ranks
+     */
+    public long getCardinality() {
+        return fCardinality;
+    }
+
+    /**
+     * Check if the set contains a rank
+     *
+     * @param rank
+     *            the rank
+     * @return true if the rank is in the set
+     */
+    public boolean contains(long rank) {
+        if (rank < 0 || rank > fLast) {
+            return false;
+        }
+        int index = Arrays.binarySearch(fKeys, 0, fNbChunks, (int) (rank >>> CHUNK_BITS));
+        return index >= 0 && fChunks[index].contains((int) (rank & LOW_MASK));
+    }
+
+    /**
+     * Get the number of ranks of the set lower than a rank. For a set of the
+     * events matching a filter, this is the index in the filtered events of the
+     * first event at or after that rank.
+     *
+     * @param rank
+     *            the rank
+     * @return the number of ranks lower than the rank
+     */
+    public long rank(long rank) {
+        if (rank <= 0) {
+            return 0;
+        }
+        if (rank > fLast) {
+            return fCardinality;
+        }
+        int index = Arrays.binarySearch(fKeys, 0, fNbChunks, (int) (rank >>> CHUNK_BITS));
+        if (index < 0) {
+            /* All the ranks of the following chunk are after the rank */
+            return fCumulative[-index - 1];
+        }
+        return fCumulative[index] + fChunks[index].rank((int) (rank & LOW_MASK));
+    }
+
+    /**
+     * Get the n-th rank of the set. For a set of the events matching a filter,
+     * this is the rank of the event at an index of the filtered events.
+     *
+     * @param index
+     *            the index of the rank in the set, starting at 0
+     * @return the rank, or -1 if the set has less ranks than that
+     */
+    public long select(long index) {
+        if (index < 0 || index >= fCardinality) {
+            return -1;
+        }
+        /* Find the last chunk with less ranks before it than the index */
+        int low = 0;
+        int high = fNbChunks - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (fCumulative[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        Chunk chunk = fChunks[low];
+        return ((long) fKeys[low] << CHUNK_BITS) | chunk.select((int) (index - fCumulative[low]));
+    }
+
+    // ------------------------------------------------------------------------
+    // Serialization
+    // ------------------------------------------------------------------------
+
+    /**
+     * Write the set. Only the non-empty chunks are written, each with the
+     * difference between its key and the key of the previous chunk.
+     *
+     * @param out
+     *            the output
+     * @throws IOException
+     *             if the set cannot be written
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        writeVarInt(out, fNbChunks);
+        int previousKey = -1;
+        for (int i = 0; i < fNbChunks; i++) {
+            Chunk chunk = fChunks[i];
+            writeVarInt(out, fKeys[i] - previousKey);
+            previousKey = fKeys[i];
+            writeVarInt(out, chunk.fCardinality);
+            long[] bits = chunk.fBits;
+            if (bits != null) {
+                for (long word : bits) {
+                    out.writeLong(word);
+                }
+            } else {
+                for (int j = 0; j < chunk.fCardinality; j++) {
+                    out.writeChar(chunk.fValues[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a set written by {@link #writeTo(DataOutput)}
+     *
+     * @param in
+     *            the input
+     * @return the set
+     * @throws IOException
+     *             if the set cannot be read
+     */
+    public static TmfRankBitmap readFrom(DataInput in) throws IOException {
+        TmfRankBitmap bitmap = new TmfRankBitmap();
+        int nbChunks = readVarInt(in);
+        if (nbChunks < 0) {
+            throw new IOException("Invalid number of chunks: " + nbChunks); //$NON-NLS-1$
+        }
+        long key = -1;
+        for (int i = 0; i < nbChunks; i++) {
+            int delta = readVarInt(in);
+            key += delta;
+            if (delta <= 0 || key > Integer.MAX_VALUE) {
+                throw new IOException("Invalid chunk key: " + key); //$NON-NLS-1$
+            }
+            int cardinality = readVarInt(in);
+            if (cardinality <= 0 || cardinality > CHUNK_SIZE) {
+                throw new IOException("Invalid chunk size: " + cardinality); //$NON-NLS-1$
+            }
+            Chunk chunk = new Chunk();
+            if (cardinality > MAX_ARRAY_SIZE) {
+                long[] bits = new long[WORDS];
+                for (int j = 0; j < WORDS; j++) {
+                    bits[j] = in.readLong();
+                }
+                chunk.fBits = bits;
+                chunk.fValues = NO_VALUES;
+            } else {
+                char[] values = new char[cardinality];
+                for (int j = 0; j < cardinality; j++) {
+                    values[j] = in.readChar();
+                }
+                chunk.fValues = values;
+            }
+            chunk.fCardinality = cardinality;
+            bitmap.appendFullChunk((int) key, chunk);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Get the union of sets of ranks
+     *
+     * @param bitmaps
+     *            the sets
+     * @return the set of the ranks in any of the sets, which can be one of the
+     *         sets
+     */
+    public static TmfRankBitmap union(List<TmfRankBitmap> bitmaps) {
+        if (bitmaps.size() == 1) {
+            return bitmaps.get(0);
+        }
+        TmfRankBitmap union = new TmfRankBitmap();
+        /* Merge the sorted keys of the sets, with a position in each set */
+        int[] positions = new int[bitmaps.size()];
+        while (true) {
+            int key = Integer.MAX_VALUE;
+            boolean found = false;
+            for (int i = 0; i < positions.length; i++) {
+                TmfRankBitmap bitmap = bitmaps.get(i);
+                if (positions[i] < bitmap.fNbChunks && bitmap.fKeys[positions[i]] <= key) {
+                    key = bitmap.fKeys[positions[i]];
+                    found = true;
+                }
+            }
+            if (!found) {
+                return union;
+            }
+            long[] bits = new long[WORDS];
+            for (int i = 0; i < positions.length; i++) {
+                TmfRankBitmap bitmap = bitmaps.get(i);
+                if (positions[i] < bitmap.fNbChunks && bitmap.fKeys[positions[i]] == key) {
+                    bitmap.fChunks[positions[i]].orInto(bits);
+                    positions[i]++;
+                }
+            }
+            union.appendFullChunk(key, Chunk.fromBits(bits));
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper methods
+    // ------------------------------------------------------------------------
+
+    /* Add an empty chunk after all the chunks added so far */
+    private void appendChunk(int key, Chunk chunk) {
+        if (fNbChunks == fChunks.length) {
+            int capacity = Math.max(4, fChunks.length * 2);
+            fKeys = Arrays.copyOf(fKeys, capacity);
+            fChunks = Arrays.copyOf(fChunks, capacity);
+            fCumulative = Arrays.copyOf(fCumulative, capacity);
+        }
+        fKeys[fNbChunks] = key;
+        fChunks[fNbChunks] = chunk;
+        fCumulative[fNbChunks] = fCardinality;
+        fNbChunks++;
+    }
+
+    /* Add a complete chunk after all the ranks added so far */
+    private void appendFullChunk(int key, Chunk chunk) {
+        appendChunk(key, chunk);
+        fCardinality += chunk.fCardinality;
+        fLast = ((long) key << CHUNK_BITS) | chunk.select(chunk.fCardinality - 1);
+    }
+
+    /* Write a non-negative int in 7-bit groups, the lowest first */
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid variable-length integer"); //$NON-NLS-1$
+    }
+
+    /**
+     * The ranks of a chunk, as a sorted array of their low bits or as a bitmap
+     */
+    private static final class Chunk {
+        private char[] fValues = new char[4];
+        private long[] fBits = null;
+        private int fCardinality = 0;
+
+        void add(int low) {
+            long[] bits = fBits;
+            if (bits != null) {
+                bits[low >>> 6] |= 1L << low;
+            } else if (fCardinality < MAX_ARRAY_SIZE) {
+                if (fCardinality == fValues.length) {
+                    fValues = Arrays.copyOf(fValues, fCardinality * 2);
+                }
+                fValues[fCardinality] = (char) low;
+            } else {
+                bits = new long[WORDS];
+                for (int i = 0; i < fCardinality; i++) {
+                    bits[fValues[i] >>> 6] |= 1L << fValues[i];
+                }
+                bits[low >>> 6] |= 1L << low;
+                fBits = bits;
+                fValues = NO_VALUES;
+            }
+            fCardinality++;
+        }
+
+        static Chunk fromBits(long[] bits) {
+            Chunk chunk = new Chunk();
+            int cardinality = 0;
+            for (long word : bits) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality > MAX_ARRAY_SIZE) {
+                chunk.fBits = bits;
+                chunk.fValues = NO_VALUES;
+            } else {
+                char[] values = new char[cardinality];
+                int index = 0;
+                for (int i = 0; i < WORDS; i++) {
+                    long word = bits[i];
+                    while (word != 0) {
+                        values[index++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+                chunk.fValues = values;
+            }
+            chunk.fCardinality = cardinality;
+            return chunk;
+        }
+
+        void orInto(long[] bits) {
+            long[] ownBits = fBits;
+            if (ownBits != null) {
+                for (int i = 0; i < WORDS; i++) {
+                    bits[i] |= ownBits[i];
+                }
+            } else {
+                for (int i = 0; i < fCardinality; i++) {
+                    bits[fValues[i] >>> 6] |= 1L << fValues[i];
+                }
+            }
+        }
+
+        boolean contains(int low) {
+            long[] bits = fBits;
+            if (bits != null) {
+                return (bits[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(fValues, 0, fCardinality, (char) low) >= 0;
+        }
+
+        int rank(int low) {
+            long[] bits = fBits;
+            if (bits != null) {
+                int word = low >>> 6;
+                int count = 0;
+                for (int i = 0; i < word; i++) {
+                    count += Long.bitCount(bits[i]);
+                }
+                return count + Long.bitCount(bits[word] & ((1L << low) - 1));
+            }
+            int index = Arrays.binarySearch(fValues, 0, fCardinality, (char) low);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        int select(int index) {
+            long[] bits = fBits;
+            if (bits == null) {
+                return fValues[index];
+            }
+            int remaining = index;
+            for (int i = 0; i < WORDS; i++) {
+                long word = bits[i];
+                int count = Long.bitCount(word);
+                if (remaining < count) {
+                    for (int j = 0; j < remaining; j++) {
+                        word &= word - 1;
+                    }
+                    return (i << 6) + Long.numberOfTrailingZeros(word);
+                }
+                remaining -= count;
+            }
+            throw new IllegalStateException("Index out of the chunk: " + index); //$NON-NLS-1$
+        }
+    }
+}
@@ -125,7 +125,7 @@ public class HistogramDataProvider extends AbstractTmfTraceDataProvider implemen
 
         final ITmfStatistics stats = Objects.requireNonNull(fModule.getStatistics());
         if (selected.contains(fTotalId)) {
-            List<Long> values = stats.histogramQuery(filter.getTimesRequested());
+            List<Long> values = getTotalCounts(stats, xValues);
             if (values.size() < n) {
                 return TmfXyResponseFactory.create(TITLE, xValues, Collections.emptyList(), false);
             }
@@ -150,6 +150,22 @@ public class HistogramDataProvider extends AbstractTmfTraceDataProvider implemen
         return TmfXyResponseFactory.create(TITLE, xValues, builder.build(), completed);
     }
 
+    /**
+     * Get the number of events between the requested times, from the
+     * histogram pyramid of the trace when it is available and precise enough
+     * at this resolution, or else from the statistics.
+     */
+    private List<Long> getTotalCounts(ITmfStatistics stats, long[] times) {
+        if (times.length > 1) {
+            HistogramPyramid pyramid = HistogramPyramidCache.getPyramid(getTrace());
+            long step = (times[times.length - 1] - times[0]) / (times.length - 1);
+            if (pyramid != null && pyramid.isPrecise(step)) {
+                return pyramid.histogramQuery(times);
+            }
+        }
+        return stats.histogramQuery(times);
+    }
+
     private YModel getLostEvents(ITmfStateSystem ss, long[] times) throws StateSystemDisposedException {
         int leEndQuark = ss.optQuarkAbsolute(Attributes.LOST_EVENTS);
         int leCountQuark = ss.optQuarkAbsolute(Attributes.EVENT_TYPES, "Lost event"); //$NON-NLS-1$
@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.histogram;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pyramid of the number of events of a trace in time buckets. The buckets of
+ * the first level have a duration that is a power of two, in nanoseconds, and
+ * each bucket of a level is the sum of two buckets of the level below.
+ * <p>
+ * The number of events before any time is then the sum of at most one bucket
+ * per level, and the count of the events in the bucket containing the time is
+ * interpolated. The counts are exact on the boundaries of the first level
+ * buckets, so the pyramid is used for the time ranges much longer than its
+ * buckets.
+ * <p>
+ * The events are added in timestamp order, then the pyramid is completed and
+ * cannot be modified anymore. The number of buckets of the first level is
+ * bounded: their duration doubles each time the events do not fit anymore.
+ */
+public final class HistogramPyramid {
+
+    private static final int DEFAULT_MAX_BUCKETS = 1 << 18;
+    private static final int INITIAL_SIZE = 1024;
+    /* The minimum number of buckets in a range for its count to be precise */
+    private static final int MIN_BUCKETS_PER_RANGE = 8;
+
+    private final int fMaxBuckets;
+
+    /* The start time and duration of the buckets, valid once fEnd is set */
+    private long fStart = 0;
+    private long fDuration = 1;
+    private long fEnd = Long.MIN_VALUE;
+    private long fTotal = 0;
+
+    /* The first level, while the events are added */
+    private long[] fCounts = new long[INITIAL_SIZE];
+    private int fSize = 0;
+
+    /* All the levels, once completed */
+    private long[][] fLevels = new long[0][];
+
+    /**
+     * Constructor, with the default maximum number of buckets
+     */
+    public HistogramPyramid() {
+        this(DEFAULT_MAX_BUCKETS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxBuckets
+     *            The maximum number of buckets of the first level
+     */
+    public HistogramPyramid(int maxBuckets) {
+        if (maxBuckets < 1) {
+            throw new IllegalArgumentException("Invalid number of buckets: " + maxBuckets); //$NON-NLS-1$
+        }
+        fMaxBuckets = maxBuckets;
+    }
+
+    /**
+     * Count an event
+     *
+     * @param ts
+     *            The timestamp of the event, in nanoseconds. It must not be
+     *            before the previous one.
+     */
+    public void add(long ts) {
+        if (fLevels.length > 0) {
+            throw new IllegalStateException("The pyramid is completed"); //$NON-NLS-1$
+        }
+        if (fEnd == Long.MIN_VALUE) {
+            fStart = ts;
+        }
+        fEnd = Math.max(fEnd, ts);
+        fTotal++;
+        /* Events out of order before the first one go in the first bucket */
+        long offset = Math.max(0, ts - fStart);
+        while (offset / fDuration >= fMaxBuckets) {
+            fDuration *= 2;
+            fSize = merge(fCounts, fSize, fCounts);
+        }
+        int bucket = (int) (offset / fDuration);
+        if (bucket >= fCounts.length) {
+            fCounts = Arrays.copyOf(fCounts, Math.max(bucket + 1, fCounts.length * 2));
+        }
+        fCounts[bucket]++;
+        fSize = Math.max(fSize, bucket + 1);
+    }
+
+    /**
+     * Complete the pyramid, by computing the levels above the first one
+     */
+    public void complete() {
+        List<long[]> levels = new ArrayList<>();
+        long[] level = Arrays.copyOf(fCounts, Math.max(fSize, 1));
+        levels.add(level);
+        while (level.length > 1) {
+            long[] next = new long[(level.length + 1) / 2];
+            merge(level, level.length, next);
+            levels.add(next);
+            level = next;
+        }
+        fLevels = levels.toArray(new long[levels.size()][]);
+        fCounts = new long[0];
+    }
+
+    /**
+     * Get the duration of the buckets of the first level
+     *
+     * @return The duration, in nanoseconds
+     */
+    public long getBucketDuration() {
+        return fDuration;
+    }
+
+    /**
+     * Get whether the counts of the ranges of a given duration are precise
+     * enough to be read from the pyramid
+     *
+     * @param duration
+     *            The duration of the ranges, in nanoseconds
+     * @return true if the ranges are long enough compared to the buckets
+     */
+    public boolean isPrecise(long duration) {
+        return duration / MIN_BUCKETS_PER_RANGE >= fDuration;
+    }
+
+    /**
+     * Get the number of events until a time, inclusively
+     *
+     * @param time
+     *            The time, in nanoseconds
+     * @return The number of events
+     */
+    public long getCount(long time) {
+        if (fLevels.length == 0) {
+            throw new IllegalStateException("The pyramid is not completed"); //$NON-NLS-1$
+        }
+        if (fEnd == Long.MIN_VALUE || time < fStart) {
+            return 0;
+        }
+        if (time >= fEnd) {
+            return fTotal;
+        }
+        long offset = time - fStart + 1;
+        int bucket = (int) (offset / fDuration);
+        long count = 0;
+        int index = bucket;
+        for (int level = 0; index > 0; level++) {
+            if ((index & 1) != 0) {
+                count += fLevels[level][index - 1];
+            }
+            index >>= 1;
+        }
+        long inBucket = fLevels[0][bucket];
+        return count + (long) (inBucket * ((double) (offset % fDuration) / fDuration));
+    }
+
+    /**
+     * Get the number of events in consecutive time ranges, like
+     * {@link org.eclipse.tracecompass.tmf.core.statistics.ITmfStatistics#histogramQuery(long[])}
+     *
+     * @param times
+     *            The end times of the ranges, in increasing order. Each range
+     *            starts after the end of the previous one, and the first range
+     *            is only the first time, like for the state system statistics.
+     * @return The number of events in each range
+     */
+    public List<Long> histogramQuery(long[] times) {
+        List<Long> list = new ArrayList<>(times.length);
+        if (times.length == 0) {
+            return list;
+        }
+        long previous = (times[0] == Long.MIN_VALUE) ? 0 : getCount(times[0] - 1);
+        for (long time : times) {
+            long count = getCount(time);
+            list.add(count - previous);
+            previous = count;
+        }
+        return list;
+    }
+
+    // ------------------------------------------------------------------------
+    // Serialization
+    // ------------------------------------------------------------------------
+
+    /**
+     * Write the completed pyramid to a stream
+     *
+     * @param out
+     *            The output stream
+     * @throws IOException
+     *             If the stream could not be written
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        if (fLevels.length == 0) {
+            throw new IllegalStateException("The pyramid is not completed"); //$NON-NLS-1$
+        }
+        out.writeInt(fMaxBuckets);
+        out.writeLong(fStart);
+        out.writeLong(fDuration);
+        out.writeLong(fEnd);
+        out.writeLong(fTotal);
+        out.writeInt(fLevels.length);
+        for (long[] level : fLevels) {
+            out.writeInt(level.length);
+            for (long count : level) {
+                out.writeLong(count);
+            }
+        }
+    }
+
+    /**
+     * Read a pyramid written by {@link #writeTo(DataOutputStream)}
+     *
+     * @param in
+     *            The input stream
+     * @return The completed pyramid
+     * @throws IOException
+     *             If the stream could not be read or is invalid
+     */
+    public static HistogramPyramid readFrom(DataInputStream in) throws IOException {
+        int maxBuckets = in.readInt();
+        if (maxBuckets < 1) {
+            throw new IOException("Invalid number of buckets: " + maxBuckets); //$NON-NLS-1$
+        }
+        HistogramPyramid pyramid = new HistogramPyramid(maxBuckets);
+        pyramid.fStart = in.readLong();
+        pyramid.fDuration = in.readLong();
+        pyramid.fEnd = in.readLong();
+        pyramid.fTotal = in.readLong();
+        int nbLevels = in.readInt();
+        if (nbLevels < 1 || nbLevels > Integer.SIZE) {
+            throw new IOException("Invalid number of levels: " + nbLevels); //$NON-NLS-1$
+        }
+        long[][] levels = new long[nbLevels][];
+        int maxSize = maxBuckets;
+        for (int i = 0; i < nbLevels; i++) {
+            int size = in.readInt();
+            if (size < 1 || size > maxSize) {
+                throw new IOException("Invalid level size: " + size); //$NON-NLS-1$
+            }
+            levels[i] = new long[size];
+            for (int j = 0; j < size; j++) {
+                levels[i][j] = in.readLong();
+            }
+            maxSize = (size + 1) / 2;
+        }
+        pyramid.fLevels = levels;
+        pyramid.fCounts = new long[0];
+        return pyramid;
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Sum the buckets two by two, in the same or another array
+     *
+     * @return The number of buckets after the merge
+     */
+    private static int merge(long[] counts, int size, long[] merged) {
+        int mergedSize = (size + 1) / 2;
+        for (int i = 0; i < mergedSize; i++) {
+            long count = counts[2 * i];
+            if (2 * i + 1 < size) {
+                count += counts[2 * i + 1];
+            }
+            merged[i] = count;
+        }
+        if (merged == counts) {
+            Arrays.fill(counts, mergedSize, size, 0);
+        }
+        return mergedSize;
+    }
+}
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.histogram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.Activator;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfLostEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest.ExecutionType;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTimestampScannable;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+
+/**
+ * Cache of the {@link HistogramPyramid} of the traces, shared by all the
+ * histograms of a trace.
+ * <p>
+ * The pyramid of a trace is computed once, by a background request that is
+ * coalesced with the other background requests running at the same time, and
+ * saved in the supplementary files of the trace so it is not computed again
+ * when the trace is reopened. As with the statistics, lost events are not
+ * counted. Once a trace implementing {@link ITmfTimestampScannable} is
+ * indexed, its pyramid is computed from the timestamps it scans instead,
+ * without creating the events.
+ * <p>
+ * A pyramid is only used while the trace has the number of events it was
+ * computed for. When the trace has more events, for instance when it is
+ * reloaded after being updated, the histograms use the statistics until the
+ * pyramid is computed again.
+ * <p>
+ * Computing the pyramid reads the whole trace. When it fails or is cancelled,
+ * it is computed again right away only if the trace has changed since, and
+ * otherwise after a delay that doubles with each failure, so the histogram
+ * queries do not start a full pass of the trace each time.
+ */
+public final class HistogramPyramidCache {
+
+    private static final String FILE_NAME = "histogram.pyramid"; //$NON-NLS-1$
+    private static final int FILE_VERSION = 1;
+
+    /** The delay before computing a pyramid again after a failure, in ms */
+    private static final long MIN_RETRY_DELAY = 1000;
+    private static final long MAX_RETRY_DELAY = 60000;
+
+    private static final Map<ITmfTrace, PyramidResult> RESULTS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private HistogramPyramidCache() {
+        // Do nothing, private constructor
+    }
+
+    /**
+     * Get the pyramid of a trace. If it is not known yet, or if it was
+     * computed for another number of events than the trace has now, it is
+     * computed in the background and this returns null until it is.
+     *
+     * @param trace
+     *            the trace
+     * @return the pyramid, or null if it is not available yet
+     */
+    public static @Nullable HistogramPyramid getPyramid(ITmfTrace trace) {
+        File file = getFile(trace);
+        if (trace.isIndexing() && file.exists()) {
+            /* The saved pyramid cannot be validated until the trace is indexed */
+            return null;
+        }
+        long nbEvents = trace.getNbEvents();
+        PyramidResult result;
+        boolean start = false;
+        synchronized (RESULTS) {
+            result = RESULTS.get(trace);
+            if (result == null) {
+                result = new PyramidResult(MIN_RETRY_DELAY);
+                RESULTS.put(trace, result);
+                start = true;
+            } else if (result.fFailed && result.canRetry(nbEvents)) {
+                /* The delay is reset when the trace changed */
+                long retryDelay = result.fNbEvents != nbEvents ? MIN_RETRY_DELAY : Math.min(2 * result.fRetryDelay, MAX_RETRY_DELAY);
+                result = new PyramidResult(retryDelay);
+                RESULTS.put(trace, result);
+                start = true;
+            } else if (result.fPyramid != null && result.fNbEvents != nbEvents) {
+                /* The trace changed since the pyramid was computed */
+                if (trace.isIndexing()) {
+                    return null;
+                }
+                result = new PyramidResult(MIN_RETRY_DELAY);
+                RESULTS.put(trace, result);
+                start = true;
+            }
+        }
+        if (start) {
+            result.start(trace, file);
+        }
+        return result.fPyramid;
+    }
+
+    /**
+     * The pyramid of a trace, available once computed or read
+     */
+    private static final class PyramidResult {
+        private final long fRetryDelay;
+        private volatile @Nullable HistogramPyramid fPyramid = null;
+        private volatile boolean fFailed = false;
+        /*
+         * The number of events of the trace the pyramid is computed for, and
+         * the time of the failure
+         */
+        private volatile long fNbEvents = -1;
+        private volatile long fFailureTime = 0;
+
+        PyramidResult(long retryDelay) {
+            fRetryDelay = retryDelay;
+        }
+
+        boolean canRetry(long nbEvents) {
+            return nbEvents != fNbEvents || System.currentTimeMillis() - fFailureTime >= fRetryDelay;
+        }
+
+        private void failed() {
+            fFailureTime = System.currentTimeMillis();
+            fFailed = true;
+        }
+
+        void start(ITmfTrace trace, File file) {
+            fNbEvents = trace.getNbEvents();
+            HistogramPyramid pyramid = read(file, fNbEvents);
+            if (pyramid != null) {
+                fPyramid = pyramid;
+                return;
+            }
+            if (trace instanceof ITmfTimestampScannable && !trace.isIndexing()) {
+                scan((ITmfTimestampScannable) trace, file);
+                return;
+            }
+            HistogramPyramid counts = new HistogramPyramid();
+            TmfEventRequest request = new TmfEventRequest(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND) {
+                private long fNbRead = 0;
+
+                @Override
+                public void handleData(ITmfEvent event) {
+                    super.handleData(event);
+                    fNbRead++;
+                    if (!(event instanceof ITmfLostEvent)) {
+                        counts.add(event.getTimestamp().toNanos());
+                    }
+                }
+
+                @Override
+                public void handleSuccess() {
+                    super.handleSuccess();
+                    if (!trace.isIndexing() && fNbRead != trace.getNbEvents()) {
+                        /* The trace changed while reading it */
+                        failed();
+                        return;
+                    }
+                    counts.complete();
+                    write(file, counts, fNbRead);
+                    /* Before the pyramid, so it is never used for another count */
+                    fNbEvents = fNbRead;
+                    fPyramid = counts;
+                }
+
+                @Override
+                public void handleFailure() {
+                    super.handleFailure();
+                    failed();
+                }
+
+                @Override
+                public void handleCancel() {
+                    super.handleCancel();
+                    failed();
+                }
+            };
+            trace.sendRequest(request);
+        }
+
+        private void scan(ITmfTimestampScannable trace, File file) {
+            long nbEvents = fNbEvents;
+            Job job = new Job("Histogram of " + ((ITmfTrace) trace).getName()) { //$NON-NLS-1$
+                @Override
+                protected IStatus run(@Nullable IProgressMonitor monitor) {
+                    HistogramPyramid counts = new HistogramPyramid();
+                    try {
+                        trace.scanTimestamps((timestamps, length) -> {
+                            if (monitor != null && monitor.isCanceled()) {
+                                throw new OperationCanceledException();
+                            }
+                            for (int i = 0; i < length; i++) {
+                                counts.add(timestamps[i]);
+                            }
+                        });
+                    } catch (TmfTraceException e) {
+                        Activator.logWarning("Cannot scan the timestamps of " + ((ITmfTrace) trace).getName(), e); //$NON-NLS-1$
+                        failed();
+                        return Status.OK_STATUS;
+                    } catch (OperationCanceledException e) {
+                        failed();
+                        return Status.CANCEL_STATUS;
+                    }
+                    counts.complete();
+                    write(file, counts, nbEvents);
+                    fPyramid = counts;
+                    return Status.OK_STATUS;
+                }
+            };
+            job.setSystem(true);
+            job.schedule();
+        }
+
+        private static @Nullable HistogramPyramid read(File file, long nbEvents) {
+            if (!file.exists()) {
+                return null;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != FILE_VERSION || in.readLong() != nbEvents) {
+                    /* Out of date */
+                    return null;
+                }
+                return HistogramPyramid.readFrom(in);
+            } catch (IOException e) {
+                Activator.logWarning("Cannot read the histogram " + file, e); //$NON-NLS-1$
+                return null;
+            }
+        }
+
+        private static void write(File file, HistogramPyramid pyramid, long nbEvents) {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                out.writeInt(FILE_VERSION);
+                out.writeLong(nbEvents);
+                pyramid.writeTo(out);
+            } catch (IOException e) {
+                Activator.logWarning("Cannot save the histogram " + file, e); //$NON-NLS-1$
+                file.delete();
+            }
+        }
+    }
+
+    private static File getFile(ITmfTrace trace) {
+        return new File(TmfTraceManager.getSupplementaryFileDir(trace) + FILE_NAME);
+    }
+}
@@ -16,15 +16,17 @@
 
 package org.eclipse.tracecompass.internal.tmf.core.request;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.tmf.core.Activator;
 import org.eclipse.tracecompass.internal.tmf.core.TmfCoreTracer;
+import org.eclipse.tracecompass.tmf.core.component.TmfEventProvider;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
@@ -42,8 +44,8 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
     // Attributes
     // ------------------------------------------------------------------------
 
-    /** The list of coalesced requests */
-    private final List<ITmfEventRequest> fRequests = new ArrayList<>();
+    /** The list of coalesced requests, requests can join while reading */
+    private final List<ITmfEventRequest> fRequests = new CopyOnWriteArrayList<>();
 
     /**
      * We do not use super.fRange, because in the case of coalesced requests,
@@ -56,6 +58,18 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
      */
     private Map<String, Set<ITmfEventRequest>> fRequestsCache = new HashMap<>();
 
+    /**
+     * The union of the event types of the sub-requests, null if one of them
+     * needs all the event types.
+     */
+    private @Nullable Set<String> fEventTypes = new HashSet<>();
+
+    /**
+     * The fan-out of the events to the sub-requests, null if the events are
+     * dispatched on the reading thread.
+     */
+    private volatile @Nullable TmfEventFanOut fFanOut = null;
+
     // ------------------------------------------------------------------------
     // Constructor
     // ------------------------------------------------------------------------
@@ -108,6 +122,11 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
         return fRange;
     }
 
+    @Override
+    public @Nullable Set<String> getEventTypes() {
+        return fRequests.isEmpty() ? null : fEventTypes;
+    }
+
     // ------------------------------------------------------------------------
     // Management
     // ------------------------------------------------------------------------
@@ -132,6 +151,57 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
         }
     }
 
+    /**
+     * Add a request to this one while its events are being read. This is only
+     * possible if the events are fanned out and if the request does not need
+     * any event past the ones this request reads, or of a type it skips. The
+     * events the request needs that were already read, or that are before the
+     * start of this request, are read again for it.
+     *
+     * @param request
+     *            The request to add
+     * @param provider
+     *            The provider reading the events
+     * @return true if the request was added
+     */
+    public synchronized boolean join(ITmfEventRequest request, TmfEventProvider provider) {
+        TmfEventFanOut fanOut = fFanOut;
+        if (fanOut == null || isCompleted() || fanOut.isClosed() ||
+                request instanceof TmfCoalescedEventRequest ||
+                request.getExecType() != getExecType() ||
+                request.getDependencyLevel() != getDependencyLevel() ||
+                request.getRange().getEndTime().compareTo(fRange.getEndTime()) > 0 ||
+                !coversEventTypes(request)) {
+            return false;
+        }
+        if (fNbRequested != ITmfEventRequest.ALL_DATA &&
+                (request.getNbRequested() == ITmfEventRequest.ALL_DATA || request.getIndex() + request.getNbRequested() > fIndex + fNbRequested)) {
+            return false;
+        }
+        boolean beforeStart = request.getIndex() < fIndex ||
+                request.getRange().getStartTime().compareTo(fRange.getStartTime()) < 0;
+        request.start();
+        fRequests.add(request);
+        if (!fanOut.joinConsumer(request, provider, beforeStart)) {
+            fRequests.remove(request);
+            return false;
+        }
+        return true;
+    }
+
+    /*
+     * Check that the reading of this request does not skip the event types
+     * the other request needs.
+     */
+    private boolean coversEventTypes(ITmfEventRequest request) {
+        Set<String> eventTypes = getEventTypes();
+        if (eventTypes == null) {
+            return true;
+        }
+        Set<String> requestTypes = request.getEventTypes();
+        return requestTypes != null && eventTypes.containsAll(requestTypes);
+    }
+
     /**
      * Check if a request is compatible with the current coalesced one
      *
@@ -187,6 +257,14 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
         if (!fRange.contains(endTime) && fRange.getEndTime().compareTo(endTime) < 0) {
             fRange = new TmfTimeRange(fRange.getStartTime(), endTime);
         }
+
+        Set<String> eventTypes = request.getEventTypes();
+        Set<String> mergedTypes = fEventTypes;
+        if (eventTypes == null) {
+            fEventTypes = null;
+        } else if (mergedTypes != null) {
+            mergedTypes.addAll(eventTypes);
+        }
     }
 
     /**
@@ -215,6 +293,12 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
 
         long index = getIndex() + getNbRead() - 1;
 
+        TmfEventFanOut fanOut = fFanOut;
+        if (fanOut != null) {
+            fanOut.publish(data, index);
+            return;
+        }
+
         String traceName = data.getTrace().getName();
         Set<ITmfEventRequest> requests = fRequestsCache.get(traceName);
 
@@ -231,25 +315,39 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
 
         // dispatch event to relevant requests
         for (ITmfEventRequest request : requests) {
-            long start = request.getIndex();
-            if (!request.isCompleted() && index >= start && request.getNbRead() < request.getNbRequested()) {
-                ITmfTimestamp ts = data.getTimestamp();
-                if (request.getRange().contains(ts)) {
-                    if (request.getDataType().isInstance(data)) {
-                        try {
-                            request.handleData(data);
-                        } catch (Exception e) {
-                            /*
-                             * We don't usually catch all exception, but here it
-                             * is important because this will cause the request
-                             * thread to hang forever and the other requests to
-                             * be stopped. This should properly cancel the
-                             * request with the exception and let the rest
-                             * continue.
-                             */
-                            Activator.logError("An uncaught exception happened on request " + request + ": " + e.getMessage());  //$NON-NLS-1$//$NON-NLS-2$
-                            request.fail(e);
-                        }
+            dispatch(request, data, index);
+        }
+    }
+
+    /**
+     * Give an event to a sub-request if it is part of what it requested
+     *
+     * @param request
+     *            The sub-request
+     * @param data
+     *            The event, accepted by the provider filter of the request
+     * @param index
+     *            The rank of the event
+     */
+    static void dispatch(ITmfEventRequest request, ITmfEvent data, long index) {
+        long start = request.getIndex();
+        if (!request.isCompleted() && index >= start && request.getNbRead() < request.getNbRequested()) {
+            ITmfTimestamp ts = data.getTimestamp();
+            if (request.getRange().contains(ts)) {
+                if (request.getDataType().isInstance(data)) {
+                    try {
+                        request.handleData(data);
+                    } catch (Exception e) {
+                        /*
+                         * We don't usually catch all exception, but here it
+                         * is important because this will cause the request
+                         * thread to hang forever and the other requests to
+                         * be stopped. This should properly cancel the
+                         * request with the exception and let the rest
+                         * continue.
+                         */
+                        Activator.logError("An uncaught exception happened on request " + request + ": " + e.getMessage());  //$NON-NLS-1$//$NON-NLS-2$
+                        request.fail(e);
                     }
                 }
             }
@@ -258,19 +356,37 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
 
     @Override
     public synchronized void start() {
+        /*
+         * Fan out the events when there are several requests, so that they
+         * do not wait for each other, and for the background requests, so
+         * that the ones sent later can join.
+         */
+        TmfEventFanOut fanOut = null;
+        if (fRequests.size() > 1 || getExecType() == ExecutionType.BACKGROUND) {
+            fanOut = new TmfEventFanOut(TmfEventFanOut.DEFAULT_CAPACITY);
+        }
         for (ITmfEventRequest request : fRequests) {
             if (!request.isCompleted()) {
                 request.start();
+                if (fanOut != null) {
+                    fanOut.addConsumer(request);
+                }
             }
         }
+        fFanOut = fanOut;
         super.start();
     }
 
     @Override
     public synchronized void done() {
-        for (ITmfEventRequest request : fRequests) {
-            if (!request.isCompleted()) {
-                request.done();
+        if (fFanOut != null) {
+            // The consumers complete their requests once they are done
+            closeFanOut();
+        } else {
+            for (ITmfEventRequest request : fRequests) {
+                if (!request.isCompleted()) {
+                    request.done();
+                }
             }
         }
         super.done();
@@ -281,6 +397,7 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
         for (ITmfEventRequest request : fRequests) {
             request.fail(e);
         }
+        closeFanOut();
         super.fail(e);
     }
 
@@ -291,9 +408,17 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
                 request.cancel();
             }
         }
+        closeFanOut();
         super.cancel();
     }
 
+    private void closeFanOut() {
+        TmfEventFanOut fanOut = fFanOut;
+        if (fanOut != null) {
+            fanOut.close();
+        }
+    }
+
     @Override
     public synchronized boolean isCompleted() {
         // Firstly, check if coalescing request is completed
@@ -0,0 +1,535 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.request;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.Activator;
+import org.eclipse.tracecompass.internal.tmf.core.TmfDaemonThreadFactory;
+import org.eclipse.tracecompass.tmf.core.component.TmfEventProvider;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+
+/**
+ * Fans out the events read by a coalesced request to its sub-requests. The
+ * reading thread publishes the events in a bounded ring buffer, and each
+ * sub-request consumes them at its own pace on a consumer thread. A slow
+ * request only slows down the reading, and so the other requests, when the
+ * buffer is full.
+ *
+ * A request can join while the events are being read. If some of the events
+ * it needs are no longer in the buffer, it first reads them with its own
+ * context, until it reaches the events that are still in the buffer.
+ *
+ * The consumers run on a bounded pool of threads. A consumer gives its thread
+ * back after each pass over the buffer, or after each slice of events it
+ * catches up, so the consumers of all the requests take turns. When a single
+ * consumer keeps up with the reading, the reading thread gives it the events
+ * directly.
+ */
+public final class TmfEventFanOut {
+
+    // ------------------------------------------------------------------------
+    // Constants
+    // ------------------------------------------------------------------------
+
+    /** The default number of events kept in the buffer */
+    public static final int DEFAULT_CAPACITY = 16384;
+
+    /** Consumers are woken up every that many events */
+    private static final int WAKE_UP_INTERVAL = 64;
+
+    /** The producer is notified every that many consumed events */
+    private static final int NOTIFY_INTERVAL = 256;
+
+    /** A catching up request checks if it reached the buffer every that many events */
+    private static final int CATCH_UP_CHECK_INTERVAL = 256;
+
+    /** A catching up request gives its thread back every that many events */
+    private static final int CATCH_UP_SLICE = 4096;
+
+    /** The maximum time the producer waits before checking again, in ms */
+    private static final long WAIT_TIME = 100;
+
+    /** Cursor of the consumers that do not hold any event of the buffer */
+    private static final long NO_CURSOR = Long.MAX_VALUE;
+
+    private static final int NB_CONSUMER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final ThreadPoolExecutor CONSUMER_EXECUTOR = new ThreadPoolExecutor(NB_CONSUMER_THREADS, NB_CONSUMER_THREADS,
+            30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new TmfDaemonThreadFactory("TmfEventFanOut")); //$NON-NLS-1$
+
+    static {
+        CONSUMER_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    // ------------------------------------------------------------------------
+    // Attributes
+    // ------------------------------------------------------------------------
+
+    private final int fCapacity;
+    private final ITmfEvent[] fEvents;
+    private final long[] fIndexes;
+    private final List<Consumer> fConsumers = new CopyOnWriteArrayList<>();
+
+    private final Object fLock = new Object();
+
+    // The following are guarded by fLock
+    private long fPublished = 0;
+    private long fMinCursor = 0;
+    private boolean fClosed = false;
+    private boolean fProducerWaiting = false;
+    private long fLastEvictedIndex = -1;
+    private @Nullable ITmfTimestamp fLastEvictedTime = null;
+
+    // ------------------------------------------------------------------------
+    // Constructor
+    // ------------------------------------------------------------------------
+
+    /**
+     * Constructor
+     *
+     * @param capacity
+     *            the maximum number of events in the buffer
+     */
+    public TmfEventFanOut(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity); //$NON-NLS-1$
+        }
+        fCapacity = capacity;
+        fEvents = new ITmfEvent[capacity];
+        fIndexes = new long[capacity];
+    }
+
+    // ------------------------------------------------------------------------
+    // Operations
+    // ------------------------------------------------------------------------
+
+    /**
+     * Add a consumer that receives all the events from the first one
+     *
+     * @param request
+     *            the request consuming the events
+     */
+    public void addConsumer(ITmfEventRequest request) {
+        synchronized (fLock) {
+            Consumer consumer = new Consumer(request, 0);
+            fMinCursor = 0;
+            fConsumers.add(consumer);
+        }
+    }
+
+    /**
+     * Add a consumer while the events are being published. The consumer
+     * starts with the oldest event in the buffer. If it needs older events,
+     * it reads them from the provider first.
+     *
+     * @param request
+     *            the request consuming the events, already started
+     * @param provider
+     *            the provider to read the older events from
+     * @param beforeStart
+     *            true if the request needs events before the first one that
+     *            is published
+     * @return false if the events are no longer published
+     */
+    public boolean joinConsumer(ITmfEventRequest request, TmfEventProvider provider, boolean beforeStart) {
+        Consumer consumer = null;
+        synchronized (fLock) {
+            if (fClosed) {
+                return false;
+            }
+            if (!beforeStart && !needsCatchUp(request)) {
+                long cursor = Math.max(0, fPublished - fCapacity);
+                consumer = new Consumer(request, cursor);
+                fMinCursor = Math.min(fMinCursor, cursor);
+                fConsumers.add(consumer);
+            }
+        }
+        if (consumer == null) {
+            /* Seek outside of the lock, the consumer does not hold events yet */
+            ITmfContext context = provider.armRequest(request);
+            if (context == null) {
+                request.cancel();
+                return true;
+            }
+            consumer = new Consumer(request, provider, context);
+            fConsumers.add(consumer);
+        }
+        consumer.schedule();
+        return true;
+    }
+
+    /**
+     * Publish an event, blocking while the buffer is full
+     *
+     * @param event
+     *            the event
+     * @param index
+     *            the rank of the event
+     */
+    public void publish(ITmfEvent event, long index) {
+        long published;
+        synchronized (fLock) {
+            while (fPublished - fMinCursor >= fCapacity) {
+                fMinCursor = getMinCursor();
+                if (fPublished - fMinCursor < fCapacity) {
+                    break;
+                }
+                /* Make sure the late consumers are running, and wait for them */
+                wakeUpConsumers();
+                fProducerWaiting = true;
+                try {
+                    fLock.wait(WAIT_TIME);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while publishing events", e); //$NON-NLS-1$
+                } finally {
+                    fProducerWaiting = false;
+                }
+            }
+            int slot = (int) (fPublished % fCapacity);
+            ITmfEvent evicted = fEvents[slot];
+            if (evicted != null) {
+                fLastEvictedIndex = fIndexes[slot];
+                fLastEvictedTime = evicted.getTimestamp();
+            }
+            fEvents[slot] = event;
+            fIndexes[slot] = index;
+            fPublished++;
+            published = fPublished;
+        }
+        /* A single consumer that keeps up gets the event on this thread */
+        if (fConsumers.size() == 1 && fConsumers.get(0).consumeDirectly()) {
+            return;
+        }
+        if (published % WAKE_UP_INTERVAL == 0) {
+            wakeUpConsumers();
+        }
+    }
+
+    /**
+     * Indicate that all the events were published. The consumers complete
+     * their requests once they have consumed all the events.
+     */
+    public void close() {
+        synchronized (fLock) {
+            fClosed = true;
+        }
+        wakeUpConsumers();
+    }
+
+    /**
+     * Check if all the events were published
+     *
+     * @return true if {@link #close()} was called
+     */
+    public boolean isClosed() {
+        synchronized (fLock) {
+            return fClosed;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Check if some events needed by a request were evicted from the buffer.
+     * The events are in rank and time order, so it is the case if the request
+     * starts before the last evicted event.
+     */
+    private boolean needsCatchUp(ITmfEventRequest request) {
+        ITmfTimestamp lastEvictedTime = fLastEvictedTime;
+        if (lastEvictedTime == null) {
+            return false;
+        }
+        long index = request.getIndex();
+        if (index > 0) {
+            return index <= fLastEvictedIndex;
+        }
+        return request.getRange().getStartTime().compareTo(lastEvictedTime) <= 0;
+    }
+
+    private ITmfTimestamp getTimestamp(long sequence) {
+        return fEvents[(int) (sequence % fCapacity)].getTimestamp();
+    }
+
+    private long getMinCursor() {
+        long min = NO_CURSOR;
+        for (Consumer consumer : fConsumers) {
+            min = Math.min(min, consumer.fCursor);
+        }
+        return min == NO_CURSOR ? fPublished : min;
+    }
+
+    private void wakeUpConsumers() {
+        for (Consumer consumer : fConsumers) {
+            if (consumer.hasWork()) {
+                consumer.schedule();
+            }
+        }
+    }
+
+    private void notifyProducer() {
+        synchronized (fLock) {
+            if (fProducerWaiting) {
+                fLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * A sub-request consuming the events of the buffer on its own thread
+     */
+    private final class Consumer implements Runnable {
+
+        private final ITmfEventRequest fRequest;
+        private final AtomicBoolean fScheduled = new AtomicBoolean();
+        private final Map<String, Boolean> fMatches = new HashMap<>();
+
+        /** The sequence number of the next event to consume */
+        private volatile long fCursor;
+
+        /* The context and provider used to catch up, null once in the buffer */
+        private volatile @Nullable ITmfContext fCatchUpContext = null;
+        private final @Nullable TmfEventProvider fProvider;
+        private int fNbCatchUpRead = 0;
+
+        private volatile boolean fFinished = false;
+
+        Consumer(ITmfEventRequest request, long cursor) {
+            fRequest = request;
+            fCursor = cursor;
+            fProvider = null;
+        }
+
+        Consumer(ITmfEventRequest request, TmfEventProvider provider, ITmfContext context) {
+            fRequest = request;
+            fCursor = NO_CURSOR;
+            fProvider = provider;
+            fCatchUpContext = context;
+        }
+
+        boolean hasWork() {
+            if (fFinished) {
+                return false;
+            }
+            if (fCatchUpContext != null) {
+                return true;
+            }
+            synchronized (fLock) {
+                return fCursor < fPublished || fClosed;
+            }
+        }
+
+        void schedule() {
+            if (fScheduled.compareAndSet(false, true)) {
+                CONSUMER_EXECUTOR.execute(this);
+            }
+        }
+
+        /**
+         * Consume the published events on the calling thread, if this
+         * consumer is neither scheduled nor catching up.
+         *
+         * @return true if the events were consumed
+         */
+        boolean consumeDirectly() {
+            if (fFinished || fCatchUpContext != null || !fScheduled.compareAndSet(false, true)) {
+                return false;
+            }
+            runOnce();
+            return true;
+        }
+
+        @Override
+        public void run() {
+            runOnce();
+        }
+
+        /*
+         * Do one pass, then give the thread back and reschedule if there is
+         * more to do.
+         */
+        private void runOnce() {
+            try {
+                if (fCatchUpContext != null) {
+                    catchUp();
+                } else {
+                    consume();
+                }
+            } catch (RuntimeException e) {
+                Activator.logError("An uncaught exception happened on request " + fRequest + ": " + e.getMessage());  //$NON-NLS-1$//$NON-NLS-2$
+                fRequest.fail(e);
+                finish();
+            }
+            fScheduled.set(false);
+            if (hasWork()) {
+                schedule();
+            }
+        }
+
+        private void consume() {
+            if (fFinished) {
+                return;
+            }
+            long published;
+            boolean closed;
+            synchronized (fLock) {
+                published = fPublished;
+                closed = fClosed;
+            }
+            long cursor = fCursor;
+            if (cursor >= published) {
+                if (closed) {
+                    finish();
+                }
+                return;
+            }
+            for (; cursor < published; cursor++) {
+                if (fRequest.isCompleted()) {
+                    finish();
+                    return;
+                }
+                int slot = (int) (cursor % fCapacity);
+                ITmfEvent event = fEvents[slot];
+                if (matches(event)) {
+                    TmfCoalescedEventRequest.dispatch(fRequest, event, fIndexes[slot]);
+                }
+                if (cursor % NOTIFY_INTERVAL == 0) {
+                    fCursor = cursor + 1;
+                    notifyProducer();
+                }
+            }
+            fCursor = cursor;
+            notifyProducer();
+        }
+
+        /**
+         * Read the events from the provider until the next one is still in
+         * the buffer, or until the request is completed, at most one slice of
+         * events at a time.
+         */
+        private void catchUp() {
+            ITmfContext context = fCatchUpContext;
+            TmfEventProvider provider = fProvider;
+            if (context == null || provider == null) {
+                return;
+            }
+            int nbRequested = fRequest.getNbRequested();
+            int nextCheck = 0;
+            ITmfTimestamp previousTime = null;
+            int sliceEnd = fNbCatchUpRead + CATCH_UP_SLICE;
+            while (!fRequest.isCompleted() && fNbCatchUpRead < nbRequested) {
+                if (fNbCatchUpRead >= sliceEnd) {
+                    return;
+                }
+                ITmfEvent event = provider.getNext(context);
+                if (event == null || provider.isCompleted(fRequest, event, fNbCatchUpRead)) {
+                    break;
+                }
+                /*
+                 * The ranks of the contexts are not always known, so the
+                 * event is found in the buffer by its timestamp. It is only
+                 * the first event of the buffer with that timestamp if the
+                 * previous event is older.
+                 */
+                ITmfTimestamp time = event.getTimestamp();
+                if (fNbCatchUpRead >= nextCheck && previousTime != null && previousTime.compareTo(time) < 0) {
+                    if (switchToBuffer(time)) {
+                        return;
+                    }
+                    nextCheck = fNbCatchUpRead + CATCH_UP_CHECK_INTERVAL;
+                }
+                previousTime = time;
+                if (matches(event)) {
+                    TmfCoalescedEventRequest.dispatch(fRequest, event, fRequest.getIndex() + fNbCatchUpRead);
+                }
+                fNbCatchUpRead++;
+            }
+            finish();
+        }
+
+        /**
+         * Move the cursor to the first event of the buffer at the given time,
+         * if there are older events in the buffer, so that none of the events
+         * at that time were evicted.
+         */
+        private boolean switchToBuffer(ITmfTimestamp time) {
+            synchronized (fLock) {
+                long oldest = Math.max(0, fPublished - fCapacity);
+                if (fPublished == 0 ||
+                        getTimestamp(oldest).compareTo(time) >= 0 ||
+                        getTimestamp(fPublished - 1).compareTo(time) < 0) {
+                    return false;
+                }
+                long low = oldest + 1;
+                long high = fPublished - 1;
+                while (low < high) {
+                    long mid = (low + high) >>> 1;
+                    if (getTimestamp(mid).compareTo(time) < 0) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                long sequence = low;
+                fCursor = sequence;
+                fMinCursor = Math.min(fMinCursor, sequence);
+                disposeCatchUp();
+                return true;
+            }
+        }
+
+        private boolean matches(ITmfEvent event) {
+            String traceName = event.getTrace().getName();
+            Boolean matches = fMatches.get(traceName);
+            if (matches == null) {
+                matches = fRequest.getProviderFilter().matches(event);
+                fMatches.put(traceName, matches);
+            }
+            return matches;
+        }
+
+        private void disposeCatchUp() {
+            ITmfContext context = fCatchUpContext;
+            if (context != null) {
+                context.dispose();
+                fCatchUpContext = null;
+            }
+        }
+
+        private void finish() {
+            if (fFinished) {
+                return;
+            }
+            fFinished = true;
+            fCursor = NO_CURSOR;
+            disposeCatchUp();
+            notifyProducer();
+            if (!fRequest.isCompleted()) {
+                fRequest.done();
+            }
+        }
+    }
+}
@@ -16,15 +16,12 @@
 
 package org.eclipse.tracecompass.internal.tmf.core.request;
 
-import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
-
-import java.util.Queue;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -38,9 +35,22 @@ import org.eclipse.tracecompass.traceeventlogger.LogUtils.FlowScopeLog;
 import org.eclipse.tracecompass.traceeventlogger.LogUtils.FlowScopeLogBuilder;
 
 /**
- * The request scheduler works with 5 slots with a specific time. It has 4 slots
- * for foreground requests and 1 slot for background requests, and it passes
- * through all the slots (foreground first and background after).
+ * The request scheduler of an event provider. The requests run in slices on
+ * the workers of the {@link TmfRequestScheduler}, which are shared by all the
+ * providers. A request yields at an event boundary when its time slice is over
+ * and other requests are waiting, and a background request yields as soon as
+ * a foreground request is waiting.
+ *
+ * The requests of a provider run one at a time, even when the running request
+ * is blocked in its handler: a handler that waits for something, like another
+ * request, must yield its slice with
+ * {@link TmfEventThread#yieldCurrentSlice} instead of blocking. A slice that
+ * does not reach an event boundary for a time slice is reported in the
+ * metrics of the {@link TmfRequestScheduler}.
+ *
+ * There are 4 slots for
+ * foreground requests and 1 slot for background requests, and the scheduler
+ * passes through all the slots (foreground first and background after).
  *
  * Example: if we have one foreground and one background request, the foreground
  * request will be executed four times more often than the background request.
@@ -58,7 +68,9 @@ public class TmfRequestExecutor implements Executor {
     // Constants
     // ------------------------------------------------------------------------
 
-    private static final long REQUEST_TIME = 100;
+    /** The duration of a time slice, in milliseconds */
+    static final long REQUEST_TIME = 100;
+    private static final long REQUEST_TIME_NANOS = TimeUnit.MILLISECONDS.toNanos(REQUEST_TIME);
     private static final int FOREGROUND_SLOT = 4;
 
     // ------------------------------------------------------------------------
@@ -66,18 +78,30 @@ public class TmfRequestExecutor implements Executor {
     // ------------------------------------------------------------------------
 
     // The request executor
-    private final ExecutorService fExecutor = Executors.newCachedThreadPool();
+    private final TmfRequestScheduler fScheduler;
     private final String fExecutorName;
 
     // The request queues
-    private final Queue<TmfEventThread> fForegroundTasks = new ArrayBlockingQueue<>(10);
-    private final Queue<TmfEventThread> fBackgroundTasks = new ArrayBlockingQueue<>(10);
+    private final Deque<TmfEventThread> fForegroundTasks = new ArrayDeque<>();
+    private final Deque<TmfEventThread> fBackgroundTasks = new ArrayDeque<>();
+
+    // The number of queued requests, read without lock by the running request
+    private volatile int fNbForeground = 0;
+    private volatile int fNbBackground = 0;
 
     // The tasks
-    private TmfEventThread fActiveTask;
+    private final Set<TmfEventThread> fActiveTasks = new HashSet<>();
+    private int fPendingSlices = 0;
 
-    private Timer fTimer;
-    private TimerTask fTimerTask;
+    // The requests that yielded with a delay, queued again after it
+    private final Set<TmfEventThread> fDelayedTasks = new HashSet<>();
+
+    // The last time a running request reached an event boundary
+    private volatile long fLastProgress;
+    // The value of fLastProgress when a stall was last reported
+    private long fReportedProgress;
+
+    private volatile boolean fIsShutdown = false;
 
     private int fForegroundCycle = 0;
 
@@ -89,12 +113,10 @@ public class TmfRequestExecutor implements Executor {
      * Default constructor
      */
     public TmfRequestExecutor() {
-        // We know the canonical name is not null because we use ExecutorService
-        // only
-        String canonicalName = checkNotNull(fExecutor.getClass().getCanonicalName());
-        fExecutorName = canonicalName.substring(canonicalName.lastIndexOf('.') + 1);
+        fScheduler = TmfRequestScheduler.getInstance();
+        fExecutorName = TmfRequestScheduler.class.getSimpleName();
         if (TmfCoreTracer.isComponentTraced()) {
-            TmfCoreTracer.trace(fExecutor + " created"); //$NON-NLS-1$
+            TmfCoreTracer.trace(this + " created"); //$NON-NLS-1$
         }
     }
 
@@ -106,14 +128,14 @@ public class TmfRequestExecutor implements Executor {
      * @return the shutdown state (i.e. if it is accepting new requests)
      */
     public boolean isShutdown() {
-        return fExecutor.isShutdown();
+        return fIsShutdown;
     }
 
     /**
      * @return the termination state
      */
-    public boolean isTerminated() {
-        return fExecutor.isTerminated();
+    public synchronized boolean isTerminated() {
+        return fIsShutdown && !isRunning() && !hasTasks() && fDelayedTasks.isEmpty();
     }
 
     // ------------------------------------------------------------------------
@@ -124,13 +146,8 @@ public class TmfRequestExecutor implements Executor {
      * Initialize the executor
      */
     public void init() {
-        if (fTimer != null) {
-            return;
-        }
-        // Initialize the timer for the schedSwitch
-        fTimerTask = new SchedSwitch();
-        fTimer = new Timer(true);
-        fTimer.schedule(fTimerTask, 0, REQUEST_TIME);
+        // Nothing to do, the workers are shared and the requests yield by
+        // themselves
     }
 
     @Override
@@ -142,115 +159,126 @@ public class TmfRequestExecutor implements Executor {
             return;
         }
 
-        try (FlowScopeLog scope = new FlowScopeLogBuilder(LOGGER, Level.FINE, "RequestExecutor:CreatingThread").setCategory(LOG_CATEGORY).build()) { //$NON-NLS-1$
-            // Wrap the thread in a MyThread
-            TmfEventThread thread = (TmfEventThread) command;
-            TmfEventThread wrapper = new TmfEventThread(thread) {
-                @Override
-                public void run() {
-                    try (FlowScopeLog log = new FlowScopeLogBuilder(LOGGER, Level.FINE, "RequestExecutor:RunningRequest", "thread", thread.getThread(), "execution type", thread.getExecType()).setParentScope(scope).build()) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-                        thread.run();
-                    } finally {
-                        scheduleNext();
-                    }
-                }
-            };
+        TmfEventThread thread = (TmfEventThread) command;
+        if (fIsShutdown) {
+            thread.cancel();
+            return;
+        }
 
+        try (FlowScopeLog scope = new FlowScopeLogBuilder(LOGGER, Level.FINE, "RequestExecutor:QueuingRequest", "thread", thread, "execution type", thread.getExecType()).setCategory(LOG_CATEGORY).build()) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
             // Add the thread to the appropriate queue
-            ExecutionType priority = thread.getExecType();
+            offer(thread);
+            scheduleNext();
+        }
+    }
 
-            if (priority == ExecutionType.FOREGROUND) {
-                if (!fForegroundTasks.offer(wrapper)) {
-                    wrapper.cancel();
-                }
-            } else {
-                if (!fBackgroundTasks.offer(wrapper)) {
-                    wrapper.cancel();
-                }
-            }
+    /**
+     * Submits a slice for the next pending request, if applicable. Only one
+     * request of this executor runs at a time.
+     */
+    protected synchronized void scheduleNext() {
+        if (hasTasks() && !isRunning()) {
+            dispatch();
+        } else if (!hasTasks() && !isRunning()) {
+            fScheduler.setIdle(this);
         }
     }
 
     /**
-     * Timer task to trigger scheduleNext()
+     * Stops the executor. The requests are cancelled, the ones that were
+     * started are still given a last slice to release their resources.
      */
-    private class SchedSwitch extends TimerTask {
+    public synchronized void stop() {
+        fIsShutdown = true;
 
-        SchedSwitch() {
+        for (TmfEventThread task : fActiveTasks) {
+            task.cancel();
+        }
+        for (TmfEventThread task : fForegroundTasks) {
+            task.cancel();
+        }
+        for (TmfEventThread task : fBackgroundTasks) {
+            task.cancel();
+        }
+        for (TmfEventThread task : fDelayedTasks) {
+            task.cancel();
+            offer(task);
         }
+        fDelayedTasks.clear();
 
-        @Override
-        public void run() {
-            scheduleNext();
+        scheduleNext();
+        if (TmfCoreTracer.isComponentTraced()) {
+            TmfCoreTracer.trace(this + " terminated"); //$NON-NLS-1$
         }
     }
 
+    // ------------------------------------------------------------------------
+    // Slices, called by the scheduler
+    // ------------------------------------------------------------------------
+
     /**
-     * Executes the next pending request, if applicable.
+     * Run the next pending request until it completes or yields
      */
-    protected synchronized void scheduleNext() {
-        if (!isShutdown()) {
-            if (fActiveTask == null) {
-                schedule();
-            } else if (fActiveTask.getExecType() == ExecutionType.FOREGROUND) {
-                if (fActiveTask.getThread().isCompleted()) {
-                    fActiveTask = null;
-                    schedule();
-                } else {
-                    if (hasTasks()) {
-                        fActiveTask.getThread().suspend();
-                        if (!fForegroundTasks.offer(fActiveTask)) {
-                            fActiveTask.cancel();
-                            fActiveTask = null;
-                        }
-                        schedule();
-                    }
-                }
+    void runSlice() {
+        TmfEventThread task;
+        synchronized (this) {
+            fPendingSlices--;
+            task = poll();
+            if (task == null) {
+                scheduleNext();
+                return;
+            }
+            fActiveTasks.add(task);
+        }
 
-            } else if (fActiveTask.getExecType() == ExecutionType.BACKGROUND) {
-                if (fActiveTask.getThread().isCompleted()) {
-                    fActiveTask = null;
-                    schedule();
-                } else {
-                    if (hasTasks()) {
-                        fActiveTask.getThread().suspend();
-                        if (!fBackgroundTasks.offer(fActiveTask)) {
-                            fActiveTask.cancel();
-                            fActiveTask = null;
-                        }
-                        schedule();
-                    }
+        boolean completed = true;
+        final long sliceStart = System.nanoTime();
+        fLastProgress = sliceStart;
+        try (FlowScopeLog log = new FlowScopeLogBuilder(LOGGER, Level.FINE, "RequestExecutor:RunningRequest", "thread", task, "execution type", task.getExecType()).setCategory(LOG_CATEGORY).build()) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            completed = task.runSlice(() -> shouldYield(task, sliceStart));
+        } finally {
+            synchronized (this) {
+                fActiveTasks.remove(task);
+                long delay = task.takeYieldDelay();
+                if (!completed && delay > 0 && !fIsShutdown) {
+                    // Queued again after the delay it asked for
+                    fDelayedTasks.add(task);
+                    fScheduler.schedule(() -> resume(task), delay);
+                } else if (!completed) {
+                    // Back at the end of its queue, after the requests of the
+                    // same type
+                    offer(task);
                 }
+                scheduleNext();
             }
         }
     }
 
     /**
-     * Stops the executor
+     * Check if a request that is running seems blocked inside its handler,
+     * not reaching any event boundary for a time slice, and report it once
+     * to the scheduler. The other requests of this executor still wait for
+     * it: a handler blocked on a full queue is normal backpressure, and it
+     * is released by the thread draining the queue.
+     *
+     * @param now
+     *            the current time, in nanoseconds
      */
-    public synchronized void stop() {
-        if (fTimerTask != null) {
-            fTimerTask.cancel();
-        }
-
-        if (fTimer != null) {
-            fTimer.cancel();
-        }
-
-        if (fActiveTask != null) {
-            fActiveTask.cancel();
-        }
-
-        while ((fActiveTask = fForegroundTasks.poll()) != null) {
-            fActiveTask.cancel();
-        }
-        while ((fActiveTask = fBackgroundTasks.poll()) != null) {
-            fActiveTask.cancel();
+    synchronized void checkStalled(long now) {
+        long lastProgress = fLastProgress;
+        if (!fActiveTasks.isEmpty() && now - lastProgress > REQUEST_TIME_NANOS && lastProgress != fReportedProgress) {
+            fReportedProgress = lastProgress;
+            fScheduler.reportStalled(this, now - lastProgress);
         }
+    }
 
-        fExecutor.shutdown();
-        if (TmfCoreTracer.isComponentTraced()) {
-            TmfCoreTracer.trace(fExecutor + " terminated"); //$NON-NLS-1$
+    /**
+     * Queue again a request that yielded with a delay
+     */
+    private synchronized void resume(TmfEventThread task) {
+        if (fDelayedTasks.remove(task)) {
+            offer(task);
+            scheduleNext();
         }
     }
 
@@ -259,51 +287,65 @@ public class TmfRequestExecutor implements Executor {
     // ------------------------------------------------------------------------
 
     /**
-     * Determine which type of request (foreground or background) we schedule
-     * next
+     * Check if a running request should yield, called at each event boundary
      */
-    private void schedule() {
-        if (!fForegroundTasks.isEmpty()) {
-            scheduleNextForeground();
-        } else {
-            scheduleNextBackground();
+    private boolean shouldYield(TmfEventThread task, long sliceStart) {
+        long now = System.nanoTime();
+        fLastProgress = now;
+        if (task.getExecType() == ExecutionType.BACKGROUND &&
+                (fNbForeground > 0 || fScheduler.hasWaiting(ExecutionType.FOREGROUND))) {
+            return true;
         }
+        return (now - sliceStart >= REQUEST_TIME_NANOS) &&
+                (fNbForeground > 0 || fNbBackground > 0 ||
+                        fScheduler.hasWaiting(ExecutionType.FOREGROUND) || fScheduler.hasWaiting(ExecutionType.BACKGROUND));
     }
 
-    /**
-     * Schedule the next foreground request
-     */
-    private void scheduleNextForeground() {
-        if (fForegroundCycle < FOREGROUND_SLOT || fBackgroundTasks.isEmpty()) {
-            ++fForegroundCycle;
-            fActiveTask = fForegroundTasks.poll();
-            executefActiveTask();
+    private void dispatch() {
+        fPendingSlices++;
+        fScheduler.submit(this, nextType());
+    }
+
+    private void offer(TmfEventThread thread) {
+        if (thread.getExecType() == ExecutionType.FOREGROUND) {
+            fForegroundTasks.add(thread);
         } else {
-            fActiveTask = null;
-            scheduleNextBackground();
+            fBackgroundTasks.add(thread);
         }
+        updateCounts();
     }
 
     /**
-     * Schedule the next background request
+     * Determine which type of request (foreground or background) we schedule
+     * next
      */
-    private void scheduleNextBackground() {
-        fForegroundCycle = 0;
-        if (!fBackgroundTasks.isEmpty()) {
-            fActiveTask = fBackgroundTasks.poll();
-            executefActiveTask();
+    private ExecutionType nextType() {
+        if (!fForegroundTasks.isEmpty() && (fForegroundCycle < FOREGROUND_SLOT || fBackgroundTasks.isEmpty())) {
+            return ExecutionType.FOREGROUND;
         }
+        return fBackgroundTasks.isEmpty() ? ExecutionType.FOREGROUND : ExecutionType.BACKGROUND;
     }
 
-    /**
-     * Execute or resume the active task
-     */
-    private void executefActiveTask() {
-        if (fActiveTask.getThread().isPaused()) {
-            fActiveTask.getThread().resume();
+    private TmfEventThread poll() {
+        TmfEventThread task;
+        if (nextType() == ExecutionType.FOREGROUND) {
+            ++fForegroundCycle;
+            task = fForegroundTasks.poll();
         } else {
-            fExecutor.execute(fActiveTask);
+            fForegroundCycle = 0;
+            task = fBackgroundTasks.poll();
         }
+        updateCounts();
+        return task;
+    }
+
+    private void updateCounts() {
+        fNbForeground = fForegroundTasks.size();
+        fNbBackground = fBackgroundTasks.size();
+    }
+
+    private boolean isRunning() {
+        return fPendingSlices > 0 || !fActiveTasks.isEmpty();
     }
 
     /**
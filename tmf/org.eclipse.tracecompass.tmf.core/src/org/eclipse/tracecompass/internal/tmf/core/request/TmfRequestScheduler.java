@@ -0,0 +1,331 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.request;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
+import org.eclipse.tracecompass.internal.tmf.core.TmfDaemonThreadFactory;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest.ExecutionType;
+import org.eclipse.tracecompass.traceeventlogger.LogUtils;
+
+/**
+ * The pool of worker threads shared by all the {@link TmfRequestExecutor}s.
+ *
+ * The executors submit slices of work: a slice runs one request until it
+ * completes or yields. Waiting slices are ordered by a deadline, the time they
+ * were submitted, plus a delay for the background ones. So foreground slices
+ * go first, but background slices are not starved. An executor normally has
+ * at most one slice waiting or running, so the traces take turns on the
+ * workers.
+ *
+ * The number of workers is bounded by the number of processors, whatever the
+ * number of traces and requests. A request blocked in its handler holds its
+ * worker, and the other requests of its executor wait for it. Such stalled
+ * slices are counted in the metrics. When no worker started a slice for a
+ * while because they are all blocked, the next waiting slice, which belongs
+ * to another executor, runs on a rescue thread, in case the blocked requests
+ * wait for it. There are at most as many rescue threads as workers.
+ */
+public final class TmfRequestScheduler {
+
+    private static final @NonNull Logger LOGGER = TraceCompassLog.getLogger(TmfRequestScheduler.class);
+    private static final @NonNull String QUEUE_DEPTH_LABEL = "RequestScheduler:QueueDepth"; //$NON-NLS-1$
+    private static final @NonNull String STALLED_SLICE_LABEL = "RequestScheduler:StalledSlice"; //$NON-NLS-1$
+
+    // ------------------------------------------------------------------------
+    // Constants
+    // ------------------------------------------------------------------------
+
+    /** Delay of the background slices relative to the foreground ones */
+    private static final long BACKGROUND_DELAY = TimeUnit.MILLISECONDS.toNanos(4 * TmfRequestExecutor.REQUEST_TIME);
+
+    /** Time after which the workers are considered blocked if none is freed */
+    private static final long BLOCKED_TIME = TimeUnit.MILLISECONDS.toNanos(2 * TmfRequestExecutor.REQUEST_TIME);
+
+    private static final TmfRequestScheduler INSTANCE = new TmfRequestScheduler(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    // ------------------------------------------------------------------------
+    // Attributes
+    // ------------------------------------------------------------------------
+
+    private final ThreadPoolExecutor fWorkers;
+    private final ThreadPoolExecutor fRescueWorkers;
+    private final ScheduledExecutorService fWatchdog;
+
+    // The executors with requests, checked by the watchdog
+    private final Set<TmfRequestExecutor> fBusyExecutors = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong fSequence = new AtomicLong();
+    private final AtomicInteger fWaitingForeground = new AtomicInteger();
+    private final AtomicInteger fWaitingBackground = new AtomicInteger();
+
+    // The last time a slice started
+    private volatile long fLastSliceStart = System.nanoTime();
+
+    // Metrics
+    private final AtomicLong fNbSlices = new AtomicLong();
+    private final AtomicLong fTotalLatency = new AtomicLong();
+    private final AtomicLong fMaxLatency = new AtomicLong();
+    private final AtomicLong fNbStalledSlices = new AtomicLong();
+    private final AtomicLong fNbRescuedSlices = new AtomicLong();
+
+    // ------------------------------------------------------------------------
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private TmfRequestScheduler(int nbWorkers) {
+        fWorkers = new ThreadPoolExecutor(nbWorkers, nbWorkers, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), new TmfDaemonThreadFactory("TmfRequestWorker")); //$NON-NLS-1$
+        fRescueWorkers = new ThreadPoolExecutor(0, nbWorkers, 1, TimeUnit.MINUTES, new SynchronousQueue<>(), new TmfDaemonThreadFactory("TmfRequestRescueWorker")); //$NON-NLS-1$
+        fWatchdog = Executors.newSingleThreadScheduledExecutor(new TmfDaemonThreadFactory("TmfRequestWatchdog")); //$NON-NLS-1$
+        fWatchdog.scheduleWithFixedDelay(this::checkStalled, TmfRequestExecutor.REQUEST_TIME, TmfRequestExecutor.REQUEST_TIME, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the scheduler instance
+     *
+     * @return the scheduler shared by all the executors
+     */
+    public static TmfRequestScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    // ------------------------------------------------------------------------
+    // Metrics
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the number of workers
+     *
+     * @return the maximum number of slices running at the same time
+     */
+    public int getNbWorkers() {
+        return fWorkers.getMaximumPoolSize();
+    }
+
+    /**
+     * Get the number of slices waiting for a worker
+     *
+     * @param type
+     *            the execution type of the slices
+     * @return the number of waiting slices
+     */
+    public int getQueueDepth(ExecutionType type) {
+        return counter(type).get();
+    }
+
+    /**
+     * Get the number of slices that were run
+     *
+     * @return the number of slices
+     */
+    public long getNbSlices() {
+        return fNbSlices.get();
+    }
+
+    /**
+     * Get the average time a slice waited for a worker
+     *
+     * @return the average latency, in nanoseconds
+     */
+    public long getAverageLatency() {
+        long nbSlices = fNbSlices.get();
+        return nbSlices == 0 ? 0 : fTotalLatency.get() / nbSlices;
+    }
+
+    /**
+     * Get the longest time a slice waited for a worker
+     *
+     * @return the maximum latency, in nanoseconds
+     */
+    public long getMaxLatency() {
+        return fMaxLatency.get();
+    }
+
+    /**
+     * Get the number of times a running slice did not reach an event boundary
+     * for a time slice, its request being blocked in its handler
+     *
+     * @return the number of stalled slices
+     */
+    public long getNbStalledSlices() {
+        return fNbStalledSlices.get();
+    }
+
+    /**
+     * Get the number of waiting slices that were run on a rescue thread
+     * because all the workers were blocked
+     *
+     * @return the number of rescued slices
+     */
+    public long getNbRescuedSlices() {
+        return fNbRescuedSlices.get();
+    }
+
+    // ------------------------------------------------------------------------
+    // Operations
+    // ------------------------------------------------------------------------
+
+    /**
+     * Submit a slice of an executor
+     *
+     * @param executor
+     *            the executor, its next request is chosen when the slice runs
+     * @param type
+     *            the execution type of the next request of the executor
+     */
+    void submit(TmfRequestExecutor executor, ExecutionType type) {
+        fBusyExecutors.add(executor);
+        counter(type).incrementAndGet();
+        traceQueueDepth();
+        fWorkers.execute(new Slice(executor, type));
+    }
+
+    /**
+     * Run a task of an executor after a delay, on the thread of the watchdog.
+     * The task must be short.
+     *
+     * @param task
+     *            the task
+     * @param delay
+     *            the delay, in nanoseconds
+     */
+    void schedule(Runnable task, long delay) {
+        fWatchdog.schedule(task, delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Report that the running slice of an executor is stalled
+     *
+     * @param executor
+     *            the executor
+     * @param duration
+     *            the time since the slice last reached an event boundary, in
+     *            nanoseconds
+     */
+    void reportStalled(TmfRequestExecutor executor, long duration) {
+        fNbStalledSlices.incrementAndGet();
+        LogUtils.traceInstant(LOGGER, Level.FINE, STALLED_SLICE_LABEL, "executor", executor, "duration (ms)", TimeUnit.NANOSECONDS.toMillis(duration)); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Tell the scheduler an executor has no more requests
+     *
+     * @param executor
+     *            the idle executor
+     */
+    void setIdle(TmfRequestExecutor executor) {
+        fBusyExecutors.remove(executor);
+    }
+
+    /**
+     * Check if slices are waiting for a worker
+     *
+     * @param type
+     *            the execution type of the slices
+     * @return true if there are waiting slices
+     */
+    boolean hasWaiting(ExecutionType type) {
+        return counter(type).get() > 0;
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper methods
+    // ------------------------------------------------------------------------
+
+    private AtomicInteger counter(ExecutionType type) {
+        return type == ExecutionType.FOREGROUND ? fWaitingForeground : fWaitingBackground;
+    }
+
+    private void traceQueueDepth() {
+        LogUtils.traceCounter(LOGGER, Level.FINER, QUEUE_DEPTH_LABEL, "foreground", fWaitingForeground.get(), "background", fWaitingBackground.get()); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private void checkStalled() {
+        long now = System.nanoTime();
+        for (TmfRequestExecutor executor : fBusyExecutors) {
+            executor.checkStalled(now);
+        }
+        /*
+         * The slices yield after a time slice when others are waiting, so if
+         * no worker started a slice for a while, they are all blocked in
+         * handlers. Run the next waiting slice on a rescue thread, it may be
+         * the one the blocked requests are waiting for. It belongs to an
+         * executor without running request, as an executor has at most one
+         * slice waiting or running.
+         */
+        if (now - fLastSliceStart > BLOCKED_TIME && fWorkers.getActiveCount() >= fWorkers.getMaximumPoolSize()) {
+            Runnable slice = fWorkers.getQueue().poll();
+            if (slice != null) {
+                fLastSliceStart = now;
+                try {
+                    fRescueWorkers.execute(slice);
+                    fNbRescuedSlices.incrementAndGet();
+                } catch (RejectedExecutionException e) {
+                    // The rescue threads are all blocked too, wait for a worker
+                    fWorkers.execute(slice);
+                }
+            }
+        }
+    }
+
+    /**
+     * A slice of work of an executor, ordered by deadline then by submission
+     * order.
+     */
+    private final class Slice implements Runnable, Comparable<Slice> {
+
+        private final TmfRequestExecutor fExecutor;
+        private final ExecutionType fType;
+        private final long fSubmitTime = System.nanoTime();
+        private final long fDeadline;
+        private final long fSequenceNumber = fSequence.incrementAndGet();
+
+        Slice(TmfRequestExecutor executor, ExecutionType type) {
+            fExecutor = executor;
+            fType = type;
+            fDeadline = type == ExecutionType.FOREGROUND ? fSubmitTime : fSubmitTime + BACKGROUND_DELAY;
+        }
+
+        @Override
+        public void run() {
+            counter(fType).decrementAndGet();
+            long start = System.nanoTime();
+            fLastSliceStart = start;
+            long latency = start - fSubmitTime;
+            fNbSlices.incrementAndGet();
+            fTotalLatency.addAndGet(latency);
+            fMaxLatency.accumulateAndGet(latency, Math::max);
+            traceQueueDepth();
+            fExecutor.runSlice();
+        }
+
+        @Override
+        public int compareTo(Slice other) {
+            int cmp = Long.compare(fDeadline - other.fDeadline, 0);
+            return cmp != 0 ? cmp : Long.compare(fSequenceNumber, other.fSequenceNumber);
+        }
+    }
+}
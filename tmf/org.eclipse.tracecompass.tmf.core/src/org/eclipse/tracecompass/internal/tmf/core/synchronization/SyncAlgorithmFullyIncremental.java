@@ -17,16 +17,22 @@ package org.eclipse.tracecompass.internal.tmf.core.synchronization;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.common.core.NonNullUtils;
 import org.eclipse.tracecompass.internal.tmf.core.synchronization.graph.SyncSpanningTree;
 import org.eclipse.tracecompass.tmf.core.event.matching.TmfEventDependency;
@@ -36,6 +42,7 @@ import org.eclipse.tracecompass.tmf.core.synchronization.Messages;
 import org.eclipse.tracecompass.tmf.core.synchronization.SynchronizationAlgorithm;
 import org.eclipse.tracecompass.tmf.core.synchronization.TimestampTransformFactory;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 
 /**
  * Class implementing fully incremental trace synchronization approach as
@@ -48,6 +55,14 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
  * private class, while this public class manages the synchronization between
  * all traces.
  *
+ * The hulls are maintained with the long timestamps of the matches only, the
+ * slopes of the lines being compared exactly with 128-bit products. The
+ * synchronization formulae are computed in {@link BigDecimal} only when they
+ * are needed. The hulls are saved with the algorithm, with the times up to
+ * which each trace was processed, so that a synchronization can be resumed
+ * with the events added to the traces since then, see
+ * {@link #resume(Collection)}.
+ *
  * @author Geneviève Bastien
  */
 public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
@@ -62,8 +77,32 @@ public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
     /** @Serial */
     private final List<ConvexHull> fSyncs;
 
+    /**
+     * The times up to which each trace was processed, by trace path, or name
+     * if the trace has no path
+     *
+     * @Serial
+     */
+    private Map<String, ProcessedTrace> fProcessedTraces = new HashMap<>();
+
     private transient SyncSpanningTree fTree = null;
 
+    /** The hulls by pair of hosts, ordered by host */
+    private transient @Nullable Map<List<String>, ConvexHull> fHullIndex = null;
+
+    /** The individual traces being synchronized */
+    private transient Collection<ITmfTrace> fIndividualTraces = null;
+
+    /**
+     * When resuming, the time of the last event processed of each trace, in
+     * the current time of the trace. The matches whose events were all
+     * processed were already added to the hulls.
+     */
+    private transient @Nullable Map<ITmfTrace, Long> fResumedEnds = null;
+
+    /** Whether the next init() keeps the hulls, to resume */
+    private transient boolean fResuming = false;
+
     /**
      * Initialization of the attributes
      */
@@ -81,10 +120,95 @@ public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
         getStats();
     }
 
+    /**
+     * Set the times up to which a trace was processed by the matching, so that
+     * the synchronization can be resumed from there. The times are saved
+     * without the timestamp transform of the trace, so they do not depend on
+     * the synchronization applied to the trace. Nothing is saved if the
+     * transform of the trace cannot be inverted.
+     *
+     * @param trace
+     *            The trace, not an experiment
+     * @param lastTime
+     *            The time, in nanoseconds, of the last event read from the
+     *            trace
+     * @param resumeTime
+     *            The time, in nanoseconds, from which the trace must be read
+     *            again to resume the synchronization, the time of its oldest
+     *            unmatched event
+     */
+    public void setProcessedTimes(ITmfTrace trace, long lastTime, long resumeTime) {
+        ITmfTimestampTransform transform = trace.getTimestampTransform();
+        if (!(transform instanceof ITmfTimestampTransformInvertible)) {
+            return;
+        }
+        ITmfTimestampTransform inverse = ((ITmfTimestampTransformInvertible) transform).inverse();
+        fProcessedTraces.put(getTraceKey(trace), new ProcessedTrace(trace.getHostId(),
+                inverse.transform(trace.getStartTime().toNanos()),
+                inverse.transform(lastTime),
+                inverse.transform(resumeTime)));
+    }
+
+    /**
+     * Prepare this algorithm, restored from a synchronization file, to
+     * continue the synchronization with the events added to the traces since
+     * it was saved. The next {@link #init(Collection)} will keep the hulls,
+     * and the matches whose events were all processed before are skipped, so
+     * the traces can be read again from the oldest event that was still
+     * unmatched.
+     *
+     * @param traces
+     *            The traces to synchronize
+     * @return The time, in nanoseconds, from which each trace must be read, a
+     *         trace that was not read before being read from its beginning, or
+     *         null if the synchronization cannot be resumed because it was
+     *         done with other traces, or a trace does not start at the same
+     *         time anymore
+     */
+    public @Nullable Map<ITmfTrace, Long> resume(Collection<@NonNull ITmfTrace> traces) {
+        Set<ITmfTrace> individualTraces = getIndividualTraces(traces);
+        Set<String> keys = new HashSet<>();
+        individualTraces.forEach(trace -> keys.add(getTraceKey(trace)));
+        if (fProcessedTraces.isEmpty() || !keys.containsAll(fProcessedTraces.keySet())) {
+            return null;
+        }
+        Map<ITmfTrace, Long> startTimes = new HashMap<>();
+        Map<ITmfTrace, Long> ends = new HashMap<>();
+        for (ITmfTrace trace : individualTraces) {
+            ProcessedTrace processed = fProcessedTraces.get(getTraceKey(trace));
+            if (processed == null) {
+                /* A trace that was not read, read it from its beginning */
+                continue;
+            }
+            if (!processed.fHostId.equals(trace.getHostId())) {
+                return null;
+            }
+            ITmfTimestampTransform transform = trace.getTimestampTransform();
+            if (transform.transform(processed.fStart) != trace.getStartTime().toNanos()) {
+                /* Not the same trace, it was not only appended to */
+                return null;
+            }
+            startTimes.put(trace, transform.transform(processed.fResume));
+            ends.put(trace, transform.transform(processed.fEnd));
+        }
+        fResumedEnds = ends;
+        fResuming = true;
+        return startTimes;
+    }
+
     @Override
     public void init(Collection<ITmfTrace> traces) {
+        fIndividualTraces = getIndividualTraces(traces);
+        invalidateSyncGraph();
+        if (fResuming) {
+            fResuming = false;
+            return;
+        }
+        fResumedEnds = null;
         ITmfTrace[] traceArr = traces.toArray(new ITmfTrace[traces.size()]);
         fSyncs.clear();
+        fProcessedTraces.clear();
+        fHullIndex = null;
         /* Create a convex hull for all trace pairs */
         // FIXME: is it necessary to make ConvexHull for every pairs up-front?
         // The ConvexHull seems to be created on the fly in processMatch().
@@ -110,21 +234,71 @@ public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
             return;
         }
 
-        /* Check if a convex hull algorithm already exists for these 2 hosts */
-        ConvexHull algo = null;
-        for (ConvexHull traceSync : fSyncs) {
-            if (traceSync.isForHosts(host1, host2)) {
-                algo = traceSync;
-            }
+        /* Skip the matches already processed before resuming */
+        if (isProcessed(match.getSource()) && isProcessed(match.getDestination())) {
+            return;
         }
+
+        /* Check if a convex hull algorithm already exists for these 2 hosts */
+        Map<List<String>, ConvexHull> hullIndex = getHullIndex();
+        List<String> hosts = host1.compareTo(host2) > 0 ? List.of(host2, host1) : List.of(host1, host2);
+        ConvexHull algo = hullIndex.get(hosts);
         if (algo == null) {
             algo = new ConvexHull(trace1, trace2);
             fSyncs.add(algo);
+            hullIndex.put(hosts, algo);
         }
         algo.processMatch(match);
         invalidateSyncGraph();
     }
 
+    /*
+     * Index the hulls by hosts, the last hull for a pair of hosts is the one
+     * receiving the matches
+     */
+    private Map<List<String>, ConvexHull> getHullIndex() {
+        Map<List<String>, ConvexHull> hullIndex = fHullIndex;
+        if (hullIndex == null) {
+            hullIndex = new HashMap<>();
+            for (ConvexHull traceSync : fSyncs) {
+                hullIndex.put(List.of(traceSync.getReferenceHost(), traceSync.getOtherHost()), traceSync);
+            }
+            fHullIndex = hullIndex;
+        }
+        return hullIndex;
+    }
+
+    private static Set<ITmfTrace> getIndividualTraces(Collection<? extends ITmfTrace> traces) {
+        Set<ITmfTrace> individualTraces = new LinkedHashSet<>();
+        for (ITmfTrace trace : traces) {
+            individualTraces.addAll(TmfTraceManager.getTraceSet(trace));
+        }
+        return individualTraces;
+    }
+
+    private boolean isProcessed(DependencyEvent event) {
+        Map<ITmfTrace, Long> ends = fResumedEnds;
+        if (ends == null) {
+            return false;
+        }
+        Long end = ends.get(event.getTrace());
+        return end != null && event.getTimestamp().toNanos() <= end;
+    }
+
+    private static String getTraceKey(ITmfTrace trace) {
+        String path = trace.getPath();
+        return path != null ? path : trace.getName();
+    }
+
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        /* Files saved before the processed times were saved */
+        if (fProcessedTraces == null) {
+            fProcessedTraces = new HashMap<>();
+        }
+    }
+
     private void invalidateSyncGraph() {
         fTree = null;
     }
@@ -230,17 +404,23 @@ public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
          * The list of meaningful points on the upper hull (received by the
          * reference trace, below in a graph)
          */
-        private transient LinkedList<SyncPoint> fUpperBoundList = new LinkedList<>();
+        private LinkedList<SyncPoint> fUpperBoundList = new LinkedList<>();
         /**
          * The list of meaninful points on the lower hull (sent by the reference
          * trace, above in a graph)
          */
-        private transient LinkedList<SyncPoint> fLowerBoundList = new LinkedList<>();
+        private LinkedList<SyncPoint> fLowerBoundList = new LinkedList<>();
 
         /** Points forming the line with maximum slope */
-        private transient SyncPoint[] fLmax = new SyncPoint[2];
+        private SyncPoint[] fLmax = new SyncPoint[2];
         /** Points forming the line with minimum slope */
-        private transient SyncPoint[] fLmin = new SyncPoint[2];
+        private SyncPoint[] fLmin = new SyncPoint[2];
+
+        /**
+         * The points of fLmax and fLmin at the last approximation, when the
+         * slopes and ordinates are not computed yet
+         */
+        private transient SyncPoint @Nullable [] fPendingLines = null;
 
         private transient Map<String, Object> fStats = new LinkedHashMap<>();
 
@@ -357,14 +537,12 @@ public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
                  * keep the last not failed result.
                  */
                 if (getQuality() != SyncQuality.FAIL) {
-                    BigDecimal alphamax = fLmax[1].getAlpha(fLmax[0]);
-                    BigDecimal alphamin = fLmin[1].getAlpha(fLmin[0]);
                     SyncQuality quality = null;
 
                     if ((fLmax[0] == null) || (fLmin[0] == null)) {
                         quality = SyncQuality.APPROXIMATE;
                     }
-                    else if (alphamax.compareTo(alphamin) > 0) {
+                    else if (fLmax[1].compareAlpha(fLmax[0], fLmin[1], fLmin[0]) > 0) {
                         quality = SyncQuality.ACCURATE;
                     } else {
                         /* Lines intersect, not good */
@@ -372,15 +550,10 @@ public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
                     }
                     /*
                      * Only calculate sync if this match does not cause failure
-                     * of synchronization
+                     * of synchronization. The formula is computed when needed.
                      */
                     if (quality != SyncQuality.FAIL) {
-                        fAlphamax = alphamax;
-                        fBetamin = fLmax[1].getBeta(fAlphamax);
-                        fAlphamin = alphamin;
-                        fBetamax = fLmin[1].getBeta(fAlphamin);
-                        fAlpha = fAlphamax.add(fAlphamin).divide(BigDecimal.valueOf(2), fMc);
-                        fBeta = fBetamin.add(fBetamax).divide(BigDecimal.valueOf(2), fMc);
+                        fPendingLines = new SyncPoint[] { fLmax[0], fLmax[1], fLmin[0], fLmin[1] };
                     }
                     setQuality(quality);
                 }
@@ -391,6 +564,24 @@ public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
             }
         }
 
+        /**
+         * Calculates the slopes and ordinates at origin of the lines of the
+         * last approximation
+         */
+        private void computeSync() {
+            SyncPoint[] lines = fPendingLines;
+            if (lines == null) {
+                return;
+            }
+            fPendingLines = null;
+            fAlphamax = lines[1].getAlpha(lines[0]);
+            fBetamin = lines[1].getBeta(fAlphamax);
+            fAlphamin = lines[3].getAlpha(lines[2]);
+            fBetamax = lines[3].getBeta(fAlphamin);
+            fAlpha = fAlphamax.add(fAlphamin).divide(BigDecimal.valueOf(2), fMc);
+            fBeta = fBetamin.add(fBetamax).divide(BigDecimal.valueOf(2), fMc);
+        }
+
         /*
          * Verify if the line should be adjusted to be more accurate give the
          * hull
@@ -457,6 +648,7 @@ public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
         }
 
         public ITmfTimestampTransform getTimestampTransform(String hostId) {
+            computeSync();
             if (hostId.equals(fOtherHost) && (getQuality() == SyncQuality.ACCURATE || getQuality() == SyncQuality.APPROXIMATE || getQuality() == SyncQuality.FAIL)) {
                 /* alpha: beta => 1 / fAlpha, -1 * fBeta / fAlpha); */
                 return TimestampTransformFactory.createLinear(NonNullUtils.checkNotNull(BigDecimal.ONE.divide(fAlpha, fMc)), NonNullUtils.checkNotNull(BigDecimal.valueOf(-1).multiply(fBeta).divide(fAlpha, fMc)));
@@ -469,10 +661,12 @@ public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
         }
 
         public BigDecimal getAccuracy() {
+            computeSync();
             return fAlphamax.subtract(fAlphamin);
         }
 
         public Map<String, Object> getStats() {
+            computeSync();
             if (fStats.size() == 0) {
                 String syncQuality;
                 switch (getQuality()) {
@@ -527,16 +721,25 @@ public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
                 throws IOException, ClassNotFoundException {
             stream.defaultReadObject();
 
+            /* Files saved before the hulls were saved */
+            if (fUpperBoundList == null) {
+                fUpperBoundList = new LinkedList<>();
+                fLowerBoundList = new LinkedList<>();
+                fLmax = new SyncPoint[2];
+                fLmin = new SyncPoint[2];
+            }
             /* Initialize transient fields */
-            fUpperBoundList = new LinkedList<>();
-            fLowerBoundList = new LinkedList<>();
-            fLmax = new SyncPoint[2];
-            fLmin = new SyncPoint[2];
             fStats = new LinkedHashMap<>();
         }
 
+        private void writeObject(ObjectOutputStream stream) throws IOException {
+            computeSync();
+            stream.defaultWriteObject();
+        }
+
         @Override
         public String toString() {
+            computeSync();
             StringBuilder b = new StringBuilder();
             b.append("Between " + fReferenceHost + " and " + fOtherHost + " ["); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
             b.append(" alpha " + fAlpha + " beta " + fBeta + " ]"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
@@ -554,7 +757,10 @@ public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
      * is the timestamp of the event from the reference trace while the y axis
      * is the timestamp of the event on the other trace
      */
-    private static class SyncPoint {
+    private static class SyncPoint implements Serializable {
+
+        private static final long serialVersionUID = -3411212938290575493L;
+
         private final long x;
         private final long y;
 
@@ -607,6 +813,35 @@ public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
             return deltay.divide(deltax, fMc);
         }
 
+        /*
+         * Compare the alpha (slope) between this point and p1 with the one
+         * between p2 and p3, like getAlpha() but with exact integer arithmetic
+         */
+        public int compareAlpha(SyncPoint p1, SyncPoint p2, SyncPoint p3) {
+            long[] alpha1 = getAlphaFraction(p1);
+            long[] alpha2 = p2.getAlphaFraction(p3);
+            /* The denominators are positive, compare the cross products */
+            long a = alpha1[0];
+            long b = alpha2[1];
+            long c = alpha2[0];
+            long d = alpha1[1];
+            int cmp = Long.compare(Math.multiplyHigh(a, b), Math.multiplyHigh(c, d));
+            return cmp != 0 ? cmp : Long.compareUnsigned(a * b, c * d);
+        }
+
+        /*
+         * Gets the alpha (slope) between two points as a numerator and a
+         * positive denominator
+         */
+        private long[] getAlphaFraction(SyncPoint p1) {
+            if (p1 == null || x == p1.x) {
+                return new long[] { 1, 1 };
+            }
+            long deltay = y - p1.y;
+            long deltax = x - p1.x;
+            return deltax > 0 ? new long[] { deltay, deltax } : new long[] { -deltay, -deltax };
+        }
+
         /*
          * Get the beta value (when x = 0) of the line given alpha
          */
@@ -620,4 +855,25 @@ public class SyncAlgorithmFullyIncremental extends SynchronizationAlgorithm {
         }
     }
 
+    /**
+     * The times, without the timestamp transform of the trace, up to which a
+     * trace was processed
+     */
+    private static class ProcessedTrace implements Serializable {
+
+        private static final long serialVersionUID = 2716409438172540133L;
+
+        private final String fHostId;
+        private final long fStart;
+        private final long fEnd;
+        private final long fResume;
+
+        public ProcessedTrace(String hostId, long start, long end, long resume) {
+            fHostId = hostId;
+            fStart = start;
+            fEnd = end;
+            fResume = resume;
+        }
+    }
+
 }
@@ -79,6 +79,13 @@ public class TmfConstantTransform implements ITmfTimestampTransformInvertible {
         return fOffset + timestamp;
     }
 
+    @Override
+    public void transform(long[] timestamps, long[] results, int length) {
+        for (int i = 0; i < length; i++) {
+            results[i] = fOffset + timestamps[i];
+        }
+    }
+
     @Override
     public ITmfTimestampTransform composeWith(ITmfTimestampTransform composeWith) {
         if (composeWith.equals(TmfTimestampTransform.IDENTITY)) {
@@ -53,6 +53,13 @@ public final class TmfTimestampTransform implements ITmfTimestampTransformInvert
         return timestamp;
     }
 
+    @Override
+    public void transform(long[] timestamps, long[] results, int length) {
+        if (timestamps != results) {
+            System.arraycopy(timestamps, 0, results, 0, length);
+        }
+    }
+
     @Override
     public ITmfTimestampTransform composeWith(ITmfTimestampTransform composeWith) {
         /* Since this transform will not modify anything, return the other */
@@ -21,6 +21,7 @@ import java.math.BigDecimal;
 import java.math.MathContext;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.tmf.core.synchronization.ITmfTimestampTransform;
 import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
@@ -59,6 +60,13 @@ import com.google.common.hash.Hashing;
  * is reduced to avoid overflow. It reduces the useful cache range, but the
  * result is correct even for large (1e9) slope.
  *
+ * The range and offset of the current interval are kept in an immutable
+ * object, replaced on a miss, so that the transform can be used by several
+ * threads without locking. The offsets of all the intervals of a range of
+ * timestamps, for instance the range of a trace, can also be computed in
+ * advance with {@link #prepare(long, long)}, so that the timestamps of that
+ * range never require BigDecimal arithmetic, whatever their order.
+ *
  * @author Francis Giraldeau <francis.giraldeau@gmail.com>
  *
  */
@@ -70,6 +78,8 @@ public class TmfTimestampTransformLinearFast implements ITmfTimestampTransformIn
     private static final int DECIMAL_BITS = 30;
     private static final HashFunction HASHER = Hashing.goodFastHash(32);
     private static final MathContext MC = MathContext.DECIMAL128;
+    /** Maximum number of intervals of the precomputed table */
+    private static final int MAX_TABLE_SIZE = 1 << 16;
 
     private final @NonNull BigDecimal fAlpha;
     private final @NonNull BigDecimal fBeta;
@@ -78,8 +88,9 @@ public class TmfTimestampTransformLinearFast implements ITmfTimestampTransformIn
     private final int fDeltaBits;
     private final int fHashCode;
 
-    private transient long fOffset;
-    private transient long fRangeStart;
+    private transient volatile Interval fInterval;
+    private transient volatile @Nullable IntervalTable fTable;
+    /* Statistics only, they may miss some updates from concurrent threads */
     private transient long fScaleMiss;
     private transient long fScaleHit;
 
@@ -155,7 +166,7 @@ public class TmfTimestampTransformLinearFast implements ITmfTimestampTransformIn
         fDeltaBits = Math.max(Math.min(width, DECIMAL_BITS), 0);
         fDeltaMax = 1 << fDeltaBits;
         fAlphaLong = fAlpha.multiply(BigDecimal.valueOf(fDeltaMax), MC).longValue();
-        rescale(0);
+        fInterval = rescale(0);
         fScaleMiss = 0;
         fScaleHit = 0;
         fHashCode = HASHER.newHasher()
@@ -177,7 +188,16 @@ public class TmfTimestampTransformLinearFast implements ITmfTimestampTransformIn
 
     @Override
     public long transform(long timestamp) {
-        long delta = timestamp - fRangeStart;
+        IntervalTable table = fTable;
+        if (table != null && timestamp >= 0) {
+            long index = (timestamp >> fDeltaBits) - table.fFirst;
+            if (index >= 0 && index < table.fOffsets.length) {
+                fScaleHit++;
+                return ((fAlphaLong * (timestamp & (fDeltaMax - 1))) >> fDeltaBits) + table.fOffsets[(int) index];
+            }
+        }
+        Interval interval = fInterval;
+        long delta = timestamp - interval.fStart;
         if (delta >= fDeltaMax || delta < 0) {
             /*
              * Rescale if we exceed the safe range.
@@ -188,18 +208,81 @@ public class TmfTimestampTransformLinearFast implements ITmfTimestampTransformIn
              *
              * TODO: use exact math arithmetic to detect overflow when switching to Java 8
              */
-            rescale(timestamp);
-            delta = Math.abs(timestamp - fRangeStart);
+            interval = rescale(timestamp);
+            fInterval = interval;
+            delta = Math.abs(timestamp - interval.fStart);
             fScaleMiss++;
         } else {
             fScaleHit++;
         }
-        return ((fAlphaLong * delta) >> fDeltaBits) + fOffset;
+        return ((fAlphaLong * delta) >> fDeltaBits) + interval.fOffset;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The table of the prepared range and the parameters of the transform are
+     * read once for the whole array, and only the timestamps outside of the
+     * table go through the interval cache.
+     */
+    @Override
+    public void transform(long[] timestamps, long[] results, int length) {
+        IntervalTable table = fTable;
+        if (table == null) {
+            for (int i = 0; i < length; i++) {
+                results[i] = transform(timestamps[i]);
+            }
+            return;
+        }
+        long[] offsets = table.fOffsets;
+        long first = table.fFirst;
+        int deltaBits = fDeltaBits;
+        long mask = fDeltaMax - 1;
+        long alphaLong = fAlphaLong;
+        long hits = 0;
+        for (int i = 0; i < length; i++) {
+            long timestamp = timestamps[i];
+            long index = (timestamp >> deltaBits) - first;
+            if (timestamp >= 0 && index >= 0 && index < offsets.length) {
+                results[i] = ((alphaLong * (timestamp & mask)) >> deltaBits) + offsets[(int) index];
+                hits++;
+            } else {
+                results[i] = transform(timestamp);
+            }
+        }
+        fScaleHit += hits;
+    }
+
+    /**
+     * Compute in advance the offsets of the intervals covering a range of
+     * timestamps. Nothing is done if the range is negative or requires too
+     * many intervals, those timestamps are then transformed with the interval
+     * cache only.
+     */
+    @Override
+    public void prepare(long start, long end) {
+        if (start < 0 || end < start || fDeltaBits == 0) {
+            return;
+        }
+        long first = start >> fDeltaBits;
+        long size = (end >> fDeltaBits) - first + 1;
+        if (size > MAX_TABLE_SIZE) {
+            return;
+        }
+        IntervalTable table = fTable;
+        if (table != null && table.fFirst <= first && first + size <= table.fFirst + table.fOffsets.length) {
+            return;
+        }
+        long[] offsets = new long[(int) size];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = rescale((first + i) << fDeltaBits).fOffset;
+        }
+        fTable = new IntervalTable(first, offsets);
     }
 
-    private void rescale(long timestamp) {
-        fRangeStart = timestamp - (timestamp % fDeltaMax);
-        fOffset = BigDecimal.valueOf(fRangeStart).multiply(fAlpha, MC).add(fBeta, MC).longValue();
+    private Interval rescale(long timestamp) {
+        long rangeStart = timestamp - (timestamp % fDeltaMax);
+        return new Interval(rangeStart, BigDecimal.valueOf(rangeStart).multiply(fAlpha, MC).add(fBeta, MC).longValue());
     }
 
     //-------------------------------------------------------------------------
@@ -320,7 +403,34 @@ public class TmfTimestampTransformLinearFast implements ITmfTimestampTransformIn
             throws IOException, ClassNotFoundException {
         stream.defaultReadObject();
 
-        rescale(0);
+        fInterval = rescale(0);
+    }
+
+    /**
+     * The start and offset of the interval where integer arithmetic is used
+     */
+    private static final class Interval {
+        private final long fStart;
+        private final long fOffset;
+
+        Interval(long start, long offset) {
+            fStart = start;
+            fOffset = offset;
+        }
+    }
+
+    /**
+     * The offsets of consecutive intervals, the first one starting at
+     * fFirst * fDeltaMax
+     */
+    private static final class IntervalTable {
+        private final long fFirst;
+        private final long[] fOffsets;
+
+        IntervalTable(long first, long[] offsets) {
+            fFirst = first;
+            fOffsets = offsets;
+        }
     }
 
 }
\ No newline at end of file
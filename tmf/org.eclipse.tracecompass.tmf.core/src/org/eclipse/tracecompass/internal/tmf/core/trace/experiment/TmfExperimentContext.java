@@ -17,9 +17,10 @@
 package org.eclipse.tracecompass.internal.tmf.core.trace.experiment;
 
 import java.util.Arrays;
-import java.util.PriorityQueue;
+import java.util.List;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.tmf.core.component.ITmfEventProvider;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.TmfContext;
@@ -37,6 +38,12 @@ import com.google.common.annotations.VisibleForTesting;
  * <p>
  * The last trace refers to the trace from which the last event was "consumed"
  * at the experiment level.
+ * <p>
+ * The next events are kept in a binary heap. The trace of the event returned by
+ * {@link #getNext()} normally gets its following event right after, so the top
+ * of the heap is replaced and sifted down once, instead of being removed and
+ * added again. With read-ahead, the following events of each trace are read
+ * in advance by other threads, see {@link #startReadAhead(List, int)}.
  */
 public final class TmfExperimentContext extends TmfContext {
 
@@ -103,10 +110,14 @@ public final class TmfExperimentContext extends TmfContext {
 
     private final ITmfContext[] fContexts;
     /**
-     * fPriority is a PriorityQueue of initial capacity fContexts.length,
-     * ordered by increasing timestamps of the ContextTuple events.
+     * fHeap is a binary heap of the ContextTuples of the traces that have a
+     * next event, ordered by increasing timestamps of their events.
      */
-    private final PriorityQueue<ContextTuple> fPriority;
+    private final ContextTuple[] fHeap;
+    private int fHeapSize = 0;
+    /** The top of the heap was returned by getNext() but is still in the heap */
+    private boolean fTopConsumed = false;
+    private TmfExperimentReadAhead[] fReadAheads = new TmfExperimentReadAhead[0];
 
     // ------------------------------------------------------------------------
     // Constructors
@@ -124,11 +135,16 @@ public final class TmfExperimentContext extends TmfContext {
             throw new IllegalArgumentException("TmfExperimentContext size cannot be negative"); //$NON-NLS-1$
         }
         fContexts = new ITmfContext[nbTraces];
-        fPriority = new PriorityQueue<>(Math.max(1, nbTraces), null);
+        fHeap = new ContextTuple[nbTraces];
     }
 
     @Override
     public void dispose() {
+        for (TmfExperimentReadAhead readAhead : fReadAheads) {
+            if (readAhead != null) {
+                readAhead.close();
+            }
+        }
         for (ITmfContext context : fContexts) {
             context.dispose();
         }
@@ -151,8 +167,23 @@ public final class TmfExperimentContext extends TmfContext {
      */
     public void setContent(int traceIndex, ITmfContext ctx, ITmfEvent event) {
         fContexts[traceIndex] = ctx;
+        if (fTopConsumed && fHeap[0].getIndex() == traceIndex) {
+            fTopConsumed = false;
+            if (event != null && ctx != null) {
+                fHeap[0] = new ContextTuple(traceIndex, event, ctx);
+            } else {
+                fHeap[0] = fHeap[--fHeapSize];
+                fHeap[fHeapSize] = null;
+            }
+            if (fHeapSize > 0) {
+                siftDown(0);
+            }
+            return;
+        }
+        removeConsumedTop();
         if (event != null && ctx != null) {
-            fPriority.add(new ContextTuple(traceIndex, event, ctx));
+            fHeap[fHeapSize] = new ContextTuple(traceIndex, event, ctx);
+            siftUp(fHeapSize++);
         }
     }
 
@@ -165,7 +196,61 @@ public final class TmfExperimentContext extends TmfContext {
      *         priority queue.
      */
     public ContextTuple getNext() {
-        return fPriority.poll();
+        removeConsumedTop();
+        if (fHeapSize == 0) {
+            return null;
+        }
+        fTopConsumed = true;
+        return fHeap[0];
+    }
+
+    /**
+     * Read the next event of a trace, after the event of that trace was
+     * returned by {@link #getNext()}, and queue it. With read-ahead, the event
+     * is taken from the events already read for that trace.
+     *
+     * @param traceIndex
+     *            The index of the trace in the experiment
+     * @param trace
+     *            The trace
+     * @param traceContext
+     *            The context of the trace, as returned by {@link #getNext()}
+     */
+    public void readNext(int traceIndex, ITmfEventProvider trace, ITmfContext traceContext) {
+        TmfExperimentReadAhead readAhead = traceIndex < fReadAheads.length ? fReadAheads[traceIndex] : null;
+        if (readAhead != null) {
+            readAhead.readNext(this, traceIndex);
+        } else {
+            setContent(traceIndex, traceContext, trace.getNext(traceContext));
+        }
+    }
+
+    /**
+     * Start reading the following events of the traces in advance, in other
+     * threads. It is worth it when many events are read sequentially with this
+     * context, for example by an event request. The contexts of the traces
+     * then only hold the location and rank after their next event.
+     *
+     * @param traces
+     *            The traces of the experiment, in order
+     * @param bufferSize
+     *            The maximum number of events read in advance for each trace
+     */
+    public void startReadAhead(List<? extends ITmfEventProvider> traces, int bufferSize) {
+        if (fReadAheads.length > 0 || traces.size() != fContexts.length) {
+            return;
+        }
+        removeConsumedTop();
+        fReadAheads = new TmfExperimentReadAhead[fContexts.length];
+        for (int i = 0; i < fHeapSize; i++) {
+            ContextTuple tuple = fHeap[i];
+            int index = tuple.getIndex();
+            ITmfContext live = tuple.getContext();
+            TmfContext snapshot = new TmfContext(live.getLocation(), live.getRank());
+            fReadAheads[index] = new TmfExperimentReadAhead(traces.get(index), live, bufferSize);
+            fContexts[index] = snapshot;
+            fHeap[i] = new ContextTuple(index, tuple.getEvent(), snapshot);
+        }
     }
 
     /**
@@ -178,6 +263,54 @@ public final class TmfExperimentContext extends TmfContext {
         return Arrays.copyOf(fContexts, fContexts.length);
     }
 
+    // ------------------------------------------------------------------------
+    // Helper methods
+    // ------------------------------------------------------------------------
+
+    private void removeConsumedTop() {
+        if (fTopConsumed) {
+            fTopConsumed = false;
+            fHeap[0] = fHeap[--fHeapSize];
+            fHeap[fHeapSize] = null;
+            if (fHeapSize > 0) {
+                siftDown(0);
+            }
+        }
+    }
+
+    private void siftUp(int position) {
+        ContextTuple tuple = fHeap[position];
+        int pos = position;
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (tuple.compareTo(fHeap[parent]) >= 0) {
+                break;
+            }
+            fHeap[pos] = fHeap[parent];
+            pos = parent;
+        }
+        fHeap[pos] = tuple;
+    }
+
+    private void siftDown(int position) {
+        ContextTuple tuple = fHeap[position];
+        int pos = position;
+        int half = fHeapSize >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < fHeapSize && fHeap[right].compareTo(fHeap[child]) < 0) {
+                child = right;
+            }
+            if (tuple.compareTo(fHeap[child]) <= 0) {
+                break;
+            }
+            fHeap[pos] = fHeap[child];
+            pos = child;
+        }
+        fHeap[pos] = tuple;
+    }
+
     // ------------------------------------------------------------------------
     // Object
     // ------------------------------------------------------------------------
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.trace.experiment;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.tracecompass.internal.tmf.core.TmfDaemonThreadFactory;
+import org.eclipse.tracecompass.tmf.core.component.ITmfEventProvider;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.core.trace.TmfContext;
+
+/**
+ * Reads the events of a trace of an experiment in advance, for an experiment
+ * context.
+ * <p>
+ * The events are read in a bounded buffer by a task of a pool shared by all
+ * the experiments. A task runs until the buffer is full, and a new one is
+ * submitted when the buffer is half empty, so the number of threads does not
+ * depend on the number of traces. The events of the different traces are then
+ * parsed in parallel, and not by the thread reading the experiment.
+ */
+final class TmfExperimentReadAhead {
+
+    private static final ExecutorService READERS = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+            new TmfDaemonThreadFactory("TmfExperimentReader")); //$NON-NLS-1$
+
+    private final ITmfEventProvider fTrace;
+    /* The context of the trace, only used by the reading task */
+    private final ITmfContext fContext;
+    private final BlockingQueue<Entry> fBuffer;
+    private final int fRefillSize;
+    private final AtomicBoolean fScheduled = new AtomicBoolean();
+    private volatile boolean fEnd = false;
+    private volatile boolean fClosed = false;
+
+    /**
+     * Constructor, starts reading in advance
+     *
+     * @param trace
+     *            The trace
+     * @param context
+     *            The context of the trace, positioned after the event already
+     *            queued in the experiment context. It is owned by this object
+     *            from now on.
+     * @param bufferSize
+     *            The maximum number of events read in advance
+     */
+    TmfExperimentReadAhead(ITmfEventProvider trace, ITmfContext context, int bufferSize) {
+        fTrace = trace;
+        fContext = context;
+        fBuffer = new ArrayBlockingQueue<>(Math.max(2, bufferSize));
+        fRefillSize = Math.max(2, bufferSize) / 2;
+        schedule();
+    }
+
+    /**
+     * Queue the next event of the trace in the experiment context, waiting for
+     * it to be read if needed
+     *
+     * @param experimentContext
+     *            The experiment context
+     * @param traceIndex
+     *            The index of the trace in the experiment
+     * @throws CancellationException
+     *             If the thread is interrupted while waiting for the event.
+     *             The interrupt flag is kept and the experiment context is
+     *             not modified, so the event can be read again.
+     */
+    void readNext(TmfExperimentContext experimentContext, int traceIndex) {
+        Entry entry = fBuffer.poll();
+        if (entry == null) {
+            schedule();
+            try {
+                entry = fBuffer.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                CancellationException cancellation = new CancellationException("Interrupted while reading " + fTrace.getName()); //$NON-NLS-1$
+                cancellation.initCause(e);
+                throw cancellation;
+            }
+        }
+        if (fBuffer.size() <= fRefillSize) {
+            schedule();
+        }
+        RuntimeException error = entry.fError;
+        if (error != null) {
+            throw error;
+        }
+        experimentContext.setContent(traceIndex, entry.fContext, entry.fEvent);
+    }
+
+    /**
+     * Stop reading and dispose the context of the trace
+     */
+    void close() {
+        fClosed = true;
+        synchronized (this) {
+            fBuffer.clear();
+            fContext.dispose();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper methods
+    // ------------------------------------------------------------------------
+
+    private void schedule() {
+        if (!fClosed && !fEnd && fScheduled.compareAndSet(false, true)) {
+            READERS.execute(this::fill);
+        }
+    }
+
+    private void fill() {
+        synchronized (this) {
+            try {
+                while (!fClosed && !fEnd && fBuffer.remainingCapacity() > 0) {
+                    Entry entry;
+                    try {
+                        ITmfEvent event = fTrace.getNext(fContext);
+                        entry = new Entry(event, new TmfContext(fContext.getLocation(), fContext.getRank()), null);
+                    } catch (RuntimeException e) {
+                        entry = new Entry(null, new TmfContext(fContext.getLocation(), fContext.getRank()), e);
+                    }
+                    if (entry.fEvent == null) {
+                        fEnd = true;
+                    }
+                    fBuffer.add(entry);
+                }
+            } finally {
+                fScheduled.set(false);
+            }
+        }
+        /*
+         * The consumer may have emptied the buffer after the loop ended but
+         * before the flag was reset, and could not schedule a task then.
+         */
+        if (fBuffer.size() <= fRefillSize) {
+            schedule();
+        }
+    }
+
+    /**
+     * An event read in advance, with the context of the trace after it
+     */
+    private static final class Entry {
+        private final ITmfEvent fEvent;
+        private final ITmfContext fContext;
+        private final RuntimeException fError;
+
+        Entry(ITmfEvent event, ITmfContext context, RuntimeException error) {
+            fEvent = event;
+            fContext = context;
+            fError = error;
+        }
+    }
+}
@@ -334,6 +334,29 @@ public abstract class AbstractFileCheckpointCollection implements ICheckpointCol
         fIsDirty = true;
     }
 
+    /**
+     * Read bytes from the file. The bytes are read at their position by the
+     * file channel, without moving the file pointer used for writing. The file
+     * is not mapped in memory, since a mapping is only released by the garbage
+     * collector and prevents deleting the file on some platforms.
+     *
+     * @param position
+     *            the position in the file
+     * @param bytes
+     *            the array to fill
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    protected void read(long position, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (fFileChannel.read(buffer, position + buffer.position()) < 0) {
+                /* End of the file */
+                return;
+            }
+        }
+    }
+
     /**
      *
      * @return true if the checkpoint collection was created from scratch, false
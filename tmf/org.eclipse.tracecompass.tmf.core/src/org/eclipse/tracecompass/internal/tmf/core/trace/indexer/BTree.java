@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.text.MessageFormat;
+import java.util.Arrays;
 
 import org.eclipse.tracecompass.internal.tmf.core.Activator;
 import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfPersistentlyIndexable;
@@ -29,6 +30,10 @@ import org.eclipse.tracecompass.tmf.core.trace.indexer.checkpoint.ITmfCheckpoint
  * by time stamps. {@link BTreeNodeCache } is used to improve performance by
  * caching some nodes in memory and the other nodes are kept on disk.
  *
+ * When the checkpoints are inserted in order, which is the case when a trace
+ * is indexed, the tree is bulk loaded: the checkpoints are appended to the
+ * rightmost nodes, which are filled completely.
+ *
  * @author Marc-Andre Laperle
  */
 public class BTree extends AbstractFileCheckpointCollection {
@@ -51,6 +56,15 @@ public class BTree extends AbstractFileCheckpointCollection {
     private final ByteBuffer fNodeByteBuffer;
     private final BTreeNodeCache fNodeCache;
 
+    /**
+     * The offsets of the rightmost nodes, from the leaf to the root, while the
+     * checkpoints are inserted in order. Null once a checkpoint is inserted
+     * out of order, or if the tree was restored from disk.
+     */
+    private long[] fRightmostNodes = null;
+    private int fHeight = 0;
+    private ITmfCheckpoint fLastCheckpoint = null;
+
     private class BTreeHeader extends CheckpointCollectionFileHeader {
         private static final int SIZE = LONG_SIZE + INT_SIZE;
         private long fRoot;
@@ -129,6 +143,10 @@ public class BTree extends AbstractFileCheckpointCollection {
         fNodeCache = new BTreeNodeCache(this);
         BTreeNode rootNode = isCreatedFromScratch() ? allocateNode() : fNodeCache.getNode(fBTreeHeader.fRoot);
         setRootNode(rootNode);
+        if (isCreatedFromScratch()) {
+            fRightmostNodes = new long[] { rootNode.getOffset() };
+            fHeight = 1;
+        }
     }
 
     /**
@@ -140,9 +158,74 @@ public class BTree extends AbstractFileCheckpointCollection {
     @Override
     public void insert(ITmfCheckpoint checkpoint) {
         markDirty();
+        if (fRightmostNodes != null) {
+            ITmfCheckpoint last = fLastCheckpoint;
+            int compare = last == null ? 1 : checkpoint.compareTo(last);
+            if (compare == 0) {
+                return;
+            }
+            if (compare > 0) {
+                append(checkpoint);
+                fLastCheckpoint = checkpoint;
+                return;
+            }
+            // Not in order anymore, insert from the root from now on
+            fRightmostNodes = null;
+        }
         insert(checkpoint, fBTreeHeader.fRoot, null, 0);
     }
 
+    /**
+     * Bulk load a checkpoint that is greater than all the others. The
+     * checkpoint is added to the rightmost leaf. When a rightmost node is
+     * full, a new empty node is started at its right, and the checkpoint goes
+     * up as the entry separating them in the parent node. This way, the nodes
+     * are filled completely instead of being split in half, and only the
+     * nodes on the right side of the tree are modified.
+     */
+    private void append(ITmfCheckpoint checkpoint) {
+        long[] rightmostNodes = fRightmostNodes;
+        ITmfCheckpoint entry = checkpoint;
+        long leftChild = BTreeNode.NULL_CHILD;
+        long rightChild = BTreeNode.NULL_CHILD;
+        for (int level = 0;; level++) {
+            if (level == fHeight) {
+                // The tree grows by one level
+                BTreeNode root = allocateNode();
+                root.setChild(0, leftChild);
+                root.setEntry(0, entry);
+                root.setChild(1, rightChild);
+                if (fHeight == rightmostNodes.length) {
+                    rightmostNodes = Arrays.copyOf(rightmostNodes, fHeight * 2);
+                    fRightmostNodes = rightmostNodes;
+                }
+                rightmostNodes[fHeight++] = root.getOffset();
+                setRootNode(root);
+                break;
+            }
+            BTreeNode node = fNodeCache.getNode(rightmostNodes[level]);
+            int numEntries = node.getNumEntries();
+            if (numEntries < fMaxNumEntries) {
+                node.setEntry(numEntries, entry);
+                if (level > 0) {
+                    node.setChild(numEntries + 1, rightChild);
+                }
+                break;
+            }
+            // The node is full, start a new one at its right
+            BTreeNode newNode = allocateNode();
+            fNodeCache.addNode(newNode);
+            if (level > 0) {
+                newNode.setChild(0, rightChild);
+            }
+            leftChild = node.getOffset();
+            rightChild = newNode.getOffset();
+            rightmostNodes[level] = rightChild;
+        }
+        CheckpointCollectionFileHeader header = getHeader();
+        ++header.fSize;
+    }
+
     private void setRootNode(BTreeNode newRootNode) {
         fBTreeHeader.fRoot = newRootNode.getOffset();
         if (ALWAYS_CACHE_ROOT) {
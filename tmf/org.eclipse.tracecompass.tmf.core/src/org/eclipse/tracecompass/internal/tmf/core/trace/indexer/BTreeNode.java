@@ -96,12 +96,10 @@ class BTreeNode {
      */
     void serializeIn() {
         try {
-            fTree.getRandomAccessFile().seek(fFileOffset);
-
             ByteBuffer bb;
             bb = fTree.getNodeByteBuffer();
             bb.clear();
-            fTree.getRandomAccessFile().read(bb.array());
+            fTree.read(fFileOffset, bb.array());
 
             for (int i = 0; i < fTree.getMaxNumChildren(); ++i) {
                 long offset = bb.getLong();
@@ -154,6 +152,15 @@ class BTreeNode {
         }
     }
 
+    /**
+     * Get the number of entries in this node
+     *
+     * @return the number of entries
+     */
+    int getNumEntries() {
+        return fNumEntries;
+    }
+
     /**
      * Get the entry at the given index
      *
@@ -14,37 +14,48 @@
 
 package org.eclipse.tracecompass.internal.tmf.core.trace.indexer;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * A simple LRU node cache. The BTree request a node from the cache and the
  * cache load it from disk if it's not already in memory.
  *
- * This cache could be improved considerably by allowing bigger caches.
+ * The size of the cache is a number of bytes, a fraction of the maximum heap
+ * size, so that bigger indexes can be kept in memory when there is memory
+ * available.
  *
  * @author Marc-Andre Laperle
  */
 public class BTreeNodeCache {
 
     /**
-     * Cache size obtained by experimentation. An improved cache could set this
-     * dynamically or using a user preference.
+     * Minimum cache size, in nodes, obtained by experimentation.
      */
-    private static final int CACHE_SIZE = 15;
+    private static final int MIN_CACHE_SIZE = 15;
+
+    /**
+     * Maximum size of the cache, in bytes
+     */
+    private static final long MAX_CACHE_BYTES = 32L * 1024 * 1024;
+
+    /**
+     * Fraction of the maximum heap size used by the cache
+     */
+    private static final int HEAP_FRACTION = 256;
 
     private final BTree fTree;
+    private final int fCacheSize;
     /**
      * The root node is always kept in memory when {@link
      * BTree#ALWAYS_CACHE_ROOT} is set to true
      */
     private BTreeNode fRootNode = null;
     /**
-     * The collection keeping the nodes in memory. The most recently used is
-     * kept at the front of the double-ended queue and the least recently used
-     * node is kept at the back.
+     * The nodes kept in memory, by file offset. The map is in access order, so
+     * the least recently used node is the first one.
      */
-    private final Deque<BTreeNode> fCachedNodes = new ArrayDeque<>(CACHE_SIZE);
+    private final Map<Long, BTreeNode> fCachedNodes;
 
     private int fCcheMisses = 0;
 
@@ -56,6 +67,23 @@ public class BTreeNodeCache {
      */
     BTreeNodeCache(BTree tree) {
         fTree = tree;
+        long cacheBytes = Math.min(MAX_CACHE_BYTES, Runtime.getRuntime().maxMemory() / HEAP_FRACTION);
+        fCacheSize = (int) Math.max(MIN_CACHE_SIZE, cacheBytes / tree.getNodeSize());
+        fCachedNodes = new LinkedHashMap<Long, BTreeNode>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BTreeNode> eldest) {
+                if (size() <= fCacheSize) {
+                    return false;
+                }
+                BTreeNode removed = eldest.getValue();
+                if (removed.isDirty()) {
+                    removed.serializeOut();
+                }
+                return true;
+            }
+        };
     }
 
     /**
@@ -70,19 +98,15 @@ public class BTreeNodeCache {
             return fRootNode;
         }
 
-        for (BTreeNode nodeSearch : fCachedNodes) {
-            if (nodeSearch.getOffset() == offset) {
-                // This node is now the most recently used
-                fCachedNodes.remove(nodeSearch);
-                fCachedNodes.push(nodeSearch);
-
-                return nodeSearch;
-            }
+        // This node is now the most recently used
+        BTreeNode node = fCachedNodes.get(offset);
+        if (node != null) {
+            return node;
         }
 
         ++fCcheMisses;
 
-        BTreeNode node = new BTreeNode(fTree, offset);
+        node = new BTreeNode(fTree, offset);
         node.serializeIn();
         addNode(node);
 
@@ -96,7 +120,7 @@ public class BTreeNodeCache {
         if (fRootNode != null && fRootNode.isDirty()) {
             fRootNode.serializeOut();
         }
-        for (BTreeNode nodeSearch : fCachedNodes) {
+        for (BTreeNode nodeSearch : fCachedNodes.values()) {
             if (nodeSearch.isDirty()) {
                 nodeSearch.serializeOut();
             }
@@ -104,20 +128,14 @@ public class BTreeNodeCache {
     }
 
     /**
-     * Add a node to the cache. If the cache has reached the size specified with
-     * {@link #CACHE_SIZE}, the least recently used node is removed from memory.
+     * Add a node to the cache. If the cache has reached its size, the least
+     * recently used node is removed from memory.
      *
      * @param node
      *            the node to add to the cache
      */
     void addNode(BTreeNode node) {
-        if (fCachedNodes.size() >= CACHE_SIZE) {
-            BTreeNode removed = fCachedNodes.removeLast();
-            if (removed.isDirty()) {
-                removed.serializeOut();
-            }
-        }
-        fCachedNodes.push(node);
+        fCachedNodes.put(node.getOffset(), node);
     }
 
     /**
@@ -129,6 +147,7 @@ public class BTreeNodeCache {
     void setRootNode(BTreeNode newRootNode) {
         BTreeNode oldRootNode = fRootNode;
         fRootNode = newRootNode;
+        fCachedNodes.remove(newRootNode.getOffset());
         if (oldRootNode != null) {
             addNode(oldRootNode);
         }
@@ -96,9 +96,8 @@ public class FlatArray extends AbstractFileCheckpointCollection {
             if (getRandomAccessFile() == null) {
                 return null;
             }
-            getRandomAccessFile().seek(pos);
             fByteBuffer.clear();
-            getRandomAccessFile().read(fByteBuffer.array());
+            read(pos, fByteBuffer.array());
             ITmfLocation location = getTrace().restoreLocation(fByteBuffer);
             ITmfTimestamp timeStamp = TmfTimestamp.create(fByteBuffer);
             checkpoint = new TmfCheckpoint(timeStamp, location, fByteBuffer);
@@ -25,6 +25,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -81,6 +83,12 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
     /* Latch tracking if the analysis is completed or not */
     private CountDownLatch fFinishedLatch = new CountDownLatch(0);
 
+    /* Whether the current execution was completed, guarded by syncObj */
+    private AtomicBoolean fExecutionCompleted = new AtomicBoolean(true);
+
+    /* Callbacks to run when the current execution completes, guarded by syncObj */
+    private final List<Runnable> fCompletionCallbacks = new ArrayList<>();
+
     private boolean fAnalysisCancelled = false;
 
     private @Nullable Throwable fFailureCause = null;
@@ -261,15 +269,46 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
 
     /**
      * To be called when the analysis is completed, whether normally or because
-     * it was cancelled or for any other reason.
+     * it was cancelled or for any other reason. Only the first call for an
+     * execution completes it, the following ones do nothing.
+     *
+     * It must not be called inside a synchronized block, as it runs the
+     * completion callbacks, which may complete other analyses.
      *
-     * It has to be called inside a synchronized block
+     * @param executionCompleted
+     *            The completion flag of the execution to complete
      */
-    private void setAnalysisCompleted() {
+    private void setAnalysisCompleted(AtomicBoolean executionCompleted) {
+        if (!executionCompleted.compareAndSet(false, true)) {
+            /* Already completed, by a cancellation */
+            return;
+        }
+        List<Runnable> callbacks;
         synchronized (syncObj) {
             fStarted = false;
             fJob = null;
             fFinishedLatch.countDown();
+            callbacks = new ArrayList<>(fCompletionCallbacks);
+            fCompletionCallbacks.clear();
+        }
+        callbacks.forEach(Runnable::run);
+    }
+
+    /**
+     * Run a callback when the current execution of this analysis completes
+     *
+     * @param callback
+     *            The callback, run by the thread completing the analysis
+     * @return false if the analysis is not executing, the callback is then
+     *         not run
+     */
+    private boolean runWhenCompleted(Runnable callback) {
+        synchronized (syncObj) {
+            if (!fStarted || fFinishedLatch.getCount() == 0) {
+                return false;
+            }
+            fCompletionCallbacks.add(callback);
+            return true;
         }
     }
 
@@ -278,16 +317,25 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
      */
     @Override
     public final void cancel() {
+        Job job;
+        AtomicBoolean executionCompleted;
         synchronized (syncObj) {
-            Job job = fJob;
+            job = fJob;
+            executionCompleted = fExecutionCompleted;
             if (job != null) {
                 TmfCoreTracer.traceAnalysis(getId(), getTrace(), "cancelled by application"); //$NON-NLS-1$
-                job.cancel();
                 fAnalysisCancelled = true;
-                setAnalysisCompleted();
             }
             fStarted = false;
         }
+        /*
+         * Outside of the lock, as cancelling the job may complete this
+         * analysis and the analyses depending on it
+         */
+        if (job != null) {
+            job.cancel();
+            setAnalysisCompleted(executionCompleted);
+        }
     }
 
     /**
@@ -295,7 +343,9 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
      */
     @Override
     public final void fail(Throwable cause) {
-        fFailureCause = cause;
+        synchronized (syncObj) {
+            fFailureCause = cause;
+        }
         onFail();
     }
 
@@ -304,7 +354,9 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
      */
     @Override
     public @Nullable Throwable getFailureCause() {
-        return fFailureCause;
+        synchronized (syncObj) {
+            return fFailureCause;
+        }
     }
 
     /**
@@ -361,6 +413,7 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
             }
 
             /* Do not execute if analysis already running */
+            final AtomicBoolean executionCompleted = new AtomicBoolean();
             synchronized (syncObj) {
                 if (fStarted) {
                     TmfCoreTracer.traceAnalysis(getId(), getTrace(), "already started, not starting again"); //$NON-NLS-1$
@@ -370,6 +423,7 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
                 // Reset cancellation and failure cause
                 fAnalysisCancelled = false;
                 fFailureCause = null;
+                fExecutionCompleted = executionCompleted;
             }
 
             /*
@@ -392,6 +446,8 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
              */
             String jobName = checkNotNull(NLS.bind(Messages.TmfAbstractAnalysisModule_RunningAnalysis, getName()));
             Job job = new Job(jobName) {
+                private volatile @Nullable DependencyCompletion fCompletion = null;
+
                 @Override
                 protected @Nullable IStatus run(final @Nullable IProgressMonitor monitor) {
                     try (FlowScopeLog jobLog = new FlowScopeLogBuilder(LOGGER, Level.FINE, "TmfAbstractAnalysis:executing").setParentScope(analysisLog).build()) { //$NON-NLS-1$
@@ -399,38 +455,24 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
                         try {
                             broadcast(new TmfStartAnalysisSignal(TmfAbstractAnalysisModule.this, TmfAbstractAnalysisModule.this));
                             TmfCoreTracer.traceAnalysis(TmfAbstractAnalysisModule.this.getId(), TmfAbstractAnalysisModule.this.getTrace(), "started"); //$NON-NLS-1$
-                            fAnalysisCancelled = !executeAnalysis(mon);
-                            for (IAnalysisModule module : dependentAnalyses) {
-                                boolean isModuleCancelled = !module.waitForCompletion(mon);
-                                if (isModuleCancelled) {
-                                    Throwable cause = module.getFailureCause();
-                                    if (cause != null) {
-                                        throw new TmfAnalysisException("Dependent analysis '" + module.getName() + "' failed.", cause); //$NON-NLS-1$ //$NON-NLS-2$
-                                    }
-                                    fAnalysisCancelled |= isModuleCancelled;
-                                }
+                            boolean completed = executeAnalysis(mon);
+                            synchronized (syncObj) {
+                                fAnalysisCancelled |= !completed;
                             }
-                            TmfCoreTracer.traceAnalysis(TmfAbstractAnalysisModule.this.getId(), TmfAbstractAnalysisModule.this.getTrace(), "finished"); //$NON-NLS-1$
                         } catch (OperationCanceledException e) {
                             // Analysis was canceled
+                            return completeExecution(executionCompleted, trace, Collections.emptyList(), mon, null);
                         } catch (Exception e) {
-                            Activator.logError("Unexpected error executing analysis with trace " + trace.getName(), e); //$NON-NLS-1$
-                            fail(e);
-                            // Reset analysis so that it can be executed again.
-                            resetAnalysis();
-                            return new Status(IStatus.ERROR, Activator.PLUGIN_ID, IStatus.OK, "Exception executing analysis", e); //$NON-NLS-1$
-                        } finally {
-                            synchronized (syncObj) {
-                                setAnalysisCompleted();
-                            }
-                            TmfTraceManager.refreshSupplementaryFiles(trace);
-                        }
-                        if (!fAnalysisCancelled) {
-                            return Status.OK_STATUS;
+                            return completeExecution(executionCompleted, trace, Collections.emptyList(), mon, e);
                         }
-                        // Reset analysis so that it can be executed again.
-                        resetAnalysis();
-                        return Status.CANCEL_STATUS;
+                        /*
+                         * The dependent analyses run concurrently. Rather than
+                         * keeping this thread waiting for them, the job
+                         * finishes when the last one completes.
+                         */
+                        DependencyCompletion completion = new DependencyCompletion(this, executionCompleted, trace, dependentAnalyses, mon);
+                        fCompletion = completion;
+                        return completion.start();
                     }
                 }
 
@@ -438,6 +480,10 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
                 protected void canceling() {
                     TmfCoreTracer.traceAnalysis(getId(), getTrace(), "job cancelled"); //$NON-NLS-1$
                     TmfAbstractAnalysisModule.this.canceling();
+                    DependencyCompletion completion = fCompletion;
+                    if (completion != null) {
+                        completion.finish();
+                    }
                 }
 
             };
@@ -446,6 +492,141 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
         }
     }
 
+    /**
+     * Complete an execution of the analysis, once the analysis itself and its
+     * dependent analyses are done. If the execution was already completed by
+     * a cancellation, it is not completed again.
+     *
+     * @param executionCompleted
+     *            The completion flag of the execution
+     * @param trace
+     *            The trace of the analysis
+     * @param dependentAnalyses
+     *            The dependent analyses, completed
+     * @param monitor
+     *            The progress monitor of the job
+     * @param error
+     *            The exception thrown by the analysis, or null
+     * @return The status of the job
+     */
+    private IStatus completeExecution(AtomicBoolean executionCompleted, ITmfTrace trace, Iterable<IAnalysisModule> dependentAnalyses, IProgressMonitor monitor, @Nullable Exception error) {
+        Exception exception = error;
+        try {
+            if (exception == null) {
+                try {
+                    checkDependentAnalyses(dependentAnalyses, monitor);
+                    TmfCoreTracer.traceAnalysis(getId(), getTrace(), "finished"); //$NON-NLS-1$
+                } catch (TmfAnalysisException e) {
+                    exception = e;
+                }
+            }
+            if (exception != null) {
+                Activator.logError("Unexpected error executing analysis with trace " + trace.getName(), exception); //$NON-NLS-1$
+                fail(exception);
+                // Reset analysis so that it can be executed again.
+                resetAnalysis();
+                return new Status(IStatus.ERROR, Activator.PLUGIN_ID, IStatus.OK, "Exception executing analysis", exception); //$NON-NLS-1$
+            }
+        } finally {
+            setAnalysisCompleted(executionCompleted);
+            TmfTraceManager.refreshSupplementaryFiles(trace);
+        }
+        boolean cancelled;
+        synchronized (syncObj) {
+            cancelled = fAnalysisCancelled;
+        }
+        if (!cancelled) {
+            return Status.OK_STATUS;
+        }
+        // Reset analysis so that it can be executed again.
+        resetAnalysis();
+        return Status.CANCEL_STATUS;
+    }
+
+    private void checkDependentAnalyses(Iterable<IAnalysisModule> dependentAnalyses, IProgressMonitor monitor) throws TmfAnalysisException {
+        for (IAnalysisModule module : dependentAnalyses) {
+            boolean isModuleCancelled;
+            if (module instanceof TmfAbstractAnalysisModule) {
+                /* It is completed, or it was not executed */
+                TmfAbstractAnalysisModule dependency = (TmfAbstractAnalysisModule) module;
+                synchronized (dependency.syncObj) {
+                    isModuleCancelled = dependency.fAnalysisCancelled || dependency.fFailureCause != null;
+                }
+                isModuleCancelled |= monitor.isCanceled();
+            } else {
+                isModuleCancelled = !module.waitForCompletion(monitor);
+            }
+            if (isModuleCancelled) {
+                Throwable cause = module.getFailureCause();
+                if (cause != null) {
+                    throw new TmfAnalysisException("Dependent analysis '" + module.getName() + "' failed.", cause); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                synchronized (syncObj) {
+                    fAnalysisCancelled = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Completes the job of an execution when its dependent analyses are
+     * completed, without blocking a thread while waiting for them.
+     */
+    private final class DependencyCompletion {
+        private final Job fCompletedJob;
+        private final AtomicBoolean fExecutionCompleted;
+        private final ITmfTrace fCompletedTrace;
+        private final Iterable<IAnalysisModule> fDependentAnalyses;
+        private final IProgressMonitor fMonitor;
+        /* One more than the number of running dependent analyses until started */
+        private final AtomicInteger fRemaining = new AtomicInteger(1);
+        private final AtomicBoolean fDone = new AtomicBoolean();
+
+        DependencyCompletion(Job job, AtomicBoolean executionCompleted, ITmfTrace trace, Iterable<IAnalysisModule> dependentAnalyses, IProgressMonitor monitor) {
+            fCompletedJob = job;
+            fExecutionCompleted = executionCompleted;
+            fCompletedTrace = trace;
+            fDependentAnalyses = dependentAnalyses;
+            fMonitor = monitor;
+        }
+
+        /**
+         * Start waiting for the dependent analyses
+         *
+         * @return The status of the job if they are already completed,
+         *         {@link Job#ASYNC_FINISH} otherwise
+         */
+        IStatus start() {
+            for (IAnalysisModule module : fDependentAnalyses) {
+                if (module instanceof TmfAbstractAnalysisModule) {
+                    fRemaining.incrementAndGet();
+                    if (!((TmfAbstractAnalysisModule) module).runWhenCompleted(this::dependencyCompleted)) {
+                        fRemaining.decrementAndGet();
+                    }
+                }
+            }
+            if (fRemaining.decrementAndGet() == 0 && fDone.compareAndSet(false, true)) {
+                return completeExecution(fExecutionCompleted, fCompletedTrace, fDependentAnalyses, fMonitor, null);
+            }
+            return Job.ASYNC_FINISH;
+        }
+
+        private void dependencyCompleted() {
+            if (fRemaining.decrementAndGet() == 0) {
+                finish();
+            }
+        }
+
+        /**
+         * Complete the execution and finish the job now, if not done yet
+         */
+        void finish() {
+            if (fDone.compareAndSet(false, true)) {
+                fCompletedJob.done(completeExecution(fExecutionCompleted, fCompletedTrace, fDependentAnalyses, fMonitor, null));
+            }
+        }
+    }
+
     @Override
     public IStatus schedule() {
         synchronized (syncObj) {
@@ -18,12 +18,14 @@ import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.tmf.core.Activator;
@@ -243,6 +245,21 @@ public class TmfAnalysisManager {
         fAnalysisModules.clear();
     }
 
+    /**
+     * Schedule analyses, and the analyses they depend on, in the order of their
+     * dependencies. The analyses that do not depend on each other are started
+     * together, so that they share the reading of the trace, and the analyses
+     * waiting for their dependencies do not keep a thread waiting.
+     *
+     * @param modules
+     *            The analyses to schedule
+     * @return The status of the scheduling of each analysis
+     * @since 10.2
+     */
+    public static IStatus scheduleAnalyses(Collection<? extends IAnalysisModule> modules) {
+        return TmfAnalysisScheduler.schedule(modules);
+    }
+
     /**
      * This method should be called when new analysis modules have been created
      * by module helpers to that the {@link ITmfNewAnalysisModuleListener} can
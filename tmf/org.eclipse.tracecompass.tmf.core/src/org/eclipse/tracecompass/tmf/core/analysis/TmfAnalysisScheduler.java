@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.analysis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.tracecompass.internal.tmf.core.Activator;
+
+/**
+ * Schedules analyses in the order of their dependencies.
+ * <p>
+ * The analyses and the analyses they depend on, given by
+ * {@link TmfAbstractAnalysisModule#getDependentAnalyses()}, form a directed
+ * acyclic graph. The analyses that cannot execute on the trace, because of
+ * their requirements, are not part of it as they are never created. The
+ * analyses are scheduled dependencies first, so the jobs of the analyses that
+ * do not depend on each other start together, and their event requests are
+ * coalesced into a shared read of the trace. An analysis does not keep a
+ * thread waiting for its dependencies: its job finishes when the last one
+ * completes.
+ */
+@NonNullByDefault
+final class TmfAnalysisScheduler {
+
+    private TmfAnalysisScheduler() {
+        // Do nothing
+    }
+
+    /**
+     * Schedule analyses and the analyses they depend on
+     *
+     * @param modules
+     *            The analyses to schedule
+     * @return The status of the scheduling of each analysis
+     */
+    static IStatus schedule(Collection<? extends IAnalysisModule> modules) {
+        MultiStatus status = new MultiStatus(Activator.PLUGIN_ID, IStatus.OK, null, null);
+        for (IAnalysisModule module : sort(modules)) {
+            status.add(module.schedule());
+        }
+        return status;
+    }
+
+    /**
+     * Sort analyses and the analyses they depend on, dependencies first. A
+     * dependency cycle is logged and broken.
+     *
+     * @param modules
+     *            The analyses to sort
+     * @return The analyses and their dependencies, in scheduling order
+     */
+    static List<IAnalysisModule> sort(Collection<? extends IAnalysisModule> modules) {
+        List<IAnalysisModule> order = new ArrayList<>();
+        Set<IAnalysisModule> visited = new HashSet<>();
+        Set<IAnalysisModule> visiting = new HashSet<>();
+        for (IAnalysisModule module : modules) {
+            visit(module, visited, visiting, order);
+        }
+        return order;
+    }
+
+    private static void visit(IAnalysisModule module, Set<IAnalysisModule> visited, Set<IAnalysisModule> visiting, List<IAnalysisModule> order) {
+        if (visited.contains(module)) {
+            return;
+        }
+        if (!visiting.add(module)) {
+            Activator.logWarning("Cyclic dependency between analyses involving " + module.getId()); //$NON-NLS-1$
+            return;
+        }
+        for (IAnalysisModule dependency : getDependencies(module)) {
+            visit(dependency, visited, visiting, order);
+        }
+        visiting.remove(module);
+        visited.add(module);
+        order.add(module);
+    }
+
+    private static Iterable<IAnalysisModule> getDependencies(IAnalysisModule module) {
+        if (module instanceof TmfAbstractAnalysisModule) {
+            return ((TmfAbstractAnalysisModule) module).getDependentAnalyses();
+        }
+        return Collections.emptyList();
+    }
+}
@@ -72,6 +72,9 @@ public abstract class TmfEventProvider extends TmfComponent implements ITmfEvent
     /** List of coalesced requests */
     private final List<TmfCoalescedEventRequest> fPendingCoalescedRequests = new LinkedList<>();
 
+    /** List of queued background coalesced requests, that requests can join */
+    private final List<TmfCoalescedEventRequest> fRunningCoalescedRequests = new LinkedList<>();
+
     /** The type of event handled by this provider */
     private Class<? extends ITmfEvent> fType;
 
@@ -161,6 +164,7 @@ public abstract class TmfEventProvider extends TmfComponent implements ITmfEvent
                 fTimer.cancel();
             }
             fTimer = null;
+            fRunningCoalescedRequests.clear();
         }
 
         synchronized (fChildren) {
@@ -213,6 +217,10 @@ public abstract class TmfEventProvider extends TmfComponent implements ITmfEvent
                 return;
             }
 
+            if (joinRunningRequest(request)) {
+                return;
+            }
+
             /*
              * Dispatch request in case timer is not running.
              */
@@ -340,6 +348,26 @@ public abstract class TmfEventProvider extends TmfComponent implements ITmfEvent
         }
     }
 
+    /*
+     * Adds a background request to a queued coalesced request that is reading
+     * the events it needs, instead of reading them again.
+     */
+    private boolean joinRunningRequest(ITmfEventRequest request) {
+        Iterator<TmfCoalescedEventRequest> iter = fRunningCoalescedRequests.iterator();
+        while (iter.hasNext()) {
+            TmfCoalescedEventRequest runningRequest = iter.next();
+            if (runningRequest.isCompleted()) {
+                iter.remove();
+            } else if (runningRequest.join(request, this)) {
+                if (TmfCoreTracer.isRequestTraced()) {
+                    TmfCoreTracer.traceRequest(request.getRequestId(), "JOINED " + runningRequest.getRequestId()); //$NON-NLS-1$
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
     /*
      * Sends a request with the parent if compatible.
      */
@@ -414,6 +442,12 @@ public abstract class TmfEventProvider extends TmfComponent implements ITmfEvent
             return;
         }
 
+        if (request instanceof TmfCoalescedEventRequest && request.getExecType() == ExecutionType.BACKGROUND) {
+            synchronized (fLock) {
+                fRunningCoalescedRequests.add((TmfCoalescedEventRequest) request);
+            }
+        }
+
         TmfEventThread thread = new TmfEventThread(this, request);
 
         if (TmfCoreTracer.isRequestTraced()) {
@@ -74,4 +74,19 @@ public interface ITmfEvent extends IAdaptable {
      * @since 1.0
      */
     @NonNull String getName();
+
+    /**
+     * Gets the index of the type of the event among the event types of its
+     * trace, for the traces that number their event types. The indexes of a
+     * trace are dense, starting at 0, so they can be used as array indexes to
+     * look up something for each event type. Events of different traces can
+     * have the same index.
+     *
+     * @return the index of the event type, or -1 if the trace does not number
+     *         its event types
+     * @since 10.2
+     */
+    default int getTypeIndex() {
+        return -1;
+    }
 }
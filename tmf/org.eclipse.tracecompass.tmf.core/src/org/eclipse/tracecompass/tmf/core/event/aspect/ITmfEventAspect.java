@@ -99,6 +99,47 @@ public interface ITmfEventAspect<T> {
         return resolve(event);
     }
 
+    /**
+     * Resolve this aspect as an int, for the aspects that resolve to an
+     * {@link Integer}. Aspects that read a primitive value from the event can
+     * override this to return it without boxing it.
+     *
+     * @param event
+     *            The event to process
+     * @param defaultValue
+     *            The value to return if the aspect does not resolve to an
+     *            integer for this event. It should not be a valid value of the
+     *            aspect.
+     * @return The resulting integer, or the default value
+     * @since 10.2
+     */
+    default int resolveInt(ITmfEvent event, int defaultValue) {
+        T value = resolve(event);
+        return (value instanceof Integer) ? (Integer) value : defaultValue;
+    }
+
+    /**
+     * Resolve this aspect as a long, for the aspects that resolve to a
+     * {@link Long} or an {@link Integer}. Aspects that read a primitive value
+     * from the event can override this to return it without boxing it.
+     *
+     * @param event
+     *            The event to process
+     * @param defaultValue
+     *            The value to return if the aspect does not resolve to an
+     *            integer for this event. It should not be a valid value of the
+     *            aspect.
+     * @return The resulting long, or the default value
+     * @since 10.2
+     */
+    default long resolveLong(ITmfEvent event, long defaultValue) {
+        T value = resolve(event);
+        if (value instanceof Long || value instanceof Integer) {
+            return ((Number) value).longValue();
+        }
+        return defaultValue;
+    }
+
     /**
      * This method will return a hint if this aspect should be displayed by default
      *
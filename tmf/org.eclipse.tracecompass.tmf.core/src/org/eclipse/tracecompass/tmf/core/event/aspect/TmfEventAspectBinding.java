@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.event.aspect;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+
+import com.google.common.collect.Iterables;
+
+/**
+ * The aspects of a trace that match a class or a name, looked up once so that
+ * they can be resolved for each event without searching the aspects of the
+ * trace again. This is meant for the analyses that resolve the same aspects
+ * for all the events of a trace, like the state providers.
+ * <p>
+ * As with the resolve methods of
+ * {@link org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils}, the result
+ * is the one of the first aspect that resolves for the event. The primitive
+ * methods do not allocate anything for the aspects that override
+ * {@link ITmfEventAspect#resolveInt} or {@link ITmfEventAspect#resolveLong}.
+ * <p>
+ * Bindings are created by
+ * {@link org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils#bindEventAspectOfClass}
+ * and
+ * {@link org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils#bindAspectOfName}.
+ * The aspects registered after a binding is created are not part of it.
+ *
+ * @since 10.2
+ */
+public final class TmfEventAspectBinding {
+
+    private final ITmfEventAspect<?>[] fAspects;
+
+    /**
+     * Constructor
+     *
+     * @param aspects
+     *            The aspects to resolve, in order
+     */
+    public TmfEventAspectBinding(Iterable<ITmfEventAspect<?>> aspects) {
+        fAspects = Iterables.toArray(aspects, ITmfEventAspect.class);
+    }
+
+    /**
+     * Get whether there is no aspect in this binding, in which case nothing
+     * resolves for any event
+     *
+     * @return true if there is no aspect
+     */
+    public boolean isEmpty() {
+        return fAspects.length == 0;
+    }
+
+    /**
+     * Resolve the aspects for an event
+     *
+     * @param event
+     *            The event
+     * @return The first result of the aspects that is not null, or null
+     */
+    public @Nullable Object resolve(ITmfEvent event) {
+        for (ITmfEventAspect<?> aspect : fAspects) {
+            Object value = aspect.resolve(event);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolve the aspects as an int for an event
+     *
+     * @param event
+     *            The event
+     * @param defaultValue
+     *            The value to return if no aspect resolves to an integer for
+     *            this event. It should not be a valid value of the aspects.
+     * @return The first result of the aspects that resolves to an integer, or
+     *         the default value
+     */
+    public int resolveInt(ITmfEvent event, int defaultValue) {
+        for (ITmfEventAspect<?> aspect : fAspects) {
+            int value = aspect.resolveInt(event, defaultValue);
+            if (value != defaultValue) {
+                return value;
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Resolve the aspects as a long for an event
+     *
+     * @param event
+     *            The event
+     * @param defaultValue
+     *            The value to return if no aspect resolves to an integer for
+     *            this event. It should not be a valid value of the aspects.
+     * @return The first result of the aspects that resolves to an integer, or
+     *         the default value
+     */
+    public long resolveLong(ITmfEvent event, long defaultValue) {
+        for (ITmfEventAspect<?> aspect : fAspects) {
+            long value = aspect.resolveLong(event, defaultValue);
+            if (value != defaultValue) {
+                return value;
+            }
+        }
+        return defaultValue;
+    }
+}
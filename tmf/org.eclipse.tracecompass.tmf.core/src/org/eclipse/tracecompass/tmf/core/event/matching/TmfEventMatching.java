@@ -16,12 +16,22 @@ package org.eclipse.tracecompass.tmf.core.event.matching;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
@@ -31,13 +41,17 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.tracecompass.internal.tmf.core.Activator;
+import org.eclipse.tracecompass.internal.tmf.core.component.TmfEventThread;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.matching.TmfEventDependency.DependencyEvent;
 import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 import org.eclipse.tracecompass.tmf.core.trace.experiment.TmfExperiment;
@@ -48,9 +62,23 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Table;
+import com.google.common.collect.Tables;
 
 /**
  * Abstract class to extend to match certain type of events in a trace
+ * <p>
+ * With {@link #matchEvents()}, the events of each trace are read by a request
+ * on that trace, all the traces being read in parallel. The requests only keep
+ * the events with a matching key, which are then matched in chronological
+ * order by a single thread, as if the traces were read as an experiment. A
+ * request that is ahead of the others waits when it has many events to match,
+ * so the events kept in memory are bounded by how far apart the requests are.
+ * <p>
+ * The unmatched events of each trace are kept in chronological order. They are
+ * removed when they are older than the last matches with all the other hosts,
+ * or, if an unmatched events window is set with
+ * {@link #setUnmatchedWindow(long)}, when they are older than the last event of
+ * their trace by more than that window.
  *
  * @author Geneviève Bastien
  */
@@ -58,6 +86,12 @@ public class TmfEventMatching implements ITmfEventMatching {
 
     private static final Set<ITmfMatchEventDefinition> MATCH_DEFINITIONS = new HashSet<>();
 
+    /**
+     * How long the merge of the events waits for the requests to progress
+     * before checking if it was cancelled, in milliseconds
+     */
+    private static final long MERGE_WAIT_MS = 100;
+
     /**
      * The array of traces to match
      */
@@ -74,14 +108,24 @@ public class TmfEventMatching implements ITmfEventMatching {
     private final Multimap<ITmfTrace, ITmfMatchEventDefinition> fMatchMap = HashMultimap.create();
 
     /**
-     * Hashtables for unmatches incoming events
+     * Hashtables for unmatches incoming events, the rows are in insertion, so
+     * chronological, order
      */
-    private final Table<ITmfTrace, IEventMatchingKey, DependencyEvent> fUnmatchedIn = HashBasedTable.create();
+    private final Table<ITmfTrace, IEventMatchingKey, DependencyEvent> fUnmatchedIn = Tables.newCustomTable(new HashMap<>(), LinkedHashMap::new);
 
     /**
-     * Hashtables for unmatches outgoing events
+     * Hashtables for unmatches outgoing events, the rows are in insertion, so
+     * chronological, order
      */
-    private final Table<ITmfTrace, IEventMatchingKey, DependencyEvent> fUnmatchedOut = HashBasedTable.create();
+    private final Table<ITmfTrace, IEventMatchingKey, DependencyEvent> fUnmatchedOut = Tables.newCustomTable(new HashMap<>(), LinkedHashMap::new);
+
+    private long fUnmatchedWindow = Long.MAX_VALUE;
+
+    /** The time from which to read the traces, if not their beginning */
+    private final Map<ITmfTrace, ITmfTimestamp> fStartTimes = new HashMap<>();
+
+    /** The time of the last event read from each trace */
+    private final Map<ITmfTrace, Long> fLastEventTimes = new ConcurrentHashMap<>();
 
     /**
      * Hash tables matching the latest match between 2 hosts (sender, receiver) by
@@ -89,6 +133,13 @@ public class TmfEventMatching implements ITmfEventMatching {
      */
     private final Map<Class<? extends IEventMatchingKey>, Table<String, String, TmfEventDependency>> fLastMatches = new HashMap<>();
 
+    /*
+     * The merge of the events waits on this lock for the requests to progress,
+     * and the requests notify it when it is waiting
+     */
+    private final Object fMergeLock = new Object();
+    private volatile boolean fMergeWaiting = false;
+
     /**
      * Enum for cause and effect types of event
      * @since 1.0
@@ -171,6 +222,83 @@ public class TmfEventMatching implements ITmfEventMatching {
         return fMatches;
     }
 
+    /**
+     * Set the time after which an unmatched event is considered lost and
+     * removed. It bounds the memory used by the lost events, but it should be
+     * larger than the clock offsets between the hosts, since events from
+     * different hosts are matched before the traces are synchronized. By
+     * default, there is no window and the unmatched events are kept until they
+     * are cleaned up by later matches.
+     *
+     * @param window
+     *            The window, in nanoseconds, or {@link Long#MAX_VALUE} to keep
+     *            the unmatched events until they are cleaned up by later
+     *            matches
+     * @since 10.2
+     */
+    public void setUnmatchedWindow(long window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("The unmatched events window must be positive"); //$NON-NLS-1$
+        }
+        fUnmatchedWindow = window;
+    }
+
+    /**
+     * Set the time from which {@link #matchEvents()} reads a trace, to only
+     * match the events added to a trace since a previous matching
+     *
+     * @param trace
+     *            The trace, not an experiment
+     * @param startTime
+     *            The time of the first events to read
+     * @since 10.2
+     */
+    public void setStartTime(ITmfTrace trace, ITmfTimestamp startTime) {
+        fStartTimes.put(trace, startTime);
+    }
+
+    /**
+     * Get the time of the last event read from a trace by the last
+     * {@link #matchEvents()}
+     *
+     * @param trace
+     *            The trace, not an experiment
+     * @return The time, in nanoseconds, of the last event read, or null if the
+     *         trace was not read
+     * @since 10.2
+     */
+    public @Nullable Long getLastEventTime(ITmfTrace trace) {
+        return fLastEventTimes.get(trace);
+    }
+
+    /**
+     * Get the time from which a trace must be read to continue the last
+     * {@link #matchEvents()} with the events added to the trace since then:
+     * the time of its oldest event that is still unmatched, or the time after
+     * its last event read if there is none.
+     *
+     * @param trace
+     *            The trace, not an experiment
+     * @return The time, in nanoseconds, from which to read the trace, or null
+     *         if the trace was not read
+     * @since 10.2
+     */
+    public @Nullable Long getResumeTime(ITmfTrace trace) {
+        Long last = fLastEventTimes.get(trace);
+        if (last == null) {
+            return null;
+        }
+        long resume = (last == Long.MAX_VALUE) ? last : last + 1;
+        /* The rows are in chronological order */
+        for (Map<IEventMatchingKey, DependencyEvent> unmatched : ImmutableList.of(fUnmatchedIn.row(trace), fUnmatchedOut.row(trace))) {
+            Iterator<DependencyEvent> it = unmatched.values().iterator();
+            if (it.hasNext()) {
+                resume = Math.min(resume, it.next().getTimestamp().toNanos());
+            }
+        }
+        return resume;
+    }
+
     /**
      * Returns the match event definitions corresponding to the trace
      *
@@ -193,6 +321,7 @@ public class TmfEventMatching implements ITmfEventMatching {
         // Initialize the matching infrastructure (unmatched event lists)
         fUnmatchedIn.clear();
         fUnmatchedOut.clear();
+        fLastEventTimes.clear();
 
         fMatches.init(fTraces);
         for (ITmfTrace trace : getIndividualTraces()) {
@@ -243,6 +372,22 @@ public class TmfEventMatching implements ITmfEventMatching {
      * @since 1.0
      */
     public void matchEvent(ITmfEvent event, ITmfTrace trace, @NonNull IProgressMonitor monitor) {
+        MatchCandidate candidate = createCandidate(event);
+        if (candidate != null) {
+            matchCandidate(candidate, monitor);
+        }
+    }
+
+    /**
+     * Get the key and direction of an event, if it can be matched. This does
+     * not use the matching state, so it can be called by the threads reading
+     * the different traces.
+     *
+     * @param event
+     *            The event
+     * @return The event to match, or null if it cannot be matched
+     */
+    @Nullable MatchCandidate createCandidate(ITmfEvent event) {
         ITmfMatchEventDefinition def = null;
         Direction evType = null;
         IEventMatchingKey eventKey = null;
@@ -263,8 +408,18 @@ public class TmfEventMatching implements ITmfEventMatching {
         }
 
         if (def == null || evType == null || eventKey == null) {
-            return;
+            return null;
         }
+        return new MatchCandidate(eventKey, evType, new DependencyEvent(event));
+    }
+
+    private void matchCandidate(@NonNull MatchCandidate candidate, @NonNull IProgressMonitor monitor) {
+        IEventMatchingKey eventKey = candidate.fKey;
+        Direction evType = candidate.fDirection;
+        DependencyEvent depEvent = candidate.fEvent;
+        ITmfTrace eventTrace = depEvent.getTrace();
+
+        expireUnmatched(eventTrace, candidate.fTime);
 
         Table<ITmfTrace, IEventMatchingKey, DependencyEvent> unmatchedTbl, companionTbl;
 
@@ -283,21 +438,21 @@ public class TmfEventMatching implements ITmfEventMatching {
         }
 
         TmfEventDependency dep = null;
-        DependencyEvent depEvent = new DependencyEvent(event);
         /* Search for the event in the companion table */
         for (ITmfTrace mTrace : getIndividualTraces()) {
-            if (companionTbl.contains(mTrace, eventKey)) {
-                DependencyEvent companionEvent = companionTbl.remove(mTrace, eventKey);
+            DependencyEvent companionEvent = companionTbl.get(mTrace, eventKey);
+            if (companionEvent != null) {
 
                 /* Create the dependency object */
                 switch (evType) {
                 case EFFECT:
+                    companionTbl.remove(mTrace, eventKey);
                     dep = new TmfEventDependency(companionEvent, depEvent);
                     break;
                 case CAUSE:
                     /*
                      * If the companionEvent is from the same host, ignore this
-                     * match to respect causality. Put it back in the list, so
+                     * match to respect causality. Leave it in the list, so
                      * that it is available again for another match.
                      *
                      * FIXME: This happens because a packet may go through
@@ -308,10 +463,9 @@ public class TmfEventMatching implements ITmfEventMatching {
                      * through all its interfaces and maybe have a virtual event
                      * to encompass the whole duration. More investigation needed
                      */
-                    if (!companionEvent.getTrace().getHostId().equals(depEvent.getTrace().getHostId())) {
+                    if (!companionEvent.getTrace().getHostId().equals(eventTrace.getHostId())) {
+                        companionTbl.remove(mTrace, eventKey);
                         dep = new TmfEventDependency(depEvent, companionEvent);
-                    } else {
-                        companionTbl.put(mTrace,  eventKey, companionEvent);
                     }
                     break;
                 default:
@@ -340,8 +494,34 @@ public class TmfEventMatching implements ITmfEventMatching {
              * events as value for the unmatched table. Not necessary right now
              * though
              */
-            if (!unmatchedTbl.contains(event.getTrace(), eventKey)) {
-                unmatchedTbl.put(event.getTrace(), eventKey, depEvent);
+            if (!unmatchedTbl.contains(eventTrace, eventKey)) {
+                unmatchedTbl.put(eventTrace, eventKey, depEvent);
+            }
+        }
+    }
+
+    private void expireUnmatched(ITmfTrace trace, long time) {
+        if (fUnmatchedWindow == Long.MAX_VALUE || time < Long.MIN_VALUE + fUnmatchedWindow) {
+            return;
+        }
+        long limit = time - fUnmatchedWindow;
+        removeOlder(fUnmatchedIn.row(trace), limit, key -> true);
+        removeOlder(fUnmatchedOut.row(trace), limit, key -> true);
+    }
+
+    /**
+     * Remove the events older than a time from a chronological row of
+     * unmatched events
+     */
+    private static void removeOlder(Map<IEventMatchingKey, DependencyEvent> row, long limit, Predicate<IEventMatchingKey> filter) {
+        Iterator<Entry<IEventMatchingKey, DependencyEvent>> iterator = row.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<IEventMatchingKey, DependencyEvent> entry = iterator.next();
+            if (entry.getValue().getTimestamp().toNanos() >= limit) {
+                return;
+            }
+            if (filter.test(entry.getKey())) {
+                iterator.remove();
             }
         }
     }
@@ -372,13 +552,7 @@ public class TmfEventMatching implements ITmfEventMatching {
                     .min()
                     .orElse(0L);
             if (earliest > 0) {
-                List<IEventMatchingKey> toRemove = new ArrayList<>();
-                for (Entry<IEventMatchingKey, DependencyEvent> entry : toClean.row(lastDep.getTrace()).entrySet()) {
-                    if (entry.getValue().getTimestamp().toNanos() < earliest && entry.getKey().getClass().isAssignableFrom(eventKey.getClass())) {
-                        toRemove.add(entry.getKey());
-                    }
-                }
-                toRemove.forEach(m -> toClean.remove(lastDep.getTrace(), m));
+                removeOlder(toClean.row(lastDep.getTrace()), earliest, key -> key.getClass().isAssignableFrom(eventKey.getClass()));
             }
         }
     }
@@ -404,38 +578,44 @@ public class TmfEventMatching implements ITmfEventMatching {
         Job job = new Job(Messages.TmfEventMatching_MatchingEvents) {
             @Override
             protected IStatus run(final IProgressMonitor monitor) {
-                /**
-                 * FIXME For now, we use the experiment strategy: the trace that
-                 * is asked to be matched is actually an experiment and the
-                 * experiment does the request. But depending on how divergent
-                 * the traces' times are and how long it takes to get the first
-                 * match, it can use a lot of memory.
-                 *
-                 * Some strategies can help limit the memory usage of this
-                 * algorithm:
-                 *
-                 * <pre>
-                 * Other possible matching strategy:
-                 * * start with the shortest trace
-                 * * take a few events at the beginning and at the end and try
-                 *   to match them
-                 * </pre>
+                String names = fTraces.stream().map(ITmfTrace::getName).collect(Collectors.joining(", ")); //$NON-NLS-1$
+                monitor.beginTask(NLS.bind(Messages.TmfEventMatching_LookingEventsFrom, names), IProgressMonitor.UNKNOWN);
+                setName(NLS.bind(Messages.TmfEventMatching_RequestingEventsFrom, names));
+
+                /*
+                 * Read each trace with its own request, so that the traces are
+                 * read and their events keyed in parallel, and merge the
+                 * events to match in chronological order.
                  */
+                List<EventMatchingBuildRequest> requests = new ArrayList<>();
+                Set<@NonNull ITmfTrace> traces = new LinkedHashSet<>();
                 for (ITmfTrace trace : fTraces) {
-                    monitor.beginTask(NLS.bind(Messages.TmfEventMatching_LookingEventsFrom, trace.getName()), IProgressMonitor.UNKNOWN);
-                    setName(NLS.bind(Messages.TmfEventMatching_RequestingEventsFrom, trace.getName()));
-
-                    /* Send the request to the trace */
-                    EventMatchingBuildRequest request = new EventMatchingBuildRequest(TmfEventMatching.this, trace, monitor);
-                    trace.sendRequest(request);
+                    traces.addAll(TmfTraceManager.getTraceSet(trace));
+                }
+                for (ITmfTrace trace : traces) {
+                    if (fMatchMap.get(trace).isEmpty()) {
+                        /* No event of this trace can be matched */
+                        continue;
+                    }
+                    ITmfTimestamp startTime = fStartTimes.getOrDefault(trace, TmfTimestamp.BIG_BANG);
+                    EventMatchingBuildRequest request = new EventMatchingBuildRequest(TmfEventMatching.this, requests, trace, startTime, monitor);
+                    requests.add(request);
+                }
+                /* Send the requests once they all know each other */
+                for (EventMatchingBuildRequest request : requests) {
+                    request.getTrace().sendRequest(request);
+                }
+                mergeCandidates(requests, monitor);
+                for (EventMatchingBuildRequest request : requests) {
                     try {
                         request.waitForCompletion();
                     } catch (InterruptedException e) {
                         Activator.logInfo(e.getMessage());
                     }
-                    if (monitor.isCanceled()) {
-                        return Status.CANCEL_STATUS;
-                    }
+                    fLastEventTimes.put(request.getTrace(), request.fProgress);
+                }
+                if (monitor.isCanceled()) {
+                    return Status.CANCEL_STATUS;
                 }
                 return Status.OK_STATUS;
             }
@@ -452,6 +632,80 @@ public class TmfEventMatching implements ITmfEventMatching {
         return true;
     }
 
+    /**
+     * Match the events kept by the requests, in chronological order, while the
+     * requests read the traces. An event is only matched when all the requests
+     * still running have read past its time, so no earlier event can come.
+     * Events at the same time are matched in the order of the traces.
+     */
+    private void mergeCandidates(List<EventMatchingBuildRequest> requests, @NonNull IProgressMonitor monitor) {
+        Comparator<EventMatchingBuildRequest> byHead = Comparator.comparingLong((EventMatchingBuildRequest request) -> request.peek().fTime)
+                .thenComparingInt(request -> request.fIndex);
+        Queue<EventMatchingBuildRequest> heads = new PriorityQueue<>(Math.max(1, requests.size()), byHead);
+        while (true) {
+            if (monitor.isCanceled()) {
+                requests.forEach(EventMatchingBuildRequest::cancel);
+                return;
+            }
+            /* Read the progress before the events, they are added before it */
+            long watermark = EventMatchingBuildRequest.getWatermark(requests);
+            boolean allDone = (watermark == Long.MAX_VALUE);
+            for (EventMatchingBuildRequest request : requests) {
+                MatchCandidate head = request.fCandidates.peek();
+                if (head != null && (allDone || head.fTime < watermark)) {
+                    heads.add(request);
+                }
+            }
+            if (heads.isEmpty()) {
+                if (allDone) {
+                    return;
+                }
+                waitForProgress(requests, watermark);
+                continue;
+            }
+            while (!heads.isEmpty()) {
+                EventMatchingBuildRequest request = heads.poll();
+                MatchCandidate candidate = request.fCandidates.poll();
+                matchCandidate(candidate, monitor);
+                MatchCandidate head = request.fCandidates.peek();
+                if (head != null && (allDone || head.fTime < watermark)) {
+                    heads.add(request);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait until a request progresses past a watermark or completes. The
+     * requests notify the lock after each event while the merge is waiting.
+     */
+    private void waitForProgress(List<EventMatchingBuildRequest> requests, long watermark) {
+        synchronized (fMergeLock) {
+            fMergeWaiting = true;
+            try {
+                /* Check again once the requests see that the merge is waiting */
+                if (EventMatchingBuildRequest.getWatermark(requests) == watermark) {
+                    fMergeLock.wait(MERGE_WAIT_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                fMergeWaiting = false;
+            }
+        }
+    }
+
+    /**
+     * Tell the merge of the events that a request progressed, if it is waiting
+     */
+    void requestProgressed() {
+        if (fMergeWaiting) {
+            synchronized (fMergeLock) {
+                fMergeLock.notifyAll();
+            }
+        }
+    }
+
     /**
      * Registers an event match definition
      *
@@ -484,22 +738,65 @@ public class TmfEventMatching implements ITmfEventMatching {
         return fUnmatchedOut;
     }
 
+    /**
+     * An event that can be matched, with its key and direction
+     */
+    static final class MatchCandidate {
+        private final @NonNull IEventMatchingKey fKey;
+        private final @NonNull Direction fDirection;
+        private final @NonNull DependencyEvent fEvent;
+        private final long fTime;
+
+        MatchCandidate(@NonNull IEventMatchingKey key, @NonNull Direction direction, @NonNull DependencyEvent event) {
+            fKey = key;
+            fDirection = direction;
+            fEvent = event;
+            fTime = event.getTimestamp().toNanos();
+        }
+    }
+
 }
 
 class EventMatchingBuildRequest extends TmfEventRequest {
 
+    /**
+     * The number of events to match a request keeps before yielding to the
+     * other requests, if it is ahead of them
+     */
+    private static final int MAX_CANDIDATES = 10000;
+
+    /** How long a request that is ahead lets the others run, in milliseconds */
+    private static final long THROTTLE_DELAY_MS = 10;
+
     private final TmfEventMatching matching;
-    private final ITmfTrace trace;
     private final @NonNull IProgressMonitor fMonitor;
+    private final List<EventMatchingBuildRequest> fRequests;
+    private final ITmfTrace fTrace;
 
-    EventMatchingBuildRequest(TmfEventMatching matching, ITmfTrace trace, IProgressMonitor monitor) {
+    /** The index of the trace, to order the events at the same time */
+    final int fIndex;
+    /** The events to match, in chronological order */
+    final Queue<TmfEventMatching.MatchCandidate> fCandidates = new LinkedBlockingQueue<>();
+    /**
+     * The time of the last event read, in nanoseconds. Before the first event,
+     * no event can come before the start of the trace.
+     */
+    volatile long fProgress;
+    /** Whether all the events were read */
+    volatile boolean fDone = false;
+
+    EventMatchingBuildRequest(TmfEventMatching matching, List<EventMatchingBuildRequest> requests, ITmfTrace trace, ITmfTimestamp startTime, IProgressMonitor monitor) {
         super(ITmfEvent.class,
-                TmfTimeRange.ETERNITY,
+                new TmfTimeRange(startTime, TmfTimestamp.BIG_CRUNCH),
                 0,
                 ITmfEventRequest.ALL_DATA,
                 ITmfEventRequest.ExecutionType.FOREGROUND);
         this.matching = matching;
-        this.trace = trace;
+        fRequests = requests;
+        fTrace = trace;
+        fIndex = requests.size();
+        long start = Math.max(startTime.toNanos(), trace.getStartTime().toNanos());
+        fProgress = (start == Long.MIN_VALUE) ? start : start - 1;
         if (monitor == null) {
             fMonitor = new NullProgressMonitor();
         } else {
@@ -507,12 +804,63 @@ class EventMatchingBuildRequest extends TmfEventRequest {
         }
     }
 
+    /**
+     * Get the time before which all the requests still reading have read
+     * their events
+     *
+     * @return The watermark, or {@link Long#MAX_VALUE} if all the requests
+     *         are done
+     */
+    static long getWatermark(List<EventMatchingBuildRequest> requests) {
+        long watermark = Long.MAX_VALUE;
+        for (EventMatchingBuildRequest request : requests) {
+            if (!request.fDone) {
+                watermark = Math.min(watermark, request.fProgress);
+            }
+        }
+        return watermark;
+    }
+
+    ITmfTrace getTrace() {
+        return fTrace;
+    }
+
+    TmfEventMatching.MatchCandidate peek() {
+        return fCandidates.peek();
+    }
+
     @Override
     public void handleData(final ITmfEvent event) {
         super.handleData(event);
         if (fMonitor.isCanceled()) {
             this.cancel();
         }
-        matching.matchEvent(event, trace, fMonitor);
+        TmfEventMatching.MatchCandidate candidate = matching.createCandidate(event);
+        if (candidate != null) {
+            throttle();
+            fCandidates.add(candidate);
+        }
+        fProgress = event.getTimestamp().toNanos();
+        matching.requestProgressed();
+    }
+
+    /**
+     * Yield the slice of this request when it has many events to match and is
+     * ahead of another request, since its events can only be matched once the
+     * others have read up to them. The request does not block its worker, so
+     * the requests behind it can run. The request that is the furthest behind
+     * never yields.
+     */
+    private void throttle() {
+        if (fCandidates.size() >= MAX_CANDIDATES && !fMonitor.isCanceled() && fProgress > getWatermark(fRequests)) {
+            TmfEventThread.yieldCurrentSlice(THROTTLE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void handleCompleted() {
+        fDone = true;
+        super.handleCompleted();
+        matching.requestProgressed();
     }
 }
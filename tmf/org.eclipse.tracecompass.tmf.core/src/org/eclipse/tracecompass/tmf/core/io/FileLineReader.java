@@ -0,0 +1,330 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A reader of the lines of a text file, that can be positioned at any byte
+ * offset of the file.
+ * <p>
+ * The file is read through a file channel in a large direct buffer, and each
+ * line is decoded as UTF-8 in a character array that is reused for the next
+ * line. The lines are returned as views over this array, so reading a line
+ * does not allocate anything, and only the lines that are kept are copied,
+ * with {@link #detachLine()} or {@link CharSequence#toString()}.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @since 10.2
+ */
+public class FileLineReader implements Closeable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final int MIN_BUFFER_SIZE = 16;
+    private static final int INITIAL_LINE_SIZE = 256;
+    private static final char[] EMPTY_LINE = new char[0];
+
+    private final FileChannel fChannel;
+    private final CharsetDecoder fDecoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /* The bytes of the file from fBufferStart, up to the buffer limit */
+    private ByteBuffer fBuffer;
+    private long fBufferStart = 0;
+
+    /* The characters of the current line, reused for each line */
+    private char[] fChars = new char[INITIAL_LINE_SIZE];
+    private CharBuffer fCharBuffer = CharBuffer.wrap(fChars);
+    private LineView fLine = new LineView(fChars);
+
+    /**
+     * Constructor using the default buffer size
+     *
+     * @param path
+     *            The path of the file
+     * @throws IOException
+     *             If the file could not be opened
+     */
+    public FileLineReader(String path) throws IOException {
+        this(path, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param path
+     *            The path of the file
+     * @param bufferSize
+     *            The size of the buffer, in bytes. It grows for the lines that
+     *            do not fit.
+     * @throws IOException
+     *             If the file could not be opened
+     */
+    public FileLineReader(String path, int bufferSize) throws IOException {
+        fChannel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        fBuffer = ByteBuffer.allocateDirect(Math.max(bufferSize, MIN_BUFFER_SIZE));
+        fBuffer.limit(0);
+    }
+
+    /**
+     * Get the length of the file
+     *
+     * @return The length of the file, in bytes
+     * @throws IOException
+     *             If the file could not be read
+     */
+    public long length() throws IOException {
+        return fChannel.size();
+    }
+
+    /**
+     * Get the position of the reader
+     *
+     * @return The offset in the file of the next byte read, in bytes
+     */
+    public long getFilePointer() {
+        return fBufferStart + fBuffer.position();
+    }
+
+    /**
+     * Set the position of the reader
+     *
+     * @param pos
+     *            The offset in the file of the next byte to read, in bytes
+     * @throws IOException
+     *             If the file could not be read
+     */
+    public void seek(long pos) throws IOException {
+        if (pos >= fBufferStart && pos <= fBufferStart + fBuffer.limit()) {
+            fBuffer.position((int) (pos - fBufferStart));
+            return;
+        }
+        if (pos < fBufferStart) {
+            /* Seeking backward, read ahead half of the buffer before the position */
+            fBufferStart = Math.max(0, pos - fBuffer.capacity() / 2);
+            fBuffer.clear();
+            while (fBuffer.hasRemaining() && fChannel.read(fBuffer, fBufferStart + fBuffer.position()) > 0) {
+                // Fill the buffer
+            }
+            fBuffer.flip();
+            if (pos - fBufferStart <= fBuffer.limit()) {
+                fBuffer.position((int) (pos - fBufferStart));
+                return;
+            }
+        }
+        fBufferStart = pos;
+        fBuffer.limit(0);
+    }
+
+    /**
+     * Read the next byte
+     *
+     * @return The byte, or -1 at the end of the file
+     * @throws IOException
+     *             If the file could not be read
+     */
+    public int read() throws IOException {
+        if (!fBuffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return fBuffer.get() & 0xff;
+    }
+
+    /**
+     * Read the next line, until the next '\n'. A '\r' before it is removed.
+     * The bytes are interpreted as UTF-8 characters.
+     * <p>
+     * The line is a view that is overwritten by the next line read, it must
+     * be detached or copied to be kept.
+     *
+     * @return The line, or null at the end of the file
+     * @throws IOException
+     *             If the file could not be read
+     */
+    public @Nullable CharSequence readLine() throws IOException {
+        /* The offset of the first byte not scanned, from the line start */
+        int scanned = 0;
+        while (true) {
+            int start = fBuffer.position();
+            int limit = fBuffer.limit();
+            for (int i = start + scanned; i < limit; i++) {
+                if (fBuffer.get(i) == '\n') {
+                    decode(start, i);
+                    fBuffer.position(i + 1);
+                    return fLine;
+                }
+            }
+            scanned = limit - start;
+            if (!fill()) {
+                if (!fBuffer.hasRemaining()) {
+                    return null;
+                }
+                decode(fBuffer.position(), fBuffer.limit());
+                fBuffer.position(fBuffer.limit());
+                return fLine;
+            }
+        }
+    }
+
+    /**
+     * Detach the last line read from the reader, so that it is not
+     * overwritten by the next lines. The line is copied once in a string,
+     * that is then returned by its {@link CharSequence#toString()} method, and
+     * the objects that use the line, like a matcher, can still use it
+     * afterwards.
+     *
+     * @return The last line read
+     */
+    public CharSequence detachLine() {
+        LineView line = fLine;
+        line.fString = line.toString();
+        line.fChars = EMPTY_LINE;
+        fLine = new LineView(fChars);
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fChannel.close();
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Move the bytes not read to the start of the buffer and read the next
+     * bytes after them. The buffer grows if it is full.
+     *
+     * @return false if there are no more bytes in the file
+     */
+    private boolean fill() throws IOException {
+        fBufferStart += fBuffer.position();
+        fBuffer.compact();
+        if (!fBuffer.hasRemaining()) {
+            /* The line does not fit in the buffer */
+            ByteBuffer buffer = ByteBuffer.allocateDirect(fBuffer.capacity() * 2);
+            fBuffer.flip();
+            buffer.put(fBuffer);
+            fBuffer = buffer;
+        }
+        int read = fChannel.read(fBuffer, fBufferStart + fBuffer.position());
+        fBuffer.flip();
+        return read > 0;
+    }
+
+    /**
+     * Decode the bytes of a line in the line characters
+     */
+    private void decode(int start, int end) {
+        int last = end;
+        if (last > start && fBuffer.get(last - 1) == '\r') {
+            last--;
+        }
+        int length = last - start;
+        if (fChars.length < length) {
+            /* UTF-8 never has more characters than bytes */
+            fChars = new char[Math.max(length, 2 * fChars.length)];
+            fCharBuffer = CharBuffer.wrap(fChars);
+        }
+        int i = 0;
+        while (i < length) {
+            byte b = fBuffer.get(start + i);
+            if (b < 0) {
+                break;
+            }
+            fChars[i++] = (char) b;
+        }
+        if (i < length) {
+            /* Not only ASCII, decode the rest of the line */
+            int position = fBuffer.position();
+            int limit = fBuffer.limit();
+            fBuffer.limit(last);
+            fBuffer.position(start + i);
+            fCharBuffer.clear();
+            fCharBuffer.position(i);
+            fDecoder.reset();
+            fDecoder.decode(fBuffer, fCharBuffer, true);
+            fDecoder.flush(fCharBuffer);
+            i = fCharBuffer.position();
+            fBuffer.limit(limit);
+            fBuffer.position(position);
+        }
+        fLine.fChars = fChars;
+        fLine.fLength = i;
+    }
+
+    /**
+     * A line, as a view over an array of characters, or over its string once
+     * detached
+     */
+    private static final class LineView implements CharSequence {
+        private char[] fChars;
+        private int fLength = 0;
+        private @Nullable String fString = null;
+
+        LineView(char[] chars) {
+            fChars = chars;
+        }
+
+        @Override
+        public int length() {
+            return fLength;
+        }
+
+        @Override
+        public char charAt(int index) {
+            String string = fString;
+            if (string != null) {
+                return string.charAt(index);
+            }
+            if (index < 0 || index >= fLength) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return fChars[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            String string = fString;
+            if (string != null) {
+                return string.substring(start, end);
+            }
+            if (start < 0 || start > end || end > fLength) {
+                throw new IndexOutOfBoundsException();
+            }
+            return new String(fChars, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            String string = fString;
+            if (string != null) {
+                return string;
+            }
+            return new String(fChars, 0, fLength);
+        }
+    }
+}
@@ -21,10 +21,14 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.BiPredicate;
 import java.util.regex.Matcher;
 
 import org.eclipse.core.resources.IProject;
@@ -32,6 +36,7 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.tmf.core.Activator;
 import org.eclipse.tracecompass.internal.tmf.core.parsers.custom.CustomEventAspects;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
@@ -39,6 +44,7 @@ import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
 import org.eclipse.tracecompass.tmf.core.event.aspect.ITmfEventAspect;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
 import org.eclipse.tracecompass.tmf.core.io.BufferedRandomAccessFile;
+import org.eclipse.tracecompass.tmf.core.io.FileLineReader;
 import org.eclipse.tracecompass.tmf.core.parsers.custom.CustomTxtTraceDefinition.InputLine;
 import org.eclipse.tracecompass.tmf.core.signal.TmfSignalHandler;
 import org.eclipse.tracecompass.tmf.core.signal.TmfTraceRangeUpdatedSignal;
@@ -49,6 +55,7 @@ import org.eclipse.tracecompass.tmf.core.trace.TmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 import org.eclipse.tracecompass.tmf.core.trace.TraceValidationStatus;
+import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfParallelIndexable;
 import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfPersistentlyIndexable;
 import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfTraceIndexer;
 import org.eclipse.tracecompass.tmf.core.trace.indexer.TmfBTreeTraceIndexer;
@@ -59,10 +66,22 @@ import org.eclipse.tracecompass.tmf.core.trace.location.TmfLongLocation;
 
 /**
  * Base class for custom plain text traces.
+ * <p>
+ * The checkpoint index of the trace is built by parsing segments of the file
+ * in parallel, each segment with its own file and matchers. Other reads of
+ * the trace, such as the event requests of the analyses, are sequential. The
+ * events are built from the trace definition only, so the parsing is safe to
+ * run on several threads. A subclass overriding {@link #parseFirstLine} with
+ * a parsing that is not must override {@link #isParallelIndexable()} to
+ * return false.
+ * <p>
+ * The lines are matched as they are read from the file, without copying them,
+ * and the matchers are reused from one line to the next. Only the first line
+ * of each event is copied, since the context keeps it with its matcher.
  *
  * @author Patrick Tassé
  */
-public class CustomTxtTrace extends TmfTrace implements ITmfPersistentlyIndexable {
+public class CustomTxtTrace extends TmfTrace implements ITmfPersistentlyIndexable, ITmfParallelIndexable {
 
     private static final TmfLongLocation NULL_LOCATION = new TmfLongLocation(-1L);
     private static final int DEFAULT_CACHE_SIZE = 100;
@@ -71,7 +90,9 @@ public class CustomTxtTrace extends TmfTrace implements ITmfPersistentlyIndexabl
 
     private final CustomTxtTraceDefinition fDefinition;
     private final ITmfEventField fRootField;
-    private BufferedRandomAccessFile fFile;
+    private FileLineReader fFile;
+    /* The matchers of the input lines used with fFile */
+    private final Map<InputLine, Matcher> fMatchers = new IdentityHashMap<>();
     private final @NonNull String fTraceTypeId;
 
     private static final char SEPARATOR = ':';
@@ -123,7 +144,7 @@ public class CustomTxtTrace extends TmfTrace implements ITmfPersistentlyIndexabl
     private void initFile() throws TmfTraceException {
         closeFile();
         try {
-            fFile = new BufferedRandomAccessFile(getPath(), "r"); //$NON-NLS-1$
+            fFile = new FileLineReader(getPath());
         } catch (IOException e) {
             throw new TmfTraceException(e.getMessage(), e);
         }
@@ -158,32 +179,38 @@ public class CustomTxtTrace extends TmfTrace implements ITmfPersistentlyIndexabl
 
     @Override
     public synchronized TmfContext seekEvent(final ITmfLocation location) {
+        if (fFile == null) {
+            return new CustomTxtTraceContext(NULL_LOCATION, ITmfContext.UNKNOWN_RANK);
+        }
+        return seek(fFile, fMatchers, location);
+    }
+
+    /**
+     * Seek the first event at or after a location, reading the given file
+     */
+    private CustomTxtTraceContext seek(final FileLineReader file, final Map<InputLine, Matcher> matchers, final ITmfLocation location) {
         final CustomTxtTraceContext context = new CustomTxtTraceContext(NULL_LOCATION, ITmfContext.UNKNOWN_RANK);
-        if (NULL_LOCATION.equals(location) || fFile == null) {
+        if (NULL_LOCATION.equals(location)) {
             return context;
         }
         try {
             if (location == null) {
-                fFile.seek(0);
+                file.seek(0);
             } else if (location.getLocationInfo() instanceof Long) {
-                fFile.seek((Long) location.getLocationInfo());
+                file.seek((Long) location.getLocationInfo());
             }
-            long rawPos = fFile.getFilePointer();
-            String line = fFile.getNextLine();
+            long rawPos = file.getFilePointer();
+            CharSequence line = file.readLine();
             while (line != null) {
                 for (final InputLine input : getFirstLines()) {
-                    final Matcher matcher = input.getPattern().matcher(line);
+                    final Matcher matcher = match(matchers, input, line);
                     if (matcher.matches()) {
-                        context.setLocation(new TmfLongLocation(rawPos));
-                        context.firstLineMatcher = matcher;
-                        context.firstLine = line;
-                        context.nextLineLocation = fFile.getFilePointer();
-                        context.inputLine = input;
+                        setupContext(context, file, matchers, rawPos, input, matcher);
                         return context;
                     }
                 }
-                rawPos = fFile.getFilePointer();
-                line = fFile.getNextLine();
+                rawPos = file.getFilePointer();
+                line = file.readLine();
             }
             return context;
         } catch (final FileNotFoundException e) {
@@ -262,6 +289,13 @@ public class CustomTxtTrace extends TmfTrace implements ITmfPersistentlyIndexabl
         if (fFile == null) {
             return null;
         }
+        return parse(tmfContext, fFile, fMatchers);
+    }
+
+    /**
+     * Parse the next event, reading the given file. The context is advanced.
+     */
+    private CustomTxtEvent parse(final ITmfContext tmfContext, final FileLineReader file, final Map<InputLine, Matcher> matchers) {
         if (!(tmfContext instanceof CustomTxtTraceContext)) {
             return null;
         }
@@ -282,22 +316,18 @@ public class CustomTxtTrace extends TmfTrace implements ITmfPersistentlyIndexabl
         }
 
         try {
-            if (fFile.getFilePointer() != context.nextLineLocation) {
-                fFile.seek(context.nextLineLocation);
+            if (file.getFilePointer() != context.nextLineLocation) {
+                file.seek(context.nextLineLocation);
             }
-            long rawPos = fFile.getFilePointer();
-            String line = fFile.getNextLine();
+            long rawPos = file.getFilePointer();
+            CharSequence line = file.readLine();
             while (line != null) {
                 boolean processed = false;
                 if (currentInput == null) {
                     for (final InputLine input : getFirstLines()) {
-                        final Matcher matcher = input.getPattern().matcher(line);
+                        final Matcher matcher = match(matchers, input, line);
                         if (matcher.matches()) {
-                            context.setLocation(new TmfLongLocation(rawPos));
-                            context.firstLineMatcher = matcher;
-                            context.firstLine = line;
-                            context.nextLineLocation = fFile.getFilePointer();
-                            context.inputLine = input;
+                            setupContext(context, file, matchers, rawPos, input, matcher);
                             return event;
                         }
                     }
@@ -306,19 +336,15 @@ public class CustomTxtTrace extends TmfTrace implements ITmfPersistentlyIndexabl
                         final List<InputLine> nextInputs = currentInput.getNextInputs(countMap);
                         if (nextInputs.isEmpty() || nextInputs.get(nextInputs.size() - 1).getMinCount() == 0) {
                             for (final InputLine input : getFirstLines()) {
-                                final Matcher matcher = input.getPattern().matcher(line);
+                                final Matcher matcher = match(matchers, input, line);
                                 if (matcher.matches()) {
-                                    context.setLocation(new TmfLongLocation(rawPos));
-                                    context.firstLineMatcher = matcher;
-                                    context.firstLine = line;
-                                    context.nextLineLocation = fFile.getFilePointer();
-                                    context.inputLine = input;
+                                    setupContext(context, file, matchers, rawPos, input, matcher);
                                     return event;
                                 }
                             }
                         }
                         for (final InputLine input : nextInputs) {
-                            final Matcher matcher = input.getPattern().matcher(line);
+                            final Matcher matcher = match(matchers, input, line);
                             if (matcher.matches()) {
                                 event.processGroups(input, matcher);
                                 currentInput = input;
@@ -360,7 +386,7 @@ public class CustomTxtTrace extends TmfTrace implements ITmfPersistentlyIndexabl
                         }
                     }
                     if (!processed && currentInput != null) {
-                        final Matcher matcher = currentInput.getPattern().matcher(line);
+                        final Matcher matcher = match(matchers, currentInput, line);
                         if (matcher.matches()) {
                             event.processGroups(currentInput, matcher);
                             countMap.put(currentInput, checkNotNull(countMap.get(currentInput)) + 1);
@@ -388,8 +414,8 @@ public class CustomTxtTrace extends TmfTrace implements ITmfPersistentlyIndexabl
                         ((StringBuffer) event.getContentValue()).append("\n").append(line); //$NON-NLS-1$
                     }
                 }
-                rawPos = fFile.getFilePointer();
-                line = fFile.getNextLine();
+                rawPos = file.getFilePointer();
+                line = file.readLine();
             }
         } catch (final IOException e) {
             Activator.logError("Error seeking event. File: " + getPath(), e); //$NON-NLS-1$
@@ -403,6 +429,110 @@ public class CustomTxtTrace extends TmfTrace implements ITmfPersistentlyIndexabl
         return event;
     }
 
+    /**
+     * Split the file in segments of about the same size. Each segment starts
+     * at the first line of its first event, so that no event is in two
+     * segments.
+     */
+    @Override
+    public List<ITmfLocation> getSegmentLocations(int nbSegments) {
+        List<ITmfLocation> locations = new ArrayList<>();
+        String path = getPath();
+        if (path == null) {
+            return locations;
+        }
+        try (FileLineReader file = new FileLineReader(path)) {
+            Map<InputLine, Matcher> matchers = new IdentityHashMap<>();
+            long length = file.length();
+            long previous = -1;
+            for (int i = 0; i < nbSegments; i++) {
+                long pos = getNextLineStart(file, length * i / nbSegments);
+                ITmfLocation location = seek(file, matchers, new TmfLongLocation(pos)).getLocation();
+                if (!NULL_LOCATION.equals(location) && location != null && (Long) location.getLocationInfo() > previous) {
+                    locations.add(location);
+                    previous = (Long) location.getLocationInfo();
+                }
+            }
+        } catch (IOException e) {
+            Activator.logError("Error reading file: " + path, e); //$NON-NLS-1$
+            locations.clear();
+        }
+        return locations;
+    }
+
+    /**
+     * Read a segment with its own file, without locking the trace. The
+     * matchers are created by the reading thread, so segments can be parsed at
+     * the same time.
+     */
+    @Override
+    public void readSegment(ITmfLocation start, @Nullable ITmfLocation end, BiPredicate<ITmfLocation, ITmfEvent> visitor) {
+        String path = getPath();
+        if (path == null) {
+            return;
+        }
+        long endPos = (end != null && end.getLocationInfo() instanceof Long) ? (Long) end.getLocationInfo() : Long.MAX_VALUE;
+        try (FileLineReader file = new FileLineReader(path)) {
+            Map<InputLine, Matcher> matchers = new IdentityHashMap<>();
+            CustomTxtTraceContext context = seek(file, matchers, start);
+            while (true) {
+                ITmfLocation location = context.getLocation();
+                if (location == null || NULL_LOCATION.equals(location) || (Long) location.getLocationInfo() >= endPos) {
+                    return;
+                }
+                CustomTxtEvent event = parse(context, file, matchers);
+                if (event == null || !visitor.test(location, event)) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            Activator.logError("Error reading file: " + path, e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Get the position of the first line starting at or after a position
+     */
+    private static long getNextLineStart(FileLineReader file, long pos) throws IOException {
+        if (pos <= 0) {
+            return 0;
+        }
+        /* Skip the end of the line containing the previous character */
+        file.seek(pos - 1);
+        file.readLine();
+        return file.getFilePointer();
+    }
+
+    /**
+     * Reset the matcher of an input line with a line. The line is only a view
+     * of the line read, it is not copied.
+     */
+    private static Matcher match(final Map<InputLine, Matcher> matchers, final InputLine input, final CharSequence line) {
+        Matcher matcher = matchers.get(input);
+        if (matcher == null) {
+            matcher = input.getPattern().matcher(line);
+            matchers.put(input, matcher);
+        } else {
+            matcher.reset(line);
+        }
+        return matcher;
+    }
+
+    /**
+     * Set the context at the first line of an event. The context keeps the
+     * matcher and its line until the event is parsed, so the line is detached
+     * from the reader and the matcher is no longer reused.
+     */
+    private static void setupContext(final CustomTxtTraceContext context, final FileLineReader file, final Map<InputLine, Matcher> matchers,
+            final long rawPos, final InputLine input, final Matcher matcher) {
+        matchers.remove(input);
+        context.setLocation(new TmfLongLocation(rawPos));
+        context.firstLineMatcher = matcher;
+        context.firstLine = file.detachLine().toString();
+        context.nextLineLocation = file.getFilePointer();
+        context.inputLine = input;
+    }
+
     /**
      * @return The first few lines of the text file
      */
@@ -15,6 +15,8 @@
 
 package org.eclipse.tracecompass.tmf.core.request;
 
+import java.util.Set;
+
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
@@ -116,6 +118,20 @@ public interface ITmfEventRequest {
      */
     void setProviderFilter(ITmfFilter filter);
 
+    /**
+     * Gets the names of the event types this request is interested in. This
+     * is a hint to the event provider, which may skip reading the events of
+     * other types, but the request must still expect to receive them. When
+     * events are skipped, the ranks of the events read are unknown.
+     *
+     * @return the event type names, or null if all the event types are
+     *         needed
+     * @since 10.2
+     */
+    default @Nullable Set<String> getEventTypes() {
+        return null;
+    }
+
     // ------------------------------------------------------------------------
     // Request state predicates
     // ------------------------------------------------------------------------
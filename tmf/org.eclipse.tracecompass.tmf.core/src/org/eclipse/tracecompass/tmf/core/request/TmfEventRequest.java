@@ -15,6 +15,8 @@
 
 package org.eclipse.tracecompass.tmf.core.request;
 
+import java.util.Collection;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 
 import org.eclipse.jdt.annotation.Nullable;
@@ -23,6 +25,8 @@ import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.filter.ITmfFilter;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 
+import com.google.common.collect.ImmutableSet;
+
 /**
  * TmfEventRequest's are used to obtain series of events from an event provider.
  * Open ranges can be used, especially for continuous streaming.
@@ -104,6 +108,8 @@ public abstract class TmfEventRequest implements ITmfEventRequest {
 
     private ITmfFilter fEventFilter;
 
+    private @Nullable Set<String> fEventTypes;
+
     private int fDependencyLevel;
 
     private @Nullable Throwable fFailureCause;
@@ -290,6 +296,28 @@ public abstract class TmfEventRequest implements ITmfEventRequest {
         fEventFilter = provider;
     }
 
+    /**
+     * @since 10.2
+     */
+    @Override
+    public @Nullable Set<String> getEventTypes() {
+        return fEventTypes;
+    }
+
+    /**
+     * Sets the names of the event types this request is interested in, see
+     * {@link #getEventTypes()}. This must be called before the request is
+     * sent.
+     *
+     * @param eventTypes
+     *            the event type names, or null if all the event types are
+     *            needed
+     * @since 10.2
+     */
+    public void setEventTypes(@Nullable Collection<String> eventTypes) {
+        fEventTypes = eventTypes == null ? null : ImmutableSet.copyOf(eventTypes);
+    }
+
     /** @since 2.0 */
     @Override
     public int getDependencyLevel() {
@@ -15,6 +15,8 @@
 
 package org.eclipse.tracecompass.tmf.core.signal;
 
+import java.util.Arrays;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
@@ -111,6 +113,14 @@ public class TmfSelectionRangeUpdatedSignal extends TmfSignal {
         return fTrace;
     }
 
+    /*
+     * A newer signal of the same type for the same trace supersedes this one
+     */
+    @Override
+    public Object getCoalescingKey() {
+        return Arrays.asList(getClass(), fTrace);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -14,6 +14,8 @@
 
 package org.eclipse.tracecompass.tmf.core.signal;
 
+import org.eclipse.jdt.annotation.Nullable;
+
 /**
  * Base class for TMF signals
  *
@@ -72,4 +74,19 @@ public abstract class TmfSignal {
         return fReference;
     }
 
+    /**
+     * Get the key of the signals superseded by this signal. When signals are
+     * delivered asynchronously, a signal that is not delivered yet is skipped
+     * if a newer signal with the same key was sent since. This is meant for
+     * signals sent at a high rate where only the last one matters, for
+     * instance when a selection is dragged.
+     *
+     * @return the key, or null if this signal does not supersede other
+     *         signals, the default
+     * @since 10.2
+     */
+    public @Nullable Object getCoalescingKey() {
+        return null;
+    }
+
 }
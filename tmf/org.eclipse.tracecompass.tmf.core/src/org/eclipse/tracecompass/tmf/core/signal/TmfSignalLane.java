@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.signal;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.TmfDaemonThreadFactory;
+
+/**
+ * A delivery lane of a signal listener registered with
+ * {@link TmfSignalManager#registerAsync(Object)}.
+ * <p>
+ * The deliveries of a lane run one after the other, in the order they were
+ * posted, on a pool of threads shared by all the lanes. A delivery with a
+ * coalescing key is skipped if a newer delivery with the same key was posted
+ * before it runs.
+ */
+final class TmfSignalLane {
+
+    /** Maximum number of deliveries run before letting the other lanes run */
+    private static final int BATCH_SIZE = 64;
+
+    private static final int NB_LANE_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final ThreadPoolExecutor LANES = new ThreadPoolExecutor(NB_LANE_THREADS, NB_LANE_THREADS,
+            30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new TmfDaemonThreadFactory("TmfSignalLane")); //$NON-NLS-1$
+
+    static {
+        LANES.allowCoreThreadTimeOut(true);
+    }
+
+    private final Queue<Delivery> fQueue = new ConcurrentLinkedQueue<>();
+    private final Map<Object, Delivery> fLatest = new ConcurrentHashMap<>();
+    private final AtomicBoolean fScheduled = new AtomicBoolean();
+
+    /**
+     * Post a delivery in this lane
+     *
+     * @param task
+     *            the delivery
+     * @param coalescingKey
+     *            the key of the deliveries superseded by this one, or null
+     */
+    void post(Runnable task, @Nullable Object coalescingKey) {
+        Delivery delivery = new Delivery(task, coalescingKey);
+        if (coalescingKey != null) {
+            fLatest.put(coalescingKey, delivery);
+        }
+        fQueue.add(delivery);
+        schedule();
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper methods
+    // ------------------------------------------------------------------------
+
+    private void schedule() {
+        if (fScheduled.compareAndSet(false, true)) {
+            LANES.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Delivery delivery = fQueue.poll();
+                if (delivery == null) {
+                    break;
+                }
+                Object key = delivery.fKey;
+                if (key == null || fLatest.remove(key, delivery)) {
+                    delivery.fTask.run();
+                }
+            }
+        } finally {
+            fScheduled.set(false);
+        }
+        /* Deliveries may have been posted while the flag was still set */
+        if (!fQueue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private static final class Delivery {
+        private final Runnable fTask;
+        private final @Nullable Object fKey;
+
+        Delivery(Runnable task, @Nullable Object key) {
+            fTask = task;
+            fKey = key;
+        }
+    }
+}
@@ -15,29 +15,43 @@
 
 package org.eclipse.tracecompass.tmf.core.signal;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.tmf.core.Activator;
 import org.eclipse.tracecompass.internal.tmf.core.TmfCoreTracer;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.SetMultimap;
 
 /**
  * This class manages the set of signal listeners and the signals they are
  * interested in. When a signal is broadcasted, the appropriate listeners signal
  * handlers are invoked.
  *
+ * The handlers of each signal type are looked up once and kept in a dispatch
+ * table, rebuilt when the listeners change, and they are called through
+ * method handles rather than reflection. Listeners that are slow to handle
+ * signals can be registered with {@link #registerAsync(Object)} so they
+ * receive them in their own delivery lane.
+ *
  * @version 1.0
  * @author Francois Chouinard
  */
@@ -47,17 +61,34 @@ public class TmfSignalManager {
     // Note: listeners could be restricted to ITmfComponents but there is no
     // harm in letting anyone use this since it is not tied to anything but
     // the signal data type.
-    private static Map<Object, Method[]> fListeners = new HashMap<>();
-    private static Map<Object, Method[]> fVIPListeners = new HashMap<>();
+    private static Map<Object, Registration> fListeners = new LinkedHashMap<>();
+    private static Map<Object, Registration> fVIPListeners = new LinkedHashMap<>();
     private static Map<Object, Throwable> fContexts = new HashMap<>();
 
     /** The outbound blacklist of pair <source, signal> */
     private static Multimap<@NonNull Object, @NonNull Class<? extends TmfSignal>> fOutboundSignalBlacklist = HashMultimap.create();
     /** The inbound blacklist of pair <listener, signal> */
     private static Multimap<@NonNull Object, @NonNull Class<? extends TmfSignal>> fInboundSignalBlacklist = HashMultimap.create();
+    /** Copy of the outbound blacklist read by the dispatch */
+    private static volatile SetMultimap<@NonNull Object, @NonNull Class<? extends TmfSignal>> fOutboundSnapshot = ImmutableSetMultimap.of();
+
+    /**
+     * The handlers of each signal class, in calling order. A table is built
+     * when a signal of its class is first dispatched, and the map is replaced
+     * whenever the listeners or the inbound blacklist change, so dispatching
+     * does not lock the listeners.
+     */
+    private static volatile Map<Class<?>, Handler[]> fDispatchTables = new ConcurrentHashMap<>();
+
+    /** Lock making the synchronous dispatches run one after the other */
+    private static final Object fDispatchLock = new Object();
+
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, TmfSignal.class);
 
     // The signal executor for asynchronous signals
     private static final ExecutorService fExecutor = Executors.newSingleThreadExecutor();
+    // The last asynchronous signal of each coalescing key
+    private static final Map<Object, TmfSignal> fLatestAsyncSignals = new ConcurrentHashMap<>();
 
     // If requested, add universal signal tracer
     // TODO: Temporary solution: should be enabled/disabled dynamically
@@ -67,7 +98,8 @@ public class TmfSignalManager {
     static {
         if (fTraceIsActive) {
             fSignalTracer = TmfSignalTracer.getInstance();
-            register(fSignalTracer);
+            // Printing every signal must not slow down their dispatch
+            registerAsync(fSignalTracer);
         }
     }
 
@@ -81,10 +113,32 @@ public class TmfSignalManager {
      */
     public static synchronized void register(Object listener) {
         deregister(listener); // make sure that listener is only registered once
-        Method[] methods = getSignalHandlerMethods(listener);
-        if (methods.length > 0) {
+        Registration registration = createRegistration(listener, null);
+        if (registration != null) {
+            fContexts.put(listener, new Throwable());
+            fListeners.put(listener, registration);
+        }
+    }
+
+    /**
+     * Register an object to the signal manager, to be notified in its own
+     * delivery lane. The handler methods are called in another thread, after
+     * the dispatch of the signal returns, so a slow listener does not delay
+     * the broadcaster nor the other listeners. The signals are received in
+     * the order they were dispatched, but a signal that supersedes older ones
+     * (see {@link TmfSignal#getCoalescingKey()}) can make the listener skip
+     * the older signals it did not receive yet.
+     *
+     * @param listener
+     *            The object that will be notified of new signals
+     * @since 10.2
+     */
+    public static synchronized void registerAsync(Object listener) {
+        deregister(listener); // make sure that listener is only registered once
+        Registration registration = createRegistration(listener, new TmfSignalLane());
+        if (registration != null) {
             fContexts.put(listener, new Throwable());
-            fListeners.put(listener, methods);
+            fListeners.put(listener, registration);
         }
     }
 
@@ -101,6 +155,7 @@ public class TmfSignalManager {
     @NonNullByDefault
     public static synchronized void addIgnoredOutboundSignal(Object source, Class<? extends TmfSignal> signal) {
         fOutboundSignalBlacklist.put(source, signal);
+        outboundBlacklistChanged();
     }
 
     /**
@@ -116,6 +171,7 @@ public class TmfSignalManager {
     @NonNullByDefault
     public static synchronized void addIgnoredInboundSignal(Object listener, Class<? extends TmfSignal> signal) {
         fInboundSignalBlacklist.put(listener, signal);
+        listenersChanged();
     }
 
     /**
@@ -130,6 +186,7 @@ public class TmfSignalManager {
      */
     public static synchronized void removeIgnoredOutboundSignal(Object source, Class<? extends TmfSignal> signal) {
         fOutboundSignalBlacklist.remove(source, signal);
+        outboundBlacklistChanged();
     }
 
     /**
@@ -144,6 +201,7 @@ public class TmfSignalManager {
      */
     public static synchronized void removeIgnoredInboundSignal(Object listener, Class<? extends TmfSignal> signal) {
         fInboundSignalBlacklist.remove(listener, signal);
+        listenersChanged();
     }
 
 
@@ -156,6 +214,7 @@ public class TmfSignalManager {
      */
     public static synchronized void clearIgnoredOutboundSignalList(Object source) {
         fOutboundSignalBlacklist.removeAll(source);
+        outboundBlacklistChanged();
     }
 
     /**
@@ -167,6 +226,7 @@ public class TmfSignalManager {
      */
     public static synchronized void clearIgnoredInboundSignalList(Object listener) {
         fInboundSignalBlacklist.removeAll(listener);
+        listenersChanged();
     }
 
     /**
@@ -179,10 +239,10 @@ public class TmfSignalManager {
      */
     public static synchronized void registerVIP(Object listener) {
         deregister(listener); // make sure that listener is only registered once
-        Method[] methods = getSignalHandlerMethods(listener);
-        if (methods.length > 0) {
+        Registration registration = createRegistration(listener, null);
+        if (registration != null) {
             fContexts.put(listener, new Throwable());
-            fVIPListeners.put(listener, methods);
+            fVIPListeners.put(listener, registration);
         }
     }
 
@@ -194,41 +254,123 @@ public class TmfSignalManager {
      *            The object to de-register
      */
     public static synchronized void deregister(Object listener) {
-        fVIPListeners.remove(listener);
-        fListeners.remove(listener);
+        Registration registration = fVIPListeners.remove(listener);
+        if (registration == null) {
+            registration = fListeners.remove(listener);
+        }
+        if (registration != null) {
+            /* A dispatch using an older table must not call it anymore */
+            registration.fActive = false;
+        }
         fContexts.remove(listener);
         fInboundSignalBlacklist.removeAll(listener);
         fOutboundSignalBlacklist.removeAll(listener);
+        listenersChanged();
+        outboundBlacklistChanged();
     }
 
     /**
-     * Returns the list of signal handlers in the listener. Signal handler name
-     * is irrelevant; only the annotation (@TmfSignalHandler) is important.
+     * Returns the registration of the signal handlers in the listener. Signal
+     * handler name is irrelevant; only the annotation (@TmfSignalHandler) is
+     * important.
      *
      * @param listener
-     * @return
+     * @param lane
+     *            The delivery lane of the listener, or null if it is notified
+     *            by the dispatching thread
+     * @return the registration, or null if the listener has no handler
      */
-    private static Method[] getSignalHandlerMethods(Object listener) {
-        List<Method> handlers = new ArrayList<>();
+    private static @Nullable Registration createRegistration(Object listener, @Nullable TmfSignalLane lane) {
+        Registration registration = new Registration(listener, lane);
+        List<Handler> handlers = new ArrayList<>();
         Method[] methods = listener.getClass().getMethods();
         for (Method method : methods) {
-            if (method.isAnnotationPresent(TmfSignalHandler.class)) {
-                handlers.add(method);
+            if (method.isAnnotationPresent(TmfSignalHandler.class) && method.getParameterCount() == 1) {
+                handlers.add(new Handler(registration, method, createMethodHandle(listener, method)));
+            }
+        }
+        if (handlers.isEmpty()) {
+            return null;
+        }
+        registration.fHandlers = handlers.toArray(new Handler[handlers.size()]);
+        return registration;
+    }
+
+    /**
+     * Get a method handle calling a handler method on the listener, taking a
+     * TmfSignal parameter.
+     *
+     * @return the method handle, or null if the method can only be called by
+     *         reflection
+     */
+    private static @Nullable MethodHandle createMethodHandle(Object listener, Method method) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method).bindTo(listener).asType(HANDLER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void listenersChanged() {
+        fDispatchTables = new ConcurrentHashMap<>();
+    }
+
+    private static void outboundBlacklistChanged() {
+        fOutboundSnapshot = ImmutableSetMultimap.copyOf(fOutboundSignalBlacklist);
+    }
+
+    /**
+     * Get the handlers of a signal class, VIP listeners first
+     */
+    private static Handler[] getHandlers(Class<?> signalClass) {
+        Handler[] handlers = fDispatchTables.get(signalClass);
+        return handlers != null ? handlers : buildHandlers(signalClass);
+    }
+
+    private static synchronized Handler[] buildHandlers(Class<?> signalClass) {
+        /* The table is built from the listeners of the current map */
+        return fDispatchTables.computeIfAbsent(signalClass, clazz -> {
+            List<Handler> handlers = new ArrayList<>();
+            addHandlers(fVIPListeners, clazz, handlers);
+            addHandlers(fListeners, clazz, handlers);
+            return handlers.toArray(new Handler[handlers.size()]);
+        });
+    }
+
+    private static void addHandlers(Map<Object, Registration> listeners, Class<?> signalClass, List<Handler> handlers) {
+        for (Map.Entry<Object, Registration> entry : listeners.entrySet()) {
+            for (Handler handler : entry.getValue().fHandlers) {
+                Class<?> classParam = handler.fParameterType;
+                if (classParam.isAssignableFrom(signalClass)) {
+                    /* Check if any of the ignore rule apply to the signal */
+                    boolean isBlackListed = false;
+                    for (Class<? extends TmfSignal> signalClazz : fInboundSignalBlacklist.get(entry.getKey())) {
+                        if (signalClazz.isAssignableFrom(classParam)) {
+                            isBlackListed = true;
+                            break;
+                        }
+                    }
+
+                    /* No rules apply, add it */
+                    if (!isBlackListed) {
+                        handlers.add(handler);
+                    }
+                }
             }
         }
-        return handlers.toArray(new Method[handlers.size()]);
     }
 
     static int fSignalId = 0;
 
     /**
      * Invokes the handling methods that listens to signals of a given type in
-     * the current thread.
+     * the current thread, or in their delivery lane for the listeners
+     * registered with {@link #registerAsync(Object)}.
      *
-     * The list of handlers is built on-the-fly to allow for the dynamic
-     * creation/deletion of signal handlers. Since the number of signal handlers
-     * shouldn't be too high, this is not a big performance issue to pay for the
-     * flexibility.
+     * The handlers of a signal type are taken from a table that is rebuilt
+     * when the listeners change, to allow for the dynamic creation/deletion of
+     * signal handlers. The dispatches of different threads run one after the
+     * other, but they do not prevent the registration of listeners.
      *
      * For synchronization purposes, the signal is bracketed by two synch
      * signals.
@@ -236,23 +378,25 @@ public class TmfSignalManager {
      * @param signal
      *            the signal to dispatch
      */
-    public static synchronized void dispatchSignal(TmfSignal signal) {
+    public static void dispatchSignal(TmfSignal signal) {
 
         /* Check if the source,signal tuple is blacklisted */
         Object source = signal.getSource();
         if (source != null) {
-            for (Class<? extends TmfSignal> signalClass : fOutboundSignalBlacklist.get(source)) {
+            for (Class<? extends TmfSignal> signalClass : fOutboundSnapshot.get(source)) {
                 if (signalClass.isAssignableFrom(signal.getClass())) {
                     return;
                 }
             }
         }
 
-        int signalId = fSignalId++;
-        sendSignal(new TmfStartSynchSignal(signalId));
-        signal.setReference(signalId);
-        sendSignal(signal);
-        sendSignal(new TmfEndSynchSignal(signalId));
+        synchronized (fDispatchLock) {
+            int signalId = fSignalId++;
+            sendSignal(new TmfStartSynchSignal(signalId));
+            signal.setReference(signalId);
+            sendSignal(signal);
+            sendSignal(new TmfEndSynchSignal(signalId));
+        }
     }
 
     /**
@@ -261,14 +405,24 @@ public class TmfSignalManager {
      * {@link TmfSignalManager#dispatchSignal(TmfSignal)}.
      *
      * If a signal is already processed the signal will be queued and dispatched
-     * after the ongoing signal finishes.
+     * after the ongoing signal finishes. A queued signal is not dispatched if a
+     * newer signal with the same coalescing key (see
+     * {@link TmfSignal#getCoalescingKey()}) was queued since.
      *
      * @param signal
      *            the signal to dispatch
      */
     public static void dispatchSignalAsync(final TmfSignal signal) {
         if (!fExecutor.isShutdown()) {
-            fExecutor.execute(() -> dispatchSignal(signal));
+            Object key = signal.getCoalescingKey();
+            if (key != null) {
+                fLatestAsyncSignals.put(key, signal);
+            }
+            fExecutor.execute(() -> {
+                if (key == null || fLatestAsyncSignals.remove(key, signal)) {
+                    dispatchSignal(signal);
+                }
+            });
         }
     }
 
@@ -291,71 +445,83 @@ public class TmfSignalManager {
     }
 
     private static void sendSignal(TmfSignal signal) {
-        sendSignal(fVIPListeners, signal);
-        sendSignal(fListeners, signal);
-    }
-
-    private static void sendSignal(Map<Object, Method[]> listeners, TmfSignal signal) {
 
         if (TmfCoreTracer.isSignalTraced()) {
             TmfCoreTracer.traceSignal(signal, "(start)"); //$NON-NLS-1$
         }
 
-        // Build the list of listener methods that are registered for this
-        // signal
-        Class<?> signalClass = signal.getClass();
+        // Call the signal handlers
+        for (Handler handler : getHandlers(signal.getClass())) {
+            TmfSignalLane lane = handler.fRegistration.fLane;
+            if (lane == null) {
+                handler.handle(signal);
+            } else {
+                Object key = signal.getCoalescingKey();
+                lane.post(() -> handler.handle(signal), key == null ? null : Arrays.asList(handler, key));
+            }
+        }
 
-        Map<Object, List<Method>> targets = new HashMap<>();
-        for (Map.Entry<Object, Method[]> entry : listeners.entrySet()) {
-            List<Method> matchingMethods = new ArrayList<>();
+        if (TmfCoreTracer.isSignalTraced()) {
+            TmfCoreTracer.traceSignal(signal, "(end)"); //$NON-NLS-1$
+        }
+    }
 
-            for (Method method : entry.getValue()) {
-                Class<?> classParam = method.getParameterTypes()[0];
-                if (classParam.isAssignableFrom(signalClass)) {
-                    /* Check if any of the ignore rule apply to the signal */
-                    boolean isBlackListed = false;
-                    for (Class<? extends TmfSignal> signalClazz : fInboundSignalBlacklist.get(entry.getKey())) {
-                        if (signalClazz.isAssignableFrom(classParam)) {
-                            isBlackListed = true;
-                            break;
-                        }
-                    }
+    /**
+     * A registered listener
+     */
+    private static final class Registration {
+        private final Object fListener;
+        private final @Nullable TmfSignalLane fLane;
+        private Handler[] fHandlers = new Handler[0];
+        private volatile boolean fActive = true;
+
+        Registration(Object listener, @Nullable TmfSignalLane lane) {
+            fListener = listener;
+            fLane = lane;
+        }
+    }
 
-                    /* No rules apply, add it */
-                    if (!isBlackListed) {
-                        matchingMethods.add(method);
-                    }
-                }
-            }
-            if (!matchingMethods.isEmpty()) {
-                targets.put(entry.getKey(), matchingMethods);
-            }
+    /**
+     * A signal handler method of a listener
+     */
+    private static final class Handler {
+        private final Registration fRegistration;
+        private final Method fMethod;
+        private final Class<?> fParameterType;
+        private final @Nullable MethodHandle fMethodHandle;
+
+        Handler(Registration registration, Method method, @Nullable MethodHandle methodHandle) {
+            fRegistration = registration;
+            fMethod = method;
+            fParameterType = method.getParameterTypes()[0];
+            fMethodHandle = methodHandle;
         }
 
-        // Call the signal handlers
-        for (Map.Entry<Object, List<Method>> entry : targets.entrySet()) {
-            for (Method method : entry.getValue()) {
-                try {
-                    method.invoke(entry.getKey(), signal);
-                    if (TmfCoreTracer.isSignalTraced()) {
-                        Object key = entry.getKey();
-                        String hash = String.format("%1$08X", entry.getKey().hashCode()); //$NON-NLS-1$
-                        String target = "[" + hash + "] " + key.getClass().getSimpleName() + ":" + method.getName(); //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$
-                        TmfCoreTracer.traceSignal(signal, target);
-                    }
-                } catch (IllegalArgumentException e) {
-                    Activator.logError("Exception handling signal " + signal + " in method " + method, e); //$NON-NLS-1$ //$NON-NLS-2$
-                } catch (IllegalAccessException e) {
-                    Activator.logError("Exception handling signal " + signal + " in method " + method, e); //$NON-NLS-1$ //$NON-NLS-2$
-                } catch (InvocationTargetException e) {
-                    Activator.logError("Exception handling signal " + signal + " in method " + method, e); //$NON-NLS-1$ //$NON-NLS-2$
+        void handle(TmfSignal signal) {
+            if (!fRegistration.fActive) {
+                return;
+            }
+            Object listener = fRegistration.fListener;
+            try {
+                MethodHandle methodHandle = fMethodHandle;
+                if (methodHandle != null) {
+                    methodHandle.invokeExact(signal);
+                } else {
+                    fMethod.invoke(listener, signal);
                 }
+                if (TmfCoreTracer.isSignalTraced()) {
+                    String hash = String.format("%1$08X", listener.hashCode()); //$NON-NLS-1$
+                    String target = "[" + hash + "] " + listener.getClass().getSimpleName() + ":" + fMethod.getName(); //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$
+                    TmfCoreTracer.traceSignal(signal, target);
+                }
+            } catch (Throwable e) {
+                /*
+                 * The method handle throws what the handler throws, reflection
+                 * wraps it in an InvocationTargetException
+                 */
+                Activator.logError("Exception handling signal " + signal + " in method " + fMethod, e); //$NON-NLS-1$ //$NON-NLS-2$
             }
         }
-
-        if (TmfCoreTracer.isSignalTraced()) {
-            TmfCoreTracer.traceSignal(signal, "(end)"); //$NON-NLS-1$
-        }
     }
 
 }
@@ -15,6 +15,8 @@
 
 package org.eclipse.tracecompass.tmf.core.signal;
 
+import java.util.Arrays;
+
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
@@ -80,6 +82,14 @@ public class TmfWindowRangeUpdatedSignal extends TmfSignal {
         return fTrace;
     }
 
+    /*
+     * A newer signal of the same type for the same trace supersedes this one
+     */
+    @Override
+    public Object getCoalescingKey() {
+        return Arrays.asList(getClass(), fTrace);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(getClass().getSimpleName());
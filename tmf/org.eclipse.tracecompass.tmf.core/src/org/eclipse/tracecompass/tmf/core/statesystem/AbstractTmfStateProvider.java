@@ -14,7 +14,9 @@
 
 package org.eclipse.tracecompass.tmf.core.statesystem;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.PriorityQueue;
 import java.util.Queue;
@@ -50,6 +52,10 @@ import com.google.common.annotations.VisibleForTesting;
  * {@link #eventHandle(ITmfEvent)}, so that all the multi-thread logic is
  * abstracted away.
  *
+ * Providers that handle only some event types can register their handlers in
+ * a {@link TmfEventHandlerTable}, returned by {@link #getEventHandlerTable()},
+ * so that the events that have no handler are not queued.
+ *
  * @author Alexandre Montplaisir
  */
 public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
@@ -77,8 +83,16 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
     private static final int DEFAULT_EVENTS_QUEUE_SIZE = 127;
     private static final int DEFAULT_EVENTS_CHUNK_SIZE = 127;
 
+    /*
+     * Number of consecutive events without handler after which one is queued
+     * anyway, so that the safe time and the future events follow the trace.
+     * They can lag behind the trace by this number of events.
+     */
+    private static final int SKIPPED_EVENTS_INTERVAL = 1000;
+
     private final ITmfTrace fTrace;
     private final BufferedBlockingQueue<ITmfEvent> fEventsQueue;
+    private final int fBatchSize;
     private final Thread fEventHandlerThread;
 
     private boolean fStateSystemAssigned;
@@ -86,6 +100,29 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
     private @Nullable ITmfStateSystemBuilder fSS = null;
     private @Nullable Throwable fFailureCause = null;
 
+    /* The handlers of the provider, if it registered them */
+    private @Nullable TmfEventHandlerTable<?> fEventHandlerTable = null;
+    /*
+     * The last event without handler that was not queued, if any, and the
+     * number of events skipped since the last queued event. They are guarded
+     * by their lock, which is also held while queuing events, so that the
+     * last skipped event is queued in order.
+     */
+    private final Object fSkippedEventsLock = new Object();
+    private @Nullable ITmfEvent fLastSkippedEvent = null;
+    private int fNbSkippedEvents = 0;
+
+    /*
+     * Number of synchronization events queued by waitForEmptyQueue() and
+     * processed by the event handler thread. The events are taken from the
+     * queue before they are handled, so the queue being empty does not mean
+     * that they were handled.
+     */
+    private final Object fSyncQueueLock = new Object();
+    private long fNbSyncEventsQueued = 0;
+    private final Object fSyncProcessedLock = new Object();
+    private long fNbSyncEventsProcessed = 0;
+
     /* The last safe time at which this state provider can be queried */
     private volatile long fSafeTime;
 
@@ -100,6 +137,8 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
     };
 
     private final Queue<FutureEvent> fFutureEvents = new PriorityQueue<>(Comparator.comparingLong(FutureEvent::getTime));
+    /* The time of the first future event, only used by the event handler thread */
+    private long fNextFutureEventTime = Long.MAX_VALUE;
 
     /**
      * Instantiate a new state provider.
@@ -140,6 +179,7 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
         try (FlowScopeLog log = new FlowScopeLogBuilder(LOGGER, Level.FINE, "AbstractTmfStateProvider:creating object").setCategory(id).build()) { //$NON-NLS-1$
             fTrace = trace;
             fEventsQueue = new BufferedBlockingQueue<>(queueSize, chunkSize);
+            fBatchSize = chunkSize;
             fStateSystemAssigned = false;
             // set the safe time to before the trace start, the analysis has not
             // yet
@@ -183,6 +223,7 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
     @Override
     public void assignTargetStateSystem(ITmfStateSystemBuilder ssb) {
         fSS = ssb;
+        fEventHandlerTable = getEventHandlerTable();
         fStateSystemAssigned = true;
         fEventHandlerThread.start();
     }
@@ -198,6 +239,7 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
          * Insert a null event in the queue to stop the event handler's thread.
          */
         try {
+            queueLastSkippedEvent();
             fEventsQueue.put(END_EVENT);
             fEventsQueue.flushInputBuffer();
             fEventHandlerThread.join();
@@ -216,9 +258,39 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
         }
         fPropagateExceptions.run();
 
-        /* Insert the event we're received into the events queue */
-        ITmfEvent curEvent = event;
-        fEventsQueue.put(curEvent);
+        TmfEventHandlerTable<?> table = fEventHandlerTable;
+        boolean skipped = (table != null && table.getHandler(event) == null);
+        synchronized (fSkippedEventsLock) {
+            if (skipped) {
+                /* The event does not need to go through the queue */
+                fNbSkippedEvents++;
+                if (fNbSkippedEvents < SKIPPED_EVENTS_INTERVAL) {
+                    fLastSkippedEvent = event;
+                    return;
+                }
+            }
+            fNbSkippedEvents = 0;
+            fLastSkippedEvent = null;
+
+            /* Insert the event we're received into the events queue */
+            ITmfEvent curEvent = event;
+            fEventsQueue.put(curEvent);
+        }
+    }
+
+    /**
+     * Queue the last event that was skipped, if it is the last event received,
+     * so that the state system ends at the right time
+     */
+    private void queueLastSkippedEvent() {
+        synchronized (fSkippedEventsLock) {
+            ITmfEvent event = fLastSkippedEvent;
+            if (event != null) {
+                fLastSkippedEvent = null;
+                fNbSkippedEvents = 0;
+                fEventsQueue.put(event);
+            }
+        }
     }
 
     /**
@@ -238,25 +310,50 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
     }
 
     /**
-     * Block the caller until the events queue is empty.
+     * Block the caller until the events queue is empty and the events that
+     * were in it are handled.
      */
     public void waitForEmptyQueue() {
         /*
          * We will first insert a dummy event that is guaranteed to not modify
-         * the state. That way, when that event leaves the queue, we will know
-         * for sure that the state system processed the preceding real event.
+         * the state. That way, when the event handler thread reports that it
+         * processed that event, we will know for sure that the state system
+         * processed the preceding real event.
          */
-        try {
+        long syncEvent;
+        synchronized (fSyncQueueLock) {
+            queueLastSkippedEvent();
             fEventsQueue.put(EMPTY_QUEUE_EVENT);
             fEventsQueue.flushInputBuffer();
-            while (!fEventsQueue.isEmpty()) {
-                Thread.sleep(100);
+            syncEvent = ++fNbSyncEventsQueued;
+        }
+        try {
+            synchronized (fSyncProcessedLock) {
+                while (fNbSyncEventsProcessed < syncEvent) {
+                    fSyncProcessedLock.wait();
+                }
             }
         } catch (InterruptedException e) {
             // do nothing
         }
     }
 
+    /**
+     * Report that synchronization events were processed by the event handler
+     * thread, releasing the threads waiting for them.
+     *
+     * @param nbSyncEvents
+     *            The number of synchronization events processed, or
+     *            {@link Long#MAX_VALUE} if the thread does not process events
+     *            anymore
+     */
+    private void syncEventsProcessed(long nbSyncEvents) {
+        synchronized (fSyncProcessedLock) {
+            fNbSyncEventsProcessed = (nbSyncEvents == Long.MAX_VALUE) ? Long.MAX_VALUE : fNbSyncEventsProcessed + nbSyncEvents;
+            fSyncProcessedLock.notifyAll();
+        }
+    }
+
     // ------------------------------------------------------------------------
     // Special event types
     // ------------------------------------------------------------------------
@@ -307,79 +404,80 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
                 }
 
                 /*
-                 * We never insert null in the queue. Cannot be checked at
-                 * compile-time until Java 8 annotations...
+                 * The events are taken from the queue a chunk at a time, and
+                 * handled as a batch. We never insert null in the queue.
                  */
-                ITmfEvent event = fEventsQueue.take();
-
-                /* This is a singleton, we want to do != instead of !x.equals */
-                while (event != END_EVENT) {
-                    if (event == EMPTY_QUEUE_EVENT) {
-                        /* Synchronization event, should be ignored */
-                        event = fEventsQueue.take();
-                        continue;
+                TmfEventHandlerTable<?> table = fEventHandlerTable;
+                List<ITmfEvent> events = new ArrayList<>(fBatchSize);
+                List<ITmfEvent> batch = new ArrayList<>(fBatchSize);
+                boolean end = false;
+                while (!end) {
+                    events.clear();
+                    batch.clear();
+                    fEventsQueue.drainTo(events, fBatchSize);
+                    boolean first = true;
+                    int nbSyncEvents = 0;
+                    for (ITmfEvent event : events) {
+                        /* These are singletons, we want to do == instead of x.equals */
+                        if (event == END_EVENT) {
+                            end = true;
+                            break;
+                        }
+                        if (event == EMPTY_QUEUE_EVENT) {
+                            /* Synchronization event, reported once the batch is handled */
+                            nbSyncEvents++;
+                            continue;
+                        }
+                        if (first) {
+                            /* The states before the batch will not change */
+                            fSafeTime = event.getTimestamp().toNanos() - 1;
+                            first = false;
+                        }
+                        currentEvent = event;
+                        if (table == null || table.getHandler(event) != null) {
+                            batch.add(event);
+                        } else {
+                            /*
+                             * Queued only to follow the trace: handle the
+                             * events before it, then apply the future events
+                             * that are due at its time
+                             */
+                            if (!batch.isEmpty() && getStateSystemBuilder() != null) {
+                                eventHandle(batch);
+                                batch.clear();
+                            }
+                            applyFutureEvents(event.getTimestamp().toNanos());
+                        }
                     }
-                    currentEvent = event;
-                    long currentTime = event.getTimestamp().toNanos();
-                    fSafeTime = currentTime - 1;
-                    ITmfStateSystemBuilder stateSystemBuilder = getStateSystemBuilder();
-                    if (stateSystemBuilder == null) {
+                    if (getStateSystemBuilder() == null) {
                         return;
                     }
-                    FutureEvent futureEvent = fFutureEvents.peek();
-                    while (futureEvent != null && (currentTime >= futureEvent.fTime)) {
-                        futureEvent = fFutureEvents.poll();
-                        if (futureEvent != null) {
-                            applyFutureEvent(futureEvent, stateSystemBuilder);
-                        }
-                        futureEvent = fFutureEvents.peek();
+                    if (!batch.isEmpty()) {
+                        eventHandle(batch);
+                    }
+                    if (nbSyncEvents > 0) {
+                        syncEventsProcessed(nbSyncEvents);
                     }
-                    eventHandle(event);
-
-                    event = fEventsQueue.take();
                 }
                 fDone = true;
                 /*
                  * flush remaining states
                  */
-                ITmfStateSystemBuilder stateSystemBuilder = getStateSystemBuilder();
-                if (stateSystemBuilder == null) {
+                if (getStateSystemBuilder() == null) {
                     return;
                 }
+                applyFutureEvents(Long.MAX_VALUE);
 
-                while (!fFutureEvents.isEmpty()) {
-                    FutureEvent futureEvent = fFutureEvents.peek();
-                    while (futureEvent != null) {
-                        futureEvent = fFutureEvents.poll();
-                        if (futureEvent != null) {
-                            applyFutureEvent(futureEvent, stateSystemBuilder);
-                        }
-                        futureEvent = fFutureEvents.peek();
-                    }
-                }
                 /* We've received the last event, clean up */
                 done();
                 closeStateSystem();
+            } finally {
+                /* Do not keep anyone waiting for this thread */
+                syncEventsProcessed(Long.MAX_VALUE);
             }
 
         }
 
-        private void applyFutureEvent(FutureEvent futureEvent, ITmfStateSystemBuilder stateSystemBuilder) {
-            switch (futureEvent.fType) {
-            case MODIFICATION:
-                stateSystemBuilder.modifyAttribute(futureEvent.fTime, futureEvent.fValue, futureEvent.fQuark);
-                break;
-            case PUSH:
-                stateSystemBuilder.pushAttribute(futureEvent.fTime, futureEvent.fValue, futureEvent.fQuark);
-                break;
-            case POP:
-                stateSystemBuilder.popAttributeObject(futureEvent.fTime, futureEvent.fQuark);
-                break;
-            default:
-                break;
-            }
-        }
-
         private void closeStateSystem() {
             ITmfEvent event = currentEvent;
             final long endTime = (event == null) ? Long.MIN_VALUE : event.getTimestamp().toNanos();
@@ -430,6 +528,51 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
     @Override
     public void addFutureEvent(long time, @Nullable Object futureValue, int attribute, FutureEventType type) {
         fFutureEvents.add(new FutureEvent(time, futureValue, attribute, type));
+        fNextFutureEventTime = Math.min(fNextFutureEventTime, time);
+    }
+
+    /**
+     * Apply the future events that are due at a given time, that is the ones
+     * added with {@link #addFutureEvent} for this time or before. This is
+     * called by the default implementation of {@link #eventHandle(List)}
+     * before handling each event.
+     *
+     * @param time
+     *            The time of the event about to be handled
+     * @since 10.2
+     */
+    protected final void applyFutureEvents(long time) {
+        if (time < fNextFutureEventTime) {
+            /* Nothing due yet, do not look at the queue */
+            return;
+        }
+        ITmfStateSystemBuilder stateSystemBuilder = getStateSystemBuilder();
+        if (stateSystemBuilder == null) {
+            return;
+        }
+        FutureEvent futureEvent = fFutureEvents.peek();
+        while (futureEvent != null && (time >= futureEvent.fTime)) {
+            fFutureEvents.poll();
+            applyFutureEvent(futureEvent, stateSystemBuilder);
+            futureEvent = fFutureEvents.peek();
+        }
+        fNextFutureEventTime = (futureEvent == null) ? Long.MAX_VALUE : futureEvent.fTime;
+    }
+
+    private static void applyFutureEvent(FutureEvent futureEvent, ITmfStateSystemBuilder stateSystemBuilder) {
+        switch (futureEvent.fType) {
+        case MODIFICATION:
+            stateSystemBuilder.modifyAttribute(futureEvent.fTime, futureEvent.fValue, futureEvent.fQuark);
+            break;
+        case PUSH:
+            stateSystemBuilder.pushAttribute(futureEvent.fTime, futureEvent.fValue, futureEvent.fQuark);
+            break;
+        case POP:
+            stateSystemBuilder.popAttributeObject(futureEvent.fTime, futureEvent.fQuark);
+            break;
+        default:
+            break;
+        }
     }
 
     // ------------------------------------------------------------------------
@@ -451,4 +594,44 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
      */
     protected abstract void eventHandle(ITmfEvent event);
 
+    /**
+     * Handle a batch of events, in order. The events are handed from the
+     * thread reading the trace to the thread handling them a chunk of the
+     * queue at a time, and this is called once per chunk.
+     *
+     * The default implementation applies the future events that are due and
+     * calls {@link #eventHandle(ITmfEvent)} for each event. Providers can
+     * override it to process the events of a batch together, in which case
+     * they must call {@link #applyFutureEvents(long)} before handling each
+     * event if they use future events.
+     *
+     * @param events
+     *            The events to process, in chronological order. The list is
+     *            reused after the call, it must not be kept.
+     * @since 10.2
+     */
+    protected void eventHandle(List<ITmfEvent> events) {
+        for (ITmfEvent event : events) {
+            applyFutureEvents(event.getTimestamp().toNanos());
+            eventHandle(event);
+        }
+    }
+
+    /**
+     * Get the table of the handlers of this state provider, if it registers
+     * its handlers by event type. The events that have no handler in the table
+     * are then not queued, and {@link #eventHandle(ITmfEvent)} is not called
+     * for them. As the state provider does not see them, the latest safe time
+     * and the application of the future events can lag behind the trace by
+     * up to a thousand events without handler. This is called once, when the
+     * target state system is assigned.
+     *
+     * @return The table of handlers, or null if this provider handles all the
+     *         events
+     * @since 10.2
+     */
+    protected @Nullable TmfEventHandlerTable<?> getEventHandlerTable() {
+        return null;
+    }
+
 }
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.statesystem;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Table of the handlers of a state provider, by event type. The handlers are
+ * registered by event name, and the handler of each event type of a trace is
+ * looked up only once: after that, the handler of an event is found by the
+ * index of its type, see {@link ITmfEvent#getTypeIndex()}. For the traces that
+ * do not number their event types, the handler is looked up by name for each
+ * event.
+ * <p>
+ * A state provider extending {@link AbstractTmfStateProvider} that returns its
+ * table in {@link AbstractTmfStateProvider#getEventHandlerTable()} does not
+ * receive the events that have no handler.
+ * <p>
+ * This class is thread-safe, the handlers can be looked up by the thread
+ * reading the trace and by the thread handling the events.
+ *
+ * @param <H>
+ *            The type of the handlers
+ * @since 10.2
+ */
+public final class TmfEventHandlerTable<H> {
+
+    /** Marker of the event types that were looked up and have no handler */
+    private static final Object NO_HANDLER = new Object();
+
+    private final Map<String, H> fHandlers;
+    private final Function<String, @Nullable H> fFallback;
+
+    /* The handlers of each trace, by type index. Guarded by this */
+    private final Map<ITmfTrace, TraceHandlers> fTraceHandlers = new HashMap<>();
+    /* The handlers of the last trace, to find them without locking */
+    private volatile @Nullable TraceHandlers fLastTraceHandlers = null;
+
+    /**
+     * The handlers of a trace. The array is never modified once published, a
+     * new one is created to add handlers.
+     */
+    private static final class TraceHandlers {
+        private final ITmfTrace fTrace;
+        private final @Nullable Object[] fHandlers;
+
+        public TraceHandlers(ITmfTrace trace, @Nullable Object[] handlers) {
+            fTrace = trace;
+            fHandlers = handlers;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param handlers
+     *            The handlers, by event name
+     */
+    public TmfEventHandlerTable(Map<String, H> handlers) {
+        this(handlers, name -> null);
+    }
+
+    /**
+     * Constructor, with a function to find the handlers of the event names
+     * that are not in the map, like the names that start with a given prefix
+     *
+     * @param handlers
+     *            The handlers, by event name
+     * @param fallback
+     *            The function returning the handler of an event name that is
+     *            not in the map, or null if there is no handler for it. It is
+     *            called only once per event type for the traces that number
+     *            their event types.
+     */
+    public TmfEventHandlerTable(Map<String, H> handlers, Function<String, @Nullable H> fallback) {
+        fHandlers = ImmutableMap.copyOf(handlers);
+        fFallback = fallback;
+    }
+
+    /**
+     * Get the handler of an event
+     *
+     * @param event
+     *            The event
+     * @return The handler of the event's type, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable H getHandler(ITmfEvent event) {
+        int index = event.getTypeIndex();
+        if (index < 0) {
+            return getHandler(event.getName());
+        }
+        TraceHandlers traceHandlers = fLastTraceHandlers;
+        if (traceHandlers == null || traceHandlers.fTrace != event.getTrace()) {
+            traceHandlers = getTraceHandlers(event.getTrace());
+        }
+        Object handler = (index < traceHandlers.fHandlers.length) ? traceHandlers.fHandlers[index] : null;
+        if (handler == null) {
+            handler = addHandler(event, index);
+        }
+        return (handler == NO_HANDLER) ? null : (H) handler;
+    }
+
+    private @Nullable H getHandler(String eventName) {
+        H handler = fHandlers.get(eventName);
+        return (handler != null) ? handler : fFallback.apply(eventName);
+    }
+
+    private synchronized TraceHandlers getTraceHandlers(ITmfTrace trace) {
+        TraceHandlers traceHandlers = fTraceHandlers.computeIfAbsent(trace, t -> new TraceHandlers(t, new Object[0]));
+        fLastTraceHandlers = traceHandlers;
+        return traceHandlers;
+    }
+
+    private synchronized Object addHandler(ITmfEvent event, int index) {
+        ITmfTrace trace = event.getTrace();
+        TraceHandlers traceHandlers = getTraceHandlers(trace);
+        @Nullable Object[] handlers = traceHandlers.fHandlers;
+        if (index < handlers.length && handlers[index] != null) {
+            /* Added by another thread */
+            return handlers[index];
+        }
+        H handler = getHandler(event.getName());
+        Object value = (handler == null) ? NO_HANDLER : handler;
+        handlers = Arrays.copyOf(handlers, Math.max(handlers.length, index + 1));
+        handlers[index] = value;
+        traceHandlers = new TraceHandlers(trace, handlers);
+        fTraceHandlers.put(trace, traceHandlers);
+        fLastTraceHandlers = traceHandlers;
+        return value;
+    }
+}
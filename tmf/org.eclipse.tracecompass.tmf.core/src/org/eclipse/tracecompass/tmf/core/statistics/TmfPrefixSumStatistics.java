@@ -0,0 +1,405 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.statistics;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfLostEvent;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+
+/**
+ * Statistics kept in memory as prefix sums of the number of events in fixed
+ * time buckets, in one column for the total and one column per event type.
+ * <p>
+ * Element k of a column is the number of events in the buckets before bucket
+ * k, so the number of events before the bucket of a time is one array lookup.
+ * The events of that bucket before the time are then counted by reading them
+ * from the trace, so the counts are exact and at most one bucket of events is
+ * read for each bound of a range. The number of buckets is bounded: their
+ * duration doubles each time the events do not fit anymore.
+ * <p>
+ * The events must be added in timestamp order, as done by an event request.
+ * As with the other statistics, lost events are counted in their event type
+ * but not in the total, and all timestamps are in nanoseconds.
+ *
+ * @since 10.2
+ */
+public class TmfPrefixSumStatistics implements ITmfStatistics {
+
+    private static final int DEFAULT_MAX_BUCKETS = 1 << 14;
+    private static final int INITIAL_COLUMN_SIZE = 16;
+
+    private final ITmfTrace fTrace;
+    private final int fMaxBuckets;
+
+    /* The start time and duration of the buckets, valid once fEnd is set */
+    private long fStart = 0;
+    private long fDuration = 1;
+    private long fEnd = Long.MIN_VALUE;
+
+    private final Column fTotal = new Column();
+    private final Map<String, Column> fTypes = new LinkedHashMap<>();
+
+    /**
+     * Constructor, with the default maximum number of buckets
+     *
+     * @param trace
+     *            The trace of the events, read to count the events of the
+     *            buckets containing the bounds of the queried ranges
+     */
+    public TmfPrefixSumStatistics(ITmfTrace trace) {
+        this(trace, DEFAULT_MAX_BUCKETS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param trace
+     *            The trace of the events, read to count the events of the
+     *            buckets containing the bounds of the queried ranges
+     * @param maxBuckets
+     *            The maximum number of buckets, which bounds the memory used
+     *            by each column. The more buckets, the less events are read
+     *            from the trace for each query.
+     */
+    public TmfPrefixSumStatistics(ITmfTrace trace, int maxBuckets) {
+        if (maxBuckets < 1) {
+            throw new IllegalArgumentException("Invalid number of buckets: " + maxBuckets); //$NON-NLS-1$
+        }
+        fTrace = trace;
+        fMaxBuckets = maxBuckets;
+    }
+
+    /**
+     * Count an event
+     *
+     * @param event
+     *            The event, which must not be before the previous one
+     */
+    public synchronized void addEvent(ITmfEvent event) {
+        long ts = event.getTimestamp().toNanos();
+        int bucket = getBucket(ts);
+        Column type = fTypes.computeIfAbsent(event.getName(), name -> new Column());
+        if (event instanceof ITmfLostEvent) {
+            /* Do not count lost events in the total */
+            type.add(bucket, ((ITmfLostEvent) event).getNbLostEvents());
+            return;
+        }
+        type.add(bucket, 1);
+        fTotal.add(bucket, 1);
+    }
+
+    // ------------------------------------------------------------------------
+    // ITmfStatistics
+    // ------------------------------------------------------------------------
+
+    @Override
+    public synchronized List<@NonNull Long> histogramQuery(long[] timeRequested) {
+        List<@NonNull Long> list = new ArrayList<>(timeRequested.length);
+        if (timeRequested.length == 0) {
+            return list;
+        }
+        try (BucketReader reader = new BucketReader()) {
+            /* The first range is only the first time, like for TmfStateStatistics */
+            long previous = (timeRequested[0] == Long.MIN_VALUE) ? 0 : getCountUntil(reader, fTotal, null, timeRequested[0] - 1);
+            for (long time : timeRequested) {
+                long count = getCountUntil(reader, fTotal, null, time);
+                list.add(count - previous);
+                previous = count;
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public synchronized long getEventsTotal() {
+        return fTotal.getTotal();
+    }
+
+    @Override
+    public synchronized Map<@NonNull String, @NonNull Long> getEventTypesTotal() {
+        Map<@NonNull String, @NonNull Long> map = new HashMap<>();
+        for (Map.Entry<String, Column> entry : fTypes.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().getTotal());
+        }
+        return map;
+    }
+
+    @Override
+    public synchronized long getEventsInRange(long start, long end) {
+        if (end < start) {
+            return 0;
+        }
+        try (BucketReader reader = new BucketReader()) {
+            long before = getCountUntil(reader, fTotal, null, start - 1);
+            return getCountUntil(reader, fTotal, null, end) - before;
+        }
+    }
+
+    @Override
+    public synchronized Map<@NonNull String, @NonNull Long> getEventTypesInRange(long start, long end) {
+        Map<@NonNull String, @NonNull Long> map = new HashMap<>();
+        if (end < start) {
+            return map;
+        }
+        try (BucketReader reader = new BucketReader()) {
+            for (Map.Entry<String, Column> entry : fTypes.entrySet()) {
+                map.put(entry.getKey(), -getCountUntil(reader, entry.getValue(), entry.getKey(), start - 1));
+            }
+            for (Map.Entry<String, Column> entry : fTypes.entrySet()) {
+                map.merge(entry.getKey(), getCountUntil(reader, entry.getValue(), entry.getKey(), end), Long::sum);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public void dispose() {
+        // Nothing to release, the columns are in memory
+    }
+
+    // ------------------------------------------------------------------------
+    // Serialization
+    // ------------------------------------------------------------------------
+
+    /**
+     * Write the statistics to a stream
+     *
+     * @param out
+     *            The output stream
+     * @throws IOException
+     *             If the stream could not be written
+     */
+    public synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(fMaxBuckets);
+        out.writeLong(fStart);
+        out.writeLong(fDuration);
+        out.writeLong(fEnd);
+        fTotal.writeTo(out);
+        out.writeInt(fTypes.size());
+        for (Map.Entry<String, Column> entry : fTypes.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    /**
+     * Read statistics written by {@link #writeTo(DataOutputStream)}
+     *
+     * @param in
+     *            The input stream
+     * @param trace
+     *            The trace of the events counted by the statistics
+     * @return The statistics
+     * @throws IOException
+     *             If the stream could not be read or is invalid
+     */
+    public static TmfPrefixSumStatistics readFrom(DataInputStream in, ITmfTrace trace) throws IOException {
+        int maxBuckets = in.readInt();
+        if (maxBuckets < 1) {
+            throw new IOException("Invalid number of buckets: " + maxBuckets); //$NON-NLS-1$
+        }
+        TmfPrefixSumStatistics statistics = new TmfPrefixSumStatistics(trace, maxBuckets);
+        statistics.fStart = in.readLong();
+        statistics.fDuration = in.readLong();
+        statistics.fEnd = in.readLong();
+        statistics.fTotal.readFrom(in, maxBuckets);
+        int nbTypes = in.readInt();
+        for (int i = 0; i < nbTypes; i++) {
+            String name = in.readUTF();
+            Column column = new Column();
+            column.readFrom(in, maxBuckets);
+            statistics.fTypes.put(name, column);
+        }
+        return statistics;
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the bucket of a timestamp, making the buckets longer if it does not
+     * fit in the last one
+     */
+    private int getBucket(long ts) {
+        if (fEnd == Long.MIN_VALUE) {
+            fStart = ts;
+        }
+        fEnd = Math.max(fEnd, ts);
+        if (ts <= fStart) {
+            /* Events out of order before the first one go in the first bucket */
+            return 0;
+        }
+        long offset = ts - fStart;
+        while (offset / fDuration >= fMaxBuckets) {
+            fDuration *= 2;
+            fTotal.merge();
+            for (Column column : fTypes.values()) {
+                column.merge();
+            }
+        }
+        return (int) (offset / fDuration);
+    }
+
+    /**
+     * Get the number of events of a column until a time, inclusively: the
+     * events of the buckets before the bucket of the time, and the events of
+     * that bucket read from the trace
+     *
+     * @param type
+     *            The event type of the column, or null for the total
+     */
+    private long getCountUntil(BucketReader reader, Column column, @Nullable String type, long time) {
+        if (fEnd == Long.MIN_VALUE || time < fStart) {
+            return 0;
+        }
+        if (time >= fEnd) {
+            return column.getTotal();
+        }
+        long bucket = (time - fStart) / fDuration;
+        reader.readUntil(bucket, time);
+        return column.get(bucket) + reader.getCount(type);
+    }
+
+    /**
+     * Reader of the events of a bucket, from its start to a time. The counts
+     * are kept so that the next times of the same bucket continue the reading
+     * instead of starting over, as the times of a query are in increasing
+     * order.
+     */
+    private final class BucketReader implements AutoCloseable {
+        private @Nullable ITmfContext fContext = null;
+        private @Nullable ITmfEvent fNext = null;
+        private long fBucket = -1;
+        private long fTime = Long.MIN_VALUE;
+        private long fTotalCount = 0;
+        private final Map<String, Long> fTypeCounts = new HashMap<>();
+
+        void readUntil(long bucket, long time) {
+            ITmfContext context = fContext;
+            if (context == null || bucket != fBucket || time < fTime) {
+                close();
+                /* Events before the first one are in the first bucket too */
+                context = (bucket == 0) ? fTrace.seekEvent(0L) : fTrace.seekEvent(TmfTimestamp.fromNanos(fStart + bucket * fDuration));
+                fContext = context;
+                fNext = fTrace.getNext(context);
+                fBucket = bucket;
+                fTotalCount = 0;
+                fTypeCounts.clear();
+            }
+            fTime = time;
+            ITmfEvent event = fNext;
+            while (event != null && event.getTimestamp().toNanos() <= time) {
+                if (event instanceof ITmfLostEvent) {
+                    /* Do not count lost events in the total, like addEvent() */
+                    fTypeCounts.merge(event.getName(), ((ITmfLostEvent) event).getNbLostEvents(), Long::sum);
+                } else {
+                    fTypeCounts.merge(event.getName(), 1L, Long::sum);
+                    fTotalCount++;
+                }
+                event = fTrace.getNext(context);
+            }
+            fNext = event;
+        }
+
+        long getCount(@Nullable String type) {
+            if (type == null) {
+                return fTotalCount;
+            }
+            return fTypeCounts.getOrDefault(type, 0L);
+        }
+
+        @Override
+        public void close() {
+            ITmfContext context = fContext;
+            if (context != null) {
+                context.dispose();
+                fContext = null;
+            }
+        }
+    }
+
+    /**
+     * The prefix sums of the number of events of the buckets. The elements
+     * after the last one are equal to the last one.
+     */
+    private static final class Column {
+        private long[] fSums = new long[INITIAL_COLUMN_SIZE];
+        private int fSize = 1;
+
+        long get(long index) {
+            return fSums[(int) Math.min(index, fSize - 1)];
+        }
+
+        long getTotal() {
+            return fSums[fSize - 1];
+        }
+
+        void add(int bucket, long nbEvents) {
+            int last = bucket + 1;
+            if (last >= fSize) {
+                if (last >= fSums.length) {
+                    fSums = Arrays.copyOf(fSums, Math.max(last + 1, fSums.length * 2));
+                }
+                Arrays.fill(fSums, fSize, last + 1, fSums[fSize - 1]);
+                fSize = last + 1;
+            }
+            for (int i = last; i < fSize; i++) {
+                fSums[i] += nbEvents;
+            }
+        }
+
+        /**
+         * Merge the buckets two by two
+         */
+        void merge() {
+            int size = fSize / 2 + 1;
+            for (int i = 1; i < size; i++) {
+                fSums[i] = fSums[Math.min(2 * i, fSize - 1)];
+            }
+            fSize = size;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(fSize);
+            for (int i = 0; i < fSize; i++) {
+                out.writeLong(fSums[i]);
+            }
+        }
+
+        void readFrom(DataInputStream in, int maxBuckets) throws IOException {
+            int size = in.readInt();
+            if (size < 1 || size > maxBuckets + 1) {
+                throw new IOException("Invalid column size: " + size); //$NON-NLS-1$
+            }
+            fSums = new long[size];
+            for (int i = 0; i < size; i++) {
+                fSums[i] = in.readLong();
+            }
+            fSize = size;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.statistics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.Activator;
+import org.eclipse.tracecompass.tmf.core.analysis.TmfAbstractAnalysisModule;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest.ExecutionType;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+
+/**
+ * Analysis module to compute the statistics of a trace in memory, without
+ * building state systems. It is run by {@link TmfStatisticsModule} instead of
+ * its state system analyses when the
+ * {@link TmfStatisticsModule#PREFIX_SUMS_PREFERENCE} preference is set.
+ * <p>
+ * The statistics are computed by a background request reading the whole
+ * trace, and are saved in the supplementary files of the trace so they are
+ * not computed again when the trace is reopened. The queries are answered from
+ * the {@link TmfPrefixSumStatistics} columns and from the events of the
+ * buckets containing the bounds of the ranges, so the counts are exact like
+ * the ones of the state systems.
+ *
+ * @since 10.2
+ */
+public class TmfPrefixSumStatisticsModule extends TmfAbstractAnalysisModule {
+
+    /** ID of this analysis module */
+    public static final @NonNull String ID = "org.eclipse.tracecompass.tmf.core.statistics.prefixsum"; //$NON-NLS-1$
+
+    private static final String FILE_NAME = "statistics.prefix"; //$NON-NLS-1$
+    private static final int FILE_VERSION = 1;
+
+    private volatile @Nullable TmfPrefixSumStatistics fStatistics = null;
+    private volatile @Nullable ITmfEventRequest fRequest = null;
+    private boolean fInitializationSucceeded;
+
+    private final CountDownLatch fInitialized = new CountDownLatch(1);
+
+    /**
+     * Constructor
+     */
+    public TmfPrefixSumStatisticsModule() {
+        super();
+        setId(ID);
+    }
+
+    /**
+     * Get the statistics computed by this analysis. They can be queried while
+     * they are being computed.
+     *
+     * @return The statistics, or null if the analysis did not start yet
+     */
+    public @Nullable ITmfStatistics getStatistics() {
+        return fStatistics;
+    }
+
+    /**
+     * Wait until the statistics are available to be queried
+     *
+     * @return True if the statistics are available, false if the analysis
+     *         failed or was cancelled
+     */
+    public boolean waitForInitialization() {
+        try {
+            fInitialized.await();
+        } catch (InterruptedException e) {
+            return false;
+        }
+        return fInitializationSucceeded;
+    }
+
+    // ------------------------------------------------------------------------
+    // TmfAbstractAnalysisModule
+    // ------------------------------------------------------------------------
+
+    @Override
+    protected boolean executeAnalysis(IProgressMonitor monitor) throws TmfAnalysisException {
+        ITmfTrace trace = getTrace();
+        if (trace == null) {
+            /* This analysis was cancelled in the meantime */
+            analysisReady(false);
+            return false;
+        }
+
+        File file = new File(TmfTraceManager.getSupplementaryFileDir(trace) + FILE_NAME);
+        TmfPrefixSumStatistics statistics = read(file, trace);
+        if (statistics != null) {
+            fStatistics = statistics;
+            analysisReady(true);
+            return true;
+        }
+
+        TmfPrefixSumStatistics stats = new TmfPrefixSumStatistics(trace);
+        fStatistics = stats;
+        TmfEventRequest request = new TmfEventRequest(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND) {
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                stats.addEvent(event);
+            }
+        };
+        fRequest = request;
+        analysisReady(true);
+        trace.sendRequest(request);
+        try {
+            request.waitForCompletion();
+        } catch (InterruptedException e) {
+            request.cancel();
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (request.isCancelled() || request.isFailed() || monitor.isCanceled()) {
+            return false;
+        }
+        write(file, stats);
+        return true;
+    }
+
+    /**
+     * Make the module available and set whether the initialization went well or
+     * not.
+     *
+     * @param succeeded
+     *            True if the initialization went well, false otherwise
+     */
+    private void analysisReady(boolean succeeded) {
+        fInitializationSucceeded = succeeded;
+        fInitialized.countDown();
+    }
+
+    @Override
+    protected void canceling() {
+        ITmfEventRequest request = fRequest;
+        if (request != null && !request.isCompleted()) {
+            request.cancel();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper methods
+    // ------------------------------------------------------------------------
+
+    private static @Nullable TmfPrefixSumStatistics read(File file, ITmfTrace trace) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_VERSION) {
+                return null;
+            }
+            return TmfPrefixSumStatistics.readFrom(in, trace);
+        } catch (IOException e) {
+            Activator.logWarning("Cannot read the statistics " + file, e); //$NON-NLS-1$
+            return null;
+        }
+    }
+
+    private static void write(File file, TmfPrefixSumStatistics statistics) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(FILE_VERSION);
+            statistics.writeTo(out);
+        } catch (IOException e) {
+            Activator.logWarning("Cannot save the statistics " + file, e); //$NON-NLS-1$
+            file.delete();
+        }
+    }
+}
@@ -20,8 +20,11 @@ import java.util.concurrent.CountDownLatch;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.IPreferencesService;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.Activator;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.tmf.core.analysis.TmfAbstractAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
@@ -31,6 +34,10 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
 /**
  * Analysis module to compute the statistics of a trace.
+ * <p>
+ * The statistics are kept in two state systems, or in memory by a
+ * {@link TmfPrefixSumStatisticsModule} if the {@link #PREFIX_SUMS_PREFERENCE}
+ * preference is set when the analysis is run.
  *
  * @author Alexandre Montplaisir
  */
@@ -40,12 +47,21 @@ public class TmfStatisticsModule extends TmfAbstractAnalysisModule
     /** ID of this analysis module */
     public static final @NonNull String ID = "org.eclipse.linuxtools.tmf.core.statistics.analysis"; //$NON-NLS-1$
 
+    /**
+     * The key of the preference to compute the statistics in memory with
+     * prefix sums rather than in state systems
+     *
+     * @since 10.2
+     */
+    public static final @NonNull String PREFIX_SUMS_PREFERENCE = "org.eclipse.tracecompass.tmf.core.prefs.statistics.prefixSums"; //$NON-NLS-1$
+
     /** The trace's statistics */
     private ITmfStatistics fStatistics = null;
     private boolean fInitializationSucceeded;
 
     private final TmfStateSystemAnalysisModule totalsModule = new TmfStatisticsTotalsModule();
     private final TmfStateSystemAnalysisModule eventTypesModule = new TmfStatisticsEventTypesModule();
+    private final TmfPrefixSumStatisticsModule prefixSumModule = new TmfPrefixSumStatisticsModule();
 
     private final CountDownLatch fInitialized = new CountDownLatch(1);
 
@@ -93,6 +109,7 @@ public class TmfStatisticsModule extends TmfAbstractAnalysisModule
         super.dispose();
         totalsModule.dispose();
         eventTypesModule.dispose();
+        prefixSumModule.dispose();
     }
 
     @Override
@@ -106,7 +123,7 @@ public class TmfStatisticsModule extends TmfAbstractAnalysisModule
          * have to assign the trace ourselves. Very important to do so before
          * calling schedule()!
          */
-        if (!totalsModule.setTrace(trace)) {
+        if (!totalsModule.setTrace(trace) || !prefixSumModule.setTrace(trace)) {
             return false;
         }
         return eventTypesModule.setTrace(trace);
@@ -121,6 +138,11 @@ public class TmfStatisticsModule extends TmfAbstractAnalysisModule
             return false;
         }
 
+        IPreferencesService preferences = Platform.getPreferencesService();
+        if (preferences != null && preferences.getBoolean(Activator.PLUGIN_ID, PREFIX_SUMS_PREFERENCE, false, null)) {
+            return executePrefixSums(monitor);
+        }
+
         IStatus status1 = totalsModule.schedule();
         IStatus status2 = eventTypesModule.schedule();
         if (!(status1.isOK() && status2.isOK())) {
@@ -157,6 +179,17 @@ public class TmfStatisticsModule extends TmfAbstractAnalysisModule
                 eventTypesModule.waitForCompletion(monitor);
     }
 
+    private boolean executePrefixSums(IProgressMonitor monitor) {
+        if (!prefixSumModule.schedule().isOK() || !prefixSumModule.waitForInitialization()) {
+            prefixSumModule.cancel();
+            analysisReady(false);
+            return false;
+        }
+        fStatistics = prefixSumModule.getStatistics();
+        analysisReady(true);
+        return prefixSumModule.waitForCompletion(monitor);
+    }
+
     /**
      * Make the module available and set whether the initialization went well or
      * not. If not, no state system is available and
@@ -187,6 +220,7 @@ public class TmfStatisticsModule extends TmfAbstractAnalysisModule
     private void cancelSubAnalyses() {
         totalsModule.cancel();
         eventTypesModule.cancel();
+        prefixSumModule.cancel();
     }
 
     // ------------------------------------------------------------------------
@@ -45,6 +45,40 @@ public interface ITmfTimestampTransform extends Serializable {
      */
     long transform(long timestamp);
 
+    /**
+     * Transforms an array of timestamp values. The values can be transformed
+     * in place, if the same array is given for the timestamps and results.
+     *
+     * @param timestamps
+     *            The timestamps to transform in nanoseconds
+     * @param results
+     *            The array receiving the transformed values, at the same
+     *            indexes
+     * @param length
+     *            The number of timestamps to transform
+     * @since 10.2
+     */
+    default void transform(long[] timestamps, long[] results, int length) {
+        for (int i = 0; i < length; i++) {
+            results[i] = transform(timestamps[i]);
+        }
+    }
+
+    /**
+     * Prepares the transform for the timestamps of a range, for instance the
+     * range of a trace, so that they are transformed faster afterwards. It
+     * does not change the transformed values, and does nothing by default.
+     *
+     * @param start
+     *            The first timestamp of the range in nanoseconds
+     * @param end
+     *            The last timestamp of the range in nanoseconds
+     * @since 10.2
+     */
+    default void prepare(long start, long end) {
+        // Nothing to prepare
+    }
+
     /**
      * Returns a timestamp transform that is the composition of two timestamp
      * transforms. Composed objects must be the same type.
@@ -17,13 +17,16 @@ package org.eclipse.tracecompass.tmf.core.synchronization;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Map;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.internal.tmf.core.Activator;
+import org.eclipse.tracecompass.internal.tmf.core.synchronization.SyncAlgorithmFullyIncremental;
 import org.eclipse.tracecompass.tmf.core.component.TmfComponent;
-import org.eclipse.tracecompass.tmf.core.event.matching.ITmfEventMatching;
 import org.eclipse.tracecompass.tmf.core.event.matching.TmfEventMatching;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 
 /**
  * This abstract manager class handles loading trace synchronization data or
@@ -53,7 +56,7 @@ public abstract class SynchronizationManager extends TmfComponent {
 
         SynchronizationAlgorithm syncAlgo;
         if (doSync) {
-            syncAlgo = synchronize(syncFile, traces, SynchronizationAlgorithmFactory.getDefaultAlgorithm());
+            syncAlgo = synchronize(syncFile, traces, SynchronizationAlgorithmFactory.getDefaultAlgorithm(), false);
         } else {
             syncAlgo = openExisting(syncFile);
             if (syncAlgo == null) {
@@ -87,7 +90,7 @@ public abstract class SynchronizationManager extends TmfComponent {
 
         SynchronizationAlgorithm syncAlgo;
         if (doSync) {
-            syncAlgo = synchronize(syncFile, traces, algo);
+            syncAlgo = synchronize(syncFile, traces, algo, false);
         } else {
             syncAlgo = openExisting(syncFile);
             if (syncAlgo == null || (syncAlgo.getClass() != algo.getClass())) {
@@ -102,6 +105,32 @@ public abstract class SynchronizationManager extends TmfComponent {
         return syncAlgo;
     }
 
+    /**
+     * Function called to continue the synchronization saved in a file with
+     * the events added to the traces since it was done, for example when the
+     * traces are being written. Only the events after the ones processed by
+     * the saved synchronization are read, from the oldest event that was not
+     * matched yet. If the synchronization cannot be resumed, because the file
+     * does not exist, it was done with another algorithm or other traces, or
+     * a trace was not only appended to, the traces are synchronized from
+     * scratch.
+     *
+     * @param syncFile
+     *            The synchronization file. It will be saved with the data from
+     *            this synchronization.
+     * @param traces
+     *            The list of traces to synchronize
+     * @param algo
+     *            A synchronization algorithm object to determine the algorithm
+     *            used to synchronization.
+     * @return The synchronization object
+     * @since 10.2
+     */
+    public static SynchronizationAlgorithm resumeSynchronization(final File syncFile,
+            final Collection<@NonNull ITmfTrace> traces, SynchronizationAlgorithm algo) {
+        return synchronize(syncFile, traces, algo, true);
+    }
+
     private static SynchronizationAlgorithm openExisting(final File syncFile) {
         if ((syncFile != null) && syncFile.exists()) {
             /* Load an existing history */
@@ -122,9 +151,31 @@ public abstract class SynchronizationManager extends TmfComponent {
     }
 
     private static SynchronizationAlgorithm synchronize(final File syncFile,
-            final Collection<@NonNull ITmfTrace> traces, SynchronizationAlgorithm syncAlgo) {
-        ITmfEventMatching matching = new TmfEventMatching(traces, syncAlgo);
+            final Collection<@NonNull ITmfTrace> traces, SynchronizationAlgorithm algo, boolean resume) {
+        /*
+         * If requested and the traces were already synchronized with this
+         * algorithm, only process the events added since then
+         */
+        SynchronizationAlgorithm syncAlgo = algo;
+        Map<ITmfTrace, Long> startTimes = null;
+        if (resume) {
+            SynchronizationAlgorithm existing = openExisting(syncFile);
+            if (existing instanceof SyncAlgorithmFullyIncremental && existing.getClass() == algo.getClass()) {
+                startTimes = ((SyncAlgorithmFullyIncremental) existing).resume(traces);
+                if (startTimes != null) {
+                    syncAlgo = existing;
+                }
+            }
+        }
+
+        TmfEventMatching matching = new TmfEventMatching(traces, syncAlgo);
+        if (startTimes != null) {
+            startTimes.forEach((trace, time) -> matching.setStartTime(trace, TmfTimestamp.fromNanos(time)));
+        }
         matching.matchEvents();
+        if (syncAlgo instanceof SyncAlgorithmFullyIncremental) {
+            saveProcessedTimes((SyncAlgorithmFullyIncremental) syncAlgo, matching, traces);
+        }
 
         SynchronizationBackend syncBackend;
         try {
@@ -136,4 +187,16 @@ public abstract class SynchronizationManager extends TmfComponent {
         return syncAlgo;
     }
 
+    private static void saveProcessedTimes(SyncAlgorithmFullyIncremental syncAlgo, TmfEventMatching matching, Collection<@NonNull ITmfTrace> traces) {
+        for (ITmfTrace parent : traces) {
+            for (ITmfTrace trace : TmfTraceManager.getTraceSet(parent)) {
+                Long lastTime = matching.getLastEventTime(trace);
+                Long resumeTime = matching.getResumeTime(trace);
+                if (lastTime != null && resumeTime != null) {
+                    syncAlgo.setProcessedTimes(trace, lastTime, resumeTime);
+                }
+            }
+        }
+    }
+
 }
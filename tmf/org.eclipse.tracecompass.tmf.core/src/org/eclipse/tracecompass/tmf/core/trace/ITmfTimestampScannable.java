@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.trace;
+
+import java.util.function.ObjIntConsumer;
+
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+
+/**
+ * An interface that trace classes can implement if they can read the
+ * timestamps of their events in bulk, without creating the events. This is
+ * enough to count the events over time, for instance for the histograms.
+ *
+ * @since 10.2
+ */
+public interface ITmfTimestampScannable {
+
+    /**
+     * Read the timestamps of all the events of the trace, except the lost
+     * events. The timestamps are transformed by the timestamp transform of
+     * the trace, like the timestamps of the events. This should only be called
+     * once the trace is indexed.
+     *
+     * @param consumer
+     *            called with arrays of timestamps in nanoseconds, in no
+     *            particular order, and the number of timestamps at the start
+     *            of each array. An array can be reused once the consumer
+     *            returns.
+     * @throws TmfTraceException
+     *             if the trace cannot be read
+     */
+    void scanTimestamps(ObjIntConsumer<long[]> consumer) throws TmfTraceException;
+}
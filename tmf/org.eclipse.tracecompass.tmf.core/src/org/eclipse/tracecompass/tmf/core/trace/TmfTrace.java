@@ -19,6 +19,7 @@
 package org.eclipse.tracecompass.tmf.core.trace;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -849,13 +850,13 @@ public abstract class TmfTrace extends TmfEventProvider implements ITmfTrace, IT
 
         Set<String> oldAnalysisModulesKeys = new HashSet<>(previousAnalysisModules.keySet());
         Set<String> keys = new HashSet<>(newAnalysisModules.keySet());
+        List<IAnalysisModule> automaticModules = new ArrayList<>();
 
         for (String key : keys) {
             IAnalysisModule module = newAnalysisModules.remove(key);
             if (!oldAnalysisModulesKeys.contains(key)) {
-                /* Once all modules are initialized, automatic modules are executed */
                 if (module != null && module.isAutomatic()) {
-                    status.add(module.schedule());
+                    automaticModules.add(module);
                 }
                 previousAnalysisModules.put(key, module);
             } else {
@@ -878,6 +879,11 @@ public abstract class TmfTrace extends TmfEventProvider implements ITmfTrace, IT
             fAnalysisModules.clear();
             fAnalysisModules.putAll(previousAnalysisModules);
         }
+        /*
+         * Once all modules are initialized and available to the modules
+         * depending on them, automatic modules are executed
+         */
+        status.merge(TmfAnalysisManager.scheduleAnalyses(automaticModules));
         return status;
     }
 }
@@ -35,6 +35,7 @@ import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.component.ITmfEventProvider;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.aspect.ITmfEventAspect;
+import org.eclipse.tracecompass.tmf.core.event.aspect.TmfEventAspectBinding;
 import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
 
 import com.google.common.collect.Iterables;
@@ -279,6 +280,39 @@ public final class TmfTraceUtils {
         return null;
     }
 
+    /**
+     * Bind the aspects of a class of a trace, to resolve them for many events
+     * without looking them up each time. The binding resolves like
+     * {@link #resolveEventAspectOfClassForEvent(ITmfTrace, Class, ITmfEvent)}
+     * and {@link #resolveIntEventAspectOfClassForEvent(ITmfTrace, Class, ITmfEvent)}.
+     *
+     * @param trace
+     *            The trace for which you want the event aspects
+     * @param aspectClass
+     *            The class of the aspect(s) to resolve
+     * @return The binding of the aspects of this class
+     * @since 10.2
+     */
+    public static TmfEventAspectBinding bindEventAspectOfClass(ITmfTrace trace, Class<? extends ITmfEventAspect<?>> aspectClass) {
+        return new TmfEventAspectBinding(getEventAspects(trace, aspectClass));
+    }
+
+    /**
+     * Bind the aspects of a name of a trace, to resolve them for many events
+     * without looking them up each time. The binding resolves like
+     * {@link #resolveAspectOfNameForEvent(ITmfTrace, String, ITmfEvent)}.
+     *
+     * @param trace
+     *            The trace for which you want the event aspects
+     * @param aspectName
+     *            The name of the aspect(s) to resolve, ignoring case
+     * @return The binding of the aspects of this name
+     * @since 10.2
+     */
+    public static TmfEventAspectBinding bindAspectOfName(ITmfTrace trace, String aspectName) {
+        return new TmfEventAspectBinding(Iterables.filter(Iterables.concat(trace.getEventAspects(), EXTRA_ASPECTS), aspect -> aspectName.equalsIgnoreCase(aspect.getName())));
+    }
+
     /**
      * Checks for text file.
      *
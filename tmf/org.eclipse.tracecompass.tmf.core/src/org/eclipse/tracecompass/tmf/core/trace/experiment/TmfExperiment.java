@@ -121,6 +121,13 @@ public class TmfExperiment extends TmfTrace implements ITmfPersistentlyIndexable
      */
     private static final long CLOCK_OFFSET_THRESHOLD_NS = 500000;
 
+    /**
+     * The number of events of each trace read in advance for the event
+     * requests, which are only read in advance for requests of more events
+     * than that.
+     */
+    private static final int READ_AHEAD_SIZE = 256;
+
     /**
      * The default confidence for the generic Tmf experiment
      *
@@ -443,15 +450,23 @@ public class TmfExperiment extends TmfTrace implements ITmfPersistentlyIndexable
             return null;
         }
 
+        final ITmfContext context;
         if (!TmfTimestamp.BIG_BANG.equals(request.getRange().getStartTime())
                 && request.getIndex() == 0) {
-            final ITmfContext context = seekEvent(request.getRange().getStartTime());
+            context = seekEvent(request.getRange().getStartTime());
             request.setStartIndex((int) context.getRank());
-            return context;
-
+        } else {
+            context = seekEvent(request.getIndex());
         }
 
-        return seekEvent(request.getIndex());
+        /*
+         * The request reads the events sequentially, let the traces be parsed
+         * in advance and in parallel.
+         */
+        if (context instanceof TmfExperimentContext && getNbChildren() > 1 && request.getNbRequested() > READ_AHEAD_SIZE) {
+            ((TmfExperimentContext) context).startReadAhead(getChildren(), READ_AHEAD_SIZE);
+        }
+        return context;
     }
 
     // ------------------------------------------------------------------------
@@ -459,7 +474,7 @@ public class TmfExperiment extends TmfTrace implements ITmfPersistentlyIndexable
     // ------------------------------------------------------------------------
 
     @Override
-    public synchronized ITmfContext seekEvent(final ITmfLocation location) {
+    public ITmfContext seekEvent(final ITmfLocation location) {
         // Validate the location
         if (location != null && !(location instanceof TmfExperimentLocation)) {
             return null; // Throw an exception?
@@ -592,13 +607,18 @@ public class TmfExperiment extends TmfTrace implements ITmfPersistentlyIndexable
     // ------------------------------------------------------------------------
 
     @Override
-    public synchronized ITmfEvent parseEvent(final ITmfContext context) {
+    public ITmfEvent parseEvent(final ITmfContext context) {
         final ITmfContext tmpContext = seekEvent(context.getLocation());
         return getNext(tmpContext);
     }
 
+    /*
+     * Not synchronized: the experiment context is only used by one thread at a
+     * time, and the traces synchronize their own reading, so the requests on
+     * the experiment do not wait for each other.
+     */
     @Override
-    public synchronized ITmfEvent getNext(ITmfContext context) {
+    public ITmfEvent getNext(ITmfContext context) {
 
         // Make sure that we have something to read from
         if (getNbChildren() == 0) {
@@ -630,8 +650,7 @@ public class TmfExperiment extends TmfTrace implements ITmfPersistentlyIndexable
                         trace, traceContext.getLocation(), traceContext.getRank());
                 experimentContext.setLocation(new TmfExperimentLocation(locationArray));
                 // queue the next event
-                ITmfEvent nextEvent = getChild(trace).getNext(traceContext);
-                experimentContext.setContent(trace, traceContext, nextEvent);
+                experimentContext.readNext(trace, getChild(trace), traceContext);
             }
         }
 
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.trace.indexer;
+
+import java.util.List;
+import java.util.function.BiPredicate;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.trace.location.ITmfLocation;
+
+/**
+ * A trace implementing this interface can be read from several locations at
+ * the same time, so that its index can be built by reading segments of the
+ * trace in parallel.
+ * <p>
+ * This is only used by the checkpoint indexer. The event requests, and so the
+ * analyses, still read the trace sequentially through a single context.
+ *
+ * @since 10.2
+ */
+public interface ITmfParallelIndexable {
+
+    /**
+     * Whether the index of this trace is built by reading its segments in
+     * parallel. When false, the trace is indexed sequentially by the
+     * indexing request, as any other trace.
+     *
+     * @return true if the trace is indexed in parallel
+     */
+    default boolean isParallelIndexable() {
+        return true;
+    }
+
+    /**
+     * Get the locations splitting the trace in segments of about the same
+     * size
+     *
+     * @param nbSegments
+     *            the wanted number of segments
+     * @return the start locations of the segments, in trace order, the first
+     *         one being the location of the first event. There can be less
+     *         locations than the wanted number of segments, or none if the
+     *         trace cannot be split.
+     */
+    List<ITmfLocation> getSegmentLocations(int nbSegments);
+
+    /**
+     * Read the events of a segment of the trace. This can be called for
+     * different segments at the same time, it does not update the trace
+     * attributes nor its index.
+     *
+     * @param start
+     *            the location of the first event of the segment
+     * @param end
+     *            the location of the first event after the segment, or null
+     *            to read until the end of the trace
+     * @param visitor
+     *            called with the location of each event of the segment and
+     *            the event, in trace order. Reading stops when it returns
+     *            false.
+     */
+    void readSegment(ITmfLocation start, @Nullable ITmfLocation end, BiPredicate<ITmfLocation, ITmfEvent> visitor);
+}
@@ -15,6 +15,15 @@
 
 package org.eclipse.tracecompass.tmf.core.trace.indexer.checkpoint;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,9 +37,11 @@ import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
 import org.eclipse.tracecompass.internal.tmf.core.Activator;
 import org.eclipse.tracecompass.internal.tmf.core.Messages;
 import org.eclipse.tracecompass.internal.tmf.core.TmfCoreTracer;
+import org.eclipse.tracecompass.internal.tmf.core.TmfDaemonThreadFactory;
 import org.eclipse.tracecompass.internal.tmf.core.trace.indexer.TmfMemoryIndex;
 import org.eclipse.tracecompass.tmf.core.component.TmfEventProvider;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfLostEvent;
 import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.signal.TmfTraceUpdatedSignal;
@@ -40,6 +51,7 @@ import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTraceKnownSize;
+import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfParallelIndexable;
 import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfTraceIndexer;
 import org.eclipse.tracecompass.tmf.core.trace.location.ITmfLocation;
 import org.eclipse.tracecompass.traceeventlogger.LogUtils;
@@ -66,6 +78,16 @@ public class TmfCheckpointIndexer implements ITmfTraceIndexer {
 
     private static final @NonNull Logger LOGGER = TraceCompassLog.getLogger(TmfCheckpointIndexer.class);
 
+    /** The number of threads reading the segments of the traces */
+    private static final int NB_SEGMENT_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The threads reading the segments of the traces indexed in parallel,
+     * shared by all the indexers so that indexing several traces at once does
+     * not start more threads
+     */
+    private static final ExecutorService SEGMENT_EXECUTOR = createSegmentExecutor();
+
     // ------------------------------------------------------------------------
     // Attributes
     // ------------------------------------------------------------------------
@@ -88,11 +110,20 @@ public class TmfCheckpointIndexer implements ITmfTraceIndexer {
     /**
      * The indexing request
      */
-    private ITmfEventRequest fIndexingRequest = null;
+    private volatile ITmfEventRequest fIndexingRequest = null;
+
+    /** Whether or not the indexer was disposed */
+    private volatile boolean fCancelled = false;
 
     /** Whether or not the index was built once */
     private boolean fBuiltOnce;
 
+    /**
+     * The number of segments being read by the parallel indexing, guarded by
+     * this indexer
+     */
+    private int fNbRunningSegments = 0;
+
     // ------------------------------------------------------------------------
     // Construction
     // ------------------------------------------------------------------------
@@ -137,11 +168,30 @@ public class TmfCheckpointIndexer implements ITmfTraceIndexer {
 
     @Override
     public void dispose() {
-        if ((fIndexingRequest != null) && !fIndexingRequest.isCompleted()) {
-            fIndexingRequest.cancel();
+        fCancelled = true;
+        ITmfEventRequest indexingRequest = fIndexingRequest;
+        if ((indexingRequest != null) && !indexingRequest.isCompleted()) {
+            indexingRequest.cancel();
         }
 
-        fTraceIndex.dispose();
+        synchronized (this) {
+            /*
+             * Wait for the segments being read in parallel, they stop at their
+             * next event, and the ones not started yet will not start
+             */
+            boolean interrupted = false;
+            while (fNbRunningSegments > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            fTraceIndex.dispose();
+        }
     }
 
     // ------------------------------------------------------------------------
@@ -189,9 +239,57 @@ public class TmfCheckpointIndexer implements ITmfTraceIndexer {
         fBuiltOnce = true;
         job.schedule();
 
-        // Build a background request for all the trace data. The index is
-        // updated as we go by readNextEvent().
-        fIndexingRequest = new TmfEventRequest(ITmfEvent.class,
+        if (indexingOffset == 0 && indexingTimeRange.getStartTime().equals(TmfTimestamp.BIG_BANG) &&
+                fTrace instanceof ITmfParallelIndexable && ((ITmfParallelIndexable) fTrace).isParallelIndexable() &&
+                fTraceIndex.isEmpty()) {
+            /*
+             * Index the segments of the trace in parallel, then read the
+             * events after them, if any, with the indexing request.
+             */
+            ITmfParallelIndexable trace = (ITmfParallelIndexable) fTrace;
+            TmfTimeRange requestedRange = indexingTimeRange;
+            Runnable indexing = () -> {
+                if (buildIndexInParallel(trace)) {
+                    long nbEvents = fTraceIndex.getNbEvents();
+                    TmfTimeRange indexRange = fTraceIndex.getTimeRange();
+                    fTrace.broadcast(new TmfTraceUpdatedSignal(this, fTrace, indexRange, nbEvents));
+                    sendIndexingRequest(nbEvents, new TmfTimeRange(indexRange.getStartTime(), TmfTimestamp.BIG_CRUNCH), job);
+                } else if (!fCancelled) {
+                    sendIndexingRequest(0, requestedRange, job);
+                } else {
+                    job.cancel();
+                    fIsIndexing = false;
+                }
+            };
+            if (waitForCompletion) {
+                indexing.run();
+                waitForIndexingRequest();
+            } else {
+                Job indexingJob = new Job("Parallel indexing of " + fTrace.getName()) { //$NON-NLS-1$
+                    @Override
+                    protected IStatus run(IProgressMonitor monitor) {
+                        indexing.run();
+                        return Status.OK_STATUS;
+                    }
+                };
+                indexingJob.setSystem(true);
+                indexingJob.schedule();
+            }
+            return;
+        }
+
+        sendIndexingRequest(indexingOffset, indexingTimeRange, job);
+        if (waitForCompletion) {
+            waitForIndexingRequest();
+        }
+    }
+
+    /**
+     * Send a background request for the trace data from an offset. The index
+     * is updated as we go by readNextEvent().
+     */
+    private void sendIndexingRequest(long indexingOffset, TmfTimeRange indexingTimeRange, TmfIndexingJob job) {
+        ITmfEventRequest request = new TmfEventRequest(ITmfEvent.class,
                 indexingTimeRange, indexingOffset, ITmfEventRequest.ALL_DATA,
                 ITmfEventRequest.ExecutionType.BACKGROUND) {
             @Override
@@ -230,17 +328,183 @@ public class TmfCheckpointIndexer implements ITmfTraceIndexer {
                 }
             }
         };
+        fIndexingRequest = request;
+        fTrace.sendRequest(request);
+    }
 
-        // Submit the request and wait for completion if required
-        fTrace.sendRequest(fIndexingRequest);
-        if (waitForCompletion) {
+    private void waitForIndexingRequest() {
+        ITmfEventRequest request = fIndexingRequest;
+        if (request != null) {
             try {
-                fIndexingRequest.waitForCompletion();
+                request.waitForCompletion();
             } catch (final InterruptedException e) {
             }
         }
     }
 
+    // ------------------------------------------------------------------------
+    // Parallel indexing
+    // ------------------------------------------------------------------------
+
+    /**
+     * Build the index by reading segments of the trace in parallel. A first
+     * pass counts the events of each segment, giving the rank of their first
+     * event. A second pass then takes the checkpoints of each segment at the
+     * ranks that are multiples of the checkpoint interval. The index is only
+     * modified if both passes succeed.
+     *
+     * @param trace
+     *            the trace to index
+     * @return true if the index was built
+     */
+    private boolean buildIndexInParallel(ITmfParallelIndexable trace) {
+        if (NB_SEGMENT_THREADS < 2) {
+            return false;
+        }
+        List<ITmfLocation> locations = trace.getSegmentLocations(NB_SEGMENT_THREADS);
+        if (locations.size() < 2) {
+            return false;
+        }
+        List<Segment> segments = new ArrayList<>();
+        for (int i = 0; i < locations.size(); i++) {
+            segments.add(new Segment(locations.get(i), i + 1 < locations.size() ? locations.get(i + 1) : null));
+        }
+        TmfCoreTracer.traceIndexer("Parallel indexing of " + segments.size() + " segments"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        if (!runInParallel(segments, segment -> countEvents(trace, segment))) {
+            return false;
+        }
+        // The rank of the first event of each segment
+        long nbEvents = 0;
+        ITmfTimestamp startTime = null;
+        ITmfTimestamp endTime = null;
+        for (Segment segment : segments) {
+            segment.fOffset = nbEvents;
+            nbEvents += segment.fNbEvents;
+            startTime = min(startTime, segment.fStartTime);
+            endTime = max(endTime, segment.fEndTime);
+        }
+        if (nbEvents == 0 || startTime == null || endTime == null) {
+            return false;
+        }
+        if (!runInParallel(segments, segment -> takeCheckpoints(trace, segment))) {
+            return false;
+        }
+        synchronized (this) {
+            if (fCancelled) {
+                return false;
+            }
+            for (Segment segment : segments) {
+                for (TmfCheckpoint checkpoint : segment.fCheckpoints) {
+                    fTraceIndex.insert(checkpoint);
+                }
+            }
+            fTraceIndex.setTimeRange(new TmfTimeRange(startTime, endTime));
+            fTraceIndex.setNbEvents(nbEvents);
+        }
+        TmfCoreTracer.traceIndexer("Parallel indexing completed. nbEvents: " + nbEvents + " checkpoints: " + fTraceIndex.size()); //$NON-NLS-1$ //$NON-NLS-2$
+        return true;
+    }
+
+    private boolean runInParallel(List<Segment> segments, Consumer<Segment> task) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (Segment segment : segments) {
+            futures.add(SEGMENT_EXECUTOR.submit(() -> {
+                synchronized (this) {
+                    if (fCancelled) {
+                        return;
+                    }
+                    fNbRunningSegments++;
+                }
+                try {
+                    task.accept(segment);
+                } finally {
+                    synchronized (this) {
+                        fNbRunningSegments--;
+                        notifyAll();
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            fCancelled = true;
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            Activator.logError("Parallel indexing of trace " + fTrace.getName() + " failed", e); //$NON-NLS-1$ //$NON-NLS-2$
+            return false;
+        }
+        return !fCancelled;
+    }
+
+    private void countEvents(ITmfParallelIndexable trace, Segment segment) {
+        trace.readSegment(segment.fStart, segment.fEnd, (location, event) -> {
+            ITmfTimestamp timestamp = event.getTimestamp();
+            ITmfTimestamp endTime = timestamp;
+            if (event instanceof ITmfLostEvent) {
+                endTime = ((ITmfLostEvent) event).getTimeRange().getEndTime();
+            }
+            segment.fStartTime = min(segment.fStartTime, timestamp);
+            segment.fEndTime = max(segment.fEndTime, endTime);
+            segment.fNbEvents++;
+            return !fCancelled;
+        });
+    }
+
+    private void takeCheckpoints(ITmfParallelIndexable trace, Segment segment) {
+        // The segment ranks of the first and last checkpoints of the segment
+        long first = (fCheckpointInterval - segment.fOffset % fCheckpointInterval) % fCheckpointInterval;
+        if (first >= segment.fNbEvents) {
+            return;
+        }
+        long last = first + (segment.fNbEvents - 1 - first) / fCheckpointInterval * fCheckpointInterval;
+        long[] rank = { 0 };
+        trace.readSegment(segment.fStart, segment.fEnd, (location, event) -> {
+            long current = rank[0]++;
+            if (current >= first && (current - first) % fCheckpointInterval == 0) {
+                segment.fCheckpoints.add(new TmfCheckpoint(event.getTimestamp(), location, (segment.fOffset + current) / fCheckpointInterval));
+            }
+            return !fCancelled && current < last;
+        });
+    }
+
+    private static ExecutorService createSegmentExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(NB_SEGMENT_THREADS, NB_SEGMENT_THREADS,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new TmfDaemonThreadFactory("TmfSegmentIndexer")); //$NON-NLS-1$
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ITmfTimestamp min(ITmfTimestamp current, ITmfTimestamp timestamp) {
+        return (current == null || (timestamp != null && timestamp.compareTo(current) < 0)) ? timestamp : current;
+    }
+
+    private static ITmfTimestamp max(ITmfTimestamp current, ITmfTimestamp timestamp) {
+        return (current == null || (timestamp != null && timestamp.compareTo(current) > 0)) ? timestamp : current;
+    }
+
+    /**
+     * A segment of the trace, read by one thread
+     */
+    private static final class Segment {
+        private final ITmfLocation fStart;
+        private final ITmfLocation fEnd;
+        private long fNbEvents = 0;
+        private long fOffset = 0;
+        private ITmfTimestamp fStartTime = null;
+        private ITmfTimestamp fEndTime = null;
+        private final List<TmfCheckpoint> fCheckpoints = new ArrayList<>();
+
+        private Segment(ITmfLocation start, ITmfLocation end) {
+            fStart = start;
+            fEnd = end;
+        }
+    }
+
     /**
      * Notify the interested parties that the trace time range has changed
      *
@@ -18,8 +18,10 @@ package org.eclipse.tracecompass.tmf.core.trace.text;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.BiPredicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -33,6 +35,7 @@ import org.eclipse.tracecompass.internal.tmf.core.Activator;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
 import org.eclipse.tracecompass.tmf.core.io.BufferedRandomAccessFile;
+import org.eclipse.tracecompass.tmf.core.io.FileLineReader;
 import org.eclipse.tracecompass.tmf.core.signal.TmfSignalHandler;
 import org.eclipse.tracecompass.tmf.core.signal.TmfTraceRangeUpdatedSignal;
 import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
@@ -41,6 +44,7 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 import org.eclipse.tracecompass.tmf.core.trace.TraceValidationStatus;
+import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfParallelIndexable;
 import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfPersistentlyIndexable;
 import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfTraceIndexer;
 import org.eclipse.tracecompass.tmf.core.trace.indexer.TmfBTreeTraceIndexer;
@@ -54,11 +58,24 @@ import org.eclipse.tracecompass.tmf.core.trace.location.TmfLongLocation;
  * regular expressions. Each line that matches the first line pattern indicates
  * the start of a new event. The subsequent lines can contain additional
  * information that is added to the current event.
+ * <p>
+ * The file is read with a {@link FileLineReader}, which decodes all the lines
+ * as UTF-8. Before version 10.2, the lines that spanned the end of the
+ * internal buffer of the {@link BufferedRandomAccessFile} were decoded as
+ * ISO-8859-1, so the non-ASCII characters of these lines are now read
+ * differently.
+ * <p>
+ * The checkpoint index of the trace can be built by parsing segments of the
+ * file in parallel, while the events of the requests are still parsed one
+ * after the other. This is disabled by default, as {@link #parseFirstLine} and
+ * {@link #parseNextLine} are then called by several threads at the same time.
+ * A trace whose parsing does not share any unprotected state can enable it by
+ * overriding {@link #isParallelIndexable()}.
  *
  * @param <T>
  *            TmfEvent class returned by this trace
  */
-public abstract class TextTrace<T extends TextTraceEvent> extends TmfTrace implements ITmfPersistentlyIndexable {
+public abstract class TextTrace<T extends TextTraceEvent> extends TmfTrace implements ITmfPersistentlyIndexable, ITmfParallelIndexable {
 
     private static final TmfLongLocation NULL_LOCATION = new TmfLongLocation(-1L);
     private static final int MAX_LINES = 100;
@@ -67,9 +84,20 @@ public abstract class TextTrace<T extends TextTraceEvent> extends TmfTrace imple
     /** The default separator used for multi-line fields */
     protected static final String SEPARATOR = " | "; //$NON-NLS-1$
 
-    /** The text file */
+    /**
+     * The text file
+     *
+     * @deprecated The trace reads the file with its own
+     *             {@link FileLineReader}, and no longer opens this file.
+     *             Subclasses that still read it must open it themselves, in
+     *             {@link #initTrace}. It is closed when the trace is
+     *             disposed.
+     */
+    @Deprecated
     protected BufferedRandomAccessFile fFile;
 
+    private FileLineReader fReader;
+
     /**
      * Constructor
      */
@@ -137,7 +165,7 @@ public abstract class TextTrace<T extends TextTraceEvent> extends TmfTrace imple
     private void initFile() throws TmfTraceException {
         closeFile();
         try {
-            fFile = new BufferedRandomAccessFile(getPath(), "r"); //$NON-NLS-1$
+            fReader = new FileLineReader(getPath());
         } catch (IOException e) {
             throw new TmfTraceException(e.getMessage(), e);
         }
@@ -147,9 +175,6 @@ public abstract class TextTrace<T extends TextTraceEvent> extends TmfTrace imple
     public synchronized void dispose() {
         super.dispose();
         closeFile();
-    }
-
-    private void closeFile() {
         if (fFile != null) {
             try {
                 fFile.close();
@@ -160,29 +185,50 @@ public abstract class TextTrace<T extends TextTraceEvent> extends TmfTrace imple
         }
     }
 
+    private void closeFile() {
+        if (fReader != null) {
+            try {
+                fReader.close();
+            } catch (IOException e) {
+            } finally {
+                fReader = null;
+            }
+        }
+    }
+
     @Override
     public synchronized TextTraceContext seekEvent(ITmfLocation location) {
+        if (fReader == null) {
+            return new TextTraceContext(NULL_LOCATION, ITmfContext.UNKNOWN_RANK);
+        }
+        return seek(fReader, location);
+    }
+
+    /**
+     * Seek the first event at or after a location, reading the given file
+     */
+    private TextTraceContext seek(FileLineReader file, ITmfLocation location) {
         TextTraceContext context = new TextTraceContext(NULL_LOCATION, ITmfContext.UNKNOWN_RANK);
-        if (NULL_LOCATION.equals(location) || fFile == null) {
+        if (NULL_LOCATION.equals(location)) {
             return context;
         }
         try {
             if (location == null) {
-                fFile.seek(0);
+                file.seek(0);
             } else if (location.getLocationInfo() instanceof Long) {
-                fFile.seek((Long) location.getLocationInfo());
+                file.seek((Long) location.getLocationInfo());
             }
-            long rawPos = fFile.getFilePointer();
-            String line = fFile.getNextLine();
-            while (line != null) {
-                line = preProcessLine(line);
-                Matcher matcher = getFirstLinePattern().matcher(line);
-                if (matcher.matches()) {
-                    setupContext(context, rawPos, line, matcher);
+            Matcher matcher = getFirstLinePattern().matcher(""); //$NON-NLS-1$
+            long rawPos = file.getFilePointer();
+            CharSequence next = file.readLine();
+            while (next != null) {
+                String line = preProcessLine(next.toString());
+                if (matcher.reset(line).matches()) {
+                    setupContext(context, file, rawPos, line, matcher);
                     return context;
                 }
-                rawPos = fFile.getFilePointer();
-                line = fFile.getNextLine();
+                rawPos = file.getFilePointer();
+                next = file.readLine();
             }
             return context;
         } catch (IOException e) {
@@ -191,23 +237,23 @@ public abstract class TextTrace<T extends TextTraceEvent> extends TmfTrace imple
         }
     }
 
-    private void setupContext(TextTraceContext context, long rawPos, String line, Matcher matcher) throws IOException {
+    private static void setupContext(TextTraceContext context, FileLineReader file, long rawPos, String line, Matcher matcher) {
         context.setLocation(new TmfLongLocation(rawPos));
         context.firstLineMatcher = matcher;
         context.firstLine = line;
-        context.nextLineLocation = fFile.getFilePointer();
+        context.nextLineLocation = file.getFilePointer();
     }
 
     @Override
     public synchronized TextTraceContext seekEvent(double ratio) {
-        if (fFile == null) {
+        if (fReader == null) {
             return new TextTraceContext(NULL_LOCATION, ITmfContext.UNKNOWN_RANK);
         }
         try {
-            long pos = Math.round(ratio * fFile.length());
+            long pos = Math.round(ratio * fReader.length());
             while (pos > 0) {
-                fFile.seek(pos - 1);
-                if (fFile.read() == '\n') {
+                fReader.seek(pos - 1);
+                if (fReader.read() == '\n') {
                     break;
                 }
                 pos--;
@@ -224,11 +270,12 @@ public abstract class TextTrace<T extends TextTraceEvent> extends TmfTrace imple
 
     @Override
     public double getLocationRatio(ITmfLocation location) {
-        if (fFile == null) {
+        FileLineReader reader = fReader;
+        if (reader == null) {
             return 0;
         }
         try {
-            long length = fFile.length();
+            long length = reader.length();
             if (length == 0) {
                 return 0;
             }
@@ -274,9 +321,16 @@ public abstract class TextTrace<T extends TextTraceEvent> extends TmfTrace imple
      * @return the next event or null
      */
     protected synchronized @Nullable T parse(TextTraceContext tmfContext) {
-        if (fFile == null) {
+        if (fReader == null) {
             return null;
         }
+        return parse(tmfContext, fReader);
+    }
+
+    /**
+     * Parse the next event, reading the given file. The context is advanced.
+     */
+    private @Nullable T parse(TextTraceContext tmfContext, FileLineReader file) {
         TextTraceContext context = tmfContext;
         ITmfLocation location = context.getLocation();
         if (location == null || !(location.getLocationInfo() instanceof Long) || NULL_LOCATION.equals(location)) {
@@ -286,21 +340,22 @@ public abstract class TextTrace<T extends TextTraceEvent> extends TmfTrace imple
         T event = parseFirstLine(context.firstLineMatcher, context.firstLine);
 
         try {
-            if (fFile.getFilePointer() != context.nextLineLocation) {
-                fFile.seek(context.nextLineLocation);
+            if (file.getFilePointer() != context.nextLineLocation) {
+                file.seek(context.nextLineLocation);
             }
-            long rawPos = fFile.getFilePointer();
-            String line = fFile.getNextLine();
-            while (line != null) {
-                line = preProcessLine(line);
-                Matcher matcher = getFirstLinePattern().matcher(line);
-                if (matcher.matches()) {
-                    setupContext(context, rawPos, line, matcher);
+            /* The matcher is only allocated once per event, and kept by the context */
+            Matcher matcher = getFirstLinePattern().matcher(""); //$NON-NLS-1$
+            long rawPos = file.getFilePointer();
+            CharSequence next = file.readLine();
+            while (next != null) {
+                String line = preProcessLine(next.toString());
+                if (matcher.reset(line).matches()) {
+                    setupContext(context, file, rawPos, line, matcher);
                     return event;
                 }
                 parseNextLine(event, line);
-                rawPos = fFile.getFilePointer();
-                line = fFile.getNextLine();
+                rawPos = file.getFilePointer();
+                next = file.readLine();
             }
         } catch (IOException e) {
             Activator.logError("Error reading file: " + getPath(), e); //$NON-NLS-1$
@@ -310,6 +365,88 @@ public abstract class TextTrace<T extends TextTraceEvent> extends TmfTrace imple
         return event;
     }
 
+    /**
+     * Text traces are indexed sequentially unless the concrete trace states
+     * that its parsing methods can be called by several threads at the same
+     * time.
+     */
+    @Override
+    public boolean isParallelIndexable() {
+        return false;
+    }
+
+    /**
+     * Split the file in segments of about the same size. Each segment starts
+     * at the first line of its first event, so that no event is in two
+     * segments.
+     */
+    @Override
+    public List<ITmfLocation> getSegmentLocations(int nbSegments) {
+        List<ITmfLocation> locations = new ArrayList<>();
+        String path = getPath();
+        if (path == null) {
+            return locations;
+        }
+        try (FileLineReader file = new FileLineReader(path)) {
+            long length = file.length();
+            long previous = -1;
+            for (int i = 0; i < nbSegments; i++) {
+                long pos = getNextLineStart(file, length * i / nbSegments);
+                ITmfLocation location = seek(file, new TmfLongLocation(pos)).getLocation();
+                if (!NULL_LOCATION.equals(location) && location != null && (Long) location.getLocationInfo() > previous) {
+                    locations.add(location);
+                    previous = (Long) location.getLocationInfo();
+                }
+            }
+        } catch (IOException e) {
+            Activator.logError("Error reading file: " + path, e); //$NON-NLS-1$
+            locations.clear();
+        }
+        return locations;
+    }
+
+    /**
+     * Read a segment with its own file, without locking the trace. The
+     * matchers are created by the reading thread, so segments can be parsed at
+     * the same time.
+     */
+    @Override
+    public void readSegment(ITmfLocation start, @Nullable ITmfLocation end, BiPredicate<ITmfLocation, ITmfEvent> visitor) {
+        String path = getPath();
+        if (path == null) {
+            return;
+        }
+        long endPos = (end != null && end.getLocationInfo() instanceof Long) ? (Long) end.getLocationInfo() : Long.MAX_VALUE;
+        try (FileLineReader file = new FileLineReader(path)) {
+            TextTraceContext context = seek(file, start);
+            while (true) {
+                ITmfLocation location = context.getLocation();
+                if (location == null || NULL_LOCATION.equals(location) || (Long) location.getLocationInfo() >= endPos) {
+                    return;
+                }
+                T event = parse(context, file);
+                if (event == null || !visitor.test(location, event)) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            Activator.logError("Error reading file: " + path, e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Get the position of the first line starting at or after a position
+     */
+    private static long getNextLineStart(FileLineReader file, long pos) throws IOException {
+        if (pos <= 0) {
+            return 0;
+        }
+        /* Skip the end of the line containing the previous character */
+        file.seek(pos - 1);
+        file.readLine();
+        return file.getFilePointer();
+    }
+
     /**
      * Pre-processes the input line. The default implementation returns the
      * input line.
@@ -442,13 +579,13 @@ public abstract class TextTrace<T extends TextTraceEvent> extends TmfTrace imple
     @Override
     public synchronized ITmfTimestamp readEnd() {
         try {
-            Long pos = fFile.length() - 1;
+            Long pos = fReader.length() - 1;
             /* Outer loop to find the first line of a matcher group. */
             while (pos > 0) {
                 /* Inner loop to find line beginning */
                 while (pos > 0) {
-                    fFile.seek(pos - 1);
-                    if (fFile.read() == '\n') {
+                    fReader.seek(pos - 1);
+                    if (fReader.read() == '\n') {
                         break;
                     }
                     pos--;
@@ -353,6 +353,10 @@ public class Messages extends NLS {
     public static String ExportToTextJob_Export_trace_to;
     public static String ExportToTextJob_Unable_to_export_trace;
 
+    public static String FieldIndexPreferencePage_Description;
+    public static String FieldIndexPreferencePage_Enabled;
+    public static String FieldIndexPreferencePage_Aspects;
+
     public static String PerspectivesPreferencePage_SwitchToPerspectiveGroupText;
     public static String PerspectivesPreferencePage_SwitchToPerspectiveAlways;
     public static String PerspectivesPreferencePage_SwitchToPerspectiveNever;
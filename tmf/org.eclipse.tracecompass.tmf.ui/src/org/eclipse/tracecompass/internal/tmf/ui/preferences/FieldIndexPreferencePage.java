@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.ui.preferences;
+
+import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.StringFieldEditor;
+import org.eclipse.tracecompass.internal.tmf.core.filter.TmfEventFieldIndex;
+import org.eclipse.tracecompass.internal.tmf.ui.Activator;
+import org.eclipse.tracecompass.internal.tmf.ui.Messages;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPreferencePage;
+
+/**
+ * Preference page for the index of the event aspect values used by the
+ * searches and filters of the events table.
+ */
+public class FieldIndexPreferencePage extends FieldEditorPreferencePage implements IWorkbenchPreferencePage {
+
+    /**
+     * Constructor
+     */
+    public FieldIndexPreferencePage() {
+        super(FieldEditorPreferencePage.GRID);
+
+        // The preferences are read by TMF core
+        setPreferenceStore(Activator.getDefault().getCorePreferenceStore());
+        setDescription(Messages.FieldIndexPreferencePage_Description);
+    }
+
+    @Override
+    public void init(IWorkbench workbench) {
+        // Do nothing
+    }
+
+    @Override
+    protected void createFieldEditors() {
+        addField(new BooleanFieldEditor(TmfEventFieldIndex.ENABLED_PREFERENCE,
+                Messages.FieldIndexPreferencePage_Enabled, getFieldEditorParent()));
+        addField(new StringFieldEditor(TmfEventFieldIndex.ASPECTS_PREFERENCE,
+                Messages.FieldIndexPreferencePage_Aspects, getFieldEditorParent()));
+    }
+}